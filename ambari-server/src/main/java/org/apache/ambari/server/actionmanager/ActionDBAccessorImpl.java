@@ -414,7 +414,8 @@ public class ActionDBAccessorImpl implements ActionDBAccessor {
         hostRoleCommandEntity.setOutputLog(hostRoleCommand.getOutputLog());
         hostRoleCommandEntity.setErrorLog(hostRoleCommand.getErrorLog());
 
-        ExecutionCommandEntity executionCommandEntity = hostRoleCommand.constructExecutionCommandEntity();
+        ExecutionCommandEntity executionCommandEntity = hostRoleCommand.constructExecutionCommandEntity(
+            configuration.isExecutionCommandCompressionEnabled());
         executionCommandEntity.setHostRoleCommand(hostRoleCommandEntity);
 
         executionCommandEntity.setTaskId(hostRoleCommandEntity.getTaskId());
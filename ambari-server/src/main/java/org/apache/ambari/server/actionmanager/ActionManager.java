@@ -21,8 +21,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.ambari.server.AmbariException;
@@ -167,6 +169,14 @@ public class ActionManager {
     }
 
     db.updateHostRoleStates(reportsToProcess);
+
+    Set<Long> requestIds = new HashSet<>();
+    for (CommandReport report : reportsToProcess) {
+      requestIds.add(commands.get(report.getTaskId()).getRequestId());
+    }
+    for (Long requestId : requestIds) {
+      scheduler.awake(requestId);
+    }
   }
 
   /**
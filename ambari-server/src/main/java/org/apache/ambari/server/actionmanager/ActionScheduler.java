@@ -55,6 +55,7 @@ import org.apache.ambari.server.events.publishers.JPAEventPublisher;
 import org.apache.ambari.server.metadata.RoleCommandOrder;
 import org.apache.ambari.server.metadata.RoleCommandOrderProvider;
 import org.apache.ambari.server.metadata.RoleCommandPair;
+import org.apache.ambari.server.metrics.system.impl.ServerComponentsMetricsSource;
 import org.apache.ambari.server.orm.dao.HostRoleCommandDAO;
 import org.apache.ambari.server.orm.entities.HostRoleCommandEntity;
 import org.apache.ambari.server.orm.entities.RequestEntity;
@@ -75,6 +76,8 @@ import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Function;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -96,12 +99,26 @@ import com.google.inject.persist.UnitOfWork;
  * This class encapsulates the action scheduler thread.
  * Action schedule frequently looks at action database and determines if
  * there is an action that can be scheduled.
+ * <p/>
+ * If {@link Configuration#ACTION_SCHEDULER_EVENT_DRIVEN} is set, the scheduler
+ * only re-evaluates the requests which were reported as affected by an event
+ * (a task report or an expired command timeout) or which have not been
+ * evaluated before, and evaluates all stages in progress only when awoken by
+ * {@link #awake()} or periodically as a safety net.
  */
 @Singleton
 class ActionScheduler implements Runnable {
 
   private static final Logger LOG = LoggerFactory.getLogger(ActionScheduler.class);
 
+  private static final String DISPATCH_LATENCY_METRIC = "action.scheduler.dispatch.latency";
+  private static final String EVALUATED_STAGES_METRIC = "action.scheduler.stages.evaluated";
+
+  /**
+   * The number of buckets of the {@link TimeoutWheel}.
+   */
+  private static final int TIMEOUT_WHEEL_SIZE = 512;
+
   public static final String FAILED_TASK_ABORT_REASONING =
     "Server considered task failed and automatically aborted it";
 
@@ -185,6 +202,63 @@ class ActionScheduler implements Runnable {
 
   private AtomicBoolean taskStatusLoaded = new AtomicBoolean();
 
+  /**
+   * Whether the scheduler is driven by events, see
+   * {@link Configuration#ACTION_SCHEDULER_EVENT_DRIVEN}.
+   */
+  private volatile boolean eventDriven = false;
+
+  /**
+   * The time {@link #awake()} was first called since the last scheduler
+   * iteration, guarded by {@link #wakeupSyncObject}.
+   */
+  private long awakeRequestTime = 0;
+
+  /**
+   * The requests reported as affected since the last scheduler iteration,
+   * mapped to the time they were first reported. Guarded by
+   * {@link #wakeupSyncObject}.
+   */
+  private final Map<Long, Long> affectedRequests = new HashMap<>();
+
+  /**
+   * The requests affected in the current scheduler iteration, mapped to the
+   * time their commands became ready. Only accessed by the scheduler thread.
+   */
+  private final Map<Long, Long> readyRequests = new HashMap<>();
+
+  /**
+   * The start of the current scheduler iteration.
+   */
+  private long iterationStartTime;
+
+  /**
+   * Command timeouts of the requests in progress; only used when the
+   * scheduler is event driven and only accessed by the scheduler thread.
+   */
+  private TimeoutWheel timeoutWheel;
+
+  /**
+   * The interval of the full sweeps of an event driven scheduler, and the time
+   * of the next one. Only accessed by the scheduler thread.
+   */
+  private long fullSweepInterval;
+  private long nextFullSweepTime;
+
+  /**
+   * The time from commands becoming ready to be scheduled (their request was
+   * submitted, or a task report or timeout affected it) until they are sent
+   * to the agents.
+   */
+  private final Timer dispatchLatency =
+      ServerComponentsMetricsSource.getRegistry().timer(DISPATCH_LATENCY_METRIC);
+
+  /**
+   * The number of stages evaluated by the scheduler.
+   */
+  private final Counter evaluatedStages =
+      ServerComponentsMetricsSource.getRegistry().counter(EVALUATED_STAGES_METRIC);
+
   //Cache for clusterHostinfo, key - stageId-requestId
   private Cache<String, Map<String, Set<String>>> clusterHostInfoCache;
   private Cache<String, Map<String, String>> commandParamsStageCache;
@@ -211,6 +285,7 @@ class ActionScheduler implements Runnable {
     this.jpaPublisher.register(this);
 
     serverActionExecutor = new ServerActionExecutor(db, sleepTime);
+    serverActionExecutor.setTaskUpdateListener(this::awake);
 
     initializeCaches();
   }
@@ -255,6 +330,7 @@ class ActionScheduler implements Runnable {
     this.agentCommandsPublisher = agentCommandsPublisher;
 
     serverActionExecutor = new ServerActionExecutor(db, sleepTime);
+    serverActionExecutor.setTaskUpdateListener(this::awake);
     initializeCaches();
   }
 
@@ -327,38 +403,137 @@ class ActionScheduler implements Runnable {
    */
   public void awake() {
     synchronized (wakeupSyncObject) {
+      if (!activeAwakeRequest) {
+        awakeRequestTime = System.currentTimeMillis();
+      }
       activeAwakeRequest = true;
       wakeupSyncObject.notify();
     }
   }
 
+  /**
+   * Should be called from another thread when the tasks of a request have
+   * been updated (for example, on task reports). An event driven scheduler
+   * re-evaluates the request ASAP; otherwise the request is re-evaluated on
+   * the next wakeup. The method is guaranteed to return quickly.
+   *
+   * @param requestId  the id of the affected request
+   */
+  public void awake(long requestId) {
+    synchronized (wakeupSyncObject) {
+      if (!affectedRequests.containsKey(requestId)) {
+        affectedRequests.put(requestId, System.currentTimeMillis());
+      }
+      if (eventDriven) {
+        wakeupSyncObject.notify();
+      }
+    }
+  }
+
   @Override
   public void run() {
+    initializeScheduling();
+
     while (shouldRun) {
       try {
-        synchronized (wakeupSyncObject) {
-          if (!activeAwakeRequest) {
-            wakeupSyncObject.wait(sleepTime);
-          }
-          activeAwakeRequest = false;
-        }
-
-        doWork();
-
+        runIteration();
       } catch (InterruptedException ex) {
         LOG.warn("Scheduler thread is interrupted going to stop", ex);
         shouldRun = false;
       } catch (Exception ex) {
         LOG.warn("Exception received", ex);
         requestsInProgress.clear();
+        nextFullSweepTime = 0;
       } catch (Throwable t) {
         LOG.warn("ERROR", t);
         requestsInProgress.clear();
+        nextFullSweepTime = 0;
       }
     }
   }
 
+  /**
+   * Reads whether the scheduler is event driven from the configuration. Called
+   * by the scheduler thread before the first iteration.
+   */
+  void initializeScheduling() {
+    eventDriven = configuration.isActionSchedulerEventDriven();
+    fullSweepInterval = configuration.getActionSchedulerFullSweepInterval();
+    nextFullSweepTime = 0;
+    if (eventDriven) {
+      LOG.info("Action scheduler is event driven, evaluating all stages in progress every {} ms",
+          fullSweepInterval);
+      timeoutWheel = new TimeoutWheel(sleepTime, TIMEOUT_WHEEL_SIZE, System.currentTimeMillis());
+    }
+  }
+
+  /**
+   * Runs a single scheduler iteration: waits until the scheduler is awoken or
+   * the sleep time has passed, then evaluates either all stages in progress or,
+   * if the scheduler is event driven, only those of the affected requests.
+   *
+   * @throws AmbariException
+   * @throws InterruptedException  if the scheduler thread was interrupted
+   */
+  void runIteration() throws AmbariException, InterruptedException {
+    try {
+      boolean fullSweep;
+      synchronized (wakeupSyncObject) {
+        if (!activeAwakeRequest && (!eventDriven || affectedRequests.isEmpty())) {
+          wakeupSyncObject.wait(sleepTime);
+        }
+        fullSweep = activeAwakeRequest || !eventDriven;
+        activeAwakeRequest = false;
+
+        iterationStartTime = fullSweep && awakeRequestTime > 0 ? awakeRequestTime : System.currentTimeMillis();
+        awakeRequestTime = 0;
+        readyRequests.putAll(affectedRequests);
+        affectedRequests.clear();
+      }
+
+      if (eventDriven) {
+        long now = System.currentTimeMillis();
+        for (Long requestId : timeoutWheel.advance(now)) {
+          if (!readyRequests.containsKey(requestId)) {
+            readyRequests.put(requestId, now);
+          }
+        }
+
+        if (now >= nextFullSweepTime) {
+          fullSweep = true;
+          nextFullSweepTime = now + fullSweepInterval;
+        }
+      }
+
+      if (fullSweep) {
+        doWork();
+      } else if (!readyRequests.isEmpty()) {
+        doWork(readyRequests.keySet());
+      }
+    } finally {
+      readyRequests.clear();
+    }
+  }
+
+  /**
+   * Evaluates all stages in progress.
+   *
+   * @throws AmbariException
+   */
   public void doWork() throws AmbariException {
+    doWork(null);
+  }
+
+  /**
+   * Evaluates the stages in progress of the given requests, and of the
+   * requests which have not been evaluated before.
+   *
+   * @param affectedRequestIds  the ids of the requests to re-evaluate, or
+   *                            {@code null} to evaluate all stages in progress
+   *
+   * @throws AmbariException
+   */
+  private void doWork(Set<Long> affectedRequestIds) throws AmbariException {
     try {
       unitOfWork.begin();
 
@@ -424,6 +599,7 @@ class ActionScheduler implements Runnable {
           exclusiveRequestIsGoing = true;
         }
 
+        boolean newRequest = false;
         if (runningRequestIds.contains(requestId)) {
           // We don't want to process different stages from the same request in parallel
           LOG.debug("==> We don't want to process different stages from the same request in parallel");
@@ -433,9 +609,23 @@ class ActionScheduler implements Runnable {
           if (!requestsInProgress.contains(requestId)) {
             requestsInProgress.add(requestId);
             db.startRequest(requestId);
+            newRequest = true;
           }
         }
 
+        if (affectedRequestIds != null && !newRequest && !affectedRequestIds.contains(requestId)) {
+          // nothing has been reported for the request since it was evaluated last
+          LOG.debug("==> Request {} is not affected, skipping its stage", requestId);
+          if (!configuration.getParallelStageExecution()) {
+            return;
+          }
+          if (exclusiveRequestIsGoing) {
+            break;
+          }
+          continue;
+        }
+        evaluatedStages.inc();
+
         // Commands that will be scheduled in current scheduler wakeup
         List<ExecutionCommand> commandsToSchedule = new ArrayList<>();
         Multimap<Long, AgentCommand> commandsToEnqueue = ArrayListMultimap.create();
@@ -544,6 +734,7 @@ class ActionScheduler implements Runnable {
         if (!commandsToEnqueue.isEmpty()) {
           agentCommandsPublisher.sendAgentCommand(commandsToEnqueue);
         }
+        updateDispatchLatency(requestId, commandsToUpdate.size());
         LOG.debug("==> Finished.");
 
         if (!configuration.getParallelStageExecution()) { // If disabled
@@ -565,6 +756,28 @@ class ActionScheduler implements Runnable {
     }
   }
 
+  /**
+   * Records the time the given number of commands of a request took from
+   * becoming ready to being sent to the agents.
+   *
+   * @param requestId  the request id
+   * @param commands   the number of commands sent
+   */
+  private void updateDispatchLatency(long requestId, int commands) {
+    Long readyTime = readyRequests.get(requestId);
+    if (readyTime == null) {
+      readyTime = iterationStartTime;
+    }
+    if (readyTime <= 0) {
+      return;
+    }
+
+    long latency = Math.max(0, System.currentTimeMillis() - readyTime);
+    for (int i = 0; i < commands; i++) {
+      dispatchLatency.update(latency, TimeUnit.MILLISECONDS);
+    }
+  }
+
   /**
    * publish event to load {@link TaskStatusListener#activeTasksMap} {@link TaskStatusListener#activeStageMap}
    * and {@link TaskStatusListener#activeRequestMap} for all running request once during server startup.
@@ -866,6 +1079,7 @@ class ActionScheduler implements Runnable {
 
             // reschedule command
             commandsToSchedule.add(c);
+            scheduleTimeout(s, now + commandTimeout);
             LOG.trace("===> commandsToSchedule(reschedule)={}", commandsToSchedule.size());
           }
         } else if (status.equals(HostRoleStatus.PENDING)) {
@@ -878,8 +1092,11 @@ class ActionScheduler implements Runnable {
 
             //Need to schedule first time
             commandsToSchedule.add(c);
+            scheduleTimeout(s, now + commandTimeout);
             LOG.trace("===>commandsToSchedule(first_time)={}", commandsToSchedule.size());
           }
+        } else if (status == HostRoleStatus.QUEUED || status == HostRoleStatus.IN_PROGRESS) {
+          scheduleTimeout(s, s.getLastAttemptTime(host, roleStr) + commandTimeout);
         }
 
         updateRoleStats(status, roleStats.get(roleStr));
@@ -893,6 +1110,19 @@ class ActionScheduler implements Runnable {
     return roleStats;
   }
 
+  /**
+   * Makes sure the stage is re-evaluated at the given time if the scheduler is
+   * event driven.
+   *
+   * @param stage     the stage
+   * @param deadline  the time a command of the stage times out
+   */
+  private void scheduleTimeout(Stage stage, long deadline) {
+    if (null != timeoutWheel) {
+      timeoutWheel.schedule(stage.getRequestId(), deadline);
+    }
+  }
+
   /**
    * Returns true if all command dependencies are already finished (not IN_PROGRESS states).
    * @param command
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.actionmanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timer wheel holding the earliest command timeout of each request in
+ * progress, so that the {@link ActionScheduler} can re-evaluate a request
+ * when one of its commands may have timed out without checking the timeouts
+ * of all commands on every wakeup.
+ * <p/>
+ * Deadlines are hashed into buckets by tick; advancing the wheel only looks at
+ * the buckets of the ticks which passed since the last advance. This class is
+ * not thread safe, it is only used by the scheduler thread.
+ */
+class TimeoutWheel {
+
+  private final long tickMillis;
+
+  private final List<Set<Long>> buckets;
+
+  /**
+   * The earliest deadline of each scheduled request.
+   */
+  private final Map<Long, Long> deadlines = new HashMap<>();
+
+  /**
+   * The bucket holding each scheduled request.
+   */
+  private final Map<Long, Set<Long>> requestBuckets = new HashMap<>();
+
+  /**
+   * The tick the wheel has been advanced to.
+   */
+  private long currentTick;
+
+  /**
+   * Constructor.
+   *
+   * @param tickMillis  the resolution of the wheel
+   * @param size        the number of buckets
+   * @param now         the current time
+   */
+  TimeoutWheel(long tickMillis, int size, long now) {
+    this.tickMillis = Math.max(1, tickMillis);
+    buckets = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      buckets.add(new HashSet<>());
+    }
+    currentTick = now / this.tickMillis;
+  }
+
+  /**
+   * Schedules a timeout of the given request, unless an earlier one is
+   * scheduled already.
+   *
+   * @param requestId  the request id
+   * @param deadline   the time at which the request should be re-evaluated
+   */
+  void schedule(long requestId, long deadline) {
+    Long existing = deadlines.get(requestId);
+    if (existing != null) {
+      if (existing <= deadline) {
+        return;
+      }
+      requestBuckets.remove(requestId).remove(requestId);
+    }
+
+    // deadlines which already passed expire on the next advance
+    Set<Long> bucket = buckets.get(getIndex(Math.max(deadline / tickMillis, currentTick)));
+    bucket.add(requestId);
+    deadlines.put(requestId, deadline);
+    requestBuckets.put(requestId, bucket);
+  }
+
+  /**
+   * Advances the wheel to the given time.
+   *
+   * @param now  the current time
+   *
+   * @return the ids of the requests whose deadline has passed
+   */
+  Set<Long> advance(long now) {
+    Set<Long> expired = new HashSet<>();
+    long tick = now / tickMillis;
+
+    // the bucket of the current tick is visited again on the next advance
+    long ticks = Math.min(tick - currentTick + 1, buckets.size());
+    for (long i = 0; i < ticks; i++) {
+      Iterator<Long> iterator = buckets.get(getIndex(currentTick + i)).iterator();
+      while (iterator.hasNext()) {
+        Long requestId = iterator.next();
+        if (deadlines.get(requestId) <= now) {
+          iterator.remove();
+          deadlines.remove(requestId);
+          requestBuckets.remove(requestId);
+          expired.add(requestId);
+        }
+      }
+    }
+    currentTick = Math.max(currentTick, tick);
+    return expired;
+  }
+
+  /**
+   * @return the number of scheduled requests
+   */
+  int size() {
+    return deadlines.size();
+  }
+
+  private int getIndex(long tick) {
+    return (int) (tick % buckets.size());
+  }
+}
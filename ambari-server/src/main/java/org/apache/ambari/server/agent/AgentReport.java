@@ -33,6 +33,24 @@ public abstract class AgentReport<R> {
     return hostName;
   }
 
+  protected R getReport() {
+    return report;
+  }
+
+  /**
+   * Merges a report received later from the same host into this one, if the
+   * later report supersedes this report. Is used to drop outdated reports
+   * which are still waiting for processing.
+   *
+   * @param later
+   *          the report received right after this one from the same host
+   * @return the report to process instead of both reports, or {@code null} if
+   *         the reports can not be coalesced and both should be processed
+   */
+  public AgentReport<R> coalesce(AgentReport<?> later) {
+    return null;
+  }
+
   public final void process() throws AmbariException {
     process(report, hostName);
   }
@@ -1,4 +1,4 @@
-/**
+/*
  * Licensed to the Apache Software Foundation (ASF) under one
  * or more contributor license agreements.  See the NOTICE file
  * distributed with this work for additional information
@@ -15,37 +15,80 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+
 package org.apache.ambari.server.agent;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.configuration.Configuration;
+import org.apache.ambari.server.metrics.system.impl.ServerComponentsMetricsSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.persist.UnitOfWork;
 
+/**
+ * Processes agent reports asynchronously. Reports of a host are always
+ * processed in order by the same worker. Every worker drains its queue in
+ * micro-batches: reports of a host which are superseded by the next report of
+ * the same host are coalesced (see {@link AgentReport#coalesce(AgentReport)}),
+ * and a whole batch is processed within a single unit of work.
+ */
 @Singleton
 public class AgentReportsProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(AgentReportsProcessor.class);
 
+  private static final String BACKLOG_METRIC = "agent.reports.backlog";
+  private static final String LAG_METRIC = "agent.reports.processing.lag";
+  private static final String COALESCED_METRIC = "agent.reports.coalesced";
+
   private final int poolSize;
+  private final int batchSize;
 
   private final List<ExecutorService> executors;
+  private final List<ConcurrentLinkedQueue<QueuedReport>> queues;
+  private final List<AtomicBoolean> draining;
+
+  /**
+   * The number of received reports waiting for processing.
+   */
+  private final AtomicInteger backlog = new AtomicInteger();
+
+  /**
+   * Time between report receiving and start of its processing.
+   */
+  private final Timer processingLag;
 
   public void addAgentReport(AgentReport agentReport) {
     int hash = agentReport.getHostName().hashCode();
     hash = hash == Integer.MIN_VALUE ? 0 : hash;
     int executorNumber = Math.abs(hash) % poolSize;
-    executors.get(executorNumber).execute(new AgentReportProcessingTask(agentReport));
+    queues.get(executorNumber).add(new QueuedReport(agentReport));
+    backlog.incrementAndGet();
+    scheduleDrain(executorNumber);
+  }
+
+  /**
+   * @return the number of received reports waiting for processing
+   */
+  public int getBacklogSize() {
+    return backlog.get();
   }
 
   @Inject
@@ -56,31 +99,110 @@ public class AgentReportsProcessor {
 
     ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("agent-report-processor-%d").build();
     poolSize = configuration.getAgentsReportThreadPoolSize();
+    batchSize = Math.max(1, configuration.getAgentsReportProcessingBatchSize());
     executors = new ArrayList<>();
+    queues = new ArrayList<>();
+    draining = new ArrayList<>();
     for (int i = 0; i < poolSize; i++) {
       executors.add(Executors.newSingleThreadExecutor(threadFactory));
+      queues.add(new ConcurrentLinkedQueue<>());
+      draining.add(new AtomicBoolean(false));
+    }
+
+    ServerComponentsMetricsSource.registerGauge(BACKLOG_METRIC, (Gauge<Integer>) this::getBacklogSize);
+    processingLag = ServerComponentsMetricsSource.getRegistry().timer(LAG_METRIC);
+  }
+
+  private void scheduleDrain(int executorNumber) {
+    if (draining.get(executorNumber).compareAndSet(false, true)) {
+      executors.get(executorNumber).execute(new AgentReportsProcessingTask(executorNumber));
+    }
+  }
+
+  /**
+   * Coalesces consecutive reports of the same host. Only reports which are
+   * adjacent within the host's own sequence are merged, so the processing order
+   * of the host's reports is kept.
+   *
+   * @param batch
+   *          reports in the order they were received
+   * @return reports to process
+   */
+  static List<AgentReport> coalesce(List<AgentReport> batch) {
+    List<AgentReport> result = new ArrayList<>(batch.size());
+    Map<String, Integer> lastHostReport = new HashMap<>();
+    for (AgentReport report : batch) {
+      Integer lastIndex = lastHostReport.get(report.getHostName());
+      AgentReport coalesced = lastIndex == null ? null : result.get(lastIndex).coalesce(report);
+      if (coalesced != null) {
+        result.set(lastIndex, coalesced);
+      } else {
+        lastHostReport.put(report.getHostName(), result.size());
+        result.add(report);
+      }
+    }
+    return result;
+  }
+
+  private static class QueuedReport {
+    private final AgentReport report;
+    private final long receivedTime = System.nanoTime();
+
+    private QueuedReport(AgentReport report) {
+      this.report = report;
     }
   }
 
-  private class AgentReportProcessingTask implements Runnable {
+  private class AgentReportsProcessingTask implements Runnable {
 
-    private final AgentReport agentReport;
+    private final int executorNumber;
 
-    public AgentReportProcessingTask(AgentReport agentReport) {
-      this.agentReport = agentReport;
+    public AgentReportsProcessingTask(int executorNumber) {
+      this.executorNumber = executorNumber;
     }
 
     @Override
     public void run() {
+      ConcurrentLinkedQueue<QueuedReport> queue = queues.get(executorNumber);
+      try {
+        List<AgentReport> batch = new ArrayList<>(batchSize);
+        QueuedReport queuedReport;
+        while (batch.size() < batchSize && (queuedReport = queue.poll()) != null) {
+          processingLag.update(System.nanoTime() - queuedReport.receivedTime, TimeUnit.NANOSECONDS);
+          batch.add(queuedReport.report);
+        }
+        process(batch);
+      } finally {
+        draining.get(executorNumber).set(false);
+        // reports may have been added after the last poll
+        if (!queue.isEmpty()) {
+          scheduleDrain(executorNumber);
+        }
+      }
+    }
+
+    private void process(List<AgentReport> batch) {
+      if (batch.isEmpty()) {
+        return;
+      }
+      List<AgentReport> reports = coalesce(batch);
+      if (reports.size() < batch.size()) {
+        ServerComponentsMetricsSource.getRegistry().counter(COALESCED_METRIC).inc(batch.size() - reports.size());
+      }
       try {
         unitOfWork.begin();
-        try {
-          agentReport.process();
-        } catch (AmbariException e) {
-          LOG.error("Error processing agent reports", e);
+        for (AgentReport agentReport : reports) {
+          try {
+            agentReport.process();
+          } catch (AmbariException e) {
+            LOG.error("Error processing agent reports", e);
+          } catch (RuntimeException e) {
+            LOG.error("Unexpected error processing agent reports of host {}", agentReport.getHostName(), e);
+          }
         }
       } finally {
         unitOfWork.end();
+        backlog.addAndGet(-batch.size());
       }
     }
   }
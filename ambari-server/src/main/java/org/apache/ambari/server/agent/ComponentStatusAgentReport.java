@@ -17,7 +17,11 @@
  */
 package org.apache.ambari.server.agent;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ambari.server.AmbariException;
 
@@ -29,6 +33,28 @@ public class ComponentStatusAgentReport extends AgentReport<List<ComponentStatus
     this.hh = hh;
   }
 
+  /**
+   * Merges statuses of both reports, the later status of a component supersedes the earlier one.
+   */
+  @Override
+  public AgentReport<List<ComponentStatus>> coalesce(AgentReport<?> later) {
+    if (!(later instanceof ComponentStatusAgentReport)) {
+      return null;
+    }
+    Map<List<Object>, ComponentStatus> statuses = new LinkedHashMap<>();
+    for (ComponentStatus status : getReport()) {
+      statuses.put(getStatusKey(status), status);
+    }
+    for (ComponentStatus status : ((ComponentStatusAgentReport) later).getReport()) {
+      statuses.put(getStatusKey(status), status);
+    }
+    return new ComponentStatusAgentReport(hh, getHostName(), new ArrayList<>(statuses.values()));
+  }
+
+  private List<Object> getStatusKey(ComponentStatus status) {
+    return Arrays.asList(status.getClusterId(), status.getServiceName(), status.getComponentName());
+  }
+
   @Override
   protected void process(List<ComponentStatus> report, String hostName) throws AmbariException {
     hh.handleComponentReportStatus(report, hostName);
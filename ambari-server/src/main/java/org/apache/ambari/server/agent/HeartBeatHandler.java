@@ -217,6 +217,7 @@ public class HeartBeatHandler {
       hostObject.setState(HostState.INIT);
       return createRegisterCommand();
     }
+    heartbeatMonitor.onHeartbeat(hostObject.getHostId(), now);
 
     heartbeatProcessor.addHeartbeat(heartbeat);
 
@@ -240,9 +241,11 @@ public class HeartBeatHandler {
 
   public void handleHostReportStatus(HostStatusReport hostStatusReport, String hostname) throws AmbariException {
     Host host = clusterFsm.getHost(hostname);
+    long now = System.currentTimeMillis();
     try {
-      host.handleEvent(new HostHealthyHeartbeatEvent(hostname, System.currentTimeMillis(),
+      host.handleEvent(new HostHealthyHeartbeatEvent(hostname, now,
           hostStatusReport.getAgentEnv(), hostStatusReport.getMounts()));
+      heartbeatMonitor.onHeartbeat(host.getHostId(), now);
     } catch (InvalidStateTransitionException ex) {
       LOG.warn("Asking agent to re-register due to " + ex.getMessage(), ex);
       host.setState(HostState.INIT);
@@ -40,6 +40,7 @@ import org.apache.ambari.server.actionmanager.ActionManager;
 import org.apache.ambari.server.api.services.AmbariMetaInfo;
 import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.AmbariManagementController;
+import org.apache.ambari.server.events.HostRegisteredEvent;
 import org.apache.ambari.server.events.MessageNotDelivered;
 import org.apache.ambari.server.events.publishers.AmbariEventPublisher;
 import org.apache.ambari.server.state.Cluster;
@@ -67,6 +68,12 @@ import com.google.inject.Injector;
 
 /**
  * Monitors the node state and heartbeats.
+ * <p/>
+ * Hosts are indexed by the time at which their heartbeat would be considered
+ * lost, and by the time at which they stop waiting for status updates after a
+ * registration. These deadlines are moved forward on each heartbeat and
+ * registration, so that every wakeup only looks at the hosts whose deadline
+ * has passed.
  */
 public class HeartbeatMonitor implements Runnable {
   private static final Logger LOG = LoggerFactory.getLogger(HeartbeatMonitor.class);
@@ -82,6 +89,24 @@ public class HeartbeatMonitor implements Runnable {
   private final AgentRequests agentRequests;
   private final AmbariEventPublisher ambariEventPublisher;
 
+  /**
+   * The time after which each host's heartbeat is lost unless a newer one is
+   * received.
+   */
+  private final HostDeadlineQueue heartbeatDeadlines = new HostDeadlineQueue();
+
+  /**
+   * The time after which each registered host is reset to
+   * {@link HostState#INIT} if it is still waiting for status updates.
+   */
+  private final HostDeadlineQueue statusUpdateDeadlines = new HostDeadlineQueue();
+
+  /**
+   * Whether the deadlines of the hosts known when the monitor started have
+   * been scheduled.
+   */
+  private boolean initialized = false;
+
   public HeartbeatMonitor(Clusters clusters, ActionManager am,
                           int threadWakeupInterval, Injector injector) {
     this.clusters = clusters;
@@ -136,40 +161,111 @@ public class HeartbeatMonitor implements Runnable {
     }
   }
 
-  //Go through all the nodes, check for last heartbeat or any waiting state
+  /**
+   * Records a heartbeat received from the given host, moving the time at
+   * which its heartbeat is considered lost.
+   *
+   * @param hostId         the host id
+   * @param heartbeatTime  the time the heartbeat was received
+   */
+  public void onHeartbeat(Long hostId, long heartbeatTime) {
+    heartbeatDeadlines.schedule(hostId, heartbeatTime + 2 * threadWakeupInterval);
+  }
+
+  /**
+   * Schedules the checks of a host which has just registered.
+   *
+   * @param event  the registration event
+   */
+  @Subscribe
+  public void onHostRegistered(HostRegisteredEvent event) {
+    try {
+      scheduleHost(clusters.getHostById(event.getHostId()));
+    } catch (AmbariException e) {
+      LOG.warn("Unable to schedule the heartbeat check of host {}", event.getHostName(), e);
+    }
+  }
+
+  //Go through the nodes whose deadline passed, check for last heartbeat or any waiting state
   //If heartbeat is lost, update node clusters state, purge the action queue
   //notify action manager for node failure.
   private void doWork() throws InvalidStateTransitionException, AmbariException {
-    List<Host> allHosts = clusters.getHosts();
+    if (!initialized) {
+      for (Host hostObj : clusters.getHosts()) {
+        scheduleHost(hostObj);
+      }
+      initialized = true;
+    }
+
     long now = System.currentTimeMillis();
-    for (Host hostObj : allHosts) {
-      if (hostObj.getState() == HostState.HEARTBEAT_LOST) {
+    for (Long hostId : heartbeatDeadlines.pollExpired(now)) {
+      Host hostObj = getHost(hostId);
+      if (hostObj == null || hostObj.getState() == HostState.HEARTBEAT_LOST) {
         //do not check if host already known be lost
         continue;
       }
-      Long hostId = hostObj.getHostId();
-      HostState hostState = hostObj.getState();
 
-      long lastHeartbeat = 0;
-      try {
-        lastHeartbeat = clusters.getHostById(hostId).getLastHeartbeatTime();
-      } catch (AmbariException e) {
-        LOG.warn("Exception in getting host object; Is it fatal?", e);
-      }
+      // heartbeats may have been recorded without moving the deadline
+      long lastHeartbeat = hostObj.getLastHeartbeatTime();
       if (lastHeartbeat + 2 * threadWakeupInterval < now) {
-        handleHeartbeatLost(hostId);
-      }
-      if (hostState == HostState.WAITING_FOR_HOST_STATUS_UPDATES) {
-        long timeSpentInState = hostObj.getTimeInState();
-        if (timeSpentInState + 5 * threadWakeupInterval < now) {
-          //Go back to init, the agent will be asked to register again in the next heartbeat
-          LOG.warn("timeSpentInState + 5*threadWakeupInterval < now, Go back to init");
-          hostObj.setState(HostState.INIT);
+        try {
+          handleHeartbeatLost(hostId);
+        } catch (AmbariException | InvalidStateTransitionException e) {
+          LOG.warn("Unable to handle the lost heartbeat of host {}", hostObj.getHostName(), e);
         }
+      } else {
+        onHeartbeat(hostId, lastHeartbeat);
+      }
+    }
+
+    for (Long hostId : statusUpdateDeadlines.pollExpired(now)) {
+      Host hostObj = getHost(hostId);
+      if (hostObj == null || hostObj.getState() != HostState.WAITING_FOR_HOST_STATUS_UPDATES) {
+        continue;
+      }
+
+      long timeSpentInState = hostObj.getTimeInState();
+      if (timeSpentInState + 5 * threadWakeupInterval < now) {
+        //Go back to init, the agent will be asked to register again in the next heartbeat
+        LOG.warn("timeSpentInState + 5*threadWakeupInterval < now, Go back to init");
+        hostObj.setState(HostState.INIT);
+      } else {
+        statusUpdateDeadlines.schedule(hostId, timeSpentInState + 5 * threadWakeupInterval);
       }
     }
   }
 
+  /**
+   * Schedules the heartbeat check of the given host and, if it is waiting for
+   * status updates, the check of the time it has been waiting.
+   */
+  private void scheduleHost(Host hostObj) {
+    HostState hostState = hostObj.getState();
+    if (hostState == HostState.HEARTBEAT_LOST) {
+      return;
+    }
+
+    Long hostId = hostObj.getHostId();
+    onHeartbeat(hostId, hostObj.getLastHeartbeatTime());
+    if (hostState == HostState.WAITING_FOR_HOST_STATUS_UPDATES) {
+      statusUpdateDeadlines.schedule(hostId, hostObj.getTimeInState() + 5 * threadWakeupInterval);
+    }
+  }
+
+  /**
+   * @return the host with the given id or {@code null} if it has been removed
+   */
+  private Host getHost(Long hostId) {
+    try {
+      return clusters.getHostById(hostId);
+    } catch (AmbariException e) {
+      LOG.debug("Host {} is no longer monitored", hostId, e);
+      heartbeatDeadlines.remove(hostId);
+      statusUpdateDeadlines.remove(hostId);
+      return null;
+    }
+  }
+
   /**
    * @param hostname
    * @return list of commands to get status of service components on a concrete host
@@ -322,6 +418,7 @@ public class HeartbeatMonitor implements Runnable {
   }
 
   private void handleHeartbeatLost(Long hostId) throws AmbariException, InvalidStateTransitionException {
+    heartbeatDeadlines.remove(hostId);
     Host hostObj = clusters.getHostById(hostId);
     String host = hostObj.getHostName();
     LOG.warn("Heartbeat lost from host " + host);
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.agent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Holds one deadline per host, ordered by deadline, so that the
+ * {@link HeartbeatMonitor} only has to look at the hosts whose deadline has
+ * passed instead of checking every host on every wakeup.
+ * <p/>
+ * Rescheduling a host replaces its previous deadline. All operations are
+ * synchronized; heartbeats reschedule hosts from the agent threads while the
+ * monitor thread polls the expired ones.
+ */
+class HostDeadlineQueue {
+
+  /**
+   * The scheduled deadline of each host.
+   */
+  private final Map<Long, Long> deadlines = new HashMap<>();
+
+  /**
+   * The scheduled hosts, ordered by deadline and host id.
+   */
+  private final TreeSet<HostDeadline> queue = new TreeSet<>();
+
+  /**
+   * Schedules the given host, replacing its current deadline if any.
+   *
+   * @param hostId    the host id
+   * @param deadline  the time at which the host should be checked
+   */
+  synchronized void schedule(long hostId, long deadline) {
+    Long existing = deadlines.put(hostId, deadline);
+    if (existing != null) {
+      queue.remove(new HostDeadline(existing, hostId));
+    }
+    queue.add(new HostDeadline(deadline, hostId));
+  }
+
+  /**
+   * Removes the given host from the queue.
+   *
+   * @param hostId  the host id
+   */
+  synchronized void remove(long hostId) {
+    Long existing = deadlines.remove(hostId);
+    if (existing != null) {
+      queue.remove(new HostDeadline(existing, hostId));
+    }
+  }
+
+  /**
+   * Removes and returns the hosts whose deadline is before the given time.
+   *
+   * @param now  the current time
+   *
+   * @return the ids of the expired hosts, in deadline order
+   */
+  synchronized List<Long> pollExpired(long now) {
+    List<Long> expired = new ArrayList<>();
+    Iterator<HostDeadline> iterator = queue.iterator();
+    while (iterator.hasNext()) {
+      HostDeadline next = iterator.next();
+      if (next.deadline >= now) {
+        break;
+      }
+      iterator.remove();
+      deadlines.remove(next.hostId);
+      expired.add(next.hostId);
+    }
+    return expired;
+  }
+
+  /**
+   * @return the number of scheduled hosts
+   */
+  synchronized int size() {
+    return deadlines.size();
+  }
+
+  private static final class HostDeadline implements Comparable<HostDeadline> {
+    private final long deadline;
+    private final long hostId;
+
+    private HostDeadline(long deadline, long hostId) {
+      this.deadline = deadline;
+      this.hostId = hostId;
+    }
+
+    @Override
+    public int compareTo(HostDeadline other) {
+      int result = Long.compare(deadline, other.deadline);
+      return result != 0 ? result : Long.compare(hostId, other.hostId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof HostDeadline)) {
+        return false;
+      }
+      HostDeadline other = (HostDeadline) o;
+      return deadline == other.deadline && hostId == other.hostId;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Long.hashCode(deadline) + Long.hashCode(hostId);
+    }
+  }
+}
@@ -28,6 +28,14 @@ public class HostStatusAgentReport extends AgentReport<HostStatusReport> {
     this.hh = hh;
   }
 
+  /**
+   * Host status report contains the whole actual status, so the later one supersedes this report.
+   */
+  @Override
+  public AgentReport<HostStatusReport> coalesce(AgentReport<?> later) {
+    return later instanceof HostStatusAgentReport ? (HostStatusAgentReport) later : null;
+  }
+
   @Override
   protected void process(HostStatusReport report, String hostName) throws AmbariException {
     hh.handleHostReportStatus(report, hostName);
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.apache.ambari.server.AmbariException;
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.events.AgentConfigsUpdateEvent;
 import org.apache.ambari.server.events.publishers.AmbariEventPublisher;
 import org.apache.ambari.server.security.encryption.Encryptor;
@@ -53,6 +54,14 @@ public class AgentConfigsHolder extends AgentHostDataHolder<AgentConfigsUpdateEv
   @Inject
   private ThreadPools threadPools;
 
+  @Inject
+  private Configuration configuration;
+
+  /**
+   * Lazily created Merkle-style hasher, is used if structural hashing is enabled.
+   */
+  private volatile ConfigsStructuralHasher structuralHasher;
+
   @Inject
   public AgentConfigsHolder(AmbariEventPublisher ambariEventPublisher, @Named("AgentConfigEncryptor") Encryptor<AgentConfigsUpdateEvent> encryptor) {
     this.encryptor = encryptor;
@@ -101,11 +110,29 @@ public class AgentConfigsHolder extends AgentHostDataHolder<AgentConfigsUpdateEv
 
   @Override
   protected void regenerateDataIdentifiers(AgentConfigsUpdateEvent data) {
-    data.setHash(getHash(data, encryptor.getEncryptionKey()));
+    data.setHash(getConfigsHash(data, encryptor.getEncryptionKey()));
     encryptor.encryptSensitiveData(data);
     data.setTimestamp(System.currentTimeMillis());
   }
 
+  /**
+   * Calculates hash of configs using per config type digests if structural
+   * hashing is enabled, otherwise falls back to hashing of the whole event JSON.
+   */
+  String getConfigsHash(AgentConfigsUpdateEvent data, String salt) {
+    if (configuration == null || !configuration.isAgentConfigsStructuralHashEnabled()) {
+      return getHash(data, salt);
+    }
+    if (structuralHasher == null) {
+      synchronized (this) {
+        if (structuralHasher == null) {
+          structuralHasher = new ConfigsStructuralHasher(configuration.getAgentConfigsHashCacheSize());
+        }
+      }
+    }
+    return structuralHasher.getHash(data, salt);
+  }
+
   @Override
   protected boolean isIdentifierValid(AgentConfigsUpdateEvent data) {
     return StringUtils.isNotEmpty(data.getHash()) && data.getTimestamp() != null;
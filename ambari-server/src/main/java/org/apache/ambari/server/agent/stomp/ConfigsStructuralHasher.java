@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ambari.server.agent.stomp;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.ambari.server.AmbariRuntimeException;
+import org.apache.ambari.server.agent.stomp.dto.ClusterConfigs;
+import org.apache.ambari.server.events.AgentConfigsUpdateEvent;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Calculates the hash of {@link AgentConfigsUpdateEvent} Merkle-style instead of
+ * serializing the whole event to JSON. Each config type section (properties or
+ * attributes of a single type) is digested separately, the section digests are
+ * combined into a per cluster digest and the cluster digests are combined into
+ * the resulting hash.
+ * <p/>
+ * Section digests are cached by section content. Hosts of a cluster mostly
+ * share the same desired configs, so a config change re-hashes only the
+ * modified config types once, all other sections and hosts are served from the
+ * cache.
+ */
+public class ConfigsStructuralHasher {
+
+  private static final String DIGEST_ALGORITHM = "SHA-512";
+
+  private static final byte NULL_MARKER = 0;
+  private static final byte STRING_MARKER = 1;
+  private static final byte MAP_MARKER = 2;
+  private static final byte CONFIGURATIONS_MARKER = 3;
+  private static final byte ATTRIBUTES_MARKER = 4;
+
+  /**
+   * Section digests keyed by immutable copies of the section content.
+   */
+  private final Cache<Map<String, ?>, byte[]> sectionDigests;
+
+  public ConfigsStructuralHasher(int cacheSize) {
+    sectionDigests = CacheBuilder.newBuilder().maximumSize(cacheSize).recordStats().build();
+  }
+
+  /**
+   * Calculates the hash of the event. The hash and timestamp of the event are
+   * not taken into account.
+   *
+   * @param data
+   *          the event to calculate hash for
+   * @param salt
+   *          the salt mixed into the resulting hash
+   * @return hex encoded hash
+   */
+  public String getHash(AgentConfigsUpdateEvent data, String salt) {
+    MessageDigest md = newDigest();
+    md.update(salt.getBytes(StandardCharsets.UTF_8));
+    update(md, data.getHostId() == null ? null : data.getHostId().toString());
+
+    SortedMap<String, ClusterConfigs> clustersConfigs = data.getClustersConfigs();
+    if (clustersConfigs == null) {
+      md.update(NULL_MARKER);
+    } else {
+      md.update(MAP_MARKER);
+      for (Map.Entry<String, ClusterConfigs> cluster : clustersConfigs.entrySet()) {
+        update(md, cluster.getKey());
+        md.update(getClusterDigest(cluster.getValue()));
+      }
+    }
+    return toHex(md.digest());
+  }
+
+  /**
+   * @return the number of section digests that were calculated instead of
+   *         being taken from the cache
+   */
+  public long getSectionDigestMissCount() {
+    return sectionDigests.stats().missCount();
+  }
+
+  /**
+   * @return the number of section digests served from the cache
+   */
+  public long getSectionDigestHitCount() {
+    return sectionDigests.stats().hitCount();
+  }
+
+  private byte[] getClusterDigest(ClusterConfigs clusterConfigs) {
+    MessageDigest md = newDigest();
+    if (clusterConfigs == null) {
+      md.update(NULL_MARKER);
+      return md.digest();
+    }
+    md.update(CONFIGURATIONS_MARKER);
+    updateWithSections(md, clusterConfigs.getConfigurations());
+    md.update(ATTRIBUTES_MARKER);
+    updateWithSections(md, clusterConfigs.getConfigurationAttributes());
+    return md.digest();
+  }
+
+  private void updateWithSections(MessageDigest md, SortedMap<String, ? extends Map<String, ?>> sections) {
+    if (sections == null) {
+      md.update(NULL_MARKER);
+      return;
+    }
+    md.update(MAP_MARKER);
+    for (Map.Entry<String, ? extends Map<String, ?>> section : sections.entrySet()) {
+      update(md, section.getKey());
+      md.update(getSectionDigest(section.getValue()));
+    }
+  }
+
+  private byte[] getSectionDigest(Map<String, ?> section) {
+    if (section == null) {
+      return new byte[]{NULL_MARKER};
+    }
+    byte[] digest = sectionDigests.getIfPresent(section);
+    if (digest == null) {
+      MessageDigest md = newDigest();
+      update(md, section);
+      digest = md.digest();
+      // the section may be changed after hashing (e.g. sensitive data encryption), so cache a copy
+      sectionDigests.put(copy(section), digest);
+    }
+    return digest;
+  }
+
+  private void update(MessageDigest md, Object value) {
+    if (value == null) {
+      md.update(NULL_MARKER);
+    } else if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      if (!(map instanceof SortedMap)) {
+        map = new TreeMap<>(map);
+      }
+      md.update(MAP_MARKER);
+      updateWithLength(md, map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        update(md, entry.getKey());
+        update(md, entry.getValue());
+      }
+    } else {
+      byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+      md.update(STRING_MARKER);
+      updateWithLength(md, bytes.length);
+      md.update(bytes);
+    }
+  }
+
+  private void updateWithLength(MessageDigest md, int length) {
+    md.update((byte) (length >>> 24));
+    md.update((byte) (length >>> 16));
+    md.update((byte) (length >>> 8));
+    md.update((byte) length);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, ?> copy(Map<String, ?> section) {
+    SortedMap<String, Object> copy = new TreeMap<>();
+    for (Map.Entry<String, ?> entry : section.entrySet()) {
+      Object value = entry.getValue();
+      copy.put(entry.getKey(), value instanceof Map ? copy((Map<String, ?>) value) : value);
+    }
+    return Collections.unmodifiableSortedMap(copy);
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new AmbariRuntimeException("Unable to get " + DIGEST_ALGORITHM + " message digest", e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder sb = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+    }
+    return sb.toString();
+  }
+}
@@ -18,15 +18,51 @@
 
 package org.apache.ambari.server.api.predicate;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
 
+import org.apache.ambari.server.controller.predicate.AndPredicate;
+import org.apache.ambari.server.controller.predicate.ArrayPredicate;
+import org.apache.ambari.server.controller.predicate.ComparisonPredicate;
+import org.apache.ambari.server.controller.predicate.EqualsPredicate;
+import org.apache.ambari.server.controller.predicate.FilterPredicate;
+import org.apache.ambari.server.controller.predicate.NotPredicate;
+import org.apache.ambari.server.controller.predicate.OrPredicate;
+import org.apache.ambari.server.controller.predicate.UnaryPredicate;
 import org.apache.ambari.server.controller.spi.Predicate;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * Compiler which takes a query expression as input and produces a predicate instance as output.
+ * <p/>
+ * Compiled predicates are immutable, so they are cached by expression: the
+ * same UI filters are sent over and over again. The operands of an AND are
+ * ordered so that the cheapest and most selective predicates are evaluated
+ * first.
  */
 public class PredicateCompiler {
 
+  /**
+   * The maximum number of cached predicates.
+   */
+  static final int CACHE_SIZE = 1000;
+
+  /**
+   * Compiled predicates keyed by expression and ignored properties.
+   */
+  private static final Cache<List<Object>, Predicate> CACHE =
+      CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+  /**
+   * Orders predicates by the relative cost of evaluating them.
+   */
+  private static final Comparator<Predicate> COST_COMPARATOR = Comparator.comparingInt(PredicateCompiler::getCost);
+
   /**
    * Lexer instance used to translate expressions into stream of tokens.
    */
@@ -46,7 +82,7 @@ public class PredicateCompiler {
    * @throws InvalidQueryException if unable to compile the expression
    */
   public Predicate compile(String exp) throws InvalidQueryException {
-    return parser.parse(lexer.tokens(exp));
+    return compile(exp, null);
   }
 
   /**
@@ -59,6 +95,87 @@ public class PredicateCompiler {
    * @throws InvalidQueryException if unable to compile the expression
    */
   public Predicate compile(String exp, Collection<String> ignoredProperties) throws InvalidQueryException {
-    return parser.parse(lexer.tokens(exp, ignoredProperties));
+    List<Object> key = Arrays.asList(exp,
+        ignoredProperties == null ? null : new TreeSet<>(ignoredProperties));
+
+    Predicate predicate = CACHE.getIfPresent(key);
+    if (predicate == null) {
+      predicate = optimize(ignoredProperties == null ?
+          parser.parse(lexer.tokens(exp)) :
+          parser.parse(lexer.tokens(exp, ignoredProperties)));
+
+      // an empty expression compiles to null, which can not be cached
+      if (predicate != null) {
+        CACHE.put(key, predicate);
+      }
+    }
+    return predicate;
+  }
+
+  /**
+   * Reorder the operands of all AND predicates in the given predicate by
+   * their cost, so that evaluation short-circuits as early as possible. The
+   * operands of OR predicates are left in place since their order determines
+   * the order of the property maps taken from the predicate.
+   *
+   * @param predicate  the predicate; may be {@code null}
+   *
+   * @return an equivalent predicate
+   */
+  static Predicate optimize(Predicate predicate) {
+    if (predicate instanceof ArrayPredicate) {
+      ArrayPredicate arrayPredicate = (ArrayPredicate) predicate;
+      Predicate[] predicates = arrayPredicate.getPredicates().clone();
+      for (int i = 0; i < predicates.length; i++) {
+        predicates[i] = optimize(predicates[i]);
+      }
+      if (predicate instanceof AndPredicate) {
+        // stable, so predicates of the same cost keep the order of the query
+        Arrays.sort(predicates, COST_COMPARATOR);
+        return new AndPredicate(predicates);
+      }
+      if (predicate instanceof OrPredicate) {
+        return new OrPredicate(predicates);
+      }
+      return arrayPredicate.create(predicates);
+    }
+    if (predicate instanceof NotPredicate) {
+      return new NotPredicate(optimize(((NotPredicate) predicate).getPredicate()));
+    }
+    return predicate;
+  }
+
+  /**
+   * Clear the compiled predicates.
+   */
+  static void clearCache() {
+    CACHE.invalidateAll();
+  }
+
+  /**
+   * @return the relative cost of evaluating the given predicate, where
+   *         equality checks are cheap and usually the most selective
+   */
+  private static int getCost(Predicate predicate) {
+    if (predicate instanceof EqualsPredicate) {
+      return 0;
+    }
+    if (predicate instanceof FilterPredicate) {
+      return 3;
+    }
+    if (predicate instanceof ComparisonPredicate) {
+      return 1;
+    }
+    if (predicate instanceof UnaryPredicate) {
+      return 1 + getCost(((UnaryPredicate) predicate).getPredicate());
+    }
+    if (predicate instanceof ArrayPredicate) {
+      int cost = 0;
+      for (Predicate child : ((ArrayPredicate) predicate).getPredicates()) {
+        cost += getCost(child);
+      }
+      return 2 + cost;
+    }
+    return 3;
   }
 }
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.api.query;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.ambari.server.controller.predicate.AlwaysPredicate;
+import org.apache.ambari.server.controller.predicate.ArrayPredicate;
+import org.apache.ambari.server.controller.predicate.CategoryPredicate;
+import org.apache.ambari.server.controller.predicate.ComparisonPredicate;
+import org.apache.ambari.server.controller.predicate.PredicateVisitor;
+import org.apache.ambari.server.controller.predicate.UnaryPredicate;
+import org.apache.ambari.server.controller.spi.PageRequest;
+import org.apache.ambari.server.controller.spi.Predicate;
+import org.apache.ambari.server.controller.spi.Request;
+import org.apache.ambari.server.controller.spi.SortRequest;
+import org.apache.ambari.server.controller.utilities.PredicateHelper;
+
+/**
+ * The {@link JpaPushdownVisitor} determines whether a request can be fully
+ * translated into a JPA query by a {@link JpaPredicateVisitor} and a
+ * {@link JpaSortBuilder}, so that a resource provider can let the database
+ * filter, sort and page the results instead of the cluster controller.
+ * <p/>
+ * {@link JpaPredicateVisitor} silently skips predicates it can not convert,
+ * which is fine when the resulting resources are evaluated again in memory,
+ * but not when the database returns a single page of them. A predicate can
+ * therefore only be pushed down if it consists of comparisons of supported
+ * properties combined with {@code AND}/{@code OR}.
+ * <p/>
+ * Scope properties (such as a cluster name) are resolved by the resource
+ * provider itself and restricted separately in the query. They are only
+ * allowed as equality comparisons which are {@code AND}-ed with the rest of
+ * the predicate, so dropping them from the JPA predicate does not widen it.
+ */
+public class JpaPushdownVisitor implements PredicateVisitor {
+
+  /**
+   * The properties which can be converted into JPA attributes.
+   */
+  private final Set<String> m_supportedPropertyIds;
+
+  /**
+   * The properties which are restricted by the resource provider itself.
+   */
+  private final Set<String> m_scopePropertyIds;
+
+  /**
+   * The operators of the enclosing array predicates.
+   */
+  private final ArrayDeque<String> m_operators = new ArrayDeque<>();
+
+  private boolean m_supported = true;
+
+  /**
+   * Constructor.
+   *
+   * @param supportedPropertyIds
+   *          the properties which can be converted into JPA attributes (not
+   *          {@code null}).
+   * @param scopePropertyIds
+   *          the properties which are restricted by the resource provider
+   *          itself (not {@code null}).
+   */
+  public JpaPushdownVisitor(Set<String> supportedPropertyIds, Set<String> scopePropertyIds) {
+    m_supportedPropertyIds = supportedPropertyIds;
+    m_scopePropertyIds = scopePropertyIds;
+  }
+
+  /**
+   * Gets whether the request can be handled by the database: the predicate
+   * and sort request only reference supported properties and the page request
+   * (if any) starts at an offset from the beginning.
+   *
+   * @param request
+   *          the request (not {@code null}).
+   * @param predicate
+   *          the predicate (may be {@code null}).
+   * @param supportedPropertyIds
+   *          the properties which can be converted into JPA attributes.
+   * @param scopePropertyIds
+   *          the properties which are restricted by the resource provider
+   *          itself.
+   * @return {@code true} if the database can filter, sort and page the
+   *         results.
+   */
+  public static boolean canPushDown(Request request, Predicate predicate,
+      Set<String> supportedPropertyIds, Set<String> scopePropertyIds) {
+    PageRequest pageRequest = request.getPageRequest();
+    if (null != pageRequest) {
+      switch (pageRequest.getStartingPoint()) {
+        case Beginning:
+        case OffsetStart:
+          break;
+        default:
+          return false;
+      }
+    }
+
+    SortRequest sortRequest = request.getSortRequest();
+    if (null != sortRequest && null != sortRequest.getPropertyIds()
+        && !supportedPropertyIds.containsAll(sortRequest.getPropertyIds())) {
+      return false;
+    }
+
+    JpaPushdownVisitor visitor = new JpaPushdownVisitor(supportedPropertyIds, scopePropertyIds);
+    PredicateHelper.visit(predicate, visitor);
+    return visitor.isSupported();
+  }
+
+  /**
+   * Convenience overload for providers without scope properties.
+   *
+   * @see #canPushDown(Request, Predicate, Set, Set)
+   */
+  public static boolean canPushDown(Request request, Predicate predicate,
+      Set<String> supportedPropertyIds) {
+    return canPushDown(request, predicate, supportedPropertyIds, Collections.emptySet());
+  }
+
+  /**
+   * @return {@code true} if every visited predicate can be converted into JPA.
+   */
+  public boolean isSupported() {
+    return m_supported;
+  }
+
+  @Override
+  public void acceptComparisonPredicate(ComparisonPredicate predicate) {
+    String propertyId = predicate.getPropertyId();
+    String operator = predicate.getOperator();
+
+    if (null == predicate.getValue()) {
+      m_supported = false;
+    } else if (m_scopePropertyIds.contains(propertyId)) {
+      String parent = m_operators.peekLast();
+      m_supported &= "=".equals(operator) && (null == parent || "AND".equals(parent));
+    } else if (m_supportedPropertyIds.contains(propertyId)) {
+      m_supported &= "=".equals(operator) || "<".equals(operator) || "<=".equals(operator)
+          || ">".equals(operator) || ">=".equals(operator);
+    } else {
+      m_supported = false;
+    }
+  }
+
+  @Override
+  public void acceptArrayPredicate(ArrayPredicate predicate) {
+    m_operators.addLast(predicate.getOperator());
+    try {
+      for (Predicate child : predicate.getPredicates()) {
+        PredicateHelper.visit(child, this);
+      }
+    } finally {
+      m_operators.pollLast();
+    }
+  }
+
+  @Override
+  public void acceptUnaryPredicate(UnaryPredicate predicate) {
+    m_supported = false;
+  }
+
+  @Override
+  public void acceptAlwaysPredicate(AlwaysPredicate predicate) {
+  }
+
+  @Override
+  public void acceptCategoryPredicate(CategoryPredicate predicate) {
+    m_supported = false;
+  }
+}
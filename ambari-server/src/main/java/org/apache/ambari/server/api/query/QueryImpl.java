@@ -467,6 +467,11 @@ public class QueryImpl implements Query, ResourceInstance {
     for (Map.Entry<String, QueryImpl> entry : requestedSubResources.entrySet()) {
       QueryImpl     subResource         = entry.getValue();
       Resource.Type resourceType        = subResource.getResourceDefinition().getType();
+      String        compactResources    = requestInfoProperties.get(BaseRequest.COMPACT_RESOURCES_PROPERTY_KEY);
+      if (compactResources != null) {
+        // sub-resources are read the same way as the resources of the original query
+        subResource.requestInfoProperties.put(BaseRequest.COMPACT_RESOURCES_PROPERTY_KEY, compactResources);
+      }
       Request       request             = subResource.createRequest();
       Set<Resource> providerResourceSet = new HashSet<>();
 
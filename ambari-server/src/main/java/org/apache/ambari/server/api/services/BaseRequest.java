@@ -102,6 +102,11 @@ public abstract class BaseRequest implements Request {
    */
   public static final String ASC_ORDER_PROPERTY_KEY = "Request_Info/asc_order";
 
+  /**
+   * Compact resources property key. (true - compact, false - regular resources)
+   */
+  public static final String COMPACT_RESOURCES_PROPERTY_KEY = "Request_Info/compact_resources";
+
   /**
    * Associated resource renderer.
    * Will default to the default renderer if non is specified.
@@ -141,6 +146,7 @@ public abstract class BaseRequest implements Request {
     try {
       parseRenderer();
       parseQueryPredicate();
+      parseCompactResources();
       result = getRequestHandler().handleRequest(this);
     } catch (InvalidQueryException e) {
       String message = "Unable to compile query predicate: " + e.getMessage();
@@ -304,6 +310,19 @@ public abstract class BaseRequest implements Request {
     return minimal != null && minimal.equalsIgnoreCase("true");
   }
 
+  /**
+   * Pass the 'compact_resources' query parameter, if specified, to the query as
+   * a request info property, so that it overrides the server default for the
+   * resources read by this request.
+   */
+  private void parseCompactResources() {
+    String compact = m_uriInfo.getQueryParameters().getFirst(QueryLexer.QUERY_COMPACT);
+    if (compact != null && m_resource != null) {
+      m_resource.getQuery().setRequestInfoProps(Collections.singletonMap(
+          COMPACT_RESOURCES_PROPERTY_KEY, Boolean.toString(Boolean.parseBoolean(compact))));
+    }
+  }
+
   /**
    * Parse the query string and compile it into a predicate.
    * The query string may have already been extracted from the http body.
@@ -105,10 +105,21 @@ public abstract class BaseService {
 
   protected static RequestAuditLogger requestAuditLogger;
 
+  /**
+   * Whether successful JSON responses are written to the client while they
+   * are serialized.
+   */
+  private static volatile boolean streamResponses = false;
+
   public static void init(RequestAuditLogger instance) {
     requestAuditLogger = instance;
   }
 
+  public static void init(RequestAuditLogger instance, boolean streamingEnabled) {
+    init(instance);
+    streamResponses = streamingEnabled;
+  }
+
   /**
    * Requests are funneled through this method so that common logic can be executed.
    * Creates a request instance and invokes it's process method.  Uses the default
@@ -183,7 +194,7 @@ public abstract class BaseService {
     ResultSerializer serializer = mediaType == null ? getResultSerializer() : getResultSerializer(mediaType);
 
     Response.ResponseBuilder builder = Response.status(result.getStatus().getStatusCode()).entity(
-        serializer.serialize(result));
+        createResponseEntity(serializer, result, mediaType));
 
     if (mediaType != null) {
       builder.type(mediaType);
@@ -193,6 +204,37 @@ public abstract class BaseService {
     return builder.build();
   }
 
+  /**
+   * Serialize the result into the entity of the response. Successful JSON
+   * results are written to the response while they are serialized if
+   * streaming is enabled and supported by the service; otherwise the entity
+   * is the serialized string.
+   *
+   * @param serializer  the result serializer
+   * @param result      the result to serialize
+   * @param mediaType   the requested media type; may be null
+   *
+   * @return the response entity
+   */
+  protected Object createResponseEntity(ResultSerializer serializer, Result result, MediaType mediaType) {
+    if (streamResponses && isResponseStreamingSupported() && mediaType == null
+        && serializer instanceof JsonSerializer && !result.getStatus().isErrorState()) {
+      return ((JsonSerializer) serializer).serializeToStream(result);
+    }
+    return serializer.serialize(result);
+  }
+
+  /**
+   * Determine whether the responses of this service may be streamed. Services
+   * which read the entities of their own responses, rather than returning them
+   * to an HTTP client, expect them to be strings and must not stream them.
+   *
+   * @return true if the responses of this service may be streamed
+   */
+  protected boolean isResponseStreamingSupported() {
+    return true;
+  }
+
   /**
    * Obtain the factory from which to create Request instances.
    *
@@ -18,13 +18,17 @@
 
 package org.apache.ambari.server.api.services.serializers;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import javax.ws.rs.core.StreamingOutput;
+
 import org.apache.ambari.server.api.services.DeleteResultMetadata;
 import org.apache.ambari.server.api.services.Result;
 import org.apache.ambari.server.api.services.ResultMetadata;
@@ -36,6 +40,7 @@ import org.apache.ambari.server.controller.spi.Resource;
 import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializationConfig;
 import org.codehaus.jackson.util.DefaultPrettyPrinter;
 
 /**
@@ -44,12 +49,23 @@ import org.codehaus.jackson.util.DefaultPrettyPrinter;
  */
 public class JsonSerializer implements ResultSerializer {
 
+  /**
+   * The number of bytes of a streamed result which are buffered before they
+   * are written to the response.
+   */
+  static final int STREAMING_BUFFER_SIZE = 64 * 1024;
+
   /**
    * Factory used to create JSON generator.
    */
   JsonFactory m_factory = new JsonFactory();
 
-  ObjectMapper m_mapper = new ObjectMapper(m_factory);
+  /**
+   * Mapper used to write property values. Values are written to the shared
+   * generator, so flushing after every value is disabled.
+   */
+  ObjectMapper m_mapper = new ObjectMapper(m_factory).configure(
+      SerializationConfig.Feature.FLUSH_AFTER_WRITE_VALUE, false);
 
   /**
    * Generator which writes JSON.
@@ -60,16 +76,12 @@ public class JsonSerializer implements ResultSerializer {
   @Override
   public Object serialize(Result result) {
     try {
-      ByteArrayOutputStream bytesOut = init();
-
       if (result.getStatus().isErrorState()) {
         return serializeError(result.getStatus());
       }
 
-      TreeNode<Resource> treeNode = result.getResultTree();
-      processNode(treeNode);
-      processResultMetadata(result.getResultMetadata());
-      m_generator.close();
+      ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+      serialize(result, bytesOut);
       return bytesOut.toString("UTF-8");
     } catch (IOException e) {
       //todo: exception handling.  Create ResultStatus 500 and call serializeError
@@ -77,6 +89,50 @@ public class JsonSerializer implements ResultSerializer {
     }
   }
 
+  /**
+   * Serialize the given (non error) result to the given stream. The stream is
+   * flushed but not closed.
+   *
+   * @param result  internal result
+   * @param out     the stream to write to
+   *
+   * @throws IOException if the result can not be written
+   */
+  public void serialize(Result result, OutputStream out) throws IOException {
+    m_generator = createJsonGenerator(out);
+    m_generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    TreeNode<Resource> treeNode = result.getResultTree();
+    processNode(treeNode);
+    processResultMetadata(result.getResultMetadata());
+    m_generator.close();
+  }
+
+  /**
+   * Serialize the given (non error) result into an entity which writes it to
+   * the response while it is serialized, without holding the serialized
+   * result in memory.
+   * <p/>
+   * The first {@link #STREAMING_BUFFER_SIZE} bytes are buffered before
+   * anything is written to the response. A failure before that many bytes
+   * have been serialized therefore still results in an error response; a
+   * later failure truncates the response which was already sent.
+   *
+   * @param result  internal result
+   *
+   * @return the streaming entity
+   */
+  public StreamingOutput serializeToStream(final Result result) {
+    return new StreamingOutput() {
+      @Override
+      public void write(OutputStream output) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(output, STREAMING_BUFFER_SIZE);
+        serialize(result, buffered);
+        buffered.flush();
+      }
+    };
+  }
+
   @Override
   public Object serializeError(ResultStatus error) {
     try {
@@ -98,11 +154,6 @@ public class JsonSerializer implements ResultSerializer {
   private ByteArrayOutputStream init() throws IOException {
     ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
     m_generator = createJsonGenerator(bytesOut);
-
-    DefaultPrettyPrinter p = new DefaultPrettyPrinter();
-    p.indentArraysWith(new DefaultPrettyPrinter.Lf2SpacesIndenter());
-    m_generator.setPrettyPrinter(p);
-
     return bytesOut;
   }
 
@@ -272,8 +323,8 @@ public class JsonSerializer implements ResultSerializer {
     }
   }
 
-  private JsonGenerator createJsonGenerator(ByteArrayOutputStream baos) throws IOException {
-    JsonGenerator generator = m_factory.createJsonGenerator(new OutputStreamWriter(baos,
+  private JsonGenerator createJsonGenerator(OutputStream out) throws IOException {
+    JsonGenerator generator = m_factory.createJsonGenerator(new OutputStreamWriter(out,
         Charset.forName("UTF-8").newEncoder()));
 
     DefaultPrettyPrinter p = new DefaultPrettyPrinter();
@@ -149,6 +149,15 @@ public abstract class StackAdvisorCommand<T extends StackAdvisorResponse> extend
 
   protected abstract StackAdvisorCommandType getCommandType();
 
+  /**
+   * The hosts and services information is read from the entities of internal
+   * requests, so they are always serialized to strings.
+   */
+  @Override
+  protected boolean isResponseStreamingSupported() {
+    return false;
+  }
+
   /**
    * Simple holder for 'hosts.json' and 'services.json' data.
    */
@@ -97,7 +97,8 @@ public class CleanupDriver {
       System.exit(2);
     }
 
-    LOGGER.info("DB-PURGE - completed. Number of affected records [{}]", result.getAffectedRows());
+    LOGGER.info("DB-PURGE - completed. Number of affected records [{}] in [{}] ms", result.getAffectedRows(),
+        result.getDurationMillis());
   }
 
   /**
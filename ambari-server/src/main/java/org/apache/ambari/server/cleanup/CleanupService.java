@@ -38,6 +38,12 @@ public interface CleanupService<T> {
      * @return The number of failed cleanups.
      */
     int getErrorCount();
+
+    /**
+     * Returns the time it took to run the cleanup.
+     * @return The duration of the cleanup in milliseconds
+     */
+    long getDurationMillis();
   }
 
   /**
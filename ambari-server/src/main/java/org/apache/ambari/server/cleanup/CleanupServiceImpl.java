@@ -18,13 +18,17 @@
 package org.apache.ambari.server.cleanup;
 
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
+import org.apache.ambari.server.metrics.system.impl.ServerComponentsMetricsSource;
 import org.apache.ambari.server.orm.dao.Cleanable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
+import com.google.common.base.Stopwatch;
 import com.google.inject.Singleton;
 
 /**
@@ -34,13 +38,19 @@ import com.google.inject.Singleton;
 public class CleanupServiceImpl implements CleanupService<TimeBasedCleanupPolicy> {
   private static final Logger LOGGER = LoggerFactory.getLogger(CleanupServiceImpl.class);
 
+  static final String ROWS_METRIC = "cleanup.rows";
+  static final String DURATION_METRIC = "cleanup.duration";
+  static final String THROUGHPUT_METRIC = "cleanup.rows.per.second";
+
   class Result implements CleanupResult {
     private final long affectedRows;
     private final int errorCount;
+    private final long durationMillis;
 
-    public Result(long affectedRows, int errorCount) {
+    public Result(long affectedRows, int errorCount, long durationMillis) {
       this.affectedRows = affectedRows;
       this.errorCount = errorCount;
+      this.durationMillis = durationMillis;
     }
 
     @Override
@@ -52,11 +62,21 @@ public class CleanupServiceImpl implements CleanupService<TimeBasedCleanupPolicy
     public int getErrorCount() {
       return errorCount;
     }
+
+    @Override
+    public long getDurationMillis() {
+      return durationMillis;
+    }
   }
 
   // this Set is automatically populated by the guice framework (based on the cleanup interface)
   private Set<Cleanable> cleanables;
 
+  /**
+   * The rows deleted per second by the last cleanup.
+   */
+  private volatile long throughput;
+
   /**
    * Constructor for testing purposes.
    *
@@ -65,6 +85,7 @@ public class CleanupServiceImpl implements CleanupService<TimeBasedCleanupPolicy
   @Inject
   protected CleanupServiceImpl(Set<Cleanable> cleanables) {
     this.cleanables = cleanables;
+    ServerComponentsMetricsSource.registerGauge(THROUGHPUT_METRIC, (Gauge<Long>) () -> throughput);
   }
 
   /**
@@ -77,10 +98,17 @@ public class CleanupServiceImpl implements CleanupService<TimeBasedCleanupPolicy
   public CleanupResult cleanup(TimeBasedCleanupPolicy cleanupPolicy) {
     long affectedRows = 0;
     int errorCount = 0;
+    Stopwatch total = Stopwatch.createStarted();
     for (Cleanable cleanable : cleanables) {
       LOGGER.info("Running the purge process for DAO: [{}] with cleanup policy: [{}]", cleanable, cleanupPolicy);
+      Stopwatch stopwatch = Stopwatch.createStarted();
       try {
-        affectedRows += cleanable.cleanup(cleanupPolicy);
+        long rows = cleanable.cleanup(cleanupPolicy);
+        affectedRows += rows;
+
+        long millis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        LOGGER.info("Purge process for DAO: [{}] deleted [{}] rows in [{}] ms ([{}] rows/s)", cleanable, rows,
+            millis, millis > 0 ? rows * 1000 / millis : rows);
       }
       catch (Exception ex) {
         LOGGER.error("Running the purge process for DAO: [{}] failed with: {}", cleanable, ex);
@@ -88,7 +116,12 @@ public class CleanupServiceImpl implements CleanupService<TimeBasedCleanupPolicy
       }
     }
 
-    return new Result(affectedRows, errorCount);
+    long durationMillis = total.elapsed(TimeUnit.MILLISECONDS);
+    throughput = durationMillis > 0 ? affectedRows * 1000 / durationMillis : affectedRows;
+    ServerComponentsMetricsSource.getRegistry().counter(ROWS_METRIC).inc(affectedRows);
+    ServerComponentsMetricsSource.getRegistry().timer(DURATION_METRIC).update(durationMillis, TimeUnit.MILLISECONDS);
+
+    return new Result(affectedRows, errorCount, durationMillis);
   }
 
 }
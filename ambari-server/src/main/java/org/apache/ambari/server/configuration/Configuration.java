@@ -499,6 +499,23 @@ public class Configuration {
   public static final ConfigurationProperty<String> API_GZIP_MIN_COMPRESSION_SIZE = new ConfigurationProperty<>(
       "api.gzip.compression.min.size", "10240");
 
+  /**
+   * Determines whether successful JSON API responses are written to the HTTP
+   * response while they are serialized instead of as a string.
+   */
+  @Markdown(description = "Determines whether successful JSON API responses are written to the client while they are serialized instead of being copied into a single string first. This reduces the memory used by large responses. Only the first 64KB of a response are buffered, so a serialization error after that point truncates the response instead of returning an error status.")
+  public static final ConfigurationProperty<Boolean> API_RESPONSE_STREAMING_ENABLED = new ConfigurationProperty<>(
+      "api.response.streaming.enabled", Boolean.FALSE);
+
+  /**
+   * Determines whether bulk read requests for hosts and host components build
+   * compact, array backed resources instead of {@code ResourceImpl} unless the
+   * query specifies {@code compact_resources}.
+   */
+  @Markdown(description = "Determines whether read requests for hosts and host components store the properties of each resource in compact, unsynchronized arrays instead of nested synchronized maps. This reduces the memory used by large responses, such as host components with metrics. A query can override this default with the compact_resources=true|false query parameter.")
+  public static final ConfigurationProperty<Boolean> API_RESOURCES_COMPACT_ENABLED = new ConfigurationProperty<>(
+      "api.resources.compact.enabled", Boolean.FALSE);
+
   /**
    * Determiens whether communication with the Ambari Agents should have the
    * JSON payloads compressed with GZIP.
@@ -1591,6 +1608,14 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> THREAD_POOL_SIZE_FOR_EXTERNAL_SCRIPT = new ConfigurationProperty<>(
     "server.script.threads", 20);
 
+  /**
+   * The maximum number of client configuration archives kept on disk so that
+   * they are not generated again while the configurations are unchanged.
+   */
+  @Markdown(description = "The maximum number of generated client configuration archives which are cached on disk and reused while the configurations of the cluster are unchanged. A value of `0` disables the cache.")
+  public static final ConfigurationProperty<Integer> CLIENT_CONFIGS_CACHE_SIZE = new ConfigurationProperty<>(
+    "server.script.client_configs.cache.size", 100);
+
   public static final String DEF_ARCHIVE_EXTENSION;
   public static final String DEF_ARCHIVE_CONTENT_TYPE;
 
@@ -1704,6 +1729,38 @@ public class Configuration {
   public static final ConfigurationProperty<Boolean> PARALLEL_STAGE_EXECUTION = new ConfigurationProperty<>(
       "server.stages.parallel", Boolean.TRUE);
 
+  /**
+   * Determines whether the action scheduler is driven by events (new
+   * requests, task reports and command timeouts) instead of re-evaluating
+   * every stage in progress on each wakeup.
+   */
+  @Markdown(description = "Determines whether the action scheduler only re-evaluates the requests affected by new requests, task reports and command timeouts instead of all stages in progress on every wakeup.")
+  public static final ConfigurationProperty<Boolean> ACTION_SCHEDULER_EVENT_DRIVEN = new ConfigurationProperty<>(
+      "server.action.scheduler.event_driven", Boolean.FALSE);
+
+  /**
+   * The interval, in {@link TimeUnit#SECONDS}, between full evaluations of all
+   * stages in progress when the action scheduler is event driven.
+   */
+  @Markdown(description = "The time, in seconds, between evaluations of all stages in progress when `server.action.scheduler.event_driven` is enabled. These catch changes which are not reported as events, such as lost agent heartbeats.")
+  public static final ConfigurationProperty<Integer> ACTION_SCHEDULER_FULL_SWEEP_INTERVAL = new ConfigurationProperty<>(
+      "server.action.scheduler.full_sweep.interval", 60);
+
+  /**
+   * The number of threads running server-side actions. The actions of a
+   * request always run one at a time, in order.
+   */
+  @Markdown(description = "The number of threads running server-side actions, such as configuration changes during upgrades and Kerberos operations. The actions of a request always run one at a time and in order, so additional threads only allow the actions of different requests to run concurrently.")
+  public static final ConfigurationProperty<Integer> SERVER_ACTION_EXECUTOR_THREADS = new ConfigurationProperty<>(
+      "server.action.executor.threads", 1);
+
+  /**
+   * Determines whether the commands of tasks are stored compressed.
+   */
+  @Markdown(description = "Determines whether the commands of tasks are compressed before they are stored in the `execution_command` table. Commands repeat most of the cluster topology and stack parameters, so compression greatly reduces the size of the table and the time taken to write the commands of large requests. Commands stored in either format can always be read.")
+  public static final ConfigurationProperty<Boolean> EXECUTION_COMMAND_COMPRESSION_ENABLED = new ConfigurationProperty<>(
+      "server.execution_command.compression.enabled", Boolean.FALSE);
+
   /**
    *
    * Property driving the view extraction.
@@ -1896,6 +1953,14 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> AGENTS_REPORT_THREAD_POOL_SIZE = new ConfigurationProperty<>(
       "agents.reports.thread.pool.size", 10);
 
+  /**
+   * The maximum number of agents' reports processed by a worker in a single batch.
+   */
+  @Markdown(description = "The maximum number of agents' reports processed by a single worker in one batch. "
+      + "Outdated status reports of a host within a batch are coalesced.")
+  public static final ConfigurationProperty<Integer> AGENTS_REPORT_PROCESSING_BATCH_SIZE = new ConfigurationProperty<>(
+      "agents.reports.processing.batch.size", 100);
+
   /**
    * Server to API STOMP endpoint heartbeat interval in milliseconds.
    */
@@ -1917,6 +1982,51 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> STOMP_MAX_BUFFER_MESSAGE_SIZE = new ConfigurationProperty<>(
       "stomp.max_buffer.message.size", 5*1024*1024);
 
+  /**
+   * The number of threads used to deliver STOMP updates to agents.
+   */
+  @Markdown(description = "The number of threads used to deliver STOMP updates to agents. Updates for the same host are always delivered in order by the same thread. Updates which are not for a single host, such as topology and metadata updates, are delivered in order with respect to all other updates.")
+  public static final ConfigurationProperty<Integer> STOMP_AGENT_EVENT_BUS_PARTITIONS = new ConfigurationProperty<>(
+      "stomp.agent.event.bus.partitions", 4);
+
+  /**
+   * The number of threads used to deliver STOMP updates to API clients.
+   */
+  @Markdown(description = "The number of threads used to deliver STOMP updates to API clients. Updates for the same cluster (host components) or the same request (requests and tasks) are always delivered in order by the same thread. Other updates are delivered in order with respect to all other updates.")
+  public static final ConfigurationProperty<Integer> STOMP_API_EVENT_BUS_PARTITIONS = new ConfigurationProperty<>(
+      "stomp.api.event.bus.partitions", 2);
+
+  /**
+   * The number of buffered API updates after which they are posted without delay.
+   */
+  @Markdown(description = "The number of buffered STOMP updates for the UI (host components, requests, services) after which they are posted without waiting for the delay.")
+  public static final ConfigurationProperty<Integer> BUFFERED_UPDATE_PUBLISHER_BATCH_SIZE = new ConfigurationProperty<>(
+      "stomp.buffered.publisher.batch.size", 500);
+
+  /**
+   * The maximum delay in milliseconds of buffered API updates.
+   */
+  @Markdown(description = "The maximum time, in milliseconds, STOMP updates for the UI (host components, requests, services) are buffered to be coalesced. "
+      + "Updates of an idle publisher are posted without delay.")
+  public static final ConfigurationProperty<Long> BUFFERED_UPDATE_PUBLISHER_MAX_DELAY = new ConfigurationProperty<>(
+      "stomp.buffered.publisher.max.delay", 1000L);
+
+  /**
+   * Whether agent configs hashes are computed from per config type digests
+   * instead of serializing the whole update to JSON.
+   */
+  @Markdown(description = "Determines whether the hash of the configurations sent to an agent is computed Merkle-style from cached per config type digests "
+      + "instead of serializing the whole configurations update to JSON. When enabled, a configuration change re-hashes only the modified config types.")
+  public static final ConfigurationProperty<Boolean> AGENT_CONFIGS_STRUCTURAL_HASH_ENABLED = new ConfigurationProperty<>(
+      "agent.configs.hash.structural.enabled", Boolean.TRUE);
+
+  /**
+   * The maximum number of config type digests cached for agent configs hashing.
+   */
+  @Markdown(description = "The maximum number of distinct config type sections whose digests are cached for agent configurations hashing.")
+  public static final ConfigurationProperty<Integer> AGENT_CONFIGS_HASH_CACHE_SIZE = new ConfigurationProperty<>(
+      "agent.configs.hash.cache.size", 10000);
+
   /**
    * The number of attempts to emit execution command message to agent. Default is 4
    */
@@ -2102,6 +2212,26 @@ public class Configuration {
   public static final ConfigurationProperty<Boolean> TIMELINE_METRICS_CACHE_USE_CUSTOM_SIZING_ENGINE = new ConfigurationProperty<>(
       "server.timeline.metrics.cache.use.custom.sizing.engine", Boolean.TRUE);
 
+  /**
+   * Determines whether Ambari Metric data is cached in off-heap memory instead
+   * of on the heap.
+   */
+  @Markdown(
+      relatedTo = "server.timeline.metrics.cache.disabled",
+      description = "Determines whether Ambari Metric data is cached in off-heap memory, encoded as primitive values, instead of as objects on the heap of Ambari Server.")
+  public static final ConfigurationProperty<Boolean> TIMELINE_METRICS_CACHE_OFFHEAP_ENABLED = new ConfigurationProperty<>(
+      "server.timeline.metrics.cache.offheap.enabled", Boolean.FALSE);
+
+  /**
+   * The amount of off-heap memory, in megabytes, dedicated to caching values
+   * from Ambari Metrics.
+   */
+  @Markdown(
+      relatedTo = "server.timeline.metrics.cache.offheap.enabled",
+      description = "The amount of off-heap memory, in megabytes, dedicated to caching values from Ambari Metrics. The least recently used entries are evicted once this limit is reached.")
+  public static final ConfigurationProperty<Integer> TIMELINE_METRICS_CACHE_OFFHEAP_SIZE = new ConfigurationProperty<>(
+      "server.timeline.metrics.cache.offheap.size.mb", 512);
+
   /**
    * Timeline Metrics SSL settings
    */
@@ -2212,6 +2342,55 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> ALERTS_CACHE_SIZE = new ConfigurationProperty<>(
       "alerts.cache.size", 50000);
 
+  /**
+   * The number of cached alerts written to the database per transaction when
+   * the alert cache is flushed.
+   */
+  @Markdown(
+      relatedTo = "alerts.cache.enabled",
+      description = "The number of modified cached alerts which are written to the database in a single transaction when the alert cache is flushed.")
+  public static final ConfigurationProperty<Integer> ALERTS_CACHE_FLUSH_BATCH_SIZE = new ConfigurationProperty<>(
+      "alerts.cache.flush.batch.size", 1000);
+
+  /**
+   * The time, in seconds, during which an unchanged {@code OK} alert
+   * received from an agent is not written again.
+   */
+  @Markdown(description = "The time, in seconds, during which repeated `OK` alerts from the same host are discarded before looking up the current alert. The timestamp, text and occurrences of such alerts are only updated once per interval. Setting this to `0` processes every received alert.")
+  public static final ConfigurationProperty<Integer> ALERTS_OK_DEDUP_INTERVAL = new ConfigurationProperty<>(
+      "alerts.ok.dedup.interval", 0);
+
+  /**
+   * The number of threads used to send alert notifications.
+   */
+  @Markdown(description = "The number of threads used to send alert notifications to all alert targets.")
+  public static final ConfigurationProperty<Integer> ALERTS_DISPATCH_THREADPOOL_SIZE = new ConfigurationProperty<>(
+      "alerts.dispatch.threadpool.size", 4);
+
+  /**
+   * The number of alert notifications which can wait to be sent to a single
+   * alert target.
+   */
+  @Markdown(description = "The number of notifications which can wait to be sent to a single alert target. Alert notices which do not fit are left pending until the next dispatch run.")
+  public static final ConfigurationProperty<Integer> ALERTS_DISPATCH_TARGET_QUEUE_SIZE = new ConfigurationProperty<>(
+      "alerts.dispatch.target.queue.size", 100);
+
+  /**
+   * The number of alert notifications sent concurrently to a single alert
+   * target.
+   */
+  @Markdown(description = "The number of notifications which are sent concurrently to a single alert target.")
+  public static final ConfigurationProperty<Integer> ALERTS_DISPATCH_TARGET_CONCURRENCY = new ConfigurationProperty<>(
+      "alerts.dispatch.target.concurrency", 1);
+
+  /**
+   * The maximum number of alert notifications sent to a single alert target
+   * per minute.
+   */
+  @Markdown(description = "The maximum number of notifications sent to a single alert target per minute. Setting this to `0` disables the limit.")
+  public static final ConfigurationProperty<Integer> ALERTS_DISPATCH_TARGET_RATE = new ConfigurationProperty<>(
+      "alerts.dispatch.target.rate", 0);
+
   /**
    * When using SSL, this will be used to set the {@code Strict-Transport-Security} response header.
    */
@@ -3950,6 +4129,22 @@ public class Configuration {
     return Boolean.parseBoolean(getProperty(API_GZIP_COMPRESSION_ENABLED));
   }
 
+  /**
+   * Check to see if the JSON API responses should be streamed to the client.
+   * @return true if the responses are written while they are serialized.
+   */
+  public boolean isApiResponseStreamingEnabled() {
+    return Boolean.parseBoolean(getProperty(API_RESPONSE_STREAMING_ENABLED));
+  }
+
+  /**
+   * Check to see if read requests should build compact resources.
+   * @return true if compact resources are used for hosts and host components.
+   */
+  public boolean isApiCompactResourcesEnabled() {
+    return Boolean.parseBoolean(getProperty(API_RESOURCES_COMPACT_ENABLED));
+  }
+
 
   /**
    * Check to see if the API responses should be compressed via gzip or not
@@ -4619,6 +4814,14 @@ public class Configuration {
     return Integer.parseInt(getProperty(EXTERNAL_SCRIPT_TIMEOUT));
   }
 
+  /**
+   * Get the maximum number of cached client configuration archives.
+   * @return {Integer}
+   */
+  public Integer getClientConfigsCacheSize() {
+    return Integer.parseInt(getProperty(CLIENT_CONFIGS_CACHE_SIZE));
+  }
+
   //THREAD_POOL_FOR_EXTERNAL_SCRIPT
 
   /**
@@ -4633,6 +4836,35 @@ public class Configuration {
     return Boolean.parseBoolean(configsMap.get(PARALLEL_STAGE_EXECUTION.getKey()));
   }
 
+  /**
+   * @return {@code true} if the action scheduler is driven by events
+   */
+  public boolean isActionSchedulerEventDriven() {
+    return Boolean.parseBoolean(getProperty(ACTION_SCHEDULER_EVENT_DRIVEN));
+  }
+
+  /**
+   * @return the interval, in milliseconds, between full evaluations of all
+   *         stages in progress by the event driven action scheduler
+   */
+  public long getActionSchedulerFullSweepInterval() {
+    return TimeUnit.SECONDS.toMillis(Integer.parseInt(getProperty(ACTION_SCHEDULER_FULL_SWEEP_INTERVAL)));
+  }
+
+  /**
+   * @return the number of threads running server-side actions
+   */
+  public int getServerActionExecutorThreads() {
+    return Integer.parseInt(getProperty(SERVER_ACTION_EXECUTOR_THREADS));
+  }
+
+  /**
+   * @return {@code true} if the commands of tasks are stored compressed
+   */
+  public boolean isExecutionCommandCompressionEnabled() {
+    return Boolean.parseBoolean(getProperty(EXECUTION_COMMAND_COMPRESSION_ENABLED));
+  }
+
   public String getCustomActionDefinitionPath() {
     return getProperty(CUSTOM_ACTION_DEFINITION);
   }
@@ -4767,6 +4999,13 @@ public class Configuration {
     return Integer.parseInt(getProperty(AGENTS_REPORT_THREAD_POOL_SIZE));
   }
 
+  /**
+   * @return the maximum number of agents' reports processed by a worker in a single batch.
+   */
+  public int getAgentsReportProcessingBatchSize() {
+    return Integer.parseInt(getProperty(AGENTS_REPORT_PROCESSING_BATCH_SIZE));
+  }
+
   /**
    * @return server to API STOMP endpoint heartbeat interval in milliseconds.
    */
@@ -4788,6 +5027,48 @@ public class Configuration {
     return Integer.parseInt(getProperty(STOMP_MAX_BUFFER_MESSAGE_SIZE));
   }
 
+  /**
+   * @return the number of threads used to deliver STOMP updates to agents.
+   */
+  public int getStompAgentEventBusPartitions() {
+    return Integer.parseInt(getProperty(STOMP_AGENT_EVENT_BUS_PARTITIONS));
+  }
+
+  /**
+   * @return the number of threads used to deliver STOMP updates to API clients.
+   */
+  public int getStompApiEventBusPartitions() {
+    return Integer.parseInt(getProperty(STOMP_API_EVENT_BUS_PARTITIONS));
+  }
+
+  /**
+   * @return the number of buffered API updates after which they are posted without delay.
+   */
+  public int getBufferedUpdatePublisherBatchSize() {
+    return Integer.parseInt(getProperty(BUFFERED_UPDATE_PUBLISHER_BATCH_SIZE));
+  }
+
+  /**
+   * @return the maximum delay in milliseconds of buffered API updates.
+   */
+  public long getBufferedUpdatePublisherMaxDelay() {
+    return Long.parseLong(getProperty(BUFFERED_UPDATE_PUBLISHER_MAX_DELAY));
+  }
+
+  /**
+   * @return whether agent configs hashes are computed from per config type digests.
+   */
+  public boolean isAgentConfigsStructuralHashEnabled() {
+    return Boolean.parseBoolean(getProperty(AGENT_CONFIGS_STRUCTURAL_HASH_ENABLED));
+  }
+
+  /**
+   * @return the maximum number of config type digests cached for agent configs hashing.
+   */
+  public int getAgentConfigsHashCacheSize() {
+    return Integer.parseInt(getProperty(AGENT_CONFIGS_HASH_CACHE_SIZE));
+  }
+
   /**
    * @return the number of attempts to emit execution command message to agent. Default is 4
    */
@@ -5299,6 +5580,21 @@ public class Configuration {
     return Boolean.parseBoolean(getProperty(TIMELINE_METRICS_CACHE_USE_CUSTOM_SIZING_ENGINE));
   }
 
+  /**
+   * Cache Ambari Metrics data in off-heap memory.
+   */
+  public boolean isMetricsCacheOffHeapEnabled() {
+    return Boolean.parseBoolean(getProperty(TIMELINE_METRICS_CACHE_OFFHEAP_ENABLED));
+  }
+
+  /**
+   * Maximum off-heap memory used by the metrics cache.
+   * @return bytes
+   */
+  public long getMetricsCacheOffHeapSizeBytes() {
+    return Integer.parseInt(getProperty(TIMELINE_METRICS_CACHE_OFFHEAP_SIZE)) * 1024L * 1024L;
+  }
+
   /**
    * Gets the Kerberos authentication-specific properties container
    *
@@ -5348,6 +5644,56 @@ public class Configuration {
     return Integer.parseInt(getProperty(ALERTS_CACHE_SIZE));
   }
 
+  /**
+   * Gets the number of cached alerts written to the database per transaction
+   * when the alert cache is flushed.
+   */
+  @Experimental(feature = ExperimentalFeature.ALERT_CACHING)
+  public int getAlertCacheFlushBatchSize() {
+    return Integer.parseInt(getProperty(ALERTS_CACHE_FLUSH_BATCH_SIZE));
+  }
+
+  /**
+   * Gets the time, in seconds, during which repeated {@code OK} alerts from the
+   * same host are discarded.
+   *
+   * @return the interval, or {@code 0} if every alert is processed.
+   */
+  public int getAlertOkDedupInterval() {
+    return Integer.parseInt(getProperty(ALERTS_OK_DEDUP_INTERVAL));
+  }
+
+  /**
+   * @return the number of threads used to send alert notifications.
+   */
+  public int getAlertDispatchThreadPoolSize() {
+    return Integer.parseInt(getProperty(ALERTS_DISPATCH_THREADPOOL_SIZE));
+  }
+
+  /**
+   * @return the number of notifications which can wait to be sent to a single
+   *         alert target.
+   */
+  public int getAlertDispatchTargetQueueSize() {
+    return Integer.parseInt(getProperty(ALERTS_DISPATCH_TARGET_QUEUE_SIZE));
+  }
+
+  /**
+   * @return the number of notifications sent concurrently to a single alert
+   *         target.
+   */
+  public int getAlertDispatchTargetConcurrency() {
+    return Integer.parseInt(getProperty(ALERTS_DISPATCH_TARGET_CONCURRENCY));
+  }
+
+  /**
+   * @return the maximum number of notifications sent to a single alert target
+   *         per minute, or {@code 0} for no limit.
+   */
+  public int getAlertDispatchTargetRate() {
+    return Integer.parseInt(getProperty(ALERTS_DISPATCH_TARGET_RATE));
+  }
+
   /**
    * Get the ambari display URL
    * @return
@@ -123,6 +123,7 @@ import org.apache.ambari.server.api.services.AmbariMetaInfo;
 import org.apache.ambari.server.api.services.LoggingService;
 import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.configuration.Configuration.DatabaseType;
+import org.apache.ambari.server.controller.internal.ClientConfigArchiveCache;
 import org.apache.ambari.server.controller.internal.DeleteHostComponentStatusMetaData;
 import org.apache.ambari.server.controller.internal.DeleteStatusMetaData;
 import org.apache.ambari.server.controller.internal.HostComponentResourceProvider;
@@ -4323,6 +4324,7 @@ public class AmbariManagementControllerImpl implements AmbariManagementControlle
 
     try {
       ambariMetaInfo.init();
+      ClientConfigArchiveCache.clear(configs.getServerTempDir());
     } catch (AmbariException e) {
       throw e;
     } catch (Exception e) {
@@ -67,8 +67,10 @@ import org.apache.ambari.server.controller.internal.AbstractControllerResourcePr
 import org.apache.ambari.server.controller.internal.AmbariPrivilegeResourceProvider;
 import org.apache.ambari.server.controller.internal.BaseClusterRequest;
 import org.apache.ambari.server.controller.internal.BlueprintResourceProvider;
+import org.apache.ambari.server.controller.internal.ClientConfigArchiveCache;
 import org.apache.ambari.server.controller.internal.ClusterPrivilegeResourceProvider;
 import org.apache.ambari.server.controller.internal.ClusterResourceProvider;
+import org.apache.ambari.server.controller.internal.CompactResourceImpl;
 import org.apache.ambari.server.controller.internal.HostResourceProvider;
 import org.apache.ambari.server.controller.internal.PermissionResourceProvider;
 import org.apache.ambari.server.controller.internal.PrivilegeResourceProvider;
@@ -338,6 +340,9 @@ public class AmbariServer {
 
     setSystemProperties(configs);
 
+    // archives cached by a previous run may have been generated from other stack scripts
+    ClientConfigArchiveCache.clear(configs.getServerTempDir());
+
     runDatabaseConsistencyCheck();
 
     try {
@@ -953,7 +958,8 @@ public class AmbariServer {
     StackAdvisorBlueprintProcessor.init(injector.getInstance(StackAdvisorHelper.class));
     ThreadPoolEnabledPropertyProvider.init(injector.getInstance(Configuration.class));
 
-    BaseService.init(injector.getInstance(RequestAuditLogger.class));
+    BaseService.init(injector.getInstance(RequestAuditLogger.class), configs.isApiResponseStreamingEnabled());
+    CompactResourceImpl.setEnabled(configs.isApiCompactResourcesEnabled());
 
     RetryHelper.init(injector.getInstance(Clusters.class), configs.getOperationsRetryAttempts());
 
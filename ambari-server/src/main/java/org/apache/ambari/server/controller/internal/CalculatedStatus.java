@@ -19,6 +19,7 @@ package org.apache.ambari.server.controller.internal;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -416,7 +417,7 @@ public class CalculatedStatus {
   public static Map<HostRoleStatus, Integer> calculateTaskStatusCounts(
       Map<Long, HostRoleCommandStatusSummaryDTO> stageDto, Set<Long> stageIds) {
 
-    List<HostRoleStatus> status = new ArrayList<>();
+    Map<HostRoleStatus, Integer> statusCounts = new EnumMap<>(HostRoleStatus.class);
 
     for (Long stageId : stageIds) {
       if (!stageDto.containsKey(stageId)) {
@@ -425,10 +426,10 @@ public class CalculatedStatus {
 
       HostRoleCommandStatusSummaryDTO dto = stageDto.get(stageId);
 
-      status.addAll(dto.getTaskStatuses());
+      addStatusCounts(statusCounts, dto.getCounts());
     }
 
-    return calculateStatusCounts(status);
+    return calculateStatusCountsFromSummary(statusCounts);
   }
 
   /**
@@ -491,7 +492,8 @@ public class CalculatedStatus {
 
     Collection<HostRoleStatus> stageStatuses = new HashSet<>();
     Collection<HostRoleStatus> stageDisplayStatuses = new HashSet<>();
-    Collection<HostRoleStatus> taskStatuses = new ArrayList<>();
+    Map<HostRoleStatus, Integer> taskStatusCounts = new EnumMap<>(HostRoleStatus.class);
+    int taskTotal = 0;
 
     for (Long stageId : stageIds) {
       if (!stageDto.containsKey(stageId)) {
@@ -502,13 +504,14 @@ public class CalculatedStatus {
 
       int total = summary.getTaskTotal();
       boolean skip = summary.isStageSkippable();
-      Map<HostRoleStatus, Integer> counts = calculateStatusCounts(summary.getTaskStatuses());
+      Map<HostRoleStatus, Integer> counts = calculateStatusCountsFromSummary(summary.getCounts());
       HostRoleStatus stageStatus = calculateSummaryStatus(counts, total, skip);
       HostRoleStatus stageDisplayStatus = calculateSummaryDisplayStatus(counts, total, skip);
 
       stageStatuses.add(stageStatus);
       stageDisplayStatuses.add(stageDisplayStatus);
-      taskStatuses.addAll(summary.getTaskStatuses());
+      addStatusCounts(taskStatusCounts, summary.getCounts());
+      taskTotal += total;
     }
 
     // calculate the overall status from the stage statuses
@@ -518,11 +521,67 @@ public class CalculatedStatus {
     HostRoleStatus status = calculateSummaryStatusOfUpgrade(counts, stageStatuses.size());
     HostRoleStatus displayStatus = calculateSummaryDisplayStatus(displayCounts, stageDisplayStatuses.size(), false);
 
-    double progressPercent = calculateProgressPercent(calculateStatusCounts(taskStatuses), taskStatuses.size());
+    double progressPercent = calculateProgressPercent(calculateStatusCountsFromSummary(taskStatusCounts),
+        taskTotal);
 
     return new CalculatedStatus(status, displayStatus, progressPercent);
   }
 
+  /**
+   * Returns counts of tasks that are in various states, in the same way as
+   * {@link #calculateStatusCounts(Collection)}, from the number of tasks in
+   * each state. This does not depend on the number of tasks.
+   *
+   * @param statusCounts  the number of tasks keyed by the task status
+   *
+   * @return a map of counts of tasks keyed by the task status
+   */
+  private static Map<HostRoleStatus, Integer> calculateStatusCountsFromSummary(
+      Map<HostRoleStatus, Integer> statusCounts) {
+    Map<HostRoleStatus, Integer> counters = new HashMap<>();
+    // initialize
+    for (HostRoleStatus hostRoleStatus : HostRoleStatus.values()) {
+      counters.put(hostRoleStatus, 0);
+    }
+
+    int total = 0;
+    for (Map.Entry<HostRoleStatus, Integer> entry : statusCounts.entrySet()) {
+      HostRoleStatus status = entry.getKey();
+      int count = entry.getValue();
+
+      // count tasks where isCompletedState() == true as COMPLETED
+      // but don't count tasks with COMPLETED status twice
+      if (status.isCompletedState() && status != HostRoleStatus.COMPLETED) {
+        counters.put(HostRoleStatus.COMPLETED, counters.get(HostRoleStatus.COMPLETED) + count);
+      }
+
+      counters.put(status, counters.get(status) + count);
+      total += count;
+    }
+
+    // We overwrite the value to have the sum converged
+    counters.put(HostRoleStatus.IN_PROGRESS,
+        total -
+            counters.get(HostRoleStatus.COMPLETED) -
+            counters.get(HostRoleStatus.QUEUED) -
+            counters.get(HostRoleStatus.PENDING));
+
+    return counters;
+  }
+
+  /**
+   * Adds the number of tasks in each state to the totals.
+   *
+   * @param totals        the totals keyed by the task status
+   * @param statusCounts  the number of tasks keyed by the task status
+   */
+  private static void addStatusCounts(Map<HostRoleStatus, Integer> totals,
+      Map<HostRoleStatus, Integer> statusCounts) {
+    for (Map.Entry<HostRoleStatus, Integer> entry : statusCounts.entrySet()) {
+      totals.merge(entry.getKey(), entry.getValue(), Integer::sum);
+    }
+  }
+
   /**
    * Returns counts of tasks that are in various states.
    *
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.apache.ambari.server.configuration.Configuration;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link ClientConfigArchiveCache} keeps the client configuration archives
+ * generated for components on disk, keyed by a digest of the command script,
+ * of the package folder holding the scripts and templates it renders, and of
+ * the command JSON passed to it. The command JSON holds the configurations of
+ * the cluster, so an archive is reused for as long as none of the inputs to
+ * its generation change, and the generation script does not need to run
+ * again.
+ * <p/>
+ * The number of cached archives is bounded; the least recently used archives
+ * are removed first. The cache is cleared when the server starts and when the
+ * stacks are reloaded.
+ */
+public final class ClientConfigArchiveCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ClientConfigArchiveCache.class);
+
+  /**
+   * The name of the directory, under the server temporary directory, in which
+   * the archives are kept.
+   */
+  static final String CACHE_DIRECTORY_NAME = "client-configs-cache";
+
+  private final File tmpDirectory;
+  private final File cacheDirectory;
+  private final int maxSize;
+
+  /**
+   * Constructor.
+   *
+   * @param tmpDir
+   *          the server temporary directory
+   * @param maxSize
+   *          the maximum number of cached archives, or {@code 0} to disable
+   *          the cache
+   */
+  ClientConfigArchiveCache(String tmpDir, int maxSize) {
+    tmpDirectory = new File(tmpDir);
+    cacheDirectory = new File(tmpDirectory, CACHE_DIRECTORY_NAME);
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Gets whether archives are cached.
+   *
+   * @return {@code true} if archives are cached.
+   */
+  boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  /**
+   * Removes every cached archive.
+   *
+   * @param tmpDir
+   *          the server temporary directory
+   */
+  public static void clear(String tmpDir) {
+    File cacheDirectory = new File(tmpDir, CACHE_DIRECTORY_NAME);
+    if (cacheDirectory.exists() && !FileUtils.deleteQuietly(cacheDirectory)) {
+      LOG.warn("Unable to clear the client configuration archive cache {}", cacheDirectory);
+    }
+  }
+
+  /**
+   * Gets the key of the archive generated by a command script.
+   *
+   * @param commandScript
+   *          the absolute path of the command script
+   * @param packageFolder
+   *          the absolute path of the package folder holding the scripts and
+   *          templates used by the command script
+   * @param commandJson
+   *          the command JSON passed to the script
+   * @return the key of the archive
+   * @throws IOException
+   *           if the package folder cannot be read
+   */
+  static String getKey(String commandScript, String packageFolder, String commandJson) throws IOException {
+    StringBuilder builder = new StringBuilder(commandScript).append('\n');
+    appendVersion(builder, new File(packageFolder));
+    builder.append(commandJson);
+
+    return DigestUtils.sha256Hex(builder.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Appends the path, size and modification time of each file under the
+   * package folder, so that the key changes whenever a script or template is
+   * replaced, without reading the content of every file on each download.
+   */
+  private static void appendVersion(StringBuilder builder, File packageFolder) throws IOException {
+    if (!packageFolder.isDirectory()) {
+      return;
+    }
+
+    Path root = packageFolder.toPath();
+    try (Stream<Path> paths = Files.walk(root)) {
+      paths.filter(Files::isRegularFile).sorted().forEach(path -> {
+        File file = path.toFile();
+        builder.append(root.relativize(path)).append(' ').append(file.length()).append(' ')
+            .append(file.lastModified()).append('\n');
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Copies the cached archive with the specified key, if any, to the server
+   * temporary directory.
+   *
+   * @param key
+   *          the key of the archive
+   * @param archiveName
+   *          the name of the archive in the server temporary directory
+   * @return {@code true} if the archive was cached and copied.
+   */
+  boolean restore(String key, String archiveName) {
+    if (!isEnabled()) {
+      return false;
+    }
+
+    File cached = getArchive(key);
+    if (!cached.isFile()) {
+      return false;
+    }
+
+    try {
+      Files.copy(cached.toPath(), new File(tmpDirectory, archiveName).toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+      cached.setLastModified(System.currentTimeMillis());
+      return true;
+    } catch (IOException e) {
+      LOG.warn("Unable to use the cached client configuration archive {}", cached, e);
+      return false;
+    }
+  }
+
+  /**
+   * Caches a generated archive under the specified key. Failing to cache the
+   * archive is not an error, since it only means that the archive is generated
+   * again the next time.
+   *
+   * @param key
+   *          the key of the archive
+   * @param archiveName
+   *          the name of the generated archive in the server temporary
+   *          directory
+   */
+  void store(String key, String archiveName) {
+    File source = new File(tmpDirectory, archiveName);
+    if (!isEnabled() || !source.isFile()) {
+      return;
+    }
+
+    File cached = getArchive(key);
+    File tmp = null;
+    try {
+      if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+        throw new IOException("Unable to create " + cacheDirectory);
+      }
+
+      // copy and then rename, so that a partially written archive is never used
+      tmp = File.createTempFile(key, ".tmp", cacheDirectory);
+      Files.copy(source.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      Files.move(tmp.toPath(), cached.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      LOG.warn("Unable to cache the client configuration archive {}", source, e);
+      if (null != tmp) {
+        tmp.delete();
+      }
+      return;
+    }
+
+    evict();
+  }
+
+  /**
+   * Removes the least recently used archives beyond the maximum size.
+   */
+  private void evict() {
+    File[] archives = cacheDirectory.listFiles(
+        (dir, name) -> name.endsWith(Configuration.DEF_ARCHIVE_EXTENSION));
+
+    if (null == archives || archives.length <= maxSize) {
+      return;
+    }
+
+    Arrays.sort(archives, Comparator.comparingLong(File::lastModified));
+    for (int i = 0; i < archives.length - maxSize; i++) {
+      if (!archives[i].delete()) {
+        LOG.debug("Unable to remove the cached client configuration archive {}", archives[i]);
+      }
+    }
+  }
+
+  private File getArchive(String key) {
+    return new File(cacheDirectory, key + Configuration.DEF_ARCHIVE_EXTENSION);
+  }
+}
@@ -214,6 +214,10 @@ public class ClientConfigResourceProvider extends AbstractControllerResourceProv
     List<String> pythonCompressFilesCmds = new ArrayList<>();
     List<File> commandFiles = new ArrayList<>();
 
+    // [ Archive Name -> Cache Key ] of the archives to cache once they are generated
+    ClientConfigArchiveCache archiveCache = new ClientConfigArchiveCache(TMP_PATH, configs.getClientConfigsCacheSize());
+    Map<String, String> archivesToCache = new HashMap<>();
+
     for (ServiceComponentHostResponse response : componentMap.values()){
 
       AmbariManagementController managementController = getManagementController();
@@ -441,6 +445,18 @@ public class ClientConfigResourceProvider extends AbstractControllerResourceProv
 
         jsonConfigurations = gson.toJson(jsonContent);
 
+        // the archive only depends on the command script, its package folder and the command json,
+        // so reuse it without running the script when none of them changed since it was generated
+        String archiveName = componentName + "-configs" + Configuration.DEF_ARCHIVE_EXTENSION;
+        String archiveKey = ClientConfigArchiveCache.getKey(commandScriptAbsolute, packageFolderAbsolute,
+            jsonConfigurations);
+        if (archiveCache.restore(archiveKey, archiveName)) {
+          LOG.debug("Using the cached client configuration archive for the component {}", componentName);
+          continue;
+        } else if (archiveCache.isEnabled()) {
+          archivesToCache.put(archiveName, archiveKey);
+        }
+
         File tmpDirectory = new File(TMP_PATH);
         if (!tmpDirectory.exists()) {
           try {
@@ -483,20 +499,26 @@ public class ClientConfigResourceProvider extends AbstractControllerResourceProv
       throw new SystemException("No configuration files defined for any component" );
     }
 
-    Integer totalCommands = pythonCompressFilesCmds.size() * 2;
-    Integer threadPoolSize = Math.min(totalCommands,configs.getExternalScriptThreadPoolSize());
-    ExecutorService processExecutor = Executors.newFixedThreadPool(threadPoolSize);
+    if (!pythonCompressFilesCmds.isEmpty()) {
+      Integer totalCommands = pythonCompressFilesCmds.size() * 2;
+      Integer threadPoolSize = Math.min(totalCommands,configs.getExternalScriptThreadPoolSize());
+      ExecutorService processExecutor = Executors.newFixedThreadPool(threadPoolSize);
 
-    // put all threads that starts process to compress each component config files in the executor
-    try {
-      List<CommandLineThreadWrapper> pythonCmdThreads = executeCommands(processExecutor, pythonCompressFilesCmds);
-
-      // wait for all threads to finish
-      Integer timeout = configs.getExternalScriptTimeout();
-      waitForAllThreadsToJoin(processExecutor, pythonCmdThreads, timeout);
-    } finally {
-      for (File each : commandFiles) {
-        each.delete();
+      // put all threads that starts process to compress each component config files in the executor
+      try {
+        List<CommandLineThreadWrapper> pythonCmdThreads = executeCommands(processExecutor, pythonCompressFilesCmds);
+
+        // wait for all threads to finish
+        Integer timeout = configs.getExternalScriptTimeout();
+        waitForAllThreadsToJoin(processExecutor, pythonCmdThreads, timeout);
+      } finally {
+        for (File each : commandFiles) {
+          each.delete();
+        }
+      }
+
+      for (Map.Entry<String, String> archiveToCache : archivesToCache.entrySet()) {
+        archiveCache.store(archiveToCache.getValue(), archiveToCache.getKey());
       }
     }
 
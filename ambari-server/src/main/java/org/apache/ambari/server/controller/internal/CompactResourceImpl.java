@@ -0,0 +1,579 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.ambari.server.api.services.BaseRequest;
+import org.apache.ambari.server.controller.internal.ResourcePropertyIndex.Slot;
+import org.apache.ambari.server.controller.spi.Request;
+import org.apache.ambari.server.controller.spi.Resource;
+import org.apache.ambari.server.controller.utilities.PropertyHelper;
+
+/**
+ * Resource implementation for large, request scoped results (e.g. host
+ * components with metrics). Properties are interned per resource type (see
+ * {@link ResourcePropertyIndex}) and stored in two flat arrays ordered by slot
+ * instead of nested maps, and access is not synchronized: a resource must only
+ * be modified by one thread at a time.
+ * <p/>
+ * {@link #getPropertiesMap()} returns a live view with the same content and
+ * ordering as {@link ResourceImpl#getPropertiesMap()}; modifications through
+ * the view are written back to the resource.
+ */
+public class CompactResourceImpl implements Resource {
+
+  private static final Slot[] NO_SLOTS = new Slot[0];
+  private static final Object[] NO_VALUES = new Object[0];
+
+  /**
+   * Stored in place of {@code null} values to distinguish them from unset
+   * properties.
+   */
+  private static final Object NULL_VALUE = new Object();
+
+  /**
+   * Whether bulk read requests create compact resources.
+   */
+  private static volatile boolean enabled = false;
+
+  private final Type type;
+
+  private final ResourcePropertyIndex index;
+
+  /**
+   * Slots of the set properties ordered by slot index; only the first
+   * {@link #size} elements are used.
+   */
+  private Slot[] slots = NO_SLOTS;
+
+  /**
+   * Values of the set properties, parallel to {@link #slots}.
+   */
+  private Object[] values = NO_VALUES;
+
+  private int size = 0;
+
+  /**
+   * Properties which could not be interned; created on demand.
+   */
+  private Map<String, Map<String, Object>> overflow;
+
+  /**
+   * Categories added without properties; created on demand.
+   */
+  private List<String> emptyCategories;
+
+  /**
+   * Incremented whenever a property or category is added or removed, so that
+   * views only sort the categories and property names again after a change.
+   */
+  private int modCount = 0;
+
+  /**
+   * The sorted categories as of {@link #categoriesModCount}.
+   */
+  private List<String> categories;
+  private int categoriesModCount = -1;
+
+  // ----- Constructors ------------------------------------------------------
+
+  /**
+   * Create a resource of the given type.
+   *
+   * @param type the resource type
+   */
+  public CompactResourceImpl(Type type) {
+    this.type = type;
+    index = ResourcePropertyIndex.forType(type);
+  }
+
+  /**
+   * Determines whether resource providers create compact resources for bulk
+   * read requests which do not specify it themselves.
+   *
+   * @param isEnabled  {@code true} to create compact resources by default
+   */
+  public static void setEnabled(boolean isEnabled) {
+    enabled = isEnabled;
+  }
+
+  /**
+   * Create a resource for the result of a read request. The resource is compact
+   * if the request asks for it with the {@code compact_resources} query
+   * parameter, or by default if compact resources are enabled.
+   *
+   * @param type     the resource type
+   * @param request  the read request; may be null
+   *
+   * @return the new resource
+   */
+  public static Resource createReadResource(Type type, Request request) {
+    return isCompact(request) ? new CompactResourceImpl(type) : new ResourceImpl(type);
+  }
+
+  /**
+   * Determine whether the resources read by the given request are compact.
+   *
+   * @param request  the read request; may be null
+   *
+   * @return true if the resources are compact
+   */
+  static boolean isCompact(Request request) {
+    Map<String, String> requestInfoProperties = request == null ? null : request.getRequestInfoProperties();
+    String compact = requestInfoProperties == null ? null
+        : requestInfoProperties.get(BaseRequest.COMPACT_RESOURCES_PROPERTY_KEY);
+    return compact == null ? enabled : Boolean.parseBoolean(compact);
+  }
+
+
+  // ----- Resource ----------------------------------------------------------
+
+  @Override
+  public Type getType() {
+    return type;
+  }
+
+  @Override
+  public Map<String, Map<String, Object>> getPropertiesMap() {
+    return new CategoriesView();
+  }
+
+  @Override
+  public void setProperty(String id, Object value) {
+    Slot slot = index.getSlot(id, true);
+    if (slot != null) {
+      put(slot, value);
+    } else {
+      putOverflow(ResourcePropertyIndex.getCategoryKey(PropertyHelper.getPropertyCategory(id)),
+          PropertyHelper.getPropertyName(id), value);
+    }
+  }
+
+  @Override
+  public void addCategory(String id) {
+    String category = ResourcePropertyIndex.getCategoryKey(id);
+    if (!hasCategory(category)) {
+      if (emptyCategories == null) {
+        emptyCategories = new ArrayList<>(1);
+      }
+      emptyCategories.add(category);
+      modCount++;
+    }
+  }
+
+  @Override
+  public Object getPropertyValue(String id) {
+    Slot slot = index.getSlot(id, false);
+    if (slot != null) {
+      int i = find(slot);
+      return i < 0 ? null : unwrap(values[i]);
+    }
+    if (overflow == null) {
+      return null;
+    }
+    Map<String, Object> properties = overflow.get(
+        ResourcePropertyIndex.getCategoryKey(PropertyHelper.getPropertyCategory(id)));
+    return properties == null ? null : properties.get(PropertyHelper.getPropertyName(id));
+  }
+
+  @Override
+  public Object getPropertyValue(String category, String name) {
+    String categoryKey = ResourcePropertyIndex.getCategoryKey(category);
+    Slot slot = index.getSlot(categoryKey, name, false);
+    if (slot != null) {
+      int i = find(slot);
+      return i < 0 ? null : unwrap(values[i]);
+    }
+    if (overflow == null) {
+      return null;
+    }
+    Map<String, Object> properties = overflow.get(categoryKey);
+    return properties == null ? null : properties.get(name);
+  }
+
+
+  // ----- Object overrides --------------------------------------------------
+
+  @Override
+  public String toString() {
+    return "Resource : " + type + "\n" + "Properties:\n" + getPropertiesMap();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    CompactResourceImpl resource = (CompactResourceImpl) o;
+
+    return type == resource.type && getPropertiesMap().equals(resource.getPropertiesMap());
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * type.hashCode() + getPropertiesMap().hashCode();
+  }
+
+
+  // ----- storage -----------------------------------------------------------
+
+  /**
+   * @return the position of the slot or {@code -(insertion point) - 1}
+   */
+  private int find(Slot slot) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midIndex = slots[mid].index;
+      if (midIndex < slot.index) {
+        low = mid + 1;
+      } else if (midIndex > slot.index) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private Object put(Slot slot, Object value) {
+    Object wrapped = value == null ? NULL_VALUE : value;
+    int i = find(slot);
+    if (i >= 0) {
+      Object previous = values[i];
+      values[i] = wrapped;
+      return unwrap(previous);
+    }
+
+    i = -(i + 1);
+    if (size == slots.length) {
+      int capacity = Math.max(4, size + (size >> 1));
+      slots = Arrays.copyOf(slots, capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+    System.arraycopy(slots, i, slots, i + 1, size - i);
+    System.arraycopy(values, i, values, i + 1, size - i);
+    slots[i] = slot;
+    values[i] = wrapped;
+    size++;
+    modCount++;
+    return null;
+  }
+
+  private Object remove(int i) {
+    Object previous = values[i];
+    System.arraycopy(slots, i + 1, slots, i, size - i - 1);
+    System.arraycopy(values, i + 1, values, i, size - i - 1);
+    size--;
+    slots[size] = null;
+    values[size] = null;
+    modCount++;
+    return unwrap(previous);
+  }
+
+  private Object putOverflow(String category, String name, Object value) {
+    if (overflow == null) {
+      overflow = new TreeMap<>();
+    }
+    Map<String, Object> properties = overflow.get(category);
+    if (properties == null) {
+      properties = new TreeMap<>();
+      overflow.put(category, properties);
+    }
+    modCount++;
+    return properties.put(name, value);
+  }
+
+  private static Object unwrap(Object value) {
+    return value == NULL_VALUE ? null : value;
+  }
+
+  private boolean hasCategory(String category) {
+    for (int i = 0; i < size; i++) {
+      if (slots[i].category.equals(category)) {
+        return true;
+      }
+    }
+    return (overflow != null && overflow.containsKey(category))
+        || (emptyCategories != null && emptyCategories.contains(category));
+  }
+
+  /**
+   * @return the categories of the resource in ascending order; sorted again
+   *         only after the properties or categories change
+   */
+  private List<String> getCategories() {
+    if (categoriesModCount != modCount) {
+      Set<String> sorted = new TreeSet<>();
+      for (int i = 0; i < size; i++) {
+        sorted.add(slots[i].category);
+      }
+      if (overflow != null) {
+        sorted.addAll(overflow.keySet());
+      }
+      if (emptyCategories != null) {
+        sorted.addAll(emptyCategories);
+      }
+      categories = new ArrayList<>(sorted);
+      categoriesModCount = modCount;
+    }
+    return categories;
+  }
+
+  private void removeCategory(String category) {
+    for (int i = size - 1; i >= 0; i--) {
+      if (slots[i].category.equals(category)) {
+        remove(i);
+      }
+    }
+    if (overflow != null) {
+      overflow.remove(category);
+    }
+    if (emptyCategories != null) {
+      emptyCategories.remove(category);
+    }
+    modCount++;
+  }
+
+
+  // ----- views -------------------------------------------------------------
+
+  /**
+   * Live view of the properties keyed by category.
+   */
+  private class CategoriesView extends AbstractMap<String, Map<String, Object>> {
+
+    @Override
+    public Set<Entry<String, Map<String, Object>>> entrySet() {
+      return new AbstractSet<Entry<String, Map<String, Object>>>() {
+        @Override
+        public Iterator<Entry<String, Map<String, Object>>> iterator() {
+          final Iterator<String> categories = getCategories().iterator();
+          return new Iterator<Entry<String, Map<String, Object>>>() {
+            private String current;
+
+            @Override
+            public boolean hasNext() {
+              return categories.hasNext();
+            }
+
+            @Override
+            public Entry<String, Map<String, Object>> next() {
+              current = categories.next();
+              return new SimpleImmutableEntry<>(current, new CategoryView(current));
+            }
+
+            @Override
+            public void remove() {
+              if (current == null) {
+                throw new IllegalStateException();
+              }
+              removeCategory(current);
+              current = null;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return getCategories().size();
+        }
+      };
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof String && hasCategory((String) key);
+    }
+
+    @Override
+    public Map<String, Object> get(Object key) {
+      return containsKey(key) ? new CategoryView((String) key) : null;
+    }
+
+    @Override
+    public Map<String, Object> put(String key, Map<String, Object> value) {
+      Map<String, Object> previous = remove(key);
+      addCategory(key);
+      new CategoryView(key).putAll(value);
+      return previous;
+    }
+
+    @Override
+    public Map<String, Object> remove(Object key) {
+      if (!containsKey(key)) {
+        return null;
+      }
+      Map<String, Object> previous = new TreeMap<>(new CategoryView((String) key));
+      removeCategory((String) key);
+      return previous;
+    }
+  }
+
+  /**
+   * Live view of the properties of a category keyed by name.
+   */
+  private class CategoryView extends AbstractMap<String, Object> {
+
+    private final String category;
+
+    /**
+     * The sorted property names as of {@link #namesModCount}.
+     */
+    private List<String> names;
+    private int namesModCount = -1;
+
+    private CategoryView(String category) {
+      this.category = category;
+    }
+
+    /**
+     * @return the property names of the category in ascending order; sorted
+     *         again only after the properties of the resource change
+     */
+    private List<String> getNames() {
+      if (namesModCount != modCount) {
+        Set<String> sorted = new TreeSet<>();
+        for (int i = 0; i < size; i++) {
+          if (slots[i].category.equals(category)) {
+            sorted.add(slots[i].name);
+          }
+        }
+        Map<String, Object> properties = overflow == null ? null : overflow.get(category);
+        if (properties != null) {
+          sorted.addAll(properties.keySet());
+        }
+        names = new ArrayList<>(sorted);
+        namesModCount = modCount;
+      }
+      return names;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          final Iterator<String> names = getNames().iterator();
+          return new Iterator<Entry<String, Object>>() {
+            private String current;
+
+            @Override
+            public boolean hasNext() {
+              return names.hasNext();
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              if (!names.hasNext()) {
+                throw new NoSuchElementException();
+              }
+              current = names.next();
+              final String name = current;
+              return new SimpleEntry<String, Object>(name, get(name)) {
+                @Override
+                public Object setValue(Object value) {
+                  super.setValue(value);
+                  return put(name, value);
+                }
+              };
+            }
+
+            @Override
+            public void remove() {
+              if (current == null) {
+                throw new IllegalStateException();
+              }
+              CategoryView.this.remove(current);
+              current = null;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return getNames().size();
+        }
+      };
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      if (!(key instanceof String)) {
+        return false;
+      }
+      Slot slot = index.getSlot(category, (String) key, false);
+      if (slot != null) {
+        return find(slot) >= 0;
+      }
+      Map<String, Object> properties = overflow == null ? null : overflow.get(category);
+      return properties != null && properties.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+      if (!(key instanceof String)) {
+        return null;
+      }
+      Slot slot = index.getSlot(category, (String) key, false);
+      if (slot != null) {
+        int i = find(slot);
+        return i < 0 ? null : unwrap(values[i]);
+      }
+      Map<String, Object> properties = overflow == null ? null : overflow.get(category);
+      return properties == null ? null : properties.get(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+      Slot slot = index.getSlot(category, key, true);
+      return slot != null ? CompactResourceImpl.this.put(slot, value) : putOverflow(category, key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+      if (!containsKey(key)) {
+        return null;
+      }
+      Object previous;
+      Slot slot = index.getSlot(category, (String) key, false);
+      int i = slot == null ? -1 : find(slot);
+      if (i >= 0) {
+        previous = CompactResourceImpl.this.remove(i);
+      } else {
+        previous = overflow.get(category).remove(key);
+        modCount++;
+      }
+      // like ResourceImpl, keep the category after its last property is removed
+      addCategory(category);
+      return previous;
+    }
+  }
+}
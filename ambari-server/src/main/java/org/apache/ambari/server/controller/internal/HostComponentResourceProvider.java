@@ -271,7 +271,7 @@ public class HostComponentResourceProvider extends AbstractControllerResourcePro
     });
 
     for (ServiceComponentHostResponse response : responses) {
-      Resource resource = new ResourceImpl(Resource.Type.HostComponent);
+      Resource resource = CompactResourceImpl.createReadResource(Resource.Type.HostComponent, request);
       setResourceProperty(resource, CLUSTER_NAME,
               response.getClusterName(), requestedIds);
       setResourceProperty(resource, SERVICE_NAME,
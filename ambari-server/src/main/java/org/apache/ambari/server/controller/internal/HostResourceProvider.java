@@ -273,7 +273,7 @@ public class HostResourceProvider extends AbstractControllerResourceProvider {
     Set<Resource> resources    = new HashSet<>();
 
     for (HostResponse response : responses) {
-      Resource resource = new ResourceImpl(Resource.Type.Host);
+      Resource resource = CompactResourceImpl.createReadResource(Resource.Type.Host, request);
 
       // TODO : properly handle more than one cluster
       if (response.getClusterName() != null
@@ -125,12 +125,23 @@ public class ResourceImpl implements Resource {
 
   @Override
   public Object getPropertyValue(String id) {
-    String categoryKey = getCategoryKey(PropertyHelper.getPropertyCategory(id));
+    return getPropertyValue(PropertyHelper.getPropertyCategory(id), PropertyHelper.getPropertyName(id));
+  }
 
-    Map<String, Object> properties = propertiesMap.get(categoryKey);
+  /**
+   * Get a property value for the given category and property name from this
+   * resource.
+   *
+   * @param category  the property category; may be {@code null}
+   * @param name      the property name
+   *
+   * @return the property value
+   */
+  @Override
+  public Object getPropertyValue(String category, String name) {
+    Map<String, Object> properties = propertiesMap.get(getCategoryKey(category));
 
-    return properties == null ?
-        null : properties.get(PropertyHelper.getPropertyName(id));
+    return properties == null ? null : properties.get(name);
   }
 
 
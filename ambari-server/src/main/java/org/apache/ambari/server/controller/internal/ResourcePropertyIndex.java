@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ambari.server.controller.spi.Resource;
+import org.apache.ambari.server.controller.utilities.PropertyHelper;
+
+/**
+ * Interned property ids of a resource type. Every distinct property gets a
+ * {@link Slot} holding its category and name, so splitting the property id
+ * happens once per id instead of once per resource, and all resources of the
+ * type share the same category and name strings.
+ * <p/>
+ * The number of slots is capped since property ids with arguments (e.g.
+ * metrics of user defined queues) are not bounded by the schema; properties
+ * beyond the cap are not interned.
+ */
+final class ResourcePropertyIndex {
+
+  /**
+   * The maximum number of interned properties per resource type.
+   */
+  static final int MAX_SLOTS = 16384;
+
+  private static final ConcurrentMap<Resource.Type, ResourcePropertyIndex> INDEXES = new ConcurrentHashMap<>();
+
+  /**
+   * Slots keyed by the property id they were looked up by.
+   */
+  private final ConcurrentMap<String, Slot> slotsById = new ConcurrentHashMap<>();
+
+  /**
+   * Slots keyed by category and name.
+   */
+  private final ConcurrentMap<String, ConcurrentMap<String, Slot>> slotsByCategory = new ConcurrentHashMap<>();
+
+  /**
+   * The number of slots, guarded by {@code this}.
+   */
+  private int slotCount = 0;
+
+  /**
+   * An interned property.
+   */
+  static final class Slot {
+    /**
+     * Unique within the index; used to order the properties of a resource.
+     */
+    final int index;
+
+    /**
+     * The category key, an empty string for properties without category.
+     */
+    final String category;
+
+    final String name;
+
+    private Slot(int index, String category, String name) {
+      this.index = index;
+      this.category = category;
+      this.name = name;
+    }
+  }
+
+  private ResourcePropertyIndex() {
+  }
+
+  /**
+   * @param type  the resource type
+   *
+   * @return the index shared by all resources of the given type
+   */
+  static ResourcePropertyIndex forType(Resource.Type type) {
+    ResourcePropertyIndex index = INDEXES.get(type);
+    if (index == null) {
+      INDEXES.putIfAbsent(type, new ResourcePropertyIndex());
+      index = INDEXES.get(type);
+    }
+    return index;
+  }
+
+  /**
+   * Gets the slot of the given property id.
+   *
+   * @param propertyId  the property id
+   * @param create      whether to intern the property if it is not known yet
+   *
+   * @return the slot or {@code null} if the property is not interned
+   */
+  Slot getSlot(String propertyId, boolean create) {
+    Slot slot = slotsById.get(propertyId);
+    if (slot == null) {
+      slot = getSlot(getCategoryKey(PropertyHelper.getPropertyCategory(propertyId)),
+          PropertyHelper.getPropertyName(propertyId), create);
+      if (slot != null && slotsById.size() < MAX_SLOTS) {
+        slotsById.putIfAbsent(propertyId, slot);
+      }
+    }
+    return slot;
+  }
+
+  /**
+   * Gets the slot of the given property.
+   *
+   * @param category  the category key
+   * @param name      the property name
+   * @param create    whether to intern the property if it is not known yet
+   *
+   * @return the slot or {@code null} if the property is not interned
+   */
+  Slot getSlot(String category, String name, boolean create) {
+    ConcurrentMap<String, Slot> categorySlots = slotsByCategory.get(category);
+    Slot slot = categorySlots == null ? null : categorySlots.get(name);
+    if (slot == null && create) {
+      slot = createSlot(category, name);
+    }
+    return slot;
+  }
+
+  private synchronized Slot createSlot(String category, String name) {
+    ConcurrentMap<String, Slot> categorySlots = slotsByCategory.get(category);
+    if (categorySlots == null) {
+      if (slotCount >= MAX_SLOTS) {
+        return null;
+      }
+      categorySlots = new ConcurrentHashMap<>();
+      slotsByCategory.put(category, categorySlots);
+    }
+
+    Slot slot = categorySlots.get(name);
+    if (slot == null && slotCount < MAX_SLOTS) {
+      slot = new Slot(slotCount++, category, name);
+      categorySlots.put(name, slot);
+    }
+    return slot;
+  }
+
+  /**
+   * @param category  the property category; may be {@code null}
+   *
+   * @return the key used for the category
+   */
+  static String getCategoryKey(String category) {
+    return category == null ? "" : category;
+  }
+}
@@ -21,33 +21,53 @@ package org.apache.ambari.server.controller.internal;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.ambari.server.AmbariException;
+import org.apache.ambari.server.StaticallyInject;
+import org.apache.ambari.server.api.query.JpaPushdownVisitor;
 import org.apache.ambari.server.controller.AmbariManagementController;
 import org.apache.ambari.server.controller.ConfigurationResponse;
 import org.apache.ambari.server.controller.ServiceConfigVersionRequest;
 import org.apache.ambari.server.controller.ServiceConfigVersionResponse;
+import org.apache.ambari.server.controller.spi.ExtendedResourceProvider;
 import org.apache.ambari.server.controller.spi.NoSuchParentResourceException;
 import org.apache.ambari.server.controller.spi.NoSuchResourceException;
 import org.apache.ambari.server.controller.spi.Predicate;
+import org.apache.ambari.server.controller.spi.QueryResponse;
 import org.apache.ambari.server.controller.spi.Request;
 import org.apache.ambari.server.controller.spi.RequestStatus;
 import org.apache.ambari.server.controller.spi.Resource;
 import org.apache.ambari.server.controller.spi.ResourceAlreadyExistsException;
+import org.apache.ambari.server.controller.spi.SortRequest;
+import org.apache.ambari.server.controller.spi.SortRequestProperty;
 import org.apache.ambari.server.controller.spi.SystemException;
 import org.apache.ambari.server.controller.spi.UnsupportedPropertyException;
+import org.apache.ambari.server.orm.dao.ServiceConfigDAO;
+import org.apache.ambari.server.orm.entities.ServiceConfigEntity_;
 import org.apache.ambari.server.security.authorization.RoleAuthorization;
+import org.apache.ambari.server.state.Cluster;
 
+import com.google.inject.Inject;
+
+/**
+ * Resource provider for service config versions. Paged requests which only
+ * filter and sort by properties stored with the service config version are
+ * sliced by the database, so only the requested page is converted into
+ * resources.
+ */
+@StaticallyInject
 public class ServiceConfigVersionResourceProvider extends
-    AbstractControllerResourceProvider {
+    AbstractControllerResourceProvider implements ExtendedResourceProvider {
 
   public static final String CLUSTER_NAME_PROPERTY_ID = "cluster_name";
   public static final String SERVICE_CONFIG_VERSION_PROPERTY_ID = "service_config_version";
@@ -74,6 +94,22 @@ public class ServiceConfigVersionResourceProvider extends
    */
   private static final Map<Resource.Type, String> KEY_PROPERTY_IDS = new HashMap<>();
 
+  /**
+   * The property ids which can be filtered and sorted by in the database.
+   */
+  private static final Set<String> PUSHDOWN_PROPERTY_IDS = ServiceConfigEntity_.getPredicateMapping().keySet();
+
+  /**
+   * The property ids which are resolved before querying the database.
+   */
+  private static final Set<String> SCOPE_PROPERTY_IDS = Collections.singleton(CLUSTER_NAME_PROPERTY_ID);
+
+  /**
+   * Used to query service config versions page by page.
+   */
+  @Inject
+  private static ServiceConfigDAO serviceConfigDAO;
+
   static {
     // properties
     PROPERTY_IDS.add(CLUSTER_NAME_PROPERTY_ID);
@@ -140,14 +176,22 @@ public class ServiceConfigVersionResourceProvider extends
       requests.add(createRequest(properties));
     }
 
+    final String pushDownClusterName = getPushDownClusterName(request, predicate);
+
     Set<ServiceConfigVersionResponse> responses = getResources(new Command<Set<ServiceConfigVersionResponse>>() {
       @Override
       public Set<ServiceConfigVersionResponse> invoke() throws AmbariException {
+        if (null != pushDownClusterName) {
+          Cluster cluster = getManagementController().getClusters().getCluster(pushDownClusterName);
+          return new LinkedHashSet<>(cluster.getServiceConfigVersions(
+              serviceConfigDAO.findAll(cluster.getClusterId(), getPushDownSortRequest(request),
+                  request.getPageRequest(), predicate)));
+        }
         return getManagementController().getServiceConfigVersions(requests);
       }
     });
 
-    Set<Resource> resources = new HashSet<>();
+    Set<Resource> resources = new LinkedHashSet<>();
     for (ServiceConfigVersionResponse response : responses) {
       String clusterName = response.getClusterName();
       List<ConfigurationResponse> configurationResponses = response.getConfigurations();
@@ -173,6 +217,86 @@ public class ServiceConfigVersionResourceProvider extends
     return resources;
   }
 
+  @Override
+  public QueryResponse queryForResources(Request request, Predicate predicate)
+      throws SystemException, UnsupportedPropertyException, NoSuchResourceException, NoSuchParentResourceException {
+
+    Set<Resource> resources = getResources(request, predicate);
+
+    final String pushDownClusterName = getPushDownClusterName(request, predicate);
+    if (null == pushDownClusterName) {
+      return new QueryResponseImpl(resources);
+    }
+
+    Integer totalCount = getResources(new Command<Integer>() {
+      @Override
+      public Integer invoke() throws AmbariException {
+        Cluster cluster = getManagementController().getClusters().getCluster(pushDownClusterName);
+        return serviceConfigDAO.getCount(cluster.getClusterId(), predicate);
+      }
+    });
+
+    return new QueryResponseImpl(resources, true, true, totalCount);
+  }
+
+  /**
+   * Gets the name of the cluster whose service config versions can be paged
+   * by the database for the given request.
+   *
+   * @param request    the request
+   * @param predicate  the predicate
+   *
+   * @return the cluster name, or {@code null} if the request should be
+   *         handled in memory
+   */
+  private String getPushDownClusterName(Request request, Predicate predicate) {
+    if (null == request.getPageRequest() || null == serviceConfigDAO
+        || !JpaPushdownVisitor.canPushDown(request, predicate, PUSHDOWN_PROPERTY_IDS, SCOPE_PROPERTY_IDS)) {
+      return null;
+    }
+
+    String clusterName = null;
+    for (Map<String, Object> properties : getPropertyMaps(predicate)) {
+      Object propertyClusterName = properties.get(CLUSTER_NAME_PROPERTY_ID);
+      if (null == propertyClusterName || (null != clusterName && !clusterName.equals(propertyClusterName))) {
+        return null;
+      }
+      clusterName = propertyClusterName.toString();
+    }
+    return clusterName;
+  }
+
+  /**
+   * Gets the sort request for the database. The cluster controller sorts the
+   * resources it pages by the requested properties and then by the key
+   * properties of the resource type, so these are appended to the requested
+   * properties to return pages in the same order.
+   *
+   * @param request  the request
+   *
+   * @return the sort request
+   */
+  SortRequest getPushDownSortRequest(Request request) {
+    List<SortRequestProperty> properties = new ArrayList<>();
+    Set<String> propertyIds = new HashSet<>();
+
+    SortRequest sortRequest = request.getSortRequest();
+    if (null != sortRequest && null != sortRequest.getProperties()) {
+      for (SortRequestProperty property : sortRequest.getProperties()) {
+        properties.add(property);
+        propertyIds.add(property.getPropertyId());
+      }
+    }
+
+    for (String keyPropertyId : getKeyPropertyIds().values()) {
+      if (propertyIds.add(keyPropertyId)) {
+        properties.add(new SortRequestProperty(keyPropertyId, SortRequest.Order.ASC));
+      }
+    }
+
+    return new SortRequestImpl(properties);
+  }
+
   @Override
   public RequestStatus updateResources(Request request, Predicate predicate) throws SystemException, UnsupportedPropertyException, NoSuchResourceException, NoSuchParentResourceException {
     throw new UnsupportedOperationException("Cannot update service config version");
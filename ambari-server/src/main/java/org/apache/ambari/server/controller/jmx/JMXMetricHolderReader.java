@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.jmx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * The {@link JMXMetricHolderReader} parses the JSON returned by a JMX endpoint
+ * into a {@link JMXMetricHolder} while streaming, keeping only the bean
+ * attributes which are needed. Skipped attributes are never materialized,
+ * which avoids building large values such as the live node lists of a
+ * NameNode for every request.
+ */
+public final class JMXMetricHolderReader {
+
+  /**
+   * The key of the attribute holding the name of a bean.
+   */
+  public static final String NAME_KEY = "name";
+
+  /**
+   * The key of the attribute holding the RPC port of a bean.
+   */
+  public static final String PORT_KEY = "tag.port";
+
+  private static final String BEANS_KEY = "beans";
+
+  /**
+   * Used to read the values of the attributes which are kept, so that they
+   * have the same types as when the whole response is mapped.
+   */
+  private final ObjectMapper m_objectMapper;
+
+  private final JsonFactory m_jsonFactory;
+
+  /**
+   * Constructor.
+   */
+  public JMXMetricHolderReader() {
+    m_objectMapper = new ObjectMapper();
+    m_objectMapper.configure(JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS, true);
+    m_jsonFactory = m_objectMapper.getJsonFactory();
+  }
+
+  /**
+   * Reads the beans from the given stream.
+   *
+   * @param inputStream
+   *          the JMX JSON response (not {@code null}).
+   * @param attributes
+   *          the names of the attributes to keep, or an empty set to keep all
+   *          of them. The name and port of each bean are always kept, but
+   *          beans without any of the attributes are dropped.
+   * @return the beans read (never {@code null}).
+   * @throws IOException
+   *           if the stream could not be read or is not valid JMX JSON.
+   */
+  public JMXMetricHolder read(InputStream inputStream, Set<String> attributes) throws IOException {
+    List<Map<String, Object>> beans = new ArrayList<>();
+
+    try (JsonParser parser = m_jsonFactory.createJsonParser(inputStream)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException("Expected a JSON object", parser.getCurrentLocation());
+      }
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (BEANS_KEY.equals(fieldName) && token == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            Map<String, Object> bean = readBean(parser, attributes);
+            if (null != bean) {
+              beans.add(bean);
+            }
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    JMXMetricHolder jmxMetricHolder = new JMXMetricHolder();
+    jmxMetricHolder.setBeans(beans);
+    return jmxMetricHolder;
+  }
+
+  /**
+   * Reads the bean which starts at the current token.
+   *
+   * @return the bean, or {@code null} if it has none of the attributes.
+   */
+  private Map<String, Object> readBean(JsonParser parser, Set<String> attributes)
+      throws IOException {
+    Map<String, Object> bean = new LinkedHashMap<>();
+    boolean hasAttributes = attributes.isEmpty();
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      parser.nextToken();
+
+      boolean identity = NAME_KEY.equals(name) || PORT_KEY.equals(name);
+      if (identity || attributes.isEmpty() || attributes.contains(name)) {
+        bean.put(name, m_objectMapper.readValue(parser, Object.class));
+        hasAttributes |= !identity;
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    return hasAttributes ? bean : null;
+  }
+}
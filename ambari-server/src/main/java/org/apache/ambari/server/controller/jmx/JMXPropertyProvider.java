@@ -26,6 +26,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -124,6 +125,12 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
   private static final Pattern dotReplacementCharPattern =
     Pattern.compile(DOT_REPLACEMENT_CHAR);
 
+  /**
+   * Matches attribute names which are only known once the arguments of a
+   * metric have been substituted.
+   */
+  private static final Pattern ATTRIBUTE_ARGUMENT_PATTERN = Pattern.compile("[$()*\\\\]");
+
   private final StreamProvider streamProvider;
 
   private final JMXHostProvider jmxHostProvider;
@@ -138,6 +145,13 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
 
   private final Map<String, String> clusterComponentPortsMap;
 
+  /**
+   * The names of the JMX attributes read for each component, or an empty set
+   * if they cannot be determined. Only these attributes are kept when JMX
+   * responses are parsed.
+   */
+  private final Map<String, Set<String>> jmxAttributesByComponent = new ConcurrentHashMap<>();
+
   /**
    * Used to submit asynchronous requests for remote metrics as well as querying
    * cached metrics.
@@ -252,6 +266,8 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
       return resource;
     }
 
+    Set<String> jmxAttributes = getJMXAttributes(componentName);
+
     String spec = null;
     for (String hostName : hostNames) {
       try {
@@ -267,7 +283,7 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
         String jmxUrl = getSpec(protocol, hostName, port, "/jmx");
 
         // always submit a request to cache the latest data
-        metricsRetrievalService.submitRequest(MetricSourceType.JMX, streamProvider, jmxUrl);
+        metricsRetrievalService.submitRequest(MetricSourceType.JMX, streamProvider, jmxUrl, jmxAttributes);
 
         // check to see if there is a cached value and use it if there is
         JMXMetricHolder jmxMetricHolder = metricsRetrievalService.getCachedJMXMetric(jmxUrl);
@@ -277,7 +293,8 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
           String publicJmxUrl = getSpec(protocol, publicHostName, port, "/jmx");
 
           // always submit a request to cache the latest data
-          metricsRetrievalService.submitRequest(MetricSourceType.JMX, streamProvider, publicJmxUrl);
+          metricsRetrievalService.submitRequest(MetricSourceType.JMX, streamProvider, publicJmxUrl,
+              jmxAttributes);
 
           // check to see if there is a cached value and use it if there is
           jmxMetricHolder = metricsRetrievalService.getCachedJMXMetric(publicJmxUrl);
@@ -302,7 +319,8 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
               }
               if (queryURL != null) {
                 String adHocUrl = getSpec(protocol, hostName, port, queryURL);
-                metricsRetrievalService.submitRequest(MetricSourceType.JMX, streamProvider, adHocUrl);
+                metricsRetrievalService.submitRequest(MetricSourceType.JMX, streamProvider, adHocUrl,
+                    jmxAttributes);
                 JMXMetricHolder adHocJMXMetricHolder = metricsRetrievalService.getCachedJMXMetric(adHocUrl);
 
                 if( adHocJMXMetricHolder == null && !hostName.equalsIgnoreCase(publicHostName)) {
@@ -310,7 +328,8 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
                   String publicAdHocUrl = getSpec(protocol, publicHostName, port, queryURL);
 
                   // always submit a request to cache the latest data
-                  metricsRetrievalService.submitRequest(MetricSourceType.JMX, streamProvider, publicAdHocUrl);
+                  metricsRetrievalService.submitRequest(MetricSourceType.JMX, streamProvider,
+                      publicAdHocUrl, jmxAttributes);
 
                   // check to see if there is a cached value and use it if there is
                   adHocJMXMetricHolder = metricsRetrievalService.getCachedJMXMetric(publicAdHocUrl);
@@ -369,7 +388,6 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
         if (propertyInfo.isPointInTime()) {
 
           String property = propertyInfo.getPropertyId();
-          String category = "";
 
           List<String> keyList = new LinkedList<>();
 
@@ -381,23 +399,9 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
             }
           }
 
-          if (!containsArguments(propertyId)) {
-            int dotIndex = property.indexOf('.', property.indexOf('='));
-            if (-1 != dotIndex) {
-              category = property.substring(0, dotIndex);
-              property = (-1 == keyStartIndex) ?
-                      property.substring(dotIndex+1) :
-                      property.substring(dotIndex+1, keyStartIndex);
-            }
-          } else {
-            int firstKeyIndex = keyStartIndex > -1 ? keyStartIndex : property.length();
-            int dotIndex = property.lastIndexOf('.', firstKeyIndex);
-
-            if (dotIndex != -1) {
-              category = property.substring(0, dotIndex);
-              property = property.substring(dotIndex + 1, firstKeyIndex);
-            }
-          }
+          String[] categoryAndProperty = splitProperty(propertyId, property);
+          String category = categoryAndProperty[0];
+          property = categoryAndProperty[1];
 
           if (containsArguments(propertyId)) {
             Pattern pattern = Pattern.compile(category);
@@ -430,6 +434,70 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
     }
   }
 
+  /**
+   * Splits the JMX property of a metric into the category of the bean and the
+   * name of the attribute.
+   *
+   * @param propertyId  the id of the metric
+   * @param property    the JMX property of the metric
+   *
+   * @return the category and the attribute name, which may still contain
+   *         {@link #DOT_REPLACEMENT_CHAR}
+   */
+  private String[] splitProperty(String propertyId, String property) {
+    String category = "";
+    int keyStartIndex = property.indexOf('[');
+
+    if (!containsArguments(propertyId)) {
+      int dotIndex = property.indexOf('.', property.indexOf('='));
+      if (-1 != dotIndex) {
+        category = property.substring(0, dotIndex);
+        property = (-1 == keyStartIndex) ?
+                property.substring(dotIndex+1) :
+                property.substring(dotIndex+1, keyStartIndex);
+      }
+    } else {
+      int firstKeyIndex = keyStartIndex > -1 ? keyStartIndex : property.length();
+      int dotIndex = property.lastIndexOf('.', firstKeyIndex);
+
+      if (dotIndex != -1) {
+        category = property.substring(0, dotIndex);
+        property = property.substring(dotIndex + 1, firstKeyIndex);
+      }
+    }
+
+    return new String[] { category, property };
+  }
+
+  /**
+   * Gets the names of all JMX attributes which the point in time metrics of
+   * the component are read from.
+   *
+   * @param componentName  the component name
+   *
+   * @return the attribute names, or an empty set if all attributes are needed
+   */
+  private Set<String> getJMXAttributes(String componentName) {
+    return jmxAttributesByComponent.computeIfAbsent(componentName, name -> {
+      Set<String> attributes = new HashSet<>();
+      for (Map.Entry<String, PropertyInfo> entry : getComponentMetrics().get(name).entrySet()) {
+        PropertyInfo propertyInfo = entry.getValue();
+        if (!propertyInfo.isPointInTime() || propertyInfo.getPropertyId() == null) {
+          continue;
+        }
+
+        String attribute = splitProperty(entry.getKey(), propertyInfo.getPropertyId())[1];
+        attribute = dotReplacementCharPattern.matcher(attribute).replaceAll(".");
+        if (ATTRIBUTE_ARGUMENT_PATTERN.matcher(attribute).find()) {
+          return Collections.emptySet();
+        }
+
+        attributes.add(attribute);
+      }
+      return Collections.unmodifiableSet(attributes);
+    });
+  }
+
   private void setResourceValue(Resource resource, Map<String, Map<String, Object>> categories, String propertyId,
                                 String category, String property, List<String> keyList) {
     Map<String, Object> properties = categories.get(category);
@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.metrics.timeline.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.ambari.server.controller.spi.TemporalInfo;
+import org.apache.ambari.server.metrics.system.impl.ServerComponentsMetricsSource;
+import org.apache.hadoop.metrics2.sink.timeline.Precision;
+import org.apache.hadoop.metrics2.sink.timeline.TimelineMetric;
+import org.apache.hadoop.metrics2.sink.timeline.TimelineMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * {@link TimelineMetricCache} which keeps the metric values in off-heap
+ * memory, encoded by {@link OffHeapTimelineMetricSeries}. Only the metric
+ * descriptions and the bookkeeping of each entry remain on the heap.
+ * <p/>
+ * The size of the cache is the exact number of off-heap bytes reserved by its
+ * entries; once it exceeds the configured maximum, the least recently used
+ * entries are evicted. Refreshing an entry appends the newly fetched values to
+ * the encoded series instead of rebuilding them.
+ */
+public class OffHeapTimelineMetricCache implements TimelineMetricCache {
+
+  private final static Logger LOG = LoggerFactory.getLogger(OffHeapTimelineMetricCache.class);
+
+  private final TimelineMetricCacheEntryFactory m_cacheEntryFactory;
+
+  private final long m_maxBytes;
+
+  private final long m_ttlMillis;
+
+  private final long m_idleMillis;
+
+  /**
+   * The cached entries in least recently used order; access is synchronized
+   * on the map, which also guards {@link #m_sizeInBytes}.
+   */
+  private final LinkedHashMap<TimelineAppMetricCacheKey, CacheEntry> m_entries =
+    new LinkedHashMap<>(16, 0.75f, true);
+
+  private long m_sizeInBytes = 0;
+
+  /**
+   * Serializes the population and refresh of each entry so that concurrent
+   * requests for the same metrics result in a single request to the Metrics
+   * backend.
+   */
+  private final Striped<Lock> m_locksByKey = Striped.lazyWeakLock(50);
+
+  /**
+   * Constructor.
+   *
+   * @param cacheEntryFactory
+   *          used to fetch metrics from the Metrics backend.
+   * @param maxBytes
+   *          the maximum number of off-heap bytes used by the cache.
+   * @param ttlSeconds
+   *          the time after which an entry is discarded.
+   * @param idleSeconds
+   *          the time after which an entry which is not accessed is
+   *          discarded.
+   */
+  public OffHeapTimelineMetricCache(TimelineMetricCacheEntryFactory cacheEntryFactory,
+      long maxBytes, int ttlSeconds, int idleSeconds) {
+    m_cacheEntryFactory = cacheEntryFactory;
+    m_maxBytes = maxBytes;
+    m_ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    m_idleMillis = TimeUnit.SECONDS.toMillis(idleSeconds);
+
+    ServerComponentsMetricsSource.registerGauge("timeline.metrics.cache.offheap.bytes",
+      (Gauge<Long>) this::getSizeInBytes);
+    ServerComponentsMetricsSource.registerGauge("timeline.metrics.cache.offheap.entries",
+      (Gauge<Integer>) this::size);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public TimelineMetrics getAppTimelineMetricsFromCache(TimelineAppMetricCacheKey key)
+      throws IllegalArgumentException, IOException {
+    LOG.debug("Fetching metrics with key: {}", key);
+
+    EhcacheTimelineMetricCache.validateKey(key);
+
+    Lock lock = m_locksByKey.get(key);
+    lock.lock();
+    try {
+      CacheEntry entry = getEntry(key);
+      if (null == entry) {
+        TimelineMetricsCacheValue value = (TimelineMetricsCacheValue) m_cacheEntryFactory.createEntry(key);
+        if (null == value) {
+          return new TimelineMetrics();
+        }
+
+        put(key, new CacheEntry(value));
+        return value.getTimelineMetrics();
+      }
+
+      refresh(key, entry);
+      return entry.toTimelineMetrics();
+    } catch (IOException | RuntimeException exception) {
+      throw exception;
+    } catch (Exception exception) {
+      throw new IOException(exception);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of off-heap bytes reserved by the cached entries
+   */
+  public long getSizeInBytes() {
+    synchronized (m_entries) {
+      return m_sizeInBytes;
+    }
+  }
+
+  /**
+   * @return the number of cached entries
+   */
+  public int size() {
+    synchronized (m_entries) {
+      return m_entries.size();
+    }
+  }
+
+  /**
+   * Fetches the values missing from the requested window and merges them into
+   * the entry.
+   */
+  private void refresh(TimelineAppMetricCacheKey key, CacheEntry entry) throws Exception {
+    TemporalInfo temporalInfo = key.getTemporalInfo();
+    Precision requestedPrecision = Precision.getPrecision(temporalInfo.getStartTimeMillis(),
+      temporalInfo.getEndTimeMillis());
+
+    TimelineMetrics newMetrics = m_cacheEntryFactory.fetchMissingTimelineMetrics(key,
+      entry.m_startTime, entry.m_endTime, entry.m_precision);
+
+    if (null == newMetrics) {
+      return;
+    }
+
+    entry.update(newMetrics,
+      m_cacheEntryFactory.getMillisecondsTime(temporalInfo.getStartTimeMillis()),
+      m_cacheEntryFactory.getMillisecondsTime(temporalInfo.getEndTimeMillis()),
+      !requestedPrecision.equals(entry.m_precision));
+
+    entry.m_startTime = temporalInfo.getStartTimeMillis();
+    entry.m_endTime = temporalInfo.getEndTimeMillis();
+    entry.m_precision = requestedPrecision;
+
+    synchronized (m_entries) {
+      // the entry may have been evicted while it was refreshed
+      if (m_entries.get(key) == entry) {
+        m_sizeInBytes += entry.getSizeInBytes() - entry.m_accountedBytes;
+        entry.m_accountedBytes = entry.getSizeInBytes();
+        evict();
+      }
+    }
+  }
+
+  /**
+   * @return the entry for the key, or {@code null} if there is none or it has
+   *         expired
+   */
+  private CacheEntry getEntry(TimelineAppMetricCacheKey key) {
+    long now = System.currentTimeMillis();
+    synchronized (m_entries) {
+      CacheEntry entry = m_entries.get(key);
+      if (null == entry) {
+        return null;
+      }
+
+      if (isExpired(entry, now)) {
+        m_entries.remove(key);
+        m_sizeInBytes -= entry.m_accountedBytes;
+        return null;
+      }
+
+      entry.m_lastAccessTime = now;
+      return entry;
+    }
+  }
+
+  private void put(TimelineAppMetricCacheKey key, CacheEntry entry) {
+    synchronized (m_entries) {
+      CacheEntry previous = m_entries.put(key, entry);
+      if (null != previous) {
+        m_sizeInBytes -= previous.m_accountedBytes;
+      }
+
+      entry.m_accountedBytes = entry.getSizeInBytes();
+      m_sizeInBytes += entry.m_accountedBytes;
+      evict();
+    }
+  }
+
+  /**
+   * Removes expired entries and then the least recently used entries until
+   * the cache fits into its maximum size. Must be called while holding the
+   * lock on {@link #m_entries}.
+   */
+  private void evict() {
+    long now = System.currentTimeMillis();
+    Iterator<CacheEntry> iterator = m_entries.values().iterator();
+    while (iterator.hasNext()) {
+      CacheEntry entry = iterator.next();
+      if (m_sizeInBytes > m_maxBytes || isExpired(entry, now)) {
+        iterator.remove();
+        m_sizeInBytes -= entry.m_accountedBytes;
+      } else {
+        // the remaining entries were used more recently and expire on access
+        break;
+      }
+    }
+  }
+
+  private boolean isExpired(CacheEntry entry, long now) {
+    return now - entry.m_creationTime > m_ttlMillis || now - entry.m_lastAccessTime > m_idleMillis;
+  }
+
+  /**
+   * The cached series of a single {@link TimelineAppMetricCacheKey} along with
+   * the time window and precision they were fetched for.
+   */
+  private static final class CacheEntry {
+    private final List<OffHeapTimelineMetricSeries> m_series = new ArrayList<>();
+    private final long m_creationTime;
+    private long m_lastAccessTime;
+    private Long m_startTime;
+    private Long m_endTime;
+    private Precision m_precision;
+
+    /**
+     * The number of off-heap bytes reserved by the series.
+     */
+    private long m_sizeInBytes = 0;
+
+    /**
+     * The number of bytes included in the size of the cache; only accessed
+     * while holding the lock on {@link OffHeapTimelineMetricCache#m_entries}.
+     */
+    private long m_accountedBytes = 0;
+
+    private CacheEntry(TimelineMetricsCacheValue value) {
+      m_creationTime = System.currentTimeMillis();
+      m_lastAccessTime = m_creationTime;
+      m_startTime = value.getStartTime();
+      m_endTime = value.getEndTime();
+      m_precision = value.getPrecision();
+
+      for (TimelineMetric metric : value.getTimelineMetrics().getMetrics()) {
+        m_series.add(new OffHeapTimelineMetricSeries(metric));
+      }
+
+      updateSize();
+    }
+
+    private long getSizeInBytes() {
+      return m_sizeInBytes;
+    }
+
+    /**
+     * Removes values outside of the requested window and merges new values,
+     * like {@link TimelineMetricCacheEntryFactory#updateTimelineMetricsInCache}.
+     */
+    private void update(TimelineMetrics newMetrics, long startTime, long endTime,
+        boolean removeAll) {
+      for (OffHeapTimelineMetricSeries series : m_series) {
+        if (removeAll) {
+          series.clear();
+        } else {
+          series.retain(startTime, endTime);
+        }
+      }
+
+      for (TimelineMetric metric : newMetrics.getMetrics()) {
+        OffHeapTimelineMetricSeries existing = null;
+        for (OffHeapTimelineMetricSeries series : m_series) {
+          if (series.matches(metric)) {
+            existing = series;
+          }
+        }
+
+        if (null != existing) {
+          existing.merge(metric.getMetricValues());
+        } else {
+          m_series.add(new OffHeapTimelineMetricSeries(metric));
+        }
+      }
+
+      updateSize();
+    }
+
+    private void updateSize() {
+      long size = 0;
+      for (OffHeapTimelineMetricSeries series : m_series) {
+        size += series.getCapacity();
+      }
+      m_sizeInBytes = size;
+    }
+
+    private TimelineMetrics toTimelineMetrics() {
+      TimelineMetrics metrics = new TimelineMetrics();
+      for (OffHeapTimelineMetricSeries series : m_series) {
+        metrics.getMetrics().add(series.toTimelineMetric());
+      }
+      return metrics;
+    }
+  }
+}
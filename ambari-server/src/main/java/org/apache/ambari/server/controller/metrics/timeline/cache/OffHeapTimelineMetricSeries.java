@@ -0,0 +1,327 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.metrics.timeline.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.hadoop.metrics2.sink.timeline.TimelineMetric;
+
+/**
+ * The values of a single {@link TimelineMetric} encoded in a direct
+ * {@link ByteBuffer}. Each value is stored as the unsigned variable length
+ * difference to the previous timestamp followed by the 8 byte value, so a
+ * typical series uses 9 or 10 bytes per value instead of the boxed
+ * {@link TreeMap} entries kept by the {@link EhcacheTimelineMetricCache}.
+ * <p/>
+ * Instances are not thread safe.
+ */
+final class OffHeapTimelineMetricSeries {
+
+  /**
+   * The smallest buffer which is allocated.
+   */
+  private static final int MIN_CAPACITY = 64;
+
+  /**
+   * The metric without values; used to create the metrics which are returned.
+   */
+  private final TimelineMetric m_template;
+
+  /**
+   * The encoded values between {@code 0} and the position of the buffer.
+   */
+  private ByteBuffer m_buffer;
+
+  private int m_count = 0;
+
+  /**
+   * The timestamp which the first stored difference is relative to.
+   */
+  private long m_baseTimestamp = 0;
+
+  private long m_lastTimestamp = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param metric
+   *          the metric to store (not {@code null}).
+   */
+  OffHeapTimelineMetricSeries(TimelineMetric metric) {
+    m_template = new TimelineMetric(metric);
+    m_template.setMetricValues(new TreeMap<>());
+
+    TreeMap<Long, Double> values = metric.getMetricValues();
+    int size = values.isEmpty() ? 0 : getEncodedSize(values, values.firstKey());
+    m_buffer = ByteBuffer.allocateDirect(Math.max(MIN_CAPACITY, size));
+    append(values);
+  }
+
+  /**
+   * @return whether the given metric belongs to this series
+   */
+  boolean matches(TimelineMetric metric) {
+    return m_template.equalsExceptTime(metric);
+  }
+
+  /**
+   * @return the number of off-heap bytes reserved by this series
+   */
+  int getCapacity() {
+    return m_buffer.capacity();
+  }
+
+  /**
+   * @return the number of values in this series
+   */
+  int size() {
+    return m_count;
+  }
+
+  /**
+   * Adds values to this series, replacing values with the same timestamp.
+   * Values newer than the last stored value are appended without decoding the
+   * series; otherwise only the stored values from the first new timestamp on
+   * are decoded and merged.
+   *
+   * @param values
+   *          the values to add (not {@code null}).
+   */
+  void merge(SortedMap<Long, Double> values) {
+    if (values.isEmpty()) {
+      return;
+    }
+
+    if (m_count > 0 && values.firstKey() <= m_lastTimestamp) {
+      TreeMap<Long, Double> merged = truncate(values.firstKey(), true);
+      merged.putAll(values);
+      values = merged;
+    }
+
+    ensureCapacity(getEncodedSize(values, m_count == 0 ? values.firstKey() : m_lastTimestamp));
+    append(values);
+  }
+
+  /**
+   * Removes the values outside of the given window.
+   *
+   * @param startTime
+   *          the first timestamp to keep, in milliseconds.
+   * @param endTime
+   *          the last timestamp to keep, in milliseconds.
+   */
+  void retain(long startTime, long endTime) {
+    if (m_count == 0) {
+      return;
+    }
+
+    if (m_lastTimestamp > endTime) {
+      truncate(endTime, false);
+    }
+
+    ByteBuffer in = m_buffer.duplicate();
+    in.flip();
+
+    long timestamp = m_baseTimestamp;
+    int removed = 0;
+    while (in.hasRemaining()) {
+      int offset = in.position();
+      long next = timestamp + readVarLong(in);
+      if (next >= startTime) {
+        in.position(offset);
+        break;
+      }
+
+      in.getDouble();
+      timestamp = next;
+      removed++;
+    }
+
+    if (removed > 0) {
+      m_buffer.flip();
+      m_buffer.position(in.position());
+      m_buffer.compact();
+      m_baseTimestamp = timestamp;
+      m_count -= removed;
+    }
+
+    // release memory once most of the values have been removed
+    if (m_buffer.capacity() > MIN_CAPACITY && m_buffer.position() < m_buffer.capacity() / 4) {
+      resize(Math.max(MIN_CAPACITY, m_buffer.position() * 2));
+    }
+  }
+
+  /**
+   * Removes all values.
+   */
+  void clear() {
+    m_buffer.clear();
+    m_count = 0;
+    if (m_buffer.capacity() > MIN_CAPACITY) {
+      m_buffer = ByteBuffer.allocateDirect(MIN_CAPACITY);
+    }
+  }
+
+  /**
+   * @return a new metric holding the decoded values of this series
+   */
+  TimelineMetric toTimelineMetric() {
+    ByteBuffer in = m_buffer.duplicate();
+    in.flip();
+
+    TreeMap<Long, Double> values = new TreeMap<>();
+    long timestamp = m_baseTimestamp;
+    while (in.hasRemaining()) {
+      timestamp += readVarLong(in);
+      values.put(timestamp, in.getDouble());
+    }
+
+    TimelineMetric metric = new TimelineMetric(m_template);
+    metric.setMetricValues(values);
+    return metric;
+  }
+
+  /**
+   * Removes the values from the given timestamp on.
+   *
+   * @param timestamp
+   *          the timestamp to remove values from.
+   * @param inclusive
+   *          whether a value with exactly this timestamp is removed.
+   * @return the removed values
+   */
+  private TreeMap<Long, Double> truncate(long timestamp, boolean inclusive) {
+    ByteBuffer in = m_buffer.duplicate();
+    in.flip();
+
+    TreeMap<Long, Double> removed = new TreeMap<>();
+    long current = m_baseTimestamp;
+    long lastKept = m_baseTimestamp;
+    int kept = 0;
+    int truncateAt = -1;
+    while (in.hasRemaining()) {
+      int offset = in.position();
+      current += readVarLong(in);
+      double value = in.getDouble();
+      if (truncateAt >= 0 || current > timestamp || (inclusive && current == timestamp)) {
+        if (truncateAt < 0) {
+          truncateAt = offset;
+        }
+        removed.put(current, value);
+      } else {
+        lastKept = current;
+        kept++;
+      }
+    }
+
+    if (truncateAt >= 0) {
+      m_buffer.position(truncateAt);
+      m_count = kept;
+      m_lastTimestamp = lastKept;
+    }
+
+    return removed;
+  }
+
+  /**
+   * Encodes values which are all newer than the last stored value.
+   */
+  private void append(SortedMap<Long, Double> values) {
+    if (values.isEmpty()) {
+      return;
+    }
+
+    long previous = m_lastTimestamp;
+    if (m_count == 0) {
+      m_baseTimestamp = values.firstKey();
+      previous = m_baseTimestamp;
+    }
+
+    for (Map.Entry<Long, Double> entry : values.entrySet()) {
+      long timestamp = entry.getKey();
+      Double value = entry.getValue();
+
+      // missing values are stored as NaN
+      writeVarLong(m_buffer, timestamp - previous);
+      m_buffer.putDouble(null == value ? Double.NaN : value);
+      previous = timestamp;
+    }
+
+    m_count += values.size();
+    m_lastTimestamp = previous;
+  }
+
+  private void ensureCapacity(int additionalBytes) {
+    int required = m_buffer.position() + additionalBytes;
+    if (required > m_buffer.capacity()) {
+      resize(Math.max(required, m_buffer.capacity() + m_buffer.capacity() / 2));
+    }
+  }
+
+  private void resize(int capacity) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(capacity);
+    m_buffer.flip();
+    buffer.put(m_buffer);
+    m_buffer = buffer;
+  }
+
+  /**
+   * @return the number of bytes needed to encode the values after the given
+   *         timestamp
+   */
+  private static int getEncodedSize(SortedMap<Long, Double> values, long previous) {
+    int size = 0;
+    for (Long timestamp : values.keySet()) {
+      size += getVarLongSize(timestamp - previous) + Double.BYTES;
+      previous = timestamp;
+    }
+    return size;
+  }
+
+  static int getVarLongSize(long value) {
+    int size = 1;
+    while ((value & ~0x7FL) != 0) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  static void writeVarLong(ByteBuffer buffer, long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  static long readVarLong(ByteBuffer buffer) {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+}
@@ -122,8 +122,45 @@ public class TimelineMetricCacheEntryFactory implements UpdatingCacheEntryFactor
 
     LOG.debug("Updating cache entry, key: {}, with value = {}", key, value);
 
-    Long existingSeriesStartTime = existingMetrics.getStartTime();
-    Long existingSeriesEndTime = existingMetrics.getEndTime();
+    TemporalInfo newTemporalInfo = metricCacheKey.getTemporalInfo();
+    Long requestedStartTime = newTemporalInfo.getStartTimeMillis();
+    Long requestedEndTime = newTemporalInfo.getEndTimeMillis();
+
+    Precision requestedPrecision = Precision.getPrecision(requestedStartTime, requestedEndTime);
+    Precision currentPrecision = existingMetrics.getPrecision();
+
+    TimelineMetrics newTimeSeries = fetchMissingTimelineMetrics(metricCacheKey,
+      existingMetrics.getStartTime(), existingMetrics.getEndTime(), currentPrecision);
+
+    if (newTimeSeries != null) {
+      // Update existing time series with new values
+      updateTimelineMetricsInCache(newTimeSeries, existingMetrics,
+        getMillisecondsTime(requestedStartTime),
+        getMillisecondsTime(requestedEndTime), !currentPrecision.equals(requestedPrecision));
+
+      // Replace old boundary values
+      existingMetrics.setStartTime(requestedStartTime);
+      existingMetrics.setEndTime(requestedEndTime);
+      existingMetrics.setPrecision(requestedPrecision);
+    }
+  }
+
+  /**
+   * Fetches the metric values of the time window requested by the key which
+   * are not already covered by a cached time series. The entire window is
+   * fetched if the precision of the request differs from the cached one.
+   *
+   * @param metricCacheKey the key holding the requested time window
+   * @param existingSeriesStartTime start time of the cached time series
+   * @param existingSeriesEndTime end time of the cached time series
+   * @param currentPrecision precision of the cached time series
+   * @return the new values (possibly empty), or {@code null} if the cached time
+   *         series already covers the requested window
+   * @throws Exception
+   */
+  TimelineMetrics fetchMissingTimelineMetrics(TimelineAppMetricCacheKey metricCacheKey,
+      Long existingSeriesStartTime, Long existingSeriesEndTime,
+      Precision currentPrecision) throws Exception {
 
     TemporalInfo newTemporalInfo = metricCacheKey.getTemporalInfo();
     Long requestedStartTime = newTemporalInfo.getStartTimeMillis();
@@ -133,7 +170,6 @@ public class TimelineMetricCacheEntryFactory implements UpdatingCacheEntryFactor
     URIBuilder uriBuilder = new URIBuilder(metricCacheKey.getSpec());
 
     Precision requestedPrecision = Precision.getPrecision(requestedStartTime, requestedEndTime);
-    Precision currentPrecision = existingMetrics.getPrecision();
 
     Long newStartTime = null;
     Long newEndTime = null;
@@ -170,17 +206,7 @@ public class TimelineMetricCacheEntryFactory implements UpdatingCacheEntryFactor
 
       try {
         TimelineMetrics newTimeSeries = requestHelperForUpdates.fetchTimelineMetrics(uriBuilder, newStartTime, newEndTime);
-
-        // Update existing time series with new values
-        updateTimelineMetricsInCache(newTimeSeries, existingMetrics,
-          getMillisecondsTime(requestedStartTime),
-          getMillisecondsTime(requestedEndTime), !currentPrecision.equals(requestedPrecision));
-
-        // Replace old boundary values
-        existingMetrics.setStartTime(requestedStartTime);
-        existingMetrics.setEndTime(requestedEndTime);
-        existingMetrics.setPrecision(requestedPrecision);
-
+        return newTimeSeries != null ? newTimeSeries : new TimelineMetrics();
       } catch (IOException io) {
         if (LOG.isDebugEnabled()) {
           LOG.debug("Exception retrieving metrics.", io);
@@ -191,6 +217,8 @@ public class TimelineMetricCacheEntryFactory implements UpdatingCacheEntryFactor
       LOG.debug("Skip updating cache with new startTime = {}, new endTime = {}",
         new Date(getMillisecondsTime(newStartTime)), new Date(getMillisecondsTime(newEndTime)));
     }
+
+    return null;
   }
 
   /**
@@ -312,7 +340,7 @@ public class TimelineMetricCacheEntryFactory implements UpdatingCacheEntryFactor
     }
   }
 
-  private long getMillisecondsTime(long time) {
+  long getMillisecondsTime(long time) {
     if (time < 9999999999l) {
       return time * 1000;
     } else {
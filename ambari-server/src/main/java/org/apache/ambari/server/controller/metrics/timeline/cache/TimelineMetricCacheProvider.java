@@ -63,6 +63,21 @@ public class TimelineMetricCacheProvider {
       return;
     }
 
+    if (configuration.isMetricsCacheOffHeapEnabled()) {
+      LOG.info("Creating off-heap Metrics Cache with size = " +
+        configuration.getMetricsCacheOffHeapSizeBytes() + " bytes, timeouts => ttl = " +
+        configuration.getMetricCacheTTLSeconds() + ", idle = " +
+        configuration.getMetricCacheIdleSeconds());
+
+      timelineMetricsCache = new OffHeapTimelineMetricCache(cacheEntryFactory,
+        configuration.getMetricsCacheOffHeapSizeBytes(),
+        configuration.getMetricCacheTTLSeconds(),
+        configuration.getMetricCacheIdleSeconds());
+
+      isCacheInitialized = true;
+      return;
+    }
+
     System.setProperty("net.sf.ehcache.skipUpdateCheck", "true");
     if (configuration.useMetricsCacheCustomSizingEngine()) {
       // Use custom sizing engine to speed cache sizing calculations
@@ -89,12 +104,13 @@ public class TimelineMetricCacheProvider {
     Cache cache = new Cache(cacheConfiguration);
 
     // Decorate with UpdatingSelfPopulatingCache
-    timelineMetricsCache = new TimelineMetricCache(cache, cacheEntryFactory);
+    EhcacheTimelineMetricCache ehcache = new EhcacheTimelineMetricCache(cache, cacheEntryFactory);
 
     LOG.info("Registering metrics cache with provider: name = " +
       cache.getName() + ", guid: " + cache.getGuid());
 
-    manager.addCache(timelineMetricsCache);
+    manager.addCache(ehcache);
+    timelineMetricsCache = ehcache;
 
     isCacheInitialized = true;
   }
@@ -118,7 +134,8 @@ public class TimelineMetricCacheProvider {
   }
 
   /**
-   * Return an instance of a Ehcache
+   * Return an instance of the cache, either backed by Ehcache or, if enabled
+   * through config, by off-heap memory.
    * @return @TimelineMetricCache or null if caching is disabled through config.
    */
   public TimelineMetricCache getTimelineMetricsCache() {
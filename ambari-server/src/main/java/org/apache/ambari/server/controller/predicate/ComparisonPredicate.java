@@ -27,6 +27,17 @@ import org.apache.ambari.server.controller.spi.Resource;
  * Predicate that compares a given value to a {@link Resource} property.
  */
 public abstract class ComparisonPredicate<T> extends PropertyPredicate implements BasePredicate {
+
+  /**
+   * Number formats are expensive to create and not thread safe.
+   */
+  private static final ThreadLocal<NumberFormat> NUMBER_FORMAT = new ThreadLocal<NumberFormat>() {
+    @Override
+    protected NumberFormat initialValue() {
+      return NumberFormat.getInstance();
+    }
+  };
+
   private final Comparable<T> value;
   private final String stringValue;
   private final Double doubleValue;
@@ -115,7 +126,7 @@ public abstract class ComparisonPredicate<T> extends PropertyPredicate implement
     }
 
     ParsePosition parsePosition = new ParsePosition(0);
-    NumberFormat  numberFormat  = NumberFormat.getInstance();
+    NumberFormat  numberFormat  = NUMBER_FORMAT.get();
     Number        parsedNumber  = numberFormat.parse(stringValue, parsePosition);
 
     return parsePosition.getIndex() == stringValue.length() ? parsedNumber.doubleValue() : null;
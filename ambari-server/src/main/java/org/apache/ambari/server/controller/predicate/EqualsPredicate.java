@@ -31,7 +31,7 @@ public class EqualsPredicate<T> extends ComparisonPredicate<T> {
 
   @Override
   public boolean evaluate(Resource resource) {
-    Object propertyValue  = resource.getPropertyValue(getPropertyId());
+    Object propertyValue  = getPropertyValue(resource);
     Object predicateValue = getValue();
 
     return predicateValue == null ?
@@ -46,7 +46,7 @@ public class EqualsPredicate<T> extends ComparisonPredicate<T> {
    * @return
      */
   public boolean evaluateIgnoreCase(Resource resource) {
-    Object propertyValue  = resource.getPropertyValue(getPropertyId());
+    Object propertyValue  = getPropertyValue(resource);
     Object predicateValue = getValue();
 
     return predicateValue == null ?
@@ -17,7 +17,6 @@
  */
 package org.apache.ambari.server.controller.predicate;
 
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -27,7 +26,7 @@ import org.apache.ambari.server.controller.spi.Resource;
  * Predicate that checks if current property matches the filter expression
  */
 public class FilterPredicate extends ComparisonPredicate {
-  private final Matcher matcher;
+  private final Pattern pattern;
   private final String patternExpr;
   private final String emptyString = "";
 
@@ -41,8 +40,7 @@ public class FilterPredicate extends ComparisonPredicate {
     super(propertyId, patternExpr);
     this.patternExpr = patternExpr;
     try {
-      Pattern pattern = Pattern.compile(patternExpr != null ? patternExpr : emptyString);
-      matcher = pattern.matcher(emptyString);
+      pattern = Pattern.compile(patternExpr != null ? patternExpr : emptyString);
     } catch (PatternSyntaxException pe) {
       throw new IllegalArgumentException(pe);
     }
@@ -50,12 +48,12 @@ public class FilterPredicate extends ComparisonPredicate {
 
   @Override
   public boolean evaluate(Resource resource) {
-    Object propertyValue =  resource.getPropertyValue(getPropertyId());
-    matcher.reset(propertyValue != null ? propertyValue.toString() : emptyString);
+    Object propertyValue =  getPropertyValue(resource);
 
+    // a matcher per evaluation, since compiled predicates are shared between requests
     return patternExpr == null ?
       propertyValue == null :
-      propertyValue != null && matcher.matches();
+      propertyValue != null && pattern.matcher(propertyValue.toString()).matches();
   }
 
   @Override
@@ -41,7 +41,7 @@ public class GreaterPredicate<T> extends ComparisonPredicate<T> {
 
   @Override
   public boolean evaluate(Resource resource) {
-    Object propertyValue = resource.getPropertyValue(getPropertyId());
+    Object propertyValue = getPropertyValue(resource);
     return propertyValue != null && compareValueTo(propertyValue) < 0;
   }
 
@@ -20,15 +20,27 @@ package org.apache.ambari.server.controller.predicate;
 import java.util.Collections;
 import java.util.Set;
 
+import org.apache.ambari.server.controller.spi.Resource;
+import org.apache.ambari.server.controller.utilities.PropertyHelper;
+
 /**
  * Predicate that is associated with a resource property.
  */
 public abstract class PropertyPredicate implements BasePredicate {
   private final String propertyId;
 
+  /**
+   * The category and name of the property, split once since a predicate is
+   * usually evaluated against many resources.
+   */
+  private final String category;
+  private final String name;
+
   public PropertyPredicate(String propertyId) {
     assert (propertyId != null);
     this.propertyId = propertyId;
+    category = PropertyHelper.getPropertyCategory(propertyId);
+    name = PropertyHelper.getPropertyName(propertyId);
   }
 
   @Override
@@ -40,6 +52,17 @@ public abstract class PropertyPredicate implements BasePredicate {
     return propertyId;
   }
 
+  /**
+   * Get the value of the predicate property from the given resource.
+   *
+   * @param resource  the resource
+   *
+   * @return the property value
+   */
+  protected Object getPropertyValue(Resource resource) {
+    return resource.getPropertyValue(category, name);
+  }
+
   @Override
   public boolean equals(Object o) {
 
@@ -67,6 +67,20 @@ public interface Resource {
    */
   Object getPropertyValue(String id);
 
+  /**
+   * Get a property value for the given category and property name from this
+   * resource. Implementations may override this to avoid building the
+   * property id.
+   *
+   * @param category  the property category; may be {@code null}
+   * @param name      the property name
+   *
+   * @return the property value
+   */
+  default Object getPropertyValue(String category, String name) {
+    return getPropertyValue(category == null || category.isEmpty() ? name : category + "/" + name);
+  }
+
 
   // ----- Enum : InternalType -----------------------------------------------
 
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ambari.server.state.Alert;
+
+/**
+ * The {@link AlertStateChangeBatchEvent} is fired once for all of the
+ * {@link InitialAlertEvent} and {@link AlertStateChangeEvent} instances caused
+ * by a single {@link AlertReceivedEvent}. This allows listeners to do their
+ * work once per batch, such as recalculating an aggregate alert which several
+ * of the changed alerts contribute to.
+ */
+public class AlertStateChangeBatchEvent extends AlertEvent {
+
+  /**
+   * The individual events, in the order the alerts were received.
+   */
+  private final List<AlertEvent> m_events;
+
+  /**
+   * Constructor.
+   *
+   * @param clusterId
+   *          the ID of the cluster the alerts were received for.
+   * @param events
+   *          the {@link InitialAlertEvent} and {@link AlertStateChangeEvent}
+   *          instances (not {@code null}).
+   */
+  public AlertStateChangeBatchEvent(long clusterId, List<AlertEvent> events) {
+    super(getAlerts(events));
+
+    m_clusterId = clusterId;
+    m_events = Collections.unmodifiableList(events);
+  }
+
+  /**
+   * Gets the individual events of this batch.
+   *
+   * @return the events (never {@code null}).
+   */
+  public List<AlertEvent> getEvents() {
+    return m_events;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    StringBuilder buffer = new StringBuilder("AlertStateChangeBatchEvent{");
+    buffer.append("clusterId=").append(m_clusterId);
+    buffer.append(", events=").append(m_events);
+
+    buffer.append("}");
+    return buffer.toString();
+  }
+
+  private static List<Alert> getAlerts(List<AlertEvent> events) {
+    List<Alert> alerts = new ArrayList<>(events.size());
+    for (AlertEvent event : events) {
+      alerts.add(event.getAlert());
+    }
+    return alerts;
+  }
+}
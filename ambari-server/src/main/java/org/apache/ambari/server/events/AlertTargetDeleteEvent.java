@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.events;
+
+import org.apache.ambari.server.orm.entities.AlertTargetEntity;
+
+/**
+ * The {@link AlertTargetDeleteEvent} is used to represent that an
+ * {@link AlertTargetEntity} has been removed from the system.
+ */
+public class AlertTargetDeleteEvent extends AmbariEvent {
+
+  /**
+   * The ID of the removed target.
+   */
+  private final long m_targetId;
+
+  /**
+   * Constructor.
+   *
+   * @param targetId
+   *          the ID of the removed target.
+   */
+  public AlertTargetDeleteEvent(long targetId) {
+    super(AmbariEventType.ALERT_TARGET_REMOVAL);
+    m_targetId = targetId;
+  }
+
+  /**
+   * Gets the ID of the removed target.
+   *
+   * @return the target ID.
+   */
+  public long getTargetId() {
+    return m_targetId;
+  }
+
+  @Override
+  public String toString() {
+    return "AlertTargetDeleteEvent{targetId=" + m_targetId + "}";
+  }
+}
@@ -72,6 +72,11 @@ public abstract class AmbariEvent {
      */
     ALERT_DEFINITION_DISABLED,
 
+    /**
+     * An alert target is removed from the system.
+     */
+    ALERT_TARGET_REMOVAL,
+
     /**
      * A host was registered with the server.
      */
@@ -18,6 +18,7 @@
 
 package org.apache.ambari.server.events;
 
+import java.beans.Transient;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -44,6 +45,28 @@ public class HostComponentsUpdateEvent extends STOMPEvent {
     this.hostComponentUpdates = hostComponentUpdates;
   }
 
+  /**
+   * Updates of the same cluster are delivered in order, updates of different clusters may be
+   * delivered concurrently.
+   * @return the cluster id of the updates, or {@code null} if they are for several clusters.
+   */
+  @Transient
+  @Override
+  public Object getPartitionKey() {
+    if (hostComponentUpdates == null) {
+      return null;
+    }
+
+    Long clusterId = null;
+    for (HostComponentUpdate update : hostComponentUpdates) {
+      if (update.getClusterId() == null || (clusterId != null && !clusterId.equals(update.getClusterId()))) {
+        return null;
+      }
+      clusterId = update.getClusterId();
+    }
+    return clusterId;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
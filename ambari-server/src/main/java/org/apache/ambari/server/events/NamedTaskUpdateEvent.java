@@ -18,6 +18,7 @@
 
 package org.apache.ambari.server.events;
 
+import java.beans.Transient;
 import java.util.Objects;
 
 import org.apache.ambari.server.actionmanager.HostRoleCommand;
@@ -83,6 +84,16 @@ public class NamedTaskUpdateEvent extends STOMPEvent {
     this.requestId = requestId;
   }
 
+  /**
+   * Updates of tasks of the same request are delivered in order, with the updates of the request.
+   * @return partition key.
+   */
+  @Transient
+  @Override
+  public Object getPartitionKey() {
+    return requestId;
+  }
+
   public String getHostName() {
     return hostName;
   }
@@ -18,6 +18,7 @@
 
 package org.apache.ambari.server.events;
 
+import java.beans.Transient;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -90,6 +91,16 @@ public class RequestUpdateEvent extends STOMPEvent {
     this.requestId = requestId;
   }
 
+  /**
+   * Updates of the same request are delivered in order, with the updates of its tasks.
+   * @return partition key.
+   */
+  @Transient
+  @Override
+  public Object getPartitionKey() {
+    return requestId;
+  }
+
   public String getClusterName() {
     return clusterName;
   }
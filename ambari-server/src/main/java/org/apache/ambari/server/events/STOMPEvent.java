@@ -43,6 +43,19 @@ public abstract class STOMPEvent {
     return type.getMetricName();
   }
 
+  /**
+   * Key is used to keep the delivery order of related events when events are
+   * dispatched concurrently. Events with equal keys are delivered in the order
+   * they were published. Events without a key, such as topology and metadata
+   * updates, are delivered in order with respect to all other events, since
+   * the events which follow them may depend on them.
+   * @return partition key, or {@code null} to order the event with all events.
+   */
+  @Transient
+  public Object getPartitionKey() {
+    return null;
+  }
+
   public enum Type {
     ALERT("events.alerts"),
     ALERT_GROUP("events.alert_group"),
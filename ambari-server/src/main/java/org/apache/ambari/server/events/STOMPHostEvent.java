@@ -34,4 +34,14 @@ public abstract class STOMPHostEvent extends STOMPEvent {
   public STOMPHostEvent(Type type) {
     super(type);
   }
+
+  /**
+   * Events for the same host are delivered in order, events for different hosts may be delivered concurrently.
+   * @return partition key.
+   */
+  @Transient
+  @Override
+  public Object getPartitionKey() {
+    return getHostId();
+  }
 }
@@ -18,13 +18,17 @@
 package org.apache.ambari.server.events.listeners.alerts;
 
 import java.text.MessageFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ambari.server.EagerSingleton;
 import org.apache.ambari.server.events.AggregateAlertRecalculateEvent;
+import org.apache.ambari.server.events.AlertEvent;
 import org.apache.ambari.server.events.AlertReceivedEvent;
+import org.apache.ambari.server.events.AlertStateChangeBatchEvent;
 import org.apache.ambari.server.events.AlertStateChangeEvent;
 import org.apache.ambari.server.events.InitialAlertEvent;
 import org.apache.ambari.server.events.publishers.AlertEventPublisher;
@@ -41,6 +45,7 @@ import org.apache.ambari.server.state.alert.AlertDefinition;
 import org.apache.ambari.server.state.alert.Reporting;
 import org.apache.ambari.server.state.alert.SourceType;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -131,6 +136,30 @@ public class AlertAggregateListener {
     onAlertEvent(event.getClusterId(), event.getAlert().getName());
   }
 
+  /**
+   * Consumes an {@link AlertStateChangeBatchEvent}, calculating each affected
+   * aggregate once no matter how many of its alerts changed in the batch.
+   */
+  @Subscribe
+  public void onAlertStateChangeBatchEvent(AlertStateChangeBatchEvent event) {
+    LOG.debug("Received event {}", event);
+
+    Set<Pair<Long, String>> alerts = new LinkedHashSet<>();
+    for (AlertEvent alertEvent : event.getEvents()) {
+      // do not recalculate on SOFT events
+      if (alertEvent instanceof AlertStateChangeEvent
+          && ((AlertStateChangeEvent) alertEvent).getCurrentAlert().getFirmness() == AlertFirmness.SOFT) {
+        continue;
+      }
+
+      alerts.add(Pair.of(alertEvent.getClusterId(), alertEvent.getAlert().getName()));
+    }
+
+    for (Pair<Long, String> alert : alerts) {
+      onAlertEvent(alert.getLeft(), alert.getRight());
+    }
+  }
+
   /**
    * Consumes an {@link AggregateAlertRecalculateEvent}. When a component is
    * removed, there may be alerts that were removed which have aggregate alerts
@@ -22,6 +22,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 import org.apache.ambari.server.AmbariException;
@@ -31,12 +35,16 @@ import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.MaintenanceStateHelper;
 import org.apache.ambari.server.controller.RootComponent;
 import org.apache.ambari.server.controller.RootService;
+import org.apache.ambari.server.events.AlertDefinitionDeleteEvent;
 import org.apache.ambari.server.events.AlertEvent;
 import org.apache.ambari.server.events.AlertReceivedEvent;
+import org.apache.ambari.server.events.AlertStateChangeBatchEvent;
 import org.apache.ambari.server.events.AlertStateChangeEvent;
 import org.apache.ambari.server.events.AlertUpdateEvent;
+import org.apache.ambari.server.events.HostsRemovedEvent;
 import org.apache.ambari.server.events.InitialAlertEvent;
 import org.apache.ambari.server.events.publishers.AlertEventPublisher;
+import org.apache.ambari.server.events.publishers.AmbariEventPublisher;
 import org.apache.ambari.server.events.publishers.STOMPUpdatePublisher;
 import org.apache.ambari.server.orm.RequiresSession;
 import org.apache.ambari.server.orm.dao.AlertDefinitionDAO;
@@ -52,6 +60,7 @@ import org.apache.ambari.server.state.Clusters;
 import org.apache.ambari.server.state.ConfigHelper;
 import org.apache.ambari.server.state.Host;
 import org.apache.ambari.server.state.MaintenanceState;
+import org.apache.ambari.server.state.alert.AlertDefinition;
 import org.apache.ambari.server.state.alert.AlertHelper;
 import org.apache.ambari.server.state.alert.SourceType;
 import org.apache.commons.lang.StringUtils;
@@ -122,15 +131,30 @@ public class AlertReceivedListener {
    */
   private Striped<Lock> creationLocks = Striped.lazyWeakLock(100);
 
+  /**
+   * The host alerts whose last received state was {@link AlertState#OK}, with
+   * the time that state was last written. Repeated OK alerts are discarded
+   * using this index, without looking up the current alert, for
+   * {@link Configuration#getAlertOkDedupInterval()} seconds. An alert removed
+   * in the meantime is therefore only created again once the interval passed.
+   * Entries are removed along with their host or alert definition.
+   */
+  private final ConcurrentMap<OkAlertKey, OkAlertState> m_okAlerts = new ConcurrentHashMap<>();
+
   /**
    * Constructor.
    *
    * @param publisher
+   * @param ambariEventPublisher
+   *          publishes the host and alert definition removals which prune the
+   *          index of OK alerts.
    */
   @Inject
-  public AlertReceivedListener(AlertEventPublisher publisher) {
+  public AlertReceivedListener(AlertEventPublisher publisher,
+      AmbariEventPublisher ambariEventPublisher) {
     m_alertEventPublisher = publisher;
     m_alertEventPublisher.register(this);
+    ambariEventPublisher.register(this);
   }
 
   /**
@@ -158,6 +182,10 @@ public class AlertReceivedListener {
     List<AlertEvent> alertEvents = new ArrayList<>(20);
     Map<Long, Map<String, AlertSummaryGroupedRenderer.AlertDefinitionSummary>> alertUpdates = new HashMap<>();
 
+    // changes to the OK index, applied once the alerts are written
+    long dedupInterval = TimeUnit.SECONDS.toMillis(m_configuration.getAlertOkDedupInterval());
+    Map<OkAlertKey, OkAlertState> okAlerts = new HashMap<>();
+
     for (Alert alert : alerts) {
       Long clusterId = alert.getClusterId();
       if (clusterId == null) {
@@ -165,6 +193,14 @@ public class AlertReceivedListener {
         clusterId = event.getClusterId();
       }
 
+      OkAlertKey okAlertKey = null;
+      if (dedupInterval > 0 && StringUtils.isNotBlank(alert.getHostName())) {
+        okAlertKey = new OkAlertKey(clusterId, alert.getName(), alert.getHostName());
+        if (isRepeatedOk(okAlertKey, alert, dedupInterval)) {
+          continue;
+        }
+      }
+
       AlertDefinitionEntity definition = m_definitionDao.findByName(clusterId, alert.getName());
 
       if (null == definition) {
@@ -205,6 +241,11 @@ public class AlertReceivedListener {
       AlertCurrentEntity current;
       AlertState alertState = alert.getState();
 
+      if (null != okAlertKey && alertState != AlertState.SKIPPED) {
+        okAlerts.put(okAlertKey, alertState == AlertState.OK
+            ? new OkAlertState(definition.getDefinitionId(), alert.getTimestamp()) : null);
+      }
+
       // attempt to lookup the current alert
       current = getCurrentEntity(clusterId, alert, definition);
 
@@ -386,20 +427,83 @@ public class AlertReceivedListener {
     // transaction
     m_alertsDao.saveEntities(toMerge, toCreateHistoryAndMerge);
 
-    // broadcast events
-    for (AlertEvent eventToFire : alertEvents) {
-      m_alertEventPublisher.publish(eventToFire);
+    for (Map.Entry<OkAlertKey, OkAlertState> entry : okAlerts.entrySet()) {
+      if (null == entry.getValue()) {
+        m_okAlerts.remove(entry.getKey());
+      } else {
+        m_okAlerts.put(entry.getKey(), entry.getValue());
+      }
+    }
+
+    // broadcast the events of this batch at once
+    if (!alertEvents.isEmpty()) {
+      m_alertEventPublisher.publish(new AlertStateChangeBatchEvent(event.getClusterId(), alertEvents));
     }
     if (!alertUpdates.isEmpty()) {
       STOMPUpdatePublisher.publish(new AlertUpdateEvent(alertUpdates));
     }
   }
 
+  /**
+   * Gets whether the alert is an OK alert which was already written as OK
+   * less than the given interval ago. Stale alerts reported by the agent are
+   * cleared for such an alert just like for any other received alert.
+   */
+  private boolean isRepeatedOk(OkAlertKey key, Alert alert, long dedupInterval)
+      throws AmbariException {
+    if (alert.getState() != AlertState.OK) {
+      return false;
+    }
+
+    OkAlertState okAlertState = m_okAlerts.get(key);
+    if (null == okAlertState || alert.getTimestamp() - okAlertState.timestamp >= dedupInterval) {
+      return false;
+    }
+
+    clearStaleAlerts(alert.getHostName(), okAlertState.definitionId);
+    return true;
+  }
+
+  /**
+   * Removes the OK alerts of the removed hosts from the index.
+   *
+   * @param event
+   *          the event being handled.
+   */
+  @Subscribe
+  @AllowConcurrentEvents
+  public void onAmbariEvent(HostsRemovedEvent event) {
+    LOG.debug("Received event {}", event);
+
+    Set<String> hostNames = event.getHostNames();
+    m_okAlerts.keySet().removeIf(key -> hostNames.contains(key.hostName));
+  }
+
+  /**
+   * Removes the OK alerts of the removed alert definition from the index.
+   *
+   * @param event
+   *          the event being handled.
+   */
+  @Subscribe
+  @AllowConcurrentEvents
+  public void onAmbariEvent(AlertDefinitionDeleteEvent event) {
+    LOG.debug("Received event {}", event);
+
+    AlertDefinition definition = event.getDefinition();
+    if (null == definition) {
+      return;
+    }
+
+    long definitionId = definition.getDefinitionId();
+    m_okAlerts.values().removeIf(okAlertState -> okAlertState.definitionId == definitionId);
+  }
+
   private void clearStaleAlerts(String hostName, Long definitionId) throws AmbariException {
     if (StringUtil.isNotBlank(hostName)) {
-      Host host = m_clusters.get().getHosts().stream().filter(h -> h.getHostName().equals(hostName))
-          .findFirst().orElse(null);
-      if (host != null) {
+      Clusters clusters = m_clusters.get();
+      if (clusters.hostExists(hostName)) {
+        Host host = clusters.getHost(hostName);
         alertHelper.clearStaleAlert(host.getHostId(), definitionId);
       }
     } else {
@@ -676,4 +780,50 @@ public class AlertReceivedListener {
 
     return repeatTolerance;
   }
+
+  /**
+   * Identifies an alert received for a host.
+   */
+  private static final class OkAlertKey {
+    private final long clusterId;
+    private final String name;
+    private final String hostName;
+
+    private OkAlertKey(long clusterId, String name, String hostName) {
+      this.clusterId = clusterId;
+      this.name = name;
+      this.hostName = hostName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof OkAlertKey)) {
+        return false;
+      }
+      OkAlertKey other = (OkAlertKey) o;
+      return clusterId == other.clusterId && Objects.equals(name, other.name)
+          && Objects.equals(hostName, other.hostName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(clusterId, name, hostName);
+    }
+  }
+
+  /**
+   * The definition of an OK alert and the time it was last written.
+   */
+  private static final class OkAlertState {
+    private final long definitionId;
+    private final long timestamp;
+
+    private OkAlertState(long definitionId, long timestamp) {
+      this.definitionId = definitionId;
+      this.timestamp = timestamp;
+    }
+  }
 }
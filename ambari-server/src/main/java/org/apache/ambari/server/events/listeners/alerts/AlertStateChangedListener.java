@@ -25,6 +25,8 @@ import java.util.UUID;
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.EagerSingleton;
 import org.apache.ambari.server.controller.RootService;
+import org.apache.ambari.server.events.AlertEvent;
+import org.apache.ambari.server.events.AlertStateChangeBatchEvent;
 import org.apache.ambari.server.events.AlertStateChangeEvent;
 import org.apache.ambari.server.events.publishers.AlertEventPublisher;
 import org.apache.ambari.server.orm.dao.AlertDispatchDAO;
@@ -113,6 +115,22 @@ public class AlertStateChangedListener {
     publisher.register(this);
   }
 
+  /**
+   * Handles each {@link AlertStateChangeEvent} of the batch.
+   *
+   * @param event
+   *          the batch of events received for a single agent report.
+   */
+  @Subscribe
+  @AllowConcurrentEvents
+  public void onAlertStateChangeBatchEvent(AlertStateChangeBatchEvent event) {
+    for (AlertEvent alertEvent : event.getEvents()) {
+      if (alertEvent instanceof AlertStateChangeEvent) {
+        onAlertEvent((AlertStateChangeEvent) alertEvent);
+      }
+    }
+  }
+
   /**
    * Listens for when an alert's state has changed and creates
    * {@link AlertNoticeEntity} instances when appropriate to notify
@@ -18,12 +18,15 @@
 package org.apache.ambari.server.events.listeners.hosts;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.EagerSingleton;
 import org.apache.ambari.server.api.services.stackadvisor.StackAdvisorHelper;
 import org.apache.ambari.server.events.AlertEvent;
+import org.apache.ambari.server.events.AlertStateChangeBatchEvent;
 import org.apache.ambari.server.events.AlertStateChangeEvent;
 import org.apache.ambari.server.events.HostStateUpdateEvent;
 import org.apache.ambari.server.events.HostStatusUpdateEvent;
@@ -40,6 +43,7 @@ import org.apache.ambari.server.state.Clusters;
 import org.apache.ambari.server.state.Host;
 import org.apache.ambari.server.state.MaintenanceState;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 
 import com.google.common.eventbus.Subscribe;
 import com.google.inject.Inject;
@@ -124,20 +128,44 @@ public class HostUpdateListener {
 
   @Subscribe
   public void onAlertsHostUpdate(AlertEvent event) throws AmbariException {
-    String hostName;
-    if (!(event instanceof AlertStateChangeEvent) && !(event instanceof InitialAlertEvent)) {
+    if (event instanceof AlertStateChangeBatchEvent) {
+      // update each host once, no matter how many of its alerts changed
+      Set<Pair<Long, String>> hostNames = new LinkedHashSet<>();
+      for (AlertEvent alertEvent : ((AlertStateChangeBatchEvent) event).getEvents()) {
+        String hostName = getHostName(alertEvent);
+        if (StringUtils.isNotEmpty(hostName)) {
+          hostNames.add(Pair.of(alertEvent.getClusterId(), hostName));
+        }
+      }
+
+      for (Pair<Long, String> hostName : hostNames) {
+        updateAlertsSummary(hostName.getLeft(), hostName.getRight());
+      }
       return;
-    } else if (event instanceof AlertStateChangeEvent) {
-      hostName = ((AlertStateChangeEvent) event).getNewHistoricalEntry().getHostName();
-    } else {
-      hostName = ((InitialAlertEvent) event).getNewHistoricalEntry().getHostName();
     }
+
+    String hostName = getHostName(event);
     if (StringUtils.isEmpty(hostName)) {
       return;
     }
 
-    Long clusterId = event.getClusterId();
+    updateAlertsSummary(event.getClusterId(), hostName);
+  }
+
+  /**
+   * @return the host of the alert whose state changed, or {@code null} if the
+   *         event is not about an alert state change
+   */
+  private String getHostName(AlertEvent event) {
+    if (event instanceof AlertStateChangeEvent) {
+      return ((AlertStateChangeEvent) event).getNewHistoricalEntry().getHostName();
+    } else if (event instanceof InitialAlertEvent) {
+      return ((InitialAlertEvent) event).getNewHistoricalEntry().getHostName();
+    }
+    return null;
+  }
 
+  private void updateAlertsSummary(Long clusterId, String hostName) throws AmbariException {
     // retrieve state from cache
     HostUpdateEvent hostUpdateEvent = retrieveHostUpdateFromCache(clusterId, hostName);
 
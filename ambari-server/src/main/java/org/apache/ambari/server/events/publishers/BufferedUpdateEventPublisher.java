@@ -1,4 +1,4 @@
-/**
+/*
  * Licensed to the Apache Software Foundation (ASF) under one
  * or more contributor license agreements.  See the NOTICE file
  * distributed with this work for additional information
@@ -25,64 +25,137 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.events.STOMPEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+/**
+ * Buffers published updates and posts them merged to the event bus. The
+ * buffer is flushed:
+ * <ul>
+ * <li>immediately, if the previous flush happened more than the max delay ago
+ * (idle publisher);</li>
+ * <li>immediately, if the buffer reached the batch size;</li>
+ * <li>otherwise, not later than the max delay after the previous flush, so
+ * updates published during a storm are coalesced.</li>
+ * </ul>
+ * Merging may query the database, so it always runs on the scheduler shared by
+ * all publishers and never on the publishing thread.
+ *
+ * @param <T> type of buffered update
+ */
 public abstract class BufferedUpdateEventPublisher<T> {
+  private static final Logger LOG = LoggerFactory.getLogger(BufferedUpdateEventPublisher.class);
+
+  /**
+   * Buffer size relative to the batch size after which the buffer is reported
+   * as growing faster than it is flushed.
+   */
+  private static final int BACKLOG_FACTOR = 10;
 
-  private static final long TIMEOUT = 1000L;
   private final ConcurrentLinkedQueue<T> buffer = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger bufferSize = new AtomicInteger();
 
-  public abstract STOMPEvent.Type getType();
+  /**
+   * Flushes of a single publisher are serialized.
+   */
+  private final Object flushLock = new Object();
+
+  private final int batchSize;
+  private final long maxDelay;
+
+  private volatile EventBus eventBus;
+  private volatile long lastFlushTime = 0L;
 
-  private ScheduledExecutorService scheduledExecutorService;
+  /**
+   * Time of the earliest scheduled flush, guarded by {@code this}.
+   */
+  private long nextFlushTime = Long.MAX_VALUE;
 
-  public BufferedUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher) {
+  public abstract STOMPEvent.Type getType();
+
+  public BufferedUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher, Configuration configuration) {
+    batchSize = Math.max(1, configuration.getBufferedUpdatePublisherBatchSize());
+    maxDelay = Math.max(0L, configuration.getBufferedUpdatePublisherMaxDelay());
     stompUpdatePublisher.registerPublisher(this);
   }
 
   public void publish(T event, EventBus m_eventBus) {
-    if (scheduledExecutorService == null) {
-      scheduledExecutorService =
-          Executors.newScheduledThreadPool(1);
-      scheduledExecutorService
-          .scheduleWithFixedDelay(getScheduledPublisher(m_eventBus), TIMEOUT, TIMEOUT, TimeUnit.MILLISECONDS);
-    }
+    eventBus = m_eventBus;
     buffer.add(event);
+    int size = bufferSize.incrementAndGet();
+    if (size >= batchSize * BACKLOG_FACTOR) {
+      LOG.debug("Buffer of {} publisher has {} updates waiting for a flush", getType(), size);
+    }
+    scheduleFlush(size >= batchSize);
+  }
+
+  /**
+   * Schedules flush of the buffer unless a flush is already scheduled early enough.
+   *
+   * @param immediate whether the buffer should be flushed without delay
+   */
+  private synchronized void scheduleFlush(boolean immediate) {
+    long now = System.currentTimeMillis();
+    long flushTime = immediate ? now : Math.max(now, lastFlushTime + maxDelay);
+    if (nextFlushTime <= flushTime) {
+      return;
+    }
+    nextFlushTime = flushTime;
+    SchedulerHolder.SCHEDULER.schedule(this::scheduledFlush, flushTime - now, TimeUnit.MILLISECONDS);
   }
 
-  protected MergingRunnable getScheduledPublisher(EventBus m_eventBus) {
-    return new MergingRunnable(m_eventBus);
+  private void scheduledFlush() {
+    try {
+      flush();
+    } catch (Exception e) {
+      LOG.error("Unable to post buffered updates of type {}", getType(), e);
+    }
+  }
+
+  private void flush() {
+    synchronized (this) {
+      nextFlushTime = Long.MAX_VALUE;
+    }
+    synchronized (flushLock) {
+      lastFlushTime = System.currentTimeMillis();
+      List<T> events = retrieveBuffer();
+      if (!events.isEmpty()) {
+        mergeBufferAndPost(events, eventBus);
+      }
+    }
+    // updates published during the flush may have found it still scheduled
+    int size = bufferSize.get();
+    if (size > 0) {
+      scheduleFlush(size >= batchSize);
+    }
   }
 
   protected List<T> retrieveBuffer() {
     List<T> bufferContent = new ArrayList<>();
-    while (!buffer.isEmpty()) {
-      bufferContent.add(buffer.poll());
+    T event;
+    while ((event = buffer.poll()) != null) {
+      bufferSize.decrementAndGet();
+      bufferContent.add(event);
     }
     return bufferContent;
   }
 
   public abstract void mergeBufferAndPost(List<T> events, EventBus m_eventBus);
 
-  private class MergingRunnable implements Runnable {
-
-    private final EventBus m_eventBus;
-
-    public MergingRunnable(EventBus m_eventBus) {
-      this.m_eventBus = m_eventBus;
-    }
-
-    @Override
-    public final void run() {
-      List<T> events = retrieveBuffer();
-      if (events.isEmpty()) {
-        return;
-      }
-      mergeBufferAndPost(events, m_eventBus);
-    }
+  /**
+   * Lazily creates the scheduler shared by all buffered publishers. Two threads
+   * keep a slow merge (e.g. one querying the database) from delaying the others.
+   */
+  private static final class SchedulerHolder {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(2,
+        new ThreadFactoryBuilder().setNameFormat("buffered-update-publisher-%d").setDaemon(true).build());
   }
 
   @Override
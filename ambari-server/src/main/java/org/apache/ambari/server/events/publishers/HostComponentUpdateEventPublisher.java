@@ -18,10 +18,14 @@
 
 package org.apache.ambari.server.events.publishers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import org.apache.ambari.server.EagerSingleton;
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.events.HostComponentUpdate;
 import org.apache.ambari.server.events.HostComponentsUpdateEvent;
 import org.apache.ambari.server.events.STOMPEvent;
@@ -33,8 +37,8 @@ import com.google.inject.Inject;
 public class HostComponentUpdateEventPublisher extends BufferedUpdateEventPublisher<HostComponentsUpdateEvent> {
 
   @Inject
-  public HostComponentUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher) {
-    super(stompUpdatePublisher);
+  public HostComponentUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher, Configuration configuration) {
+    super(stompUpdatePublisher, configuration);
   }
 
   @Override
@@ -44,11 +48,43 @@ public class HostComponentUpdateEventPublisher extends BufferedUpdateEventPublis
 
   @Override
   public void mergeBufferAndPost(List<HostComponentsUpdateEvent> events, EventBus m_eventBus) {
-    List<HostComponentUpdate> hostComponentUpdates = events.stream().flatMap(
-        u -> u.getHostComponentUpdates().stream()).collect(Collectors.toList());
+    // coalesce updates of the same host component, keeping the order of first appearance
+    Map<List<Object>, HostComponentUpdate> coalesced = new LinkedHashMap<>();
+    for (HostComponentsUpdateEvent event : events) {
+      for (HostComponentUpdate update : event.getHostComponentUpdates()) {
+        List<Object> key = Arrays.asList(update.getClusterId(), update.getServiceName(), update.getHostName(),
+            update.getComponentName());
+        HostComponentUpdate existing = coalesced.get(key);
+        if (existing == null) {
+          coalesced.put(key, update);
+        } else {
+          merge(existing, update);
+        }
+      }
+    }
 
-    HostComponentsUpdateEvent resultEvents = new HostComponentsUpdateEvent(hostComponentUpdates);
+    HostComponentsUpdateEvent resultEvents = new HostComponentsUpdateEvent(new ArrayList<>(coalesced.values()));
     //TODO add logging and metrics posting
     m_eventBus.post(resultEvents);
   }
+
+  /**
+   * Applies a later update of the same host component to the earlier one. The
+   * previous state of the earlier update is kept, all other non-empty values are
+   * overridden.
+   */
+  private void merge(HostComponentUpdate existing, HostComponentUpdate update) {
+    if (update.getCurrentState() != null) {
+      if (existing.getCurrentState() == null) {
+        existing.setPreviousState(update.getPreviousState());
+      }
+      existing.setCurrentState(update.getCurrentState());
+    }
+    if (update.getMaintenanceState() != null) {
+      existing.setMaintenanceState(update.getMaintenanceState());
+    }
+    if (update.getStaleConfigs() != null) {
+      existing.setStaleConfigs(update.getStaleConfigs());
+    }
+  }
 }
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ambari.server.events.publishers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ambari.server.events.STOMPEvent;
+
+import com.google.common.eventbus.AsyncEventBus;
+import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * The {@link PartitionedEventBus} dispatches events across a fixed number of
+ * single-threaded {@link AsyncEventBus} partitions. The partition is chosen by
+ * the {@link STOMPEvent#getPartitionKey()} of the event, so events with equal
+ * keys (e.g. updates for the same host) are delivered in the order they were
+ * posted, while events with different keys are delivered concurrently.
+ * <p/>
+ * Events without a partition key (e.g. topology and metadata updates) are
+ * ordered with respect to all other events: every partition first delivers the
+ * events posted before them, then they are delivered while all partitions wait,
+ * and only then do the partitions continue with the events posted after them.
+ * This keeps the guarantee of a single-threaded bus that, for example, an agent
+ * never receives a command before the topology update it depends on.
+ * <p/>
+ * Every listener is registered with all of the partitions, so listeners should
+ * be ready to receive events from several threads at once.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class PartitionedEventBus extends EventBus {
+
+  private final EventBus[] partitions;
+  private final ThreadPoolExecutor[] executors;
+
+  /**
+   * Delivers the events without a partition key synchronously, on the thread
+   * of the first partition, while the other partitions wait.
+   */
+  private final EventBus orderedBus;
+
+  /**
+   * Serializes the posting of events without a partition key, so that their
+   * barriers are queued in the same order on every partition.
+   */
+  private final Object orderedPostLock = new Object();
+
+  /**
+   * The number of dispatched deliveries and their total/maximum latency from
+   * posting till the start of listener invocation.
+   */
+  private final LongAdder dispatchedCount = new LongAdder();
+  private final LongAdder dispatchLatencyTotal = new LongAdder();
+  private final AtomicLong dispatchLatencyMax = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param identifier
+   *          the name of the bus, is also used as prefix of the thread names
+   * @param partitionCount
+   *          the number of partitions (threads) to dispatch events with
+   */
+  public PartitionedEventBus(String identifier, int partitionCount) {
+    super(identifier);
+
+    orderedBus = new EventBus(identifier + "-ordered");
+
+    int count = Math.max(1, partitionCount);
+    partitions = new EventBus[count];
+    executors = new ThreadPoolExecutor[count];
+    for (int i = 0; i < count; i++) {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<>(),
+          new ThreadFactoryBuilder().setNameFormat(identifier + "-" + i + "-%d").build());
+      executors[i] = executor;
+      partitions[i] = new AsyncEventBus(identifier + "-" + i, command -> {
+        long postedAt = System.nanoTime();
+        executor.execute(() -> {
+          recordDispatchLatency(System.nanoTime() - postedAt);
+          command.run();
+        });
+      });
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void register(Object object) {
+    for (EventBus partition : partitions) {
+      partition.register(object);
+    }
+    orderedBus.register(object);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void unregister(Object object) {
+    for (EventBus partition : partitions) {
+      partition.unregister(object);
+    }
+    orderedBus.unregister(object);
+  }
+
+  /**
+   * Posts the event to the partition determined by the event partition key, or
+   * to all partitions if the event has no partition key.
+   *
+   * @param event
+   *          the event to post
+   */
+  @Override
+  public void post(Object event) {
+    Object key = event instanceof STOMPEvent ? ((STOMPEvent) event).getPartitionKey() : null;
+    if (key != null || partitions.length == 1) {
+      partitions[getPartition(key)].post(event);
+      return;
+    }
+
+    synchronized (orderedPostLock) {
+      CountDownLatch arrived = new CountDownLatch(partitions.length);
+      CountDownLatch delivered = new CountDownLatch(1);
+      long postedAt = System.nanoTime();
+
+      executors[0].execute(() -> {
+        arrived.countDown();
+        try {
+          Uninterruptibles.awaitUninterruptibly(arrived);
+          recordDispatchLatency(System.nanoTime() - postedAt);
+          orderedBus.post(event);
+        } finally {
+          delivered.countDown();
+        }
+      });
+
+      for (int i = 1; i < executors.length; i++) {
+        executors[i].execute(() -> {
+          arrived.countDown();
+          Uninterruptibles.awaitUninterruptibly(delivered);
+        });
+      }
+    }
+  }
+
+  /**
+   * @return the number of partitions
+   */
+  public int getPartitionCount() {
+    return partitions.length;
+  }
+
+  /**
+   * @return the number of deliveries waiting for dispatch in all partitions
+   */
+  public int getQueueDepth() {
+    int depth = 0;
+    for (ThreadPoolExecutor executor : executors) {
+      depth += executor.getQueue().size();
+    }
+    return depth;
+  }
+
+  /**
+   * @return the number of deliveries waiting for dispatch in the most loaded
+   *         partition
+   */
+  public int getMaxPartitionQueueDepth() {
+    int depth = 0;
+    for (ThreadPoolExecutor executor : executors) {
+      depth = Math.max(depth, executor.getQueue().size());
+    }
+    return depth;
+  }
+
+  /**
+   * Returns the dispatch statistics collected since the previous call and
+   * resets them.
+   *
+   * @return the dispatch statistics snapshot
+   */
+  public DispatchStatistics getAndResetDispatchStatistics() {
+    long count = dispatchedCount.sumThenReset();
+    long total = dispatchLatencyTotal.sumThenReset();
+    long max = dispatchLatencyMax.getAndSet(0);
+    return new DispatchStatistics(count, count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(total / count),
+        TimeUnit.NANOSECONDS.toMillis(max));
+  }
+
+  int getPartition(Object key) {
+    if (key == null) {
+      return 0;
+    }
+    int hash = key.hashCode();
+    hash ^= (hash >>> 16);
+    return Math.floorMod(hash, partitions.length);
+  }
+
+  private void recordDispatchLatency(long latency) {
+    dispatchedCount.increment();
+    dispatchLatencyTotal.add(latency);
+    dispatchLatencyMax.accumulateAndGet(latency, Math::max);
+  }
+
+  /**
+   * Snapshot of dispatch statistics of a {@link PartitionedEventBus}.
+   */
+  public static class DispatchStatistics {
+    private final long dispatchedCount;
+    private final long averageLatency;
+    private final long maxLatency;
+
+    public DispatchStatistics(long dispatchedCount, long averageLatency, long maxLatency) {
+      this.dispatchedCount = dispatchedCount;
+      this.averageLatency = averageLatency;
+      this.maxLatency = maxLatency;
+    }
+
+    /**
+     * @return the number of dispatched deliveries
+     */
+    public long getDispatchedCount() {
+      return dispatchedCount;
+    }
+
+    /**
+     * @return the average latency in milliseconds between posting and dispatch
+     */
+    public long getAverageLatency() {
+      return averageLatency;
+    }
+
+    /**
+     * @return the maximum latency in milliseconds between posting and dispatch
+     */
+    public long getMaxLatency() {
+      return maxLatency;
+    }
+  }
+}
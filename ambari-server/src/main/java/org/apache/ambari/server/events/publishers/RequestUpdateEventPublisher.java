@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ambari.server.EagerSingleton;
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.internal.CalculatedStatus;
 import org.apache.ambari.server.events.RequestUpdateEvent;
 import org.apache.ambari.server.events.STOMPEvent;
@@ -51,8 +52,8 @@ public class RequestUpdateEventPublisher extends BufferedUpdateEventPublisher<Re
   private ClusterDAO clusterDAO;
 
   @Inject
-  public RequestUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher) {
-    super(stompUpdatePublisher);
+  public RequestUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher, Configuration configuration) {
+    super(stompUpdatePublisher, configuration);
   }
 
   @Override
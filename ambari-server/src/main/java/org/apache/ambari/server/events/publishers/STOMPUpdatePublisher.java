@@ -21,14 +21,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.ambari.server.AmbariRuntimeException;
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.events.DefaultMessageEmitter;
 import org.apache.ambari.server.events.STOMPEvent;
-import org.apache.ambari.server.utils.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.eventbus.AsyncEventBus;
 import com.google.common.eventbus.EventBus;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 @Singleton
@@ -42,9 +42,10 @@ public class STOMPUpdatePublisher {
   private final List<BufferedUpdateEventPublisher> publishers = new ArrayList<>();
 
 
-  public STOMPUpdatePublisher() {
-    agentEventBus = new AsyncEventBus("agent-update-bus", ThreadPools.getSingleThreadedExecutor("stomp-agent-bus"));
-    apiEventBus = new AsyncEventBus("api-update-bus", ThreadPools.getSingleThreadedExecutor("stomp-api-bus"));
+  @Inject
+  public STOMPUpdatePublisher(Configuration configuration) {
+    agentEventBus = new PartitionedEventBus("stomp-agent-bus", configuration.getStompAgentEventBusPartitions());
+    apiEventBus = new PartitionedEventBus("stomp-api-bus", configuration.getStompApiEventBusPartitions());
   }
 
   public void registerPublisher(BufferedUpdateEventPublisher publisher) {
@@ -91,4 +92,18 @@ public class STOMPUpdatePublisher {
   public void registerAPI(Object object) {
     apiEventBus.register(object);
   }
+
+  /**
+   * @return the agent updates bus if it dispatches events concurrently, {@code null} otherwise.
+   */
+  public PartitionedEventBus getAgentEventBus() {
+    return agentEventBus instanceof PartitionedEventBus ? (PartitionedEventBus) agentEventBus : null;
+  }
+
+  /**
+   * @return the API updates bus if it dispatches events concurrently, {@code null} otherwise.
+   */
+  public PartitionedEventBus getAPIEventBus() {
+    return apiEventBus instanceof PartitionedEventBus ? (PartitionedEventBus) apiEventBus : null;
+  }
 }
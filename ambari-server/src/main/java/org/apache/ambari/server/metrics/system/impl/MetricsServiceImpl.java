@@ -118,6 +118,8 @@ public class MetricsServiceImpl implements MetricsService {
         if (src instanceof StompEventsMetricsSource) {
           STOMPUpdatePublisher.registerAPI(src);
           STOMPUpdatePublisher.registerAgent(src);
+          ((StompEventsMetricsSource) src).setEventBuses(STOMPUpdatePublisher.getAgentEventBus(),
+              STOMPUpdatePublisher.getAPIEventBus());
         }
         src.start();
       }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.metrics.system.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ambari.server.metrics.system.MetricsSink;
+import org.apache.ambari.server.metrics.system.SingleMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+/**
+ * {@link ServerComponentsMetricsSource} publishes metrics of internal server
+ * components (queues, background processors, caches) to the Metrics Sink.
+ * Components register their gauges, counters and timers with the shared
+ * {@link #getRegistry() registry} regardless of whether the source is enabled.
+ */
+public class ServerComponentsMetricsSource extends AbstractMetricsSource {
+  private static final Logger LOG = LoggerFactory.getLogger(ServerComponentsMetricsSource.class);
+  private static final MetricRegistry registry = new MetricRegistry();
+
+  private ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+  private int interval = 60;
+
+  /**
+   * @return the registry server components register their metrics with
+   */
+  public static MetricRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Registers the gauge, replacing a gauge registered with the same name before
+   * (e.g. by a previous instance of the component).
+   *
+   * @param name the metric name
+   * @param gauge the gauge
+   */
+  public static synchronized <T> void registerGauge(String name, Gauge<T> gauge) {
+    registry.remove(name);
+    registry.register(name, gauge);
+  }
+
+  @Override
+  public void init(MetricsConfiguration configuration, MetricsSink sink) {
+    super.init(configuration, sink);
+    interval = Integer.parseInt(configuration.getProperty("interval", "60"));
+    LOG.info("Initialized server components metrics source...");
+  }
+
+  @Override
+  public void start() {
+    try {
+      executor.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            LOG.debug("Publishing server components metrics to sink");
+            sink.publish(getMetrics());
+          } catch (Exception e) {
+            LOG.debug("Error in publishing server components metrics to sink.", e);
+          }
+        }
+      }, interval, interval, TimeUnit.SECONDS);
+      LOG.info("Started server components metrics source...");
+    } catch (Exception e) {
+      LOG.info("Throwing exception when starting metric source", e);
+    }
+  }
+
+  public List<SingleMetric> getMetrics() {
+    List<SingleMetric> metrics = new ArrayList<>();
+    long timestamp = System.currentTimeMillis();
+
+    for (Map.Entry<String, Gauge> gauge : registry.getGauges().entrySet()) {
+      Object value = gauge.getValue().getValue();
+      if (value instanceof Number) {
+        metrics.add(new SingleMetric(gauge.getKey(), ((Number) value).doubleValue(), timestamp));
+      }
+    }
+    for (Map.Entry<String, Counter> counter : registry.getCounters().entrySet()) {
+      metrics.add(new SingleMetric(counter.getKey(), counter.getValue().getCount(), timestamp));
+    }
+    for (Map.Entry<String, Timer> timer : registry.getTimers().entrySet()) {
+      Snapshot snapshot = timer.getValue().getSnapshot();
+      metrics.add(new SingleMetric(timer.getKey() + ".count", timer.getValue().getCount(), timestamp));
+      metrics.add(new SingleMetric(timer.getKey() + ".avg", TimeUnit.NANOSECONDS.toMillis((long) snapshot.getMean()), timestamp));
+      metrics.add(new SingleMetric(timer.getKey() + ".max", TimeUnit.NANOSECONDS.toMillis(snapshot.getMax()), timestamp));
+      metrics.add(new SingleMetric(timer.getKey() + ".p95", TimeUnit.NANOSECONDS.toMillis((long) snapshot.get95thPercentile()), timestamp));
+    }
+    return metrics;
+  }
+}
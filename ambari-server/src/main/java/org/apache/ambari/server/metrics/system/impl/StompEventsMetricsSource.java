@@ -26,6 +26,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.ambari.server.events.STOMPEvent;
+import org.apache.ambari.server.events.publishers.PartitionedEventBus;
 import org.apache.ambari.server.metrics.system.MetricsSink;
 import org.apache.ambari.server.metrics.system.SingleMetric;
 import org.slf4j.Logger;
@@ -35,6 +36,7 @@ import com.google.common.eventbus.Subscribe;
 
 /**
  * Collects metrics about number of events by types and publishes to configured Metric Sink.
+ * Also publishes queue depth and dispatch latency of STOMP event buses.
  */
 public class StompEventsMetricsSource extends AbstractMetricsSource {
   private static Logger LOG = LoggerFactory.getLogger(StompEventsMetricsSource.class);
@@ -44,6 +46,16 @@ public class StompEventsMetricsSource extends AbstractMetricsSource {
 
   private final String EVENTS_TOTAL_METRIC = "events.total";
   private final String AVERAGE_METRIC_SUFFIX = ".avg";
+  private final String AGENT_BUS_METRIC_PREFIX = "events.bus.agent";
+  private final String API_BUS_METRIC_PREFIX = "events.bus.api";
+  private final String QUEUE_DEPTH_METRIC_SUFFIX = ".queue.depth";
+  private final String QUEUE_DEPTH_MAX_METRIC_SUFFIX = ".queue.depth.max";
+  private final String DISPATCHED_METRIC_SUFFIX = ".dispatched";
+  private final String DISPATCH_LATENCY_METRIC_SUFFIX = ".dispatch.latency.avg";
+  private final String DISPATCH_LATENCY_MAX_METRIC_SUFFIX = ".dispatch.latency.max";
+
+  private PartitionedEventBus agentEventBus;
+  private PartitionedEventBus apiEventBus;
 
   private int interval = 60;
 
@@ -56,6 +68,17 @@ public class StompEventsMetricsSource extends AbstractMetricsSource {
 
   }
 
+  /**
+   * Sets the event buses which queue depth and dispatch latency should be published.
+   *
+   * @param agentEventBus agent updates bus, can be {@code null}
+   * @param apiEventBus API updates bus, can be {@code null}
+   */
+  public void setEventBuses(PartitionedEventBus agentEventBus, PartitionedEventBus apiEventBus) {
+    this.agentEventBus = agentEventBus;
+    this.apiEventBus = apiEventBus;
+  }
+
   @Override
   public void start() {
     LOG.info("Starting stomp events source...");
@@ -64,6 +87,8 @@ public class StompEventsMetricsSource extends AbstractMetricsSource {
         @Override
         public void run() {
           List<SingleMetric> events = getEvents();
+          events.addAll(getEventBusMetrics(AGENT_BUS_METRIC_PREFIX, agentEventBus));
+          events.addAll(getEventBusMetrics(API_BUS_METRIC_PREFIX, apiEventBus));
           sink.publish(events);
           LOG.debug("********* Published stomp events metrics to sink **********");
         }
@@ -97,9 +122,27 @@ public class StompEventsMetricsSource extends AbstractMetricsSource {
     return metrics;
   }
 
+  private List<SingleMetric> getEventBusMetrics(String prefix, PartitionedEventBus eventBus) {
+    List<SingleMetric> metrics = new ArrayList<>();
+    if (eventBus == null) {
+      return metrics;
+    }
+    long timestamp = System.currentTimeMillis();
+    PartitionedEventBus.DispatchStatistics statistics = eventBus.getAndResetDispatchStatistics();
+    metrics.add(new SingleMetric(prefix + QUEUE_DEPTH_METRIC_SUFFIX, eventBus.getQueueDepth(), timestamp));
+    metrics.add(new SingleMetric(prefix + QUEUE_DEPTH_MAX_METRIC_SUFFIX, eventBus.getMaxPartitionQueueDepth(), timestamp));
+    metrics.add(new SingleMetric(prefix + DISPATCHED_METRIC_SUFFIX, statistics.getDispatchedCount(), timestamp));
+    metrics.add(new SingleMetric(prefix + DISPATCH_LATENCY_METRIC_SUFFIX, statistics.getAverageLatency(), timestamp));
+    metrics.add(new SingleMetric(prefix + DISPATCH_LATENCY_MAX_METRIC_SUFFIX, statistics.getMaxLatency(), timestamp));
+    return metrics;
+  }
+
   @Subscribe
   public void onUpdateEvent(STOMPEvent STOMPEvent) {
     STOMPEvent.Type metricType = STOMPEvent.getType();
-    events.put(metricType, events.get(metricType) + 1);
+    // events are delivered concurrently by several event bus threads
+    synchronized (events) {
+      events.put(metricType, events.get(metricType) + 1);
+    }
   }
 }
@@ -56,6 +56,10 @@ import com.google.inject.persist.jpa.AmbariJpaPersistService;
  * back. This ensures that transactional methods invoke from an already running
  * transaction can have their lock invoked for the lifespan of the outer
  * "parent" transaction.
+ * <p/>
+ * Actions registered with {@link #afterCommit(Runnable)} during a transaction
+ * are run once the outer-most transaction is committed, before its locks are
+ * released. They are discarded if the transaction is rolled back.
  */
 public class AmbariJpaLocalTxnInterceptor implements MethodInterceptor {
 
@@ -77,6 +81,13 @@ public class AmbariJpaLocalTxnInterceptor implements MethodInterceptor {
     }
   };
 
+  /**
+   * The actions to run once the outer-most transaction of the thread is
+   * committed, or {@code null} if the thread is not in a transaction started
+   * by this interceptor.
+   */
+  private static final ThreadLocal<LinkedList<Runnable>> s_afterCommitActions = new ThreadLocal<>();
+
   /**
    * Used to ensure that methods which rely on the completion of
    * {@link Transactional} can detect when they are able to run.
@@ -118,6 +129,8 @@ public class AmbariJpaLocalTxnInterceptor implements MethodInterceptor {
       return methodInvocation.proceed();
     }
 
+    boolean committed = false;
+    s_afterCommitActions.set(new LinkedList<>());
     try {
       // this is the outer-most transactional, begin a transaction
       final EntityTransaction txn = em.getTransaction();
@@ -131,6 +144,7 @@ public class AmbariJpaLocalTxnInterceptor implements MethodInterceptor {
         // commit transaction only if rollback didn't occur
         if (rollbackIfNecessary(transactional, e, txn)) {
           txn.commit();
+          committed = true;
         }
 
         detailedLogForPersistenceError(e);
@@ -151,6 +165,7 @@ public class AmbariJpaLocalTxnInterceptor implements MethodInterceptor {
       // interferes with the advised method's throwing semantics)
       try {
         txn.commit();
+        committed = true;
       } catch (Exception e) {
         detailedLogForPersistenceError(e);
         throw e;
@@ -165,11 +180,51 @@ public class AmbariJpaLocalTxnInterceptor implements MethodInterceptor {
       // or return result
       return result;
     } finally {
+      // run the actions which depend on the committed data while its lock
+      // areas are still held
+      LinkedList<Runnable> afterCommitActions = s_afterCommitActions.get();
+      s_afterCommitActions.remove();
+      if (committed) {
+        runAfterCommitActions(afterCommitActions);
+      }
+
       // unlock all lock areas for this transaction
       unlockTransaction();
     }
   }
 
+  /**
+   * Registers an action to run once the outer-most transaction of the current
+   * thread is committed; the action is discarded if the transaction is rolled
+   * back. Outside of a transaction, the action is run immediately.
+   *
+   * @param action
+   *          the action to run (not {@code null}).
+   */
+  public static void afterCommit(Runnable action) {
+    LinkedList<Runnable> afterCommitActions = s_afterCommitActions.get();
+    if (null == afterCommitActions) {
+      action.run();
+    } else {
+      afterCommitActions.add(action);
+    }
+  }
+
+  /**
+   * Runs the actions registered during a committed transaction, in the order
+   * they were registered. A failing action does not prevent the others from
+   * running.
+   */
+  private static void runAfterCommitActions(LinkedList<Runnable> afterCommitActions) {
+    for (Runnable action : afterCommitActions) {
+      try {
+        action.run();
+      } catch (RuntimeException e) {
+        LOG.warn("Unable to run an action after the transaction was committed", e);
+      }
+    }
+  }
+
   private void detailedLogForPersistenceError(Exception e) {
     if (e instanceof PersistenceException) {
       PersistenceException rbe = (PersistenceException) e;
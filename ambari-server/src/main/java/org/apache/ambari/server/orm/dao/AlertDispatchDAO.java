@@ -40,8 +40,11 @@ import org.apache.ambari.server.controller.RootService;
 import org.apache.ambari.server.controller.spi.Predicate;
 import org.apache.ambari.server.controller.utilities.PredicateHelper;
 import org.apache.ambari.server.events.AlertGroupsUpdateEvent;
+import org.apache.ambari.server.events.AlertTargetDeleteEvent;
 import org.apache.ambari.server.events.UpdateEventType;
+import org.apache.ambari.server.events.publishers.AmbariEventPublisher;
 import org.apache.ambari.server.events.publishers.STOMPUpdatePublisher;
+import org.apache.ambari.server.orm.AmbariJpaLocalTxnInterceptor;
 import org.apache.ambari.server.orm.RequiresSession;
 import org.apache.ambari.server.orm.entities.AlertDefinitionEntity;
 import org.apache.ambari.server.orm.entities.AlertGroupEntity;
@@ -91,6 +94,12 @@ public class AlertDispatchDAO {
   @Inject
   private STOMPUpdatePublisher STOMPUpdatePublisher;
 
+  /**
+   * Publishes the removal of alert targets.
+   */
+  @Inject
+  private AmbariEventPublisher eventPublisher;
+
   /**
    * Used for ensuring that the concurrent nature of the event handler methods
    * don't collide when attempting to creation alert groups for the same
@@ -677,7 +686,8 @@ public class AlertDispatchDAO {
   }
 
   /**
-   * Removes the specified alert target from the database.
+   * Removes the specified alert target from the database. An
+   * {@link AlertTargetDeleteEvent} is published once the removal is committed.
    *
    * @param alertTarget
    *          the target to remove.
@@ -692,6 +702,11 @@ public class AlertDispatchDAO {
     }
     STOMPUpdatePublisher.publish(new AlertGroupsUpdateEvent(alertGroupUpdates, UpdateEventType.UPDATE));
     entityManagerProvider.get().remove(alertTarget);
+
+    // publish the alert target removal once it is committed
+    long targetId = alertTarget.getTargetId();
+    AmbariJpaLocalTxnInterceptor.afterCommit(
+        () -> eventPublisher.publish(new AlertTargetDeleteEvent(targetId)));
   }
 
   /**
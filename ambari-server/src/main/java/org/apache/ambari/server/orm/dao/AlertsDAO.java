@@ -24,8 +24,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 
@@ -48,6 +47,7 @@ import org.apache.ambari.server.controller.spi.Predicate;
 import org.apache.ambari.server.controller.utilities.PredicateHelper;
 import org.apache.ambari.server.events.AggregateAlertRecalculateEvent;
 import org.apache.ambari.server.events.publishers.AlertEventPublisher;
+import org.apache.ambari.server.metrics.system.impl.ServerComponentsMetricsSource;
 import org.apache.ambari.server.orm.RequiresSession;
 import org.apache.ambari.server.orm.entities.AlertCurrentEntity;
 import org.apache.ambari.server.orm.entities.AlertCurrentEntity_;
@@ -63,9 +63,12 @@ import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -150,11 +153,26 @@ public class AlertsDAO implements Cleanable {
    */
   private LoadingCache<AlertCacheKey, AlertCurrentEntity> m_currentAlertCache = null;
 
+  /**
+   * The cached alerts which have been modified in the cache only and still
+   * need to be written to the database. Only these are written when the cache
+   * is flushed.
+   */
+  private final ConcurrentMap<AlertCacheKey, AlertCurrentEntity> m_dirtyAlerts = new ConcurrentHashMap<>();
+
+  /**
+   * The time it takes to flush the modified cached alerts to the database.
+   */
+  private Timer m_flushDuration;
+
   /**
    * Batch size to query the DB and use the results in an IN clause.
    */
   private static final int BATCH_SIZE = 999;
 
+  private static final String DIRTY_ALERTS_METRIC = "alerts.cache.dirty";
+  private static final String FLUSH_DURATION_METRIC = "alerts.cache.flush.duration";
+
   /**
    * Constructor.
    *
@@ -175,6 +193,12 @@ public class AlertsDAO implements Cleanable {
           maximumSize).build(new CacheLoader<AlertCacheKey, AlertCurrentEntity>() {
             @Override
             public AlertCurrentEntity load(AlertCacheKey key) throws Exception {
+              // an evicted alert which has not been flushed yet is newer than JPA
+              AlertCurrentEntity dirtyAlert = m_dirtyAlerts.get(key);
+              if (null != dirtyAlert) {
+                return dirtyAlert;
+              }
+
               LOG.debug("Cache miss for alert key {}, fetching from JPA", key);
 
               final AlertCurrentEntity alertCurrentEntity;
@@ -199,6 +223,10 @@ public class AlertsDAO implements Cleanable {
               return alertCurrentEntity;
             }
           });
+
+      ServerComponentsMetricsSource.registerGauge(DIRTY_ALERTS_METRIC,
+          (Gauge<Integer>) m_dirtyAlerts::size);
+      m_flushDuration = ServerComponentsMetricsSource.getRegistry().timer(FLUSH_DURATION_METRIC);
     }
   }
 
@@ -760,7 +788,7 @@ public class AlertsDAO implements Cleanable {
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
   }
 
@@ -781,7 +809,7 @@ public class AlertsDAO implements Cleanable {
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
 
     return rowsRemoved;
@@ -809,7 +837,7 @@ public class AlertsDAO implements Cleanable {
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
 
     return rowsRemoved;
@@ -848,7 +876,7 @@ public class AlertsDAO implements Cleanable {
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
 
     // publish the event to recalculate aggregates
@@ -886,7 +914,7 @@ public class AlertsDAO implements Cleanable {
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
 
     // publish the event to recalculate aggregates for every cluster since a host could potentially have several clusters
@@ -947,7 +975,7 @@ public class AlertsDAO implements Cleanable {
     // if caching is enabled, invalidate the cache to force the latest values
     // back from the DB
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      invalidateCachedAlerts();
     }
 
     // publish the event to recalculate aggregates
@@ -1058,10 +1086,12 @@ public class AlertsDAO implements Cleanable {
     // perform the JPA merge
     alert = m_entityManagerProvider.get().merge(alert);
 
-    // if caching is enabled, update the cache
+    // if caching is enabled, update the cache; the alert is no longer dirty
+    // since it has just been written
     if( m_configuration.isAlertCacheEnabled() ){
       AlertCacheKey key = AlertCacheKey.build(alert);
       m_currentAlertCache.put(key, alert);
+      m_dirtyAlerts.remove(key);
     }
 
     return alert;
@@ -1094,6 +1124,7 @@ public class AlertsDAO implements Cleanable {
       } else {
         // update cache and return alert; no database work
         m_currentAlertCache.put(key, alert);
+        m_dirtyAlerts.put(key, alert);
         return alert;
       }
     }
@@ -1191,34 +1222,90 @@ public class AlertsDAO implements Cleanable {
   }
 
   /**
-   * Writes all cached {@link AlertCurrentEntity} instances to the database and
-   * clears the cache.
+   * Writes the cached {@link AlertCurrentEntity} instances which have been
+   * modified since the last flush to the database.
+   * <p/>
+   * The alerts are written in chunks of
+   * {@link Configuration#getAlertCacheFlushBatchSize()}, each in its own
+   * transaction (which EclipseLink sends as JDBC batch updates). Each chunk is
+   * written while holding the monitor of this DAO, which
+   * {@link #merge(AlertCurrentEntity)} and
+   * {@link #saveEntities(List, List)} also acquire when the cache is enabled.
+   * The monitor is released between chunks, so alert updates are not blocked
+   * for the duration of the whole flush; reads never acquire it.
+   * <p/>
+   * The monitor does not prevent a cached alert from being modified while its
+   * chunk is written, since the cached instances are updated before they are
+   * merged. Such an update is not lost: the alert is removed from the dirty
+   * alerts before its chunk is written, and merging the update marks it dirty
+   * again, so the next flush writes it.
    */
   public void flushCachedEntitiesToJPA() {
-    if (m_configuration.isAlertCacheEnabled()) {
-      synchronized (this) {
-        flushCachedEntitiesToJPATransactional();
-      }
-    } else {
+    if (!m_configuration.isAlertCacheEnabled()) {
       LOG.warn("Unable to flush cached alerts to JPA because caching is not enabled");
+      return;
     }
-  }
 
-  @Transactional
-  protected void flushCachedEntitiesToJPATransactional() {
+    int batchSize = Math.max(1, m_configuration.getAlertCacheFlushBatchSize());
+    List<AlertCacheKey> dirtyKeys = new ArrayList<>(m_dirtyAlerts.keySet());
+    int flushedCount = 0;
+
+    Timer.Context timerContext = m_flushDuration.time();
+    try {
+      for (List<AlertCacheKey> keys : Lists.partition(dirtyKeys, batchSize)) {
+        synchronized (this) {
+          List<AlertCurrentEntity> alerts = new ArrayList<>(keys.size());
+          for (AlertCacheKey key : keys) {
+            AlertCurrentEntity alert = m_dirtyAlerts.remove(key);
+            if (null != alert) {
+              alerts.add(alert);
+            }
+          }
+
+          try {
+            flushCachedEntitiesToJPATransactional(alerts);
+          } catch (RuntimeException e) {
+            // keep the alerts dirty so they are written by the next flush
+            // unless they have been modified again in the meantime
+            for (AlertCurrentEntity alert : alerts) {
+              m_dirtyAlerts.putIfAbsent(AlertCacheKey.build(alert), alert);
+            }
+            throw e;
+          }
+
+          flushedCount += alerts.size();
+        }
+      }
+    } finally {
+      timerContext.stop();
+    }
 
-    // capture for logging purposes
-    long cachedEntityCount = m_currentAlertCache.size();
+    LOG.info("Flushed {} modified cached alerts to the database", flushedCount);
+  }
 
-    ConcurrentMap<AlertCacheKey, AlertCurrentEntity> map = m_currentAlertCache.asMap();
-    Set<Entry<AlertCacheKey, AlertCurrentEntity>> entries = map.entrySet();
-    for (Entry<AlertCacheKey, AlertCurrentEntity> entry : entries) {
-      merge(entry.getValue());
+  /**
+   * Writes the given cached alerts to the database in a single transaction.
+   * Unlike {@link #merge(AlertCurrentEntity)}, the merged copies do not
+   * replace the cached instances, which may have been modified again.
+   *
+   * @param alerts
+   *          the alerts to write (not {@code null}).
+   */
+  @Transactional
+  protected void flushCachedEntitiesToJPATransactional(List<AlertCurrentEntity> alerts) {
+    EntityManager entityManager = m_entityManagerProvider.get();
+    for (AlertCurrentEntity alert : alerts) {
+      entityManager.merge(alert);
     }
+  }
 
+  /**
+   * Invalidates all cached alerts, including modifications which have not
+   * been flushed yet.
+   */
+  private void invalidateCachedAlerts() {
     m_currentAlertCache.invalidateAll();
-
-    LOG.info("Flushed {} cached alerts to the database", cachedEntityCount);
+    m_dirtyAlerts.clear();
   }
 
   /**
@@ -1251,16 +1338,27 @@ public class AlertsDAO implements Cleanable {
     return cachedAlerts;
   }
 
-  @Transactional
+  /**
+   * {@inheritDoc}
+   * <p/>
+   * The history is purged in batches of ascending IDs, each of which is
+   * committed on its own, instead of a single transaction which first loads
+   * every ID older than the policy date.
+   */
   @Override
   public long cleanup(TimeBasedCleanupPolicy policy) {
     long affectedRows = 0;
-    Long clusterId = null;
     try {
-      clusterId = m_clusters.get().getCluster(policy.getClusterName()).getClusterId();
-      affectedRows += cleanAlertNoticesForClusterBeforeDate(clusterId, policy.getToDateInMillis());
-      affectedRows += cleanAlertCurrentsForClusterBeforeDate(clusterId, policy.getToDateInMillis());
-      affectedRows += cleanAlertHistoriesForClusterBeforeDate(clusterId, policy.getToDateInMillis());
+      long clusterId = m_clusters.get().getCluster(policy.getClusterName()).getClusterId();
+      long beforeDateMillis = policy.getToDateInMillis();
+      LOG.info("Deleting AlertHistory entities before date {}", new Date(beforeDateMillis));
+
+      List<Long> historyIds = findAlertHistoryIdsBeforeDate(clusterId, beforeDateMillis, -1L);
+      while (!historyIds.isEmpty()) {
+        affectedRows += cleanAlertHistoryBatch(historyIds);
+        historyIds = findAlertHistoryIdsBeforeDate(clusterId, beforeDateMillis,
+            historyIds.get(historyIds.size() - 1));
+      }
     } catch (AmbariException e) {
       LOG.error("Error while looking up cluster with name: {}", policy.getClusterName(), e);
       throw new IllegalStateException(e);
@@ -1497,119 +1595,53 @@ public class AlertsDAO implements Cleanable {
   }
 
   /**
-   * Find all @AlertHistoryEntity with date before provided date.
-   * @param clusterId cluster id
-   * @param beforeDateMillis timestamp in millis
-   * @return List<Integer> ids
+   * Finds the next batch of {@link AlertHistoryEntity} IDs in a cluster older
+   * than the given date. The IDs are returned in ascending order, starting
+   * after the given ID, so that the history can be walked without loading
+   * all of the IDs at once.
+   *
+   * @param clusterId        the identifier of the cluster
+   * @param beforeDateMillis the date in milliseconds
+   * @param afterId          the ID after which to start, exclusive
+   * @return the IDs, at most {@link #BATCH_SIZE} of them
    */
-  private List<Integer> findAllAlertHistoryIdsBeforeDate(Long clusterId, long  beforeDateMillis) {
-
-    EntityManager entityManager = m_entityManagerProvider.get();
-    TypedQuery<Integer> alertHistoryQuery =
-      entityManager.createNamedQuery("AlertHistoryEntity.findAllIdsInClusterBeforeDate", Integer.class);
+  private List<Long> findAlertHistoryIdsBeforeDate(long clusterId, long beforeDateMillis, long afterId) {
+    TypedQuery<Long> query = m_entityManagerProvider.get().createNamedQuery(
+        "AlertHistoryEntity.findIdsInClusterBeforeDateAfterId", Long.class);
 
-    alertHistoryQuery.setParameter("clusterId", clusterId);
-    alertHistoryQuery.setParameter("beforeDate", beforeDateMillis);
+    query.setParameter("clusterId", clusterId);
+    query.setParameter("beforeDate", beforeDateMillis);
+    query.setParameter("afterId", afterId);
+    query.setMaxResults(BATCH_SIZE);
 
-    return m_daoUtils.selectList(alertHistoryQuery);
+    return m_daoUtils.selectList(query);
   }
 
   /**
-   * Deletes AlertNotice records in relation with AlertHistory entries older than the given date.
+   * Deletes a batch of AlertHistory entries along with the AlertNotice and
+   * AlertCurrent records which reference them. Each batch is its own
+   * transaction so that purging a large history does not hold locks or undo
+   * space for the whole run.
    *
-   * @param clusterId        the identifier of the cluster the AlertNotices belong to
-   * @param beforeDateMillis the date in milliseconds the
-   * @return a long representing the number of affected (deleted) records
+   * @param historyIds the IDs of the AlertHistory entries to delete
+   * @return the number of affected (deleted) records
    */
   @Transactional
-  int cleanAlertNoticesForClusterBeforeDate(Long clusterId, long beforeDateMillis) {
-    LOG.info("Deleting AlertNotice entities before date " + new Date(beforeDateMillis));
+  int cleanAlertHistoryBatch(List<Long> historyIds) {
     EntityManager entityManager = m_entityManagerProvider.get();
-    List<Integer> ids = findAllAlertHistoryIdsBeforeDate(clusterId, beforeDateMillis);
-    int affectedRows = 0;
-    // Batch delete
-    TypedQuery<AlertNoticeEntity> noticeQuery =
-      entityManager.createNamedQuery("AlertNoticeEntity.removeByHistoryIds", AlertNoticeEntity.class);
-    if (ids != null && !ids.isEmpty()) {
-      for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
-        int endIndex = (i + BATCH_SIZE) > ids.size() ? ids.size() : (i + BATCH_SIZE);
-        List<Integer> idsSubList = ids.subList(i, endIndex);
-        LOG.info("Deleting AlertNotice entity batch with history ids: " +
-          idsSubList.get(0) + " - " + idsSubList.get(idsSubList.size() - 1));
-        noticeQuery.setParameter("historyIds", idsSubList);
-        affectedRows += noticeQuery.executeUpdate();
-      }
-    }
-
-    return affectedRows;
-  }
-
+    LOG.info("Deleting AlertHistory entity batch with ids: {} - {}", historyIds.get(0),
+        historyIds.get(historyIds.size() - 1));
 
-  /**
-   * Deletes AlertCurrent records in relation with AlertHistory entries older than the given date.
-   *
-   * @param clusterId        the identifier of the cluster the AlertCurrents belong to
-   * @param beforeDateMillis the date in milliseconds the
-   * @return a long representing the number of affected (deleted) records
-   */
-  @Transactional
-  int cleanAlertCurrentsForClusterBeforeDate(long clusterId, long beforeDateMillis) {
-    LOG.info("Deleting AlertCurrent entities before date " + new Date(beforeDateMillis));
-    EntityManager entityManager = m_entityManagerProvider.get();
-    List<Integer> ids = findAllAlertHistoryIdsBeforeDate(clusterId, beforeDateMillis);
     int affectedRows = 0;
-    TypedQuery<AlertCurrentEntity> currentQuery =
-      entityManager.createNamedQuery("AlertCurrentEntity.removeByHistoryIds", AlertCurrentEntity.class);
-    if (ids != null && !ids.isEmpty()) {
-      for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
-        int endIndex = (i + BATCH_SIZE) > ids.size() ? ids.size() : (i + BATCH_SIZE);
-        List<Integer> idsSubList = ids.subList(i, endIndex);
-        LOG.info("Deleting AlertCurrent entity batch with history ids: " +
-          idsSubList.get(0) + " - " + idsSubList.get(idsSubList.size() - 1));
-        currentQuery.setParameter("historyIds", ids.subList(i, endIndex));
-        affectedRows += currentQuery.executeUpdate();
-      }
+    for (String namedQuery : new String[] { "AlertNoticeEntity.removeByHistoryIds",
+        "AlertCurrentEntity.removeByHistoryIds", "AlertHistoryEntity.removeByIds" }) {
+      affectedRows += entityManager.createNamedQuery(namedQuery)
+          .setParameter("historyIds", historyIds)
+          .executeUpdate();
     }
 
-    return affectedRows;
-  }
-
-  /**
-   * Deletes AlertHistory entries in a cluster older than the given date.
-   *
-   * @param clusterId        the identifier of the cluster the AlertHistory entries belong to
-   * @param beforeDateMillis the date in milliseconds the
-   * @return a long representing the number of affected (deleted) records
-   */
-
-  @Transactional
-  int cleanAlertHistoriesForClusterBeforeDate(Long clusterId, long beforeDateMillis) {
-    return executeQuery("AlertHistoryEntity.removeInClusterBeforeDate", AlertHistoryEntity.class, clusterId, beforeDateMillis);
-  }
-
-  /**
-   * Utility method for executing update or delete named queries having as input parameters the cluster id and a timestamp.
-   *
-   * @param namedQuery the named query to be executed
-   * @param entityType the type of the entity
-   * @param clusterId  the cluster identifier
-   * @param timestamp  timestamp
-   * @return the number of rows affected by the query execution.
-   */
-  private int executeQuery(String namedQuery, Class entityType, long clusterId, long timestamp) {
-    LOG.info("Starting: Delete/update entries older than [ {} ] for entity [{}]", timestamp, entityType);
-    TypedQuery query = m_entityManagerProvider.get().createNamedQuery(namedQuery, entityType);
-
-    query.setParameter("clusterId", clusterId);
-    query.setParameter("beforeDate", timestamp);
-
-    int affectedRows = query.executeUpdate();
-
-    m_entityManagerProvider.get().flush();
-    m_entityManagerProvider.get().clear();
-
-    LOG.info("Completed: Delete/update entries older than [ {} ] for entity: [{}]. Number of entities deleted: [{}]",
-        timestamp, entityType, affectedRows);
+    entityManager.flush();
+    entityManager.clear();
 
     return affectedRows;
   }
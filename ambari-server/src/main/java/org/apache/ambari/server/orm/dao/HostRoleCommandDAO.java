@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -57,6 +56,7 @@ import org.apache.ambari.server.controller.utilities.PredicateHelper;
 import org.apache.ambari.server.events.TaskCreateEvent;
 import org.apache.ambari.server.events.TaskUpdateEvent;
 import org.apache.ambari.server.events.publishers.TaskEventPublisher;
+import org.apache.ambari.server.orm.AmbariJpaLocalTxnInterceptor;
 import org.apache.ambari.server.orm.RequiresSession;
 import org.apache.ambari.server.orm.TransactionalLocks;
 import org.apache.ambari.server.orm.entities.HostEntity;
@@ -110,6 +110,13 @@ public class HostRoleCommandDAO {
       " GROUP BY hrc.requestId, hrc.stageId HAVING hrc.requestId = :requestId",
       HostRoleCommandStatusSummaryDTO.class.getName());
 
+  /**
+   * SQL template to get the stage, status and times of each task of a request,
+   * used to build a {@link HostRoleCommandStatusSummary}.
+   */
+  private static final String TASK_STATUS_SQL = "SELECT hrc.taskId, hrc.stageId, hrc.stage.skippable, " +
+      "hrc.status, hrc.startTime, hrc.endTime FROM HostRoleCommandEntity hrc WHERE hrc.requestId = :requestId";
+
   /**
    * SQL template to get requests that have at least one task in any of the
    * specified statuses.
@@ -123,10 +130,13 @@ public class HostRoleCommandDAO {
   private static final String COMPLETED_REQUESTS_SQL = "SELECT DISTINCT task.requestId FROM HostRoleCommandEntity task WHERE task.requestId NOT IN (SELECT task.requestId FROM HostRoleCommandEntity task WHERE task.status IN :notCompletedStatuses) ORDER BY task.requestId {0}";
 
   /**
-   * A cache that holds {@link HostRoleCommandStatusSummaryDTO} grouped by stage
-   * id for requests by request id. The JPQL computing the host role command
-   * status summary for a request is rather expensive thus this cache helps
-   * reducing the load on the database.
+   * A cache that holds {@link HostRoleCommandStatusSummary} for requests by
+   * request id. The JPQL computing the host role command status summary for a
+   * request is rather expensive thus this cache helps reducing the load on the
+   * database. Once loaded, a summary is updated as the status of each of the
+   * tasks of its request is merged, instead of being invalidated, so that
+   * polling a running request does not reload it; tasks which are created or
+   * removed still invalidate the summary.
    * <p/>
    * Methods which interact with this cache, including invalidation and
    * population, should use the {@link TransactionalLock} annotation along with
@@ -142,7 +152,7 @@ public class HostRoleCommandDAO {
    * last invalidation would not invalidate anything since the cache was empty
    * at the time.
    */
-  private final Cache<Long, Map<Long, HostRoleCommandStatusSummaryDTO>> hrcStatusSummaryCache;
+  private final Cache<Long, HostRoleCommandStatusSummary> hrcStatusSummaryCache;
 
   /**
    * Specifies whether caching for {@link HostRoleCommandStatusSummaryDTO} grouped by stage id for requests
@@ -222,20 +232,68 @@ public class HostRoleCommandDAO {
     }
 
     if (hostRoleCommandEntity != null) {
-      Long requestId = hostRoleCommandEntity.getRequestId();
-      if (requestId == null) {
-        StageEntity stageEntity = hostRoleCommandEntity.getStage();
-        if (stageEntity != null) {
-          requestId = stageEntity.getRequestId();
-        }
-      }
-
+      Long requestId = getRequestId(hostRoleCommandEntity);
       if (requestId != null) {
         invalidateHostRoleCommandStatusSummaryCache(requestId.longValue());
       }
     }
   }
 
+  /**
+   * Updates the cached host role command status summary of the request of the
+   * entity with its status and times. If the summary does not know the task,
+   * it is invalidated instead.
+   * <p/>
+   * The summary is only updated once the transaction merging the entity is
+   * committed, so that it never shows a status which is not committed yet or
+   * was rolled back.
+   *
+   * @param hostRoleCommandEntity
+   *          the merged entity
+   */
+  protected void updateHostRoleCommandStatusSummaryCache(HostRoleCommandEntity hostRoleCommandEntity) {
+    if (!hostRoleCommandStatusSummaryCacheEnabled || null == hostRoleCommandEntity) {
+      return;
+    }
+
+    Long requestId = getRequestId(hostRoleCommandEntity);
+    if (null == requestId) {
+      return;
+    }
+
+    // the entity may be changed again before the transaction is committed
+    Long taskId = hostRoleCommandEntity.getTaskId();
+    HostRoleStatus status = hostRoleCommandEntity.getStatus();
+    Long startTime = hostRoleCommandEntity.getStartTime();
+    Long endTime = hostRoleCommandEntity.getEndTime();
+
+    AmbariJpaLocalTxnInterceptor.afterCommit(() -> {
+      HostRoleCommandStatusSummary summary = hrcStatusSummaryCache.getIfPresent(requestId);
+      if (null == summary) {
+        return;
+      }
+
+      if (null == taskId || !summary.update(taskId, status, startTime, endTime)) {
+        invalidateHostRoleCommandStatusSummaryCache(requestId);
+      }
+    });
+  }
+
+  /**
+   * @return the request id of the entity, or {@code null} if it is not known
+   */
+  private Long getRequestId(HostRoleCommandEntity hostRoleCommandEntity) {
+    Long requestId = hostRoleCommandEntity.getRequestId();
+    if (requestId == null) {
+      StageEntity stageEntity = hostRoleCommandEntity.getStage();
+      if (stageEntity != null) {
+        requestId = stageEntity.getRequestId();
+      }
+    }
+
+    return requestId;
+  }
+
   /**
    * Loads the counts of tasks for a request and groups them by stage id.
    * This allows for very efficient loading when there are a huge number of stages
@@ -271,6 +329,29 @@ public class HostRoleCommandDAO {
     return map;
   }
 
+  /**
+   * Loads the stage, status and times of each task of a request into a summary
+   * which can then be kept up to date as the tasks are merged.
+   *
+   * @param requestId the request id
+   * @return the summary of the request
+   */
+  @RequiresSession
+  private HostRoleCommandStatusSummary loadStatusSummary(Long requestId) {
+    HostRoleCommandStatusSummary summary = new HostRoleCommandStatusSummary();
+
+    EntityManager entityManager = entityManagerProvider.get();
+    TypedQuery<Object[]> query = entityManager.createQuery(TASK_STATUS_SQL, Object[].class);
+    query.setParameter("requestId", requestId);
+
+    for (Object[] task : daoUtils.selectList(query)) {
+      summary.add(((Number) task[0]).longValue(), ((Number) task[1]).longValue(),
+          1 == ((Number) task[2]).intValue(), (HostRoleStatus) task[3], (Long) task[4], (Long) task[5]);
+    }
+
+    return summary;
+  }
+
   @Inject
   public HostRoleCommandDAO(
       @Named(HRC_STATUS_SUMMARY_CACHE_ENABLED) boolean hostRoleCommandStatusSummaryCacheEnabled,
@@ -719,7 +800,7 @@ public class HostRoleCommandDAO {
   public HostRoleCommandEntity mergeWithoutPublishEvent(HostRoleCommandEntity entity) {
     EntityManager entityManager = entityManagerProvider.get();
     entity = entityManager.merge(entity);
-    invalidateHostRoleCommandStatusSummaryCache(entity);
+    updateHostRoleCommandStatusSummaryCache(entity);
     return entity;
   }
 
@@ -734,25 +815,15 @@ public class HostRoleCommandDAO {
   @Transactional
   @TransactionalLock(lockArea = LockArea.HRC_STATUS_CACHE, lockType = LockType.WRITE)
   public List<HostRoleCommandEntity> mergeAll(Collection<HostRoleCommandEntity> entities) {
-    Set<Long> requestsToInvalidate = new LinkedHashSet<>();
     List<HostRoleCommandEntity> managedList = new ArrayList<>(entities.size());
     for (HostRoleCommandEntity entity : entities) {
       EntityManager entityManager = entityManagerProvider.get();
       entity = entityManager.merge(entity);
       managedList.add(entity);
 
-      Long requestId = entity.getRequestId();
-      if (requestId == null) {
-        StageEntity stageEntity = entity.getStage();
-        if (stageEntity != null) {
-          requestId = stageEntity.getRequestId();
-        }
-      }
-
-      requestsToInvalidate.add(requestId);
+      updateHostRoleCommandStatusSummaryCache(entity);
     }
 
-    invalidateHostRoleCommandStatusSummaryCache(requestsToInvalidate);
     publishTaskUpdateEvent(getHostRoleCommands(entities));
     return managedList;
   }
@@ -816,7 +887,7 @@ public class HostRoleCommandDAO {
    * Finds the counts of tasks for a request and groups them by stage id. If
    * caching is enabled, this will first consult the cache. Cache misses will
    * then defer to loading the data from the database and then caching the
-   * result.
+   * result. The returned map may be modified by the caller.
    *
    * @param requestId
    *          the request id
@@ -828,9 +899,9 @@ public class HostRoleCommandDAO {
       return loadAggregateCounts(requestId);
     }
 
-    Map<Long, HostRoleCommandStatusSummaryDTO> map = hrcStatusSummaryCache.getIfPresent(requestId);
-    if (null != map) {
-      return map;
+    HostRoleCommandStatusSummary summary = hrcStatusSummaryCache.getIfPresent(requestId);
+    if (null != summary) {
+      return summary.getSummaries();
     }
 
     // ensure that we wait for any running transactions working on this cache to
@@ -839,10 +910,10 @@ public class HostRoleCommandDAO {
     lock.readLock().lock();
 
     try {
-      map = loadAggregateCounts(requestId);
-      hrcStatusSummaryCache.put(requestId, map);
+      summary = loadStatusSummary(requestId);
+      hrcStatusSummaryCache.put(requestId, summary);
 
-      return map;
+      return summary.getSummaries();
     } finally {
       lock.readLock().unlock();
     }
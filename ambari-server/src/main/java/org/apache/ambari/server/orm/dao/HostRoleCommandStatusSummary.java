@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.orm.dao;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.apache.ambari.server.actionmanager.HostRoleStatus;
+
+/**
+ * The {@link HostRoleCommandStatusSummary} holds the counts of the tasks of a
+ * request by stage and status. It is loaded once from the tasks of the request
+ * and then kept up to date as each task changes status, so that reading the
+ * {@link HostRoleCommandStatusSummaryDTO}s of a request does not depend on
+ * the number of its tasks.
+ * <p/>
+ * The last known status and times of each task are kept so that an update only
+ * needs the new values of the task.
+ */
+final class HostRoleCommandStatusSummary {
+
+  /**
+   * [ Task ID -> Task ]
+   */
+  private final Map<Long, Task> m_tasks = new HashMap<>();
+
+  /**
+   * [ Stage ID -> Stage ]
+   */
+  private final Map<Long, Stage> m_stages = new HashMap<>();
+
+  /**
+   * The summaries built since the last update, or {@code null} if they need to
+   * be built again.
+   */
+  private Map<Long, HostRoleCommandStatusSummaryDTO> m_summaries;
+
+  /**
+   * Adds a task of the request.
+   *
+   * @param taskId
+   *          the task ID
+   * @param stageId
+   *          the stage ID of the task
+   * @param skippable
+   *          whether the stage of the task is skippable
+   * @param status
+   *          the status of the task
+   * @param startTime
+   *          the start time of the task, or {@code null}
+   * @param endTime
+   *          the end time of the task, or {@code null}
+   */
+  synchronized void add(long taskId, long stageId, boolean skippable, HostRoleStatus status,
+      Long startTime, Long endTime) {
+    Stage stage = m_stages.computeIfAbsent(stageId, id -> new Stage());
+    stage.m_skippable |= skippable;
+
+    Task task = new Task(stageId, status, startTime, endTime);
+    m_tasks.put(taskId, task);
+    stage.add(task);
+
+    m_summaries = null;
+  }
+
+  /**
+   * Updates the status and times of a task of the request.
+   *
+   * @param taskId
+   *          the task ID
+   * @param status
+   *          the new status of the task
+   * @param startTime
+   *          the new start time of the task, or {@code null}
+   * @param endTime
+   *          the new end time of the task, or {@code null}
+   * @return {@code true} if the task was updated, {@code false} if it is not a
+   *         known task of the request.
+   */
+  synchronized boolean update(long taskId, HostRoleStatus status, Long startTime, Long endTime) {
+    Task task = m_tasks.get(taskId);
+    if (null == task) {
+      return false;
+    }
+
+    if (task.m_status == status && Objects.equals(task.m_startTime, startTime)
+        && Objects.equals(task.m_endTime, endTime)) {
+      return true;
+    }
+
+    Stage stage = m_stages.get(task.m_stageId);
+    stage.remove(task);
+
+    Task updated = new Task(task.m_stageId, status, startTime, endTime);
+    m_tasks.put(taskId, updated);
+    stage.add(updated);
+
+    m_summaries = null;
+    return true;
+  }
+
+  /**
+   * Gets the summaries of the stages of the request.
+   *
+   * @return the summaries by stage ID; the map may be modified by the caller.
+   */
+  synchronized Map<Long, HostRoleCommandStatusSummaryDTO> getSummaries() {
+    if (null == m_summaries) {
+      Map<Long, HostRoleCommandStatusSummaryDTO> summaries = new HashMap<>();
+      for (Map.Entry<Long, Stage> entry : m_stages.entrySet()) {
+        Stage stage = entry.getValue();
+        summaries.put(entry.getKey(), new HostRoleCommandStatusSummaryDTO(entry.getKey(),
+            stage.m_skippable, stage.getMinStartTime(), stage.getMaxEndTime(), stage.m_counts));
+      }
+
+      m_summaries = summaries;
+    }
+
+    return new HashMap<>(m_summaries);
+  }
+
+  /**
+   * The last known state of a task.
+   */
+  private static final class Task {
+    private final long m_stageId;
+    private final HostRoleStatus m_status;
+    private final Long m_startTime;
+    private final Long m_endTime;
+
+    private Task(long stageId, HostRoleStatus status, Long startTime, Long endTime) {
+      m_stageId = stageId;
+      m_status = status;
+      m_startTime = startTime;
+      m_endTime = endTime;
+    }
+  }
+
+  /**
+   * The counts and times of the tasks of a stage. The times are kept as counted
+   * sets so that the minimum start and maximum end times remain correct when
+   * the times of a task change.
+   */
+  private static final class Stage {
+    private boolean m_skippable;
+    private final Map<HostRoleStatus, Integer> m_counts = new EnumMap<>(HostRoleStatus.class);
+    private final TreeMap<Long, Integer> m_startTimes = new TreeMap<>();
+    private final TreeMap<Long, Integer> m_endTimes = new TreeMap<>();
+
+    private void add(Task task) {
+      m_counts.merge(task.m_status, 1, Integer::sum);
+      increment(m_startTimes, task.m_startTime);
+      increment(m_endTimes, task.m_endTime);
+    }
+
+    private void remove(Task task) {
+      m_counts.merge(task.m_status, -1, Integer::sum);
+      decrement(m_startTimes, task.m_startTime);
+      decrement(m_endTimes, task.m_endTime);
+    }
+
+    private Long getMinStartTime() {
+      return m_startTimes.isEmpty() ? null : m_startTimes.firstKey();
+    }
+
+    private Long getMaxEndTime() {
+      return m_endTimes.isEmpty() ? null : m_endTimes.lastKey();
+    }
+
+    private static void increment(TreeMap<Long, Integer> times, Long time) {
+      if (null != time) {
+        times.merge(time, 1, Integer::sum);
+      }
+    }
+
+    private static void decrement(TreeMap<Long, Integer> times, Long time) {
+      if (null != time) {
+        times.computeIfPresent(time, (key, count) -> count > 1 ? count - 1 : null);
+      }
+    }
+  }
+}
@@ -18,7 +18,7 @@
 package org.apache.ambari.server.orm.dao;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -33,8 +33,8 @@ public class HostRoleCommandStatusSummaryDTO {
   private Long m_minTime = Long.valueOf(0L);
   private Long m_maxTime = Long.valueOf(Long.MAX_VALUE);
   private boolean m_skippable = false;
-  private Map<HostRoleStatus, Integer> m_counts = new HashMap<>();
-  private List<HostRoleStatus> m_tasksStatus = new ArrayList<>();
+  private Map<HostRoleStatus, Integer> m_counts = new EnumMap<>(HostRoleStatus.class);
+  private int m_taskTotal = 0;
 
   /**
    * Constructor invoked by JPA.  See {{@link HostRoleCommandDAO#findAggregateCounts(Long)}}
@@ -80,16 +80,42 @@ public class HostRoleCommandStatusSummaryDTO {
     put(HostRoleStatus.SKIPPED_FAILED, skippedFailed);
   }
 
+  /**
+   * Constructor invoked by {@link HostRoleCommandStatusSummary} for the counts
+   * it keeps up to date.
+   *
+   * @param stageId
+   *          the stage id
+   * @param skippable
+   *          whether the stage is skippable
+   * @param minStartTime
+   *          the minimum start time of the tasks, or {@code null}
+   * @param maxEndTime
+   *          the maximum end time of the tasks, or {@code null}
+   * @param counts
+   *          the task counts by status, which are copied
+   */
+  HostRoleCommandStatusSummaryDTO(long stageId, boolean skippable, Long minStartTime, Long maxEndTime,
+      Map<HostRoleStatus, Integer> counts) {
+    m_stageId = Long.valueOf(stageId);
+    m_skippable = skippable;
+    if (null != minStartTime) {
+      m_minTime = minStartTime;
+    }
+    if (null != maxEndTime) {
+      m_maxTime = maxEndTime;
+    }
+
+    for (HostRoleStatus status : HostRoleStatus.values()) {
+      put(status, counts.get(status));
+    }
+  }
+
   @SuppressWarnings("boxing")
   private void put(HostRoleStatus status, Number number) {
-    if (null != number) {
-      m_counts.put(status, number.intValue());
-      for (int i = 0; i < number.intValue(); i++) {
-        m_tasksStatus.add(status);
-      }
-    } else {
-      m_counts.put(status, 0);
-    }
+    int count = null == number ? 0 : number.intValue();
+    Integer previous = m_counts.put(status, count);
+    m_taskTotal += count - (null == previous ? 0 : previous);
   }
 
   /**
@@ -107,17 +133,25 @@ public class HostRoleCommandStatusSummaryDTO {
   }
 
   /**
+   * Prefer {@link #getCounts()}, which does not depend on the number of tasks.
+   *
    * @return the list of tasks status, expanded to cover all tasks for the stage
    */
   public List<HostRoleStatus> getTaskStatuses() {
-    return m_tasksStatus;
+    List<HostRoleStatus> taskStatuses = new ArrayList<>(m_taskTotal);
+    for (Map.Entry<HostRoleStatus, Integer> entry : m_counts.entrySet()) {
+      for (int i = 0; i < entry.getValue(); i++) {
+        taskStatuses.add(entry.getKey());
+      }
+    }
+    return taskStatuses;
   }
 
   /**
    * @return the total number of tasks for the stage
    */
   public int getTaskTotal() {
-    return m_tasksStatus.size();
+    return m_taskTotal;
   }
 
   /**
@@ -23,10 +23,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
@@ -54,6 +55,7 @@ import org.eclipse.persistence.config.QueryHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
@@ -66,6 +68,11 @@ public class RequestDAO implements Cleanable {
 
   private static final Logger LOG = LoggerFactory.getLogger(RequestDAO.class);
 
+  /**
+   * The number of requests purged in a single transaction by {@link #cleanup(TimeBasedCleanupPolicy)}.
+   */
+  private static final int CLEANUP_BATCH_SIZE = 100;
+
   /**
    * SQL template to retrieve all request IDs, sorted by the ID.
    */
@@ -366,7 +373,14 @@ public class RequestDAO implements Cleanable {
     });
   }
 
-  @Transactional
+  /**
+   * {@inheritDoc}
+   * <p/>
+   * Requests are purged in batches of {@link #CLEANUP_BATCH_SIZE}, each of
+   * which removes the commands, stages and topology entities of its requests
+   * and is committed on its own, instead of a single transaction for every
+   * request older than the policy date.
+   */
   @Override
   public long cleanup(TimeBasedCleanupPolicy policy) {
     long affectedRows = 0;
@@ -378,55 +392,23 @@ public class RequestDAO implements Cleanable {
       // find request ids from Upgrade table and exclude these ids from
       // request ids set that we already have. We don't want to make any changes for upgrade
       Set<Long> requestIdsFromUpgrade = findAllRequestIdsFromUpgrade();
-      Iterator<StageEntityPK> requestStageIdsIterator =  requestStageIds.iterator();
-      Set<Long> requestIds = new HashSet<>();
-      while (requestStageIdsIterator.hasNext()) {
-        StageEntityPK nextRequestStageIds = requestStageIdsIterator.next();
-        if (requestIdsFromUpgrade.contains(nextRequestStageIds.getRequestId())) {
-          requestStageIdsIterator.remove();
-          continue;
+
+      // group the stages by request so that a request is never split across batches
+      Map<Long, List<StageEntityPK>> stagesByRequest = new TreeMap<>();
+      for (StageEntityPK requestStageId : requestStageIds) {
+        if (!requestIdsFromUpgrade.contains(requestStageId.getRequestId())) {
+          stagesByRequest.computeIfAbsent(requestStageId.getRequestId(), k -> new ArrayList<>()).add(requestStageId);
         }
-        requestIds.add(nextRequestStageIds.getRequestId());
       }
 
-      // find task ids using request stage ids
-      Set<Long> taskIds = hostRoleCommandDAO.findTaskIdsByRequestStageIds(requestStageIds);
-      LinkedList<String> params = new LinkedList<>();
-      params.add("stageId");
-      params.add("requestId");
-
-      // find host task ids, to find related host requests and also to remove needed host tasks
-      Set<Long> hostTaskIds = topologyLogicalTaskDAO.findHostTaskIdsByPhysicalTaskIds(taskIds);
-
-      // find host request ids by host task ids to remove later needed host requests
-      Set<Long> hostRequestIds = topologyHostTaskDAO.findHostRequestIdsByHostTaskIds(hostTaskIds);
-      Set<Long> topologyRequestIds = topologyLogicalRequestDAO.findRequestIdsByIds(hostRequestIds);
-
-      //removing all entities one by one according to their relations using stage, task and request ids
-      affectedRows += cleanTableByIds(taskIds, "taskIds", "ExecutionCommand", policy.getToDateInMillis(),
-        "ExecutionCommandEntity.removeByTaskIds", ExecutionCommandEntity.class);
-      affectedRows += cleanTableByIds(taskIds, "taskIds", "TopologyLogicalTask", policy.getToDateInMillis(),
-        "TopologyLogicalTaskEntity.removeByPhysicalTaskIds", TopologyLogicalTaskEntity.class);
-      affectedRows += cleanTableByIds(hostTaskIds, "hostTaskIds", "TopologyHostTask", policy.getToDateInMillis(),
-        "TopologyHostTaskEntity.removeByTaskIds", TopologyHostTaskEntity.class);
-      affectedRows += cleanTableByIds(hostRequestIds, "hostRequestIds", "TopologyHostRequest", policy.getToDateInMillis(),
-        "TopologyHostRequestEntity.removeByIds", TopologyHostRequestEntity.class);
-      for (Long topologyRequestId : topologyRequestIds) {
-        topologyRequestDAO.removeByPK(topologyRequestId);
-      }
-      affectedRows += cleanTableByIds(taskIds, "taskIds", "HostRoleCommand", policy.getToDateInMillis(),
-        "HostRoleCommandEntity.removeByTaskIds", HostRoleCommandEntity.class);
-      affectedRows += cleanTableByStageEntityPK(requestStageIds, params, "RoleSuccessCriteria", policy.getToDateInMillis(),
-        "RoleSuccessCriteriaEntity.removeByRequestStageIds", RoleSuccessCriteriaEntity.class);
-      affectedRows += cleanTableByStageEntityPK(requestStageIds, params, "Stage", policy.getToDateInMillis(),
-        "StageEntity.removeByRequestStageIds", StageEntity.class);
-      affectedRows += cleanTableByIds(requestIds, "requestIds", "RequestResourceFilter", policy.getToDateInMillis(),
-        "RequestResourceFilterEntity.removeByRequestIds", RequestResourceFilterEntity.class);
-      affectedRows += cleanTableByIds(requestIds, "requestIds", "RequestOperationLevel", policy.getToDateInMillis(),
-        "RequestOperationLevelEntity.removeByRequestIds", RequestOperationLevelEntity.class);
-      affectedRows += cleanTableByIds(requestIds, "requestIds", "Request", policy.getToDateInMillis(),
-        "RequestEntity.removeByRequestIds", RequestEntity.class);
+      for (List<Long> requestIds : Iterables.partition(stagesByRequest.keySet(), CLEANUP_BATCH_SIZE)) {
+        List<StageEntityPK> batchStageIds = new ArrayList<>();
+        for (Long requestId : requestIds) {
+          batchStageIds.addAll(stagesByRequest.get(requestId));
+        }
 
+        affectedRows += cleanRequestBatch(batchStageIds, new HashSet<>(requestIds), policy.getToDateInMillis());
+      }
     } catch (AmbariException e) {
       LOG.error("Error while looking up cluster with name: {}", policy.getClusterName(), e);
       throw new IllegalStateException(e);
@@ -434,4 +416,58 @@ public class RequestDAO implements Cleanable {
 
     return affectedRows;
   }
+
+  /**
+   * Removes a batch of requests along with their stages, commands and the
+   * topology entities related to them.
+   *
+   * @param requestStageIds  the request and stage ids of the batch
+   * @param requestIds       the request ids of the batch
+   * @param beforeDateMillis the policy date, used only for logging
+   * @return the number of affected (deleted) records
+   */
+  @Transactional
+  long cleanRequestBatch(List<StageEntityPK> requestStageIds, Set<Long> requestIds, long beforeDateMillis) {
+    long affectedRows = 0;
+
+    // find task ids using request stage ids
+    Set<Long> taskIds = hostRoleCommandDAO.findTaskIdsByRequestStageIds(requestStageIds);
+    LinkedList<String> params = new LinkedList<>();
+    params.add("stageId");
+    params.add("requestId");
+
+    // find host task ids, to find related host requests and also to remove needed host tasks
+    Set<Long> hostTaskIds = topologyLogicalTaskDAO.findHostTaskIdsByPhysicalTaskIds(taskIds);
+
+    // find host request ids by host task ids to remove later needed host requests
+    Set<Long> hostRequestIds = topologyHostTaskDAO.findHostRequestIdsByHostTaskIds(hostTaskIds);
+    Set<Long> topologyRequestIds = topologyLogicalRequestDAO.findRequestIdsByIds(hostRequestIds);
+
+    //removing all entities one by one according to their relations using stage, task and request ids
+    affectedRows += cleanTableByIds(taskIds, "taskIds", "ExecutionCommand", beforeDateMillis,
+      "ExecutionCommandEntity.removeByTaskIds", ExecutionCommandEntity.class);
+    affectedRows += cleanTableByIds(taskIds, "taskIds", "TopologyLogicalTask", beforeDateMillis,
+      "TopologyLogicalTaskEntity.removeByPhysicalTaskIds", TopologyLogicalTaskEntity.class);
+    affectedRows += cleanTableByIds(hostTaskIds, "hostTaskIds", "TopologyHostTask", beforeDateMillis,
+      "TopologyHostTaskEntity.removeByTaskIds", TopologyHostTaskEntity.class);
+    affectedRows += cleanTableByIds(hostRequestIds, "hostRequestIds", "TopologyHostRequest", beforeDateMillis,
+      "TopologyHostRequestEntity.removeByIds", TopologyHostRequestEntity.class);
+    for (Long topologyRequestId : topologyRequestIds) {
+      topologyRequestDAO.removeByPK(topologyRequestId);
+    }
+    affectedRows += cleanTableByIds(taskIds, "taskIds", "HostRoleCommand", beforeDateMillis,
+      "HostRoleCommandEntity.removeByTaskIds", HostRoleCommandEntity.class);
+    affectedRows += cleanTableByStageEntityPK(requestStageIds, params, "RoleSuccessCriteria", beforeDateMillis,
+      "RoleSuccessCriteriaEntity.removeByRequestStageIds", RoleSuccessCriteriaEntity.class);
+    affectedRows += cleanTableByStageEntityPK(requestStageIds, params, "Stage", beforeDateMillis,
+      "StageEntity.removeByRequestStageIds", StageEntity.class);
+    affectedRows += cleanTableByIds(requestIds, "requestIds", "RequestResourceFilter", beforeDateMillis,
+      "RequestResourceFilterEntity.removeByRequestIds", RequestResourceFilterEntity.class);
+    affectedRows += cleanTableByIds(requestIds, "requestIds", "RequestOperationLevel", beforeDateMillis,
+      "RequestOperationLevelEntity.removeByRequestIds", RequestOperationLevelEntity.class);
+    affectedRows += cleanTableByIds(requestIds, "requestIds", "Request", beforeDateMillis,
+      "RequestEntity.removeByRequestIds", RequestEntity.class);
+
+    return affectedRows;
+  }
 }
@@ -29,10 +29,18 @@ import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
 import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
 
+import org.apache.ambari.server.api.query.JpaPredicateVisitor;
+import org.apache.ambari.server.api.query.JpaSortBuilder;
+import org.apache.ambari.server.controller.spi.PageRequest;
+import org.apache.ambari.server.controller.spi.SortRequest;
+import org.apache.ambari.server.controller.utilities.PredicateHelper;
 import org.apache.ambari.server.orm.RequiresSession;
 import org.apache.ambari.server.orm.entities.ServiceConfigEntity;
+import org.apache.ambari.server.orm.entities.ServiceConfigEntity_;
 import org.apache.ambari.server.orm.entities.StackEntity;
 import org.apache.ambari.server.state.StackId;
 import org.apache.commons.collections.CollectionUtils;
@@ -269,6 +277,97 @@ public class ServiceConfigDAO {
     return daoUtils.selectList(query);
   }
 
+  /**
+   * Finds the service configs of the given cluster that match the provided
+   * predicate. This method will make JPA do the heavy lifting of sorting and
+   * providing a slice of the result set.
+   * <p/>
+   * The predicate and the sort request must only reference properties mapped
+   * by {@link ServiceConfigEntity_#getPredicateMapping()}, other properties
+   * are ignored. Rows which are equal for the sort request are ordered by
+   * their ID.
+   *
+   * @param clusterId
+   *          the ID of the cluster
+   * @param sortRequest
+   *          the sort request (may be {@code null})
+   * @param pageRequest
+   *          the page request (may be {@code null})
+   * @param predicate
+   *          the predicate to filter by (may be {@code null})
+   * @return the matching service configs
+   */
+  @RequiresSession
+  public List<ServiceConfigEntity> findAll(Long clusterId, SortRequest sortRequest, PageRequest pageRequest,
+      org.apache.ambari.server.controller.spi.Predicate predicate) {
+    EntityManager entityManager = entityManagerProvider.get();
+
+    ServiceConfigPredicateVisitor visitor = new ServiceConfigPredicateVisitor();
+    CriteriaQuery<ServiceConfigEntity> query = visitor.getCriteriaQuery();
+    applyPredicate(visitor, clusterId, predicate);
+
+    // sorting; the ID makes the order of equal rows (and thus paging) stable
+    JpaSortBuilder<ServiceConfigEntity> sortBuilder = new JpaSortBuilder<>();
+    List<Order> sortOrders = new ArrayList<>(sortBuilder.buildSortOrders(sortRequest, visitor));
+    Root<?> root = query.getRoots().iterator().next();
+    sortOrders.add(visitor.getCriteriaBuilder().asc(root.get(ServiceConfigEntity_.serviceConfigId.getName())));
+    query.orderBy(sortOrders);
+
+    TypedQuery<ServiceConfigEntity> typedQuery = entityManager.createQuery(query);
+
+    // pagination
+    if (null != pageRequest) {
+      typedQuery.setFirstResult(pageRequest.getOffset());
+      typedQuery.setMaxResults(pageRequest.getPageSize());
+    }
+
+    return daoUtils.selectList(typedQuery);
+  }
+
+  /**
+   * Gets the number of service configs of the given cluster that match the
+   * provided predicate.
+   *
+   * @param clusterId
+   *          the ID of the cluster
+   * @param predicate
+   *          the predicate to filter by (may be {@code null})
+   * @return the number of matching service configs
+   * @see #findAll(Long, SortRequest, PageRequest, org.apache.ambari.server.controller.spi.Predicate)
+   */
+  @RequiresSession
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public int getCount(Long clusterId, org.apache.ambari.server.controller.spi.Predicate predicate) {
+    ServiceConfigPredicateVisitor visitor = new ServiceConfigPredicateVisitor();
+    applyPredicate(visitor, clusterId, predicate);
+
+    // the JPA predicate is bound to the root of the visitor's query, so turn
+    // that query into a count query
+    CriteriaQuery<Long> query = (CriteriaQuery) visitor.getCriteriaQuery();
+    query.select(visitor.getCriteriaBuilder().count(query.getRoots().iterator().next()));
+
+    Long count = daoUtils.selectSingle(entityManagerProvider.get().createQuery(query));
+    return null == count ? 0 : count.intValue();
+  }
+
+  /**
+   * Restricts the visitor's query to the cluster and the provided predicate.
+   */
+  private void applyPredicate(ServiceConfigPredicateVisitor visitor, Long clusterId,
+      org.apache.ambari.server.controller.spi.Predicate predicate) {
+    PredicateHelper.visit(predicate, visitor);
+
+    CriteriaBuilder builder = visitor.getCriteriaBuilder();
+    CriteriaQuery<ServiceConfigEntity> query = visitor.getCriteriaQuery();
+    Root<?> root = query.getRoots().iterator().next();
+
+    javax.persistence.criteria.Predicate clusterPredicate =
+        builder.equal(root.get(ServiceConfigEntity_.clusterId.getName()), clusterId);
+    javax.persistence.criteria.Predicate jpaPredicate = visitor.getJpaPredicate();
+
+    query.where(null == jpaPredicate ? clusterPredicate : builder.and(clusterPredicate, jpaPredicate));
+  }
+
   /**
    * Get all service configs
    * @return Collection of all service configs.
@@ -331,4 +430,37 @@ public class ServiceConfigDAO {
   public void remove(ServiceConfigEntity serviceConfigEntity) {
     entityManagerProvider.get().remove(merge(serviceConfigEntity));
   }
+
+  /**
+   * The {@link ServiceConfigPredicateVisitor} is used to convert an Ambari
+   * {@link org.apache.ambari.server.controller.spi.Predicate} into a JPA
+   * {@link javax.persistence.criteria.Predicate}.
+   */
+  private final class ServiceConfigPredicateVisitor
+      extends JpaPredicateVisitor<ServiceConfigEntity> {
+
+    /**
+     * Constructor.
+     *
+     */
+    public ServiceConfigPredicateVisitor() {
+      super(entityManagerProvider.get(), ServiceConfigEntity.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<ServiceConfigEntity> getEntityClass() {
+      return ServiceConfigEntity.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<? extends SingularAttribute<?, ?>> getPredicateMapping(String propertyId) {
+      return ServiceConfigEntity_.getPredicateMapping().get(propertyId);
+    }
+  }
 }
@@ -18,7 +18,16 @@
 
 package org.apache.ambari.server.orm.entities;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.persistence.Basic;
 import javax.persistence.Column;
@@ -31,6 +40,8 @@ import javax.persistence.NamedQuery;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 
+import org.apache.commons.io.IOUtils;
+
 @Table(name = "execution_command")
 @Entity
 @NamedQueries({
@@ -38,6 +49,13 @@ import javax.persistence.Table;
 })
 public class ExecutionCommandEntity {
 
+  /**
+   * The first two bytes of a GZIP stream, which can never start a command
+   * stored as JSON.
+   */
+  private static final int GZIP_MAGIC_0 = 0x1f;
+  private static final int GZIP_MAGIC_1 = 0x8b;
+
   @Id
   @Column(name = "task_id")
   private Long taskId;
@@ -67,6 +85,62 @@ public class ExecutionCommandEntity {
     this.command = command;
   }
 
+  /**
+   * Gets the command as JSON. Commands may be stored either as UTF-8 encoded
+   * JSON or as GZIP compressed JSON; the format is detected from the stored
+   * bytes.
+   *
+   * @return the command JSON, or {@code null} if there is no command.
+   */
+  public String getCommandJson() {
+    if (null == command) {
+      return null;
+    }
+
+    if (!isCompressed(command)) {
+      return new String(command, StandardCharsets.UTF_8);
+    }
+
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(command))) {
+      return IOUtils.toString(in, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to decompress the command of task " + taskId, e);
+    }
+  }
+
+  /**
+   * Sets the command from its JSON.
+   *
+   * @param json
+   *          the command JSON
+   * @param compress
+   *          whether the command is stored GZIP compressed
+   */
+  public void setCommandJson(String json, boolean compress) {
+    if (!compress) {
+      command = json.getBytes(StandardCharsets.UTF_8);
+      return;
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length() / 4);
+    try (OutputStream out = new GZIPOutputStream(bytes) {
+      {
+        // favor speed, since commands are written while requests are created
+        def.setLevel(Deflater.BEST_SPEED);
+      }
+    }) {
+      out.write(json.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to compress the command of task " + taskId, e);
+    }
+
+    command = bytes.toByteArray();
+  }
+
+  private static boolean isCompressed(byte[] bytes) {
+    return bytes.length > 1 && (bytes[0] & 0xff) == GZIP_MAGIC_0 && (bytes[1] & 0xff) == GZIP_MAGIC_1;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
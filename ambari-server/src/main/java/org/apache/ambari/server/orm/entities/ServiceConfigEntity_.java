@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.orm.entities;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.StaticMetamodel;
+
+import org.apache.ambari.server.controller.internal.ServiceConfigVersionResourceProvider;
+
+/**
+ * The {@link ServiceConfigEntity_} is a strongly typed metamodel for creating
+ * {@link javax.persistence.criteria.CriteriaQuery} for
+ * {@link ServiceConfigEntity}.
+ */
+@StaticMetamodel(ServiceConfigEntity.class)
+public class ServiceConfigEntity_ {
+  public static volatile SingularAttribute<ServiceConfigEntity, Long> serviceConfigId;
+  public static volatile SingularAttribute<ServiceConfigEntity, Long> clusterId;
+  public static volatile SingularAttribute<ServiceConfigEntity, String> serviceName;
+  public static volatile SingularAttribute<ServiceConfigEntity, Long> groupId;
+  public static volatile SingularAttribute<ServiceConfigEntity, Long> version;
+  public static volatile SingularAttribute<ServiceConfigEntity, Long> createTimestamp;
+  public static volatile SingularAttribute<ServiceConfigEntity, String> user;
+  public static volatile SingularAttribute<ServiceConfigEntity, String> note;
+
+  /**
+   * Gets a mapping of between a resource provider property and an entity
+   * field.
+   * <p/>
+   * This is used when converting an Ambari
+   * {@link org.apache.ambari.server.controller.spi.Predicate} into a JPA
+   * {@link javax.persistence.criteria.Predicate} and we need a type-safe
+   * conversion between "category/property" and JPA field names.
+   * <p/>
+   * Properties which are calculated from the state of the cluster (such as
+   * {@code is_current} or {@code group_name}) are not mapped, neither is
+   * {@code group_id} which is reported as {@code -1} for the default group.
+   *
+   * @return a mapping of between a resource provider property
+   */
+  public static Map<String, List<? extends SingularAttribute<ServiceConfigEntity, ?>>> getPredicateMapping() {
+    Map<String, List<? extends SingularAttribute<ServiceConfigEntity, ?>>> mapping = new HashMap<>();
+
+    mapping.put(ServiceConfigVersionResourceProvider.SERVICE_NAME_PROPERTY_ID,
+        Collections.singletonList(serviceName));
+
+    mapping.put(ServiceConfigVersionResourceProvider.SERVICE_CONFIG_VERSION_PROPERTY_ID,
+        Collections.singletonList(version));
+
+    mapping.put(ServiceConfigVersionResourceProvider.CREATE_TIME_PROPERTY_ID,
+        Collections.singletonList(createTimestamp));
+
+    mapping.put(ServiceConfigVersionResourceProvider.USER_PROPERTY_ID,
+        Collections.singletonList(user));
+
+    mapping.put(ServiceConfigVersionResourceProvider.SERVICE_CONFIG_VERSION_NOTE_PROPERTY_ID,
+        Collections.singletonList(note));
+
+    return mapping;
+  }
+}
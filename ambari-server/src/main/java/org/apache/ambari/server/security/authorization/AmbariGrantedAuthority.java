@@ -18,19 +18,36 @@
 
 package org.apache.ambari.server.security.authorization;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.apache.ambari.server.orm.entities.PermissionEntity;
 import org.apache.ambari.server.orm.entities.PrivilegeEntity;
 import org.apache.ambari.server.orm.entities.ResourceEntity;
+import org.apache.ambari.server.orm.entities.RoleAuthorizationEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
 
 /**
  * Authority granted for Ambari privileges.
  */
 public class AmbariGrantedAuthority implements GrantedAuthority {
+  private final static Logger LOG = LoggerFactory.getLogger(AmbariGrantedAuthority.class);
+
   /**
    * The Ambari privilege.
    */
   private final PrivilegeEntity privilegeEntity;
 
+  /**
+   * The resource and role authorizations of the privilege, resolved from the
+   * privilege entity the first time they are needed.
+   */
+  private volatile ResolvedPrivilege resolvedPrivilege;
+
 
   // ----- Constructors ------------------------------------------------------
 
@@ -65,6 +82,100 @@ public class AmbariGrantedAuthority implements GrantedAuthority {
     return privilegeEntity;
   }
 
+  /**
+   * Determines if the privilege applies to the specified resource. A privilege
+   * on the {@link ResourceType#AMBARI Ambari} resource applies to all
+   * resources.
+   *
+   * @param resourceType the resource type, or {@code null} for any type
+   * @param resourceId   the (admin)resource id, or {@code null} for any resource
+   * @return true if the privilege applies to the resource; otherwise false
+   */
+  public boolean appliesTo(ResourceType resourceType, Long resourceId) {
+    ResolvedPrivilege resolved = resolve();
+
+    if (ResourceType.AMBARI == resolved.resourceType) {
+      return true;
+    } else if ((resourceType == null) || (resourceType == resolved.resourceType)) {
+      return (resourceId == null) || resourceId.equals(resolved.resourceId);
+    } else {
+      return false;
+    }
+  }
+
+  /**
+   * Determines if the privilege grants at least one of the specified role
+   * authorizations.
+   *
+   * @param requiredAuthorizations the role authorizations
+   * @return true if at least one of the role authorizations is granted; otherwise false
+   */
+  public boolean hasAnyAuthorization(Set<RoleAuthorization> requiredAuthorizations) {
+    Set<RoleAuthorization> authorizations = resolve().authorizations;
+
+    for (RoleAuthorization requiredAuthorization : requiredAuthorizations) {
+      if (authorizations.contains(requiredAuthorization)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Get the role authorizations granted by the privilege.
+   *
+   * @return an unmodifiable set of role authorizations
+   */
+  public Set<RoleAuthorization> getAuthorizations() {
+    return resolve().authorizations;
+  }
+
+  /**
+   * Resolves the resource type, resource id and role authorizations of the
+   * privilege, so that authorization checks neither walk the (possibly lazily
+   * loaded) privilege entity nor translate authorization names on each call.
+   * <p/>
+   * The role authorizations of a permission do not change while the server is
+   * running, and the authorities of a user are built again when the user
+   * authenticates, so the resolved values are never invalidated.
+   *
+   * @return the resolved privilege
+   */
+  private ResolvedPrivilege resolve() {
+    ResolvedPrivilege resolved = resolvedPrivilege;
+
+    if (resolved == null) {
+      ResourceEntity resource = privilegeEntity.getResource();
+      ResourceType resourceType = ResourceType.translate(resource.getResourceType().getName());
+      Set<RoleAuthorization> authorizations = EnumSet.noneOf(RoleAuthorization.class);
+
+      PermissionEntity permission = privilegeEntity.getPermission();
+      Collection<RoleAuthorizationEntity> authorizationEntities = (permission == null)
+          ? null
+          : permission.getAuthorizations();
+
+      if (authorizationEntities != null) {
+        for (RoleAuthorizationEntity authorizationEntity : authorizationEntities) {
+          try {
+            RoleAuthorization authorization = RoleAuthorization.translate(authorizationEntity.getAuthorizationId());
+            if (authorization != null) {
+              authorizations.add(authorization);
+            }
+          } catch (IllegalArgumentException e) {
+            LOG.warn("Invalid authorization name, '{}'... ignoring.", authorizationEntity.getAuthorizationId());
+          }
+        }
+      }
+
+      resolved = new ResolvedPrivilege(resourceType, resource.getId(),
+          Collections.unmodifiableSet(authorizations));
+      resolvedPrivilege = resolved;
+    }
+
+    return resolved;
+  }
+
 
   // ----- Object overrides --------------------------------------------------
 
@@ -82,4 +193,23 @@ public class AmbariGrantedAuthority implements GrantedAuthority {
   public int hashCode() {
     return privilegeEntity != null ? privilegeEntity.hashCode() : 0;
   }
+
+
+  // ----- ResolvedPrivilege -------------------------------------------------
+
+  /**
+   * The resource and role authorizations of a privilege.
+   */
+  private static final class ResolvedPrivilege {
+    private final ResourceType resourceType;
+    private final Long resourceId;
+    private final Set<RoleAuthorization> authorizations;
+
+    private ResolvedPrivilege(ResourceType resourceType, Long resourceId,
+                              Set<RoleAuthorization> authorizations) {
+      this.resourceType = resourceType;
+      this.resourceId = resourceId;
+      this.authorizations = authorizations;
+    }
+  }
 }
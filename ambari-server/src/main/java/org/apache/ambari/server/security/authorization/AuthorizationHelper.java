@@ -25,9 +25,7 @@ import java.util.Set;
 
 import org.apache.ambari.server.orm.dao.PrivilegeDAO;
 import org.apache.ambari.server.orm.dao.ViewInstanceDAO;
-import org.apache.ambari.server.orm.entities.PermissionEntity;
 import org.apache.ambari.server.orm.entities.PrivilegeEntity;
-import org.apache.ambari.server.orm.entities.ResourceEntity;
 import org.apache.ambari.server.orm.entities.RoleAuthorizationEntity;
 import org.apache.ambari.server.security.authentication.AmbariProxiedUserDetailsImpl;
 import org.apache.ambari.server.security.authentication.AmbariUserDetails;
@@ -221,39 +219,12 @@ public class AuthorizationHelper {
       // that user is authorized to perform the operation.
       for (GrantedAuthority grantedAuthority : authentication.getAuthorities()) {
         AmbariGrantedAuthority ambariGrantedAuthority = (AmbariGrantedAuthority) grantedAuthority;
-        PrivilegeEntity privilegeEntity = ambariGrantedAuthority.getPrivilegeEntity();
-        ResourceEntity privilegeResource = privilegeEntity.getResource();
-        ResourceType privilegeResourceType = ResourceType.translate(privilegeResource.getResourceType().getName());
-        boolean resourceOK;
-
-        if (ResourceType.AMBARI == privilegeResourceType) {
-          // This resource type indicates administrative access
-          resourceOK = true;
-        } else if ((resourceType == null) || (resourceType == privilegeResourceType)) {
-          resourceOK = (resourceId == null) || resourceId.equals(privilegeResource.getId());
-        } else {
-          resourceOK = false;
-        }
 
         // The the authority is for the relevant resource, see if one of the authorizations matches
         // one of the required authorizations...
-        if (resourceOK) {
-          PermissionEntity permission = privilegeEntity.getPermission();
-          Collection<RoleAuthorizationEntity> userAuthorizations = (permission == null)
-              ? null
-              : permission.getAuthorizations();
-
-          if (userAuthorizations != null) {
-            for (RoleAuthorizationEntity userAuthorization : userAuthorizations) {
-              try {
-                if (requiredAuthorizations.contains(RoleAuthorization.translate(userAuthorization.getAuthorizationId()))) {
-                  return true;
-                }
-              } catch (IllegalArgumentException e) {
-                LOG.warn("Invalid authorization name, '{}'... ignoring.", userAuthorization.getAuthorizationId());
-              }
-            }
-          }
+        if (ambariGrantedAuthority.appliesTo(resourceType, resourceId)
+            && ambariGrantedAuthority.hasAnyAuthorization(requiredAuthorizations)) {
+          return true;
         }
       }
 
@@ -25,6 +25,7 @@ import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -33,7 +34,13 @@ import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.Role;
@@ -48,6 +55,7 @@ import org.apache.ambari.server.agent.ExecutionCommand;
 import org.apache.ambari.server.api.services.AmbariMetaInfo;
 import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.AmbariManagementController;
+import org.apache.ambari.server.metrics.system.impl.ServerComponentsMetricsSource;
 import org.apache.ambari.server.security.authorization.internal.InternalAuthenticationToken;
 import org.apache.ambari.server.stack.upgrade.orchestrate.UpgradeServiceSummary;
 import org.apache.ambari.server.stack.upgrade.orchestrate.UpgradeSummary;
@@ -57,6 +65,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.ClassUtils;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 
@@ -67,6 +76,9 @@ import com.google.inject.Injector;
  * HostRoleCommands queued for execution.  It is expected that this thread is managed by the
  * ActionScheduler such that it is started when the ActionScheduler is started and stopped when the
  * ActionScheduler is stopped.
+ * <p/>
+ * The queued tasks are run by a bounded pool of workers. The tasks of a request are run one at a
+ * time and in order, while the tasks of different requests may run concurrently.
  */
 @StaticallyInject
 public class ServerActionExecutor {
@@ -75,6 +87,9 @@ public class ServerActionExecutor {
   private final static Long DEFAULT_EXECUTION_TIMEOUT_MS = 1000L * 60 * 5;
   private final static Long POLLING_TIMEOUT_MS = 1000L * 5;
 
+  private static final String QUEUE_TIME_METRIC = "server.action.executor.queue.time";
+  private static final String EXECUTION_TIME_METRIC = "server.action.executor.execution.time";
+
   /**
    * An injector to use to inject objects into ServerAction instances.
    */
@@ -119,11 +134,27 @@ public class ServerActionExecutor {
    */
   private boolean activeAwakeRequest = false;
 
+  /**
+   * Notified with the request id whenever the status of a task is stored.
+   */
+  private volatile LongConsumer taskUpdateListener;
+
   /**
    * A reference to the Thread handling the work for this ServerActionExecutor
    */
   private Thread executorThread = null;
 
+  /**
+   * The pool running the queued tasks, created when tasks are first dispatched.
+   */
+  private ExecutorService workerPool = null;
+
+  /**
+   * The requests which have tasks dispatched to the worker pool. No other task
+   * of these requests is dispatched until those complete.
+   */
+  private final Set<Long> dispatchedRequests = ConcurrentHashMap.newKeySet();
+
   /**
    * A timer used to clear out {@link #requestSharedDataMap}. Since this "cache"
    * isn't timer- or access-based, then we must periodically check it in order
@@ -175,7 +206,7 @@ public class ServerActionExecutor {
               activeAwakeRequest = false;
             }
 
-            doWork();
+            dispatchWork();
           } catch (InterruptedException e) {
             LOG.warn("Server Action Executor thread interrupted, starting to shutdown...");
             break;
@@ -224,6 +255,24 @@ public class ServerActionExecutor {
     } else {
       LOG.warn("Server Action Executor thread hasn't stopped, giving up waiting.");
     }
+
+    synchronized (this) {
+      if (workerPool != null) {
+        workerPool.shutdownNow();
+        workerPool = null;
+      }
+    }
+  }
+
+  /**
+   * Sets the listener to notify with the request id whenever the status of a
+   * task has been stored, so the action scheduler can react to completed
+   * server actions.
+   *
+   * @param taskUpdateListener the listener; may be {@code null}
+   */
+  public void setTaskUpdateListener(LongConsumer taskUpdateListener) {
+    this.taskUpdateListener = taskUpdateListener;
   }
 
   /**
@@ -317,6 +366,11 @@ public class ServerActionExecutor {
 
     db.updateHostRoleState(null, hostRoleCommand.getRequestId(),
         hostRoleCommand.getStageId(), executionCommand.getRole(), commandReport);
+
+    LongConsumer listener = taskUpdateListener;
+    if (listener != null) {
+      listener.accept(hostRoleCommand.getRequestId());
+    }
   }
 
   /**
@@ -362,70 +416,199 @@ public class ServerActionExecutor {
   /**
    * Execute the logic to handle each task in the queue in the order in which it was queued.
    * <p/>
-   * A single task is executed at one time, allowing for a specified (ExecutionCommand.KeyNames.COMMAND_TIMEOUT)
-   * or the default timeout for it to complete before considering the task timed out.
+   * The tasks are run by the worker pool as in {@link #dispatchWork()}, and this method returns
+   * once they have been handled.
    *
    * @throws InterruptedException
    */
   public void doWork() throws InterruptedException {
+    for (Future<?> future : dispatchWork()) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        LOG.warn("Failed to run the server-side tasks", e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Dispatches the queued tasks to the worker pool, without waiting for them to complete.
+   * <p/>
+   * The tasks of a request are run in the order in which they were queued, one at a time, each
+   * allowing for a specified (ExecutionCommand.KeyNames.COMMAND_TIMEOUT) or the default timeout
+   * for it to complete before considering the task timed out. The tasks of a request which still
+   * has tasks running are left queued; they are dispatched once those complete.
+   *
+   * @return the futures of the dispatched tasks, one for each request
+   */
+  synchronized List<Future<?>> dispatchWork() {
+    // the requests have to be checked against the ones running before the tasks are read. A job
+    // completing after the read would otherwise get its already run tasks dispatched once more,
+    // since they are still QUEUED in the result of the read.
+    Set<Long> busyRequests = new HashSet<>(dispatchedRequests);
+
     List<HostRoleCommand> tasks = db.getTasksByRoleAndStatus(Role.AMBARI_SERVER_ACTION.name(),
       HostRoleStatus.QUEUED);
 
-    if ((tasks != null) && !tasks.isEmpty()) {
-      for (HostRoleCommand task : tasks) {
-        Long taskId = task.getTaskId();
+    List<Future<?>> futures = new ArrayList<>();
+    if ((tasks == null) || tasks.isEmpty()) {
+      return futures;
+    }
 
-        LOG.debug("Processing task #{}", taskId);
+    // [ Request ID -> Tasks ]
+    Map<Long, List<HostRoleCommand>> tasksByRequest = new LinkedHashMap<>();
+    for (HostRoleCommand task : tasks) {
+      if (busyRequests.contains(task.getRequestId())) {
+        LOG.debug("Task #{} is waiting for the running tasks of request {}", task.getTaskId(),
+            task.getRequestId());
+      } else {
+        tasksByRequest.computeIfAbsent(task.getRequestId(), id -> new ArrayList<>()).add(task);
+      }
+    }
 
-        if (task.getStatus() == HostRoleStatus.QUEUED) {
-          ExecutionCommandWrapper executionWrapper = task.getExecutionCommandWrapper();
+    ExecutorService pool = getWorkerPool();
+    for (Map.Entry<Long, List<HostRoleCommand>> entry : tasksByRequest.entrySet()) {
+      long requestId = entry.getKey();
+      List<HostRoleCommand> requestTasks = entry.getValue();
+      long dispatchTime = System.currentTimeMillis();
 
-          if (executionWrapper != null) {
-            ExecutionCommand executionCommand = executionWrapper.getExecutionCommand();
+      dispatchedRequests.add(requestId);
+      try {
+        futures.add(pool.submit(() -> {
+          try {
+            for (HostRoleCommand task : requestTasks) {
+              // the start time of a task is set when it is queued
+              long queuedTime = (task.getStartTime() > 0) ? task.getStartTime() : dispatchTime;
+              if (!runTask(task, queuedTime)) {
+                break;
+              }
+            }
+          } finally {
+            dispatchedRequests.remove(requestId);
 
-            if (executionCommand != null) {
-              // For now, execute only one task at a time. This may change in the future in the
-              // event it is discovered that this is a bottleneck. Since this implementation may
-              // change, it should be noted from outside of this class, that there is no expectation
-              // that tasks will be processed in order or serially.
-              Worker worker = new Worker(task, executionCommand);
-              Thread workerThread = new Thread(worker, String.format("Server Action Executor Worker %s", taskId));
-              Long timeout = determineTimeout(executionCommand);
+            // pick up the tasks of the request which were queued in the meantime
+            awake();
+          }
+        }));
+      } catch (RejectedExecutionException e) {
+        dispatchedRequests.remove(requestId);
+        LOG.warn("Unable to run the tasks of request {}, the worker pool was stopped", requestId);
+      }
+    }
 
-              updateHostRoleState(task, executionCommand, createInProgressReport());
+    return futures;
+  }
 
-              LOG.debug("Starting Server Action Executor Worker thread for task #{}.", taskId);
-              workerThread.start();
+  /**
+   * Gets the pool running the queued tasks, creating it if needed.
+   *
+   * @return the worker pool
+   */
+  private synchronized ExecutorService getWorkerPool() {
+    if (workerPool == null) {
+      workerPool = Executors.newFixedThreadPool(getWorkerThreads(), new ThreadFactoryBuilder()
+          .setNameFormat("Server Action Executor Pool %d")
+          .setDaemon(true)
+          .build());
+    }
 
-              try {
-                workerThread.join(timeout);
-              } catch (InterruptedException e) {
-                // Make sure the workerThread is interrupted as well.
-                workerThread.interrupt();
-                throw e;
-              }
+    return workerPool;
+  }
 
-              if (workerThread.isAlive()) {
-                LOG.debug("Server Action Executor Worker thread for task #{} timed out - it failed to complete within {} ms.",
-                    taskId, timeout);
-                workerThread.interrupt();
-                updateHostRoleState(task, executionCommand, createTimedOutReport());
-              } else {
-                LOG.debug("Server Action Executor Worker thread for task #{} exited on its own.", taskId);
-                updateHostRoleState(task, executionCommand, worker.getCommandReport());
-              }
-            } else {
-              LOG.warn("Task #{} failed to produce an ExecutionCommand, skipping.", taskId);
-            }
-          } else {
-            LOG.warn("Task #{} failed to produce an ExecutionCommandWrapper, skipping.", taskId);
-          }
-        } else {
-          LOG.warn("Queued task #{} is expected to have a status of {} but has a status of {}, skipping.",
-              taskId, HostRoleStatus.QUEUED, task.getStatus());
-        }
-      }
+  /**
+   * Gets the number of workers running the queued tasks.
+   *
+   * @return the number of workers
+   */
+  int getWorkerThreads() {
+    return (configuration == null) ? 1 : Math.max(1, configuration.getServerActionExecutorThreads());
+  }
+
+  /**
+   * Runs a single queued task, waiting for it to complete or time out, and
+   * stores its status.
+   *
+   * @param task       the task
+   * @param queuedTime the time the task was queued
+   * @return {@code false} if the worker pool was interrupted while waiting for the task
+   */
+  boolean runTask(HostRoleCommand task, long queuedTime) {
+    Long taskId = task.getTaskId();
+
+    LOG.debug("Processing task #{}", taskId);
+
+    if (task.getStatus() != HostRoleStatus.QUEUED) {
+      LOG.warn("Queued task #{} is expected to have a status of {} but has a status of {}, skipping.",
+          taskId, HostRoleStatus.QUEUED, task.getStatus());
+      return true;
     }
+
+    ExecutionCommandWrapper executionWrapper = task.getExecutionCommandWrapper();
+    if (executionWrapper == null) {
+      LOG.warn("Task #{} failed to produce an ExecutionCommandWrapper, skipping.", taskId);
+      return true;
+    }
+
+    ExecutionCommand executionCommand = executionWrapper.getExecutionCommand();
+    if (executionCommand == null) {
+      LOG.warn("Task #{} failed to produce an ExecutionCommand, skipping.", taskId);
+      return true;
+    }
+
+    Worker worker = new Worker(task, executionCommand);
+    Thread workerThread = new Thread(worker, String.format("Server Action Executor Worker %s", taskId));
+    Long timeout = determineTimeout(executionCommand);
+    String actionName = getActionName(executionCommand);
+
+    updateHostRoleState(task, executionCommand, createInProgressReport());
+
+    long startTime = System.currentTimeMillis();
+    ServerComponentsMetricsSource.getRegistry().timer(QUEUE_TIME_METRIC + "." + actionName)
+        .update(Math.max(0, startTime - queuedTime), TimeUnit.MILLISECONDS);
+
+    LOG.debug("Starting Server Action Executor Worker thread for task #{}.", taskId);
+    workerThread.start();
+
+    try {
+      workerThread.join(timeout);
+    } catch (InterruptedException e) {
+      // Make sure the workerThread is interrupted as well.
+      workerThread.interrupt();
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      ServerComponentsMetricsSource.getRegistry().timer(EXECUTION_TIME_METRIC + "." + actionName)
+          .update(System.currentTimeMillis() - startTime, TimeUnit.MILLISECONDS);
+    }
+
+    if (workerThread.isAlive()) {
+      LOG.debug("Server Action Executor Worker thread for task #{} timed out - it failed to complete within {} ms.",
+          taskId, timeout);
+      workerThread.interrupt();
+      updateHostRoleState(task, executionCommand, createTimedOutReport());
+    } else {
+      LOG.debug("Server Action Executor Worker thread for task #{} exited on its own.", taskId);
+      updateHostRoleState(task, executionCommand, worker.getCommandReport());
+    }
+
+    return true;
+  }
+
+  /**
+   * Gets the simple class name of the server action of a task, used to report
+   * metrics by action.
+   *
+   * @param executionCommand the ExecutionCommand for the relevant task
+   * @return the simple class name, or "unknown" if it is not set
+   */
+  private String getActionName(ExecutionCommand executionCommand) {
+    Map<String, String> roleParams = executionCommand.getRoleParams();
+    String actionClassname = (roleParams == null) ? null : roleParams.get(ServerAction.ACTION_NAME);
+    if (actionClassname == null) {
+      return "unknown";
+    }
+
+    return actionClassname.substring(actionClassname.lastIndexOf('.') + 1);
   }
 
   /**
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBContext;
@@ -62,7 +63,11 @@ public class ModuleFileUnmarshaller {
    * Map of class to JAXB context
    */
   private static final Map<Class<?>, JAXBContext> jaxbContexts = new HashMap<>();
-  private static final Map<String, Schema> jaxbSchemas = new HashMap<>();
+
+  /**
+   * Map of XSD name to schema; stack definitions are unmarshalled concurrently
+   */
+  private static final Map<String, Schema> jaxbSchemas = new ConcurrentHashMap<>();
 
 
   /**
@@ -99,11 +104,14 @@ public class ModuleFileUnmarshaller {
 
     XMLInputFactory xmlFactory = XMLInputFactory.newInstance();
 
-    FileReader reader = new FileReader(file);
-    XMLStreamReader xmlReader = xmlFactory.createXMLStreamReader(reader);
+    String xsdName;
+    try (FileReader reader = new FileReader(file)) {
+      XMLStreamReader xmlReader = xmlFactory.createXMLStreamReader(reader);
 
-    xmlReader.nextTag();
-    String xsdName = xmlReader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "noNamespaceSchemaLocation");
+      xmlReader.nextTag();
+      xsdName = xmlReader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "noNamespaceSchemaLocation");
+      xmlReader.close();
+    }
 
     InputStream xsdStream = null;
 
@@ -21,6 +21,7 @@ package org.apache.ambari.server.stack;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -28,6 +29,11 @@ import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import javax.annotation.Nullable;
 import javax.xml.XMLConstants;
@@ -188,11 +194,72 @@ public class StackManager {
     populateDB(stackDao, extensionDao);
   }
 
+  /**
+   * Parses the common services, stacks and extensions. The definition
+   * directories of each are read concurrently on a fork-join pool, since
+   * unmarshalling their files accounts for most of the time spent; the modules
+   * are then created from the parsed directories in order.
+   *
+   * @throws AmbariException
+   *           if unable to parse the directories
+   */
   protected void parseDirectories(File stackRoot, File commonServicesRoot, File extensionRoot) throws AmbariException {
-    commonServiceModules = parseCommonServicesDirectory(commonServicesRoot);
-    stackModules = parseStackDirectory(stackRoot);
-    LOG.info("About to parse extension directories");
-    extensionModules = parseExtensionDirectory(extensionRoot);
+    long startTime = System.currentTimeMillis();
+    ExecutorService parsePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    try {
+      commonServiceModules = parseCommonServicesDirectory(commonServicesRoot, parsePool);
+      stackModules = parseStackDirectory(stackRoot, parsePool);
+      LOG.info("About to parse extension directories");
+      extensionModules = parseExtensionDirectory(extensionRoot, parsePool);
+    } finally {
+      parsePool.shutdownNow();
+    }
+
+    LOG.info("Parsed {} common services, {} stacks and {} extensions in {}ms", commonServiceModules.size(),
+        stackModules.size(), extensionModules.size(), System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * Parses the definition directories concurrently.
+   *
+   * @param folders     the directories to parse
+   * @param parser      parses a single directory
+   * @param parsePool   the pool to parse the directories on
+   * @return the parsed directories, in the same order as {@code folders}
+   * @throws AmbariException if unable to parse any of the directories
+   */
+  private <T extends StackDefinitionDirectory> List<T> parseConcurrently(List<File> folders,
+      DirectoryParser<T> parser, ExecutorService parsePool) throws AmbariException {
+    List<Callable<T>> tasks = new ArrayList<>(folders.size());
+    for (File folder : folders) {
+      tasks.add(() -> parser.parse(folder.getPath()));
+    }
+
+    List<T> directories = new ArrayList<>(folders.size());
+    try {
+      for (Future<T> future : parsePool.invokeAll(tasks)) {
+        directories.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AmbariException("Interrupted while parsing stack definitions", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof AmbariException) {
+        throw (AmbariException) e.getCause();
+      }
+
+      throw new AmbariException("Unable to parse stack definitions", e.getCause());
+    }
+
+    return directories;
+  }
+
+  /**
+   * Creates a definition directory, parsing its files.
+   */
+  @FunctionalInterface
+  private interface DirectoryParser<T extends StackDefinitionDirectory> {
+    T parse(String directory) throws AmbariException;
   }
 
   private void populateDB(StackDAO stackDao, ExtensionDAO extensionDao) throws AmbariException {
@@ -557,36 +624,40 @@ public class StackManager {
    * Parse the specified common services root directory
    *
    * @param commonServicesRoot  the common services root directory to parse
+   * @param parsePool           the pool to parse the service directories on
    * @return map of common service id which contains name and version to common service module.
    * @throws AmbariException if unable to parse all common services
    */
-  private Map<String, ServiceModule> parseCommonServicesDirectory(File commonServicesRoot) throws AmbariException {
+  private Map<String, ServiceModule> parseCommonServicesDirectory(File commonServicesRoot,
+      ExecutorService parsePool) throws AmbariException {
     Map<String, ServiceModule> commonServiceModules = new HashMap<>();
 
     if(commonServicesRoot != null) {
+      List<File> serviceFolders = new ArrayList<>();
       File[] commonServiceFiles = commonServicesRoot.listFiles(StackDirectory.FILENAME_FILTER);
       for (File commonService : commonServiceFiles) {
         if (commonService.isFile()) {
           continue;
         }
-        for (File serviceFolder : commonService.listFiles(StackDirectory.FILENAME_FILTER)) {
-          ServiceDirectory serviceDirectory = new CommonServiceDirectory(serviceFolder.getPath());
-          ServiceMetainfoXml metaInfoXml = serviceDirectory.getMetaInfoFile();
-          if (metaInfoXml != null) {
-            if (metaInfoXml.isValid()) {
-              for (ServiceInfo serviceInfo : metaInfoXml.getServices()) {
-                ServiceModule serviceModule = new ServiceModule(stackContext, serviceInfo, serviceDirectory, true);
-
-                String commonServiceKey = serviceInfo.getName() + StackManager.PATH_DELIMITER + serviceInfo.getVersion();
-                commonServiceModules.put(commonServiceKey, serviceModule);
-              }
-            } else {
-              ServiceModule serviceModule = new ServiceModule(stackContext, new ServiceInfo(), serviceDirectory, true);
-              serviceModule.setValid(false);
-              serviceModule.addErrors(metaInfoXml.getErrors());
-              commonServiceModules.put(metaInfoXml.getSchemaVersion(), serviceModule);
-              metaInfoXml.setSchemaVersion(null);
+        Collections.addAll(serviceFolders, commonService.listFiles(StackDirectory.FILENAME_FILTER));
+      }
+
+      for (ServiceDirectory serviceDirectory : parseConcurrently(serviceFolders, CommonServiceDirectory::new, parsePool)) {
+        ServiceMetainfoXml metaInfoXml = serviceDirectory.getMetaInfoFile();
+        if (metaInfoXml != null) {
+          if (metaInfoXml.isValid()) {
+            for (ServiceInfo serviceInfo : metaInfoXml.getServices()) {
+              ServiceModule serviceModule = new ServiceModule(stackContext, serviceInfo, serviceDirectory, true);
+
+              String commonServiceKey = serviceInfo.getName() + StackManager.PATH_DELIMITER + serviceInfo.getVersion();
+              commonServiceModules.put(commonServiceKey, serviceModule);
             }
+          } else {
+            ServiceModule serviceModule = new ServiceModule(stackContext, new ServiceInfo(), serviceDirectory, true);
+            serviceModule.setValid(false);
+            serviceModule.addErrors(metaInfoXml.getErrors());
+            commonServiceModules.put(metaInfoXml.getSchemaVersion(), serviceModule);
+            metaInfoXml.setSchemaVersion(null);
           }
         }
       }
@@ -598,12 +669,14 @@ public class StackManager {
    * Parse the specified stack root directory
    *
    * @param stackRoot  the stack root directory to parse
+   * @param parsePool  the pool to parse the stack directories on
    * @return map of stack id which contains name and version to stack module.
    * @throws AmbariException if unable to parse all stacks
    */
-  private Map<String, StackModule> parseStackDirectory(File stackRoot) throws AmbariException {
+  private Map<String, StackModule> parseStackDirectory(File stackRoot, ExecutorService parsePool) throws AmbariException {
     Map<String, StackModule> stackModules = new HashMap<>();
 
+    List<File> stackFolders = new ArrayList<>();
     File[] stackFiles = stackRoot.listFiles(StackDirectory.FILENAME_FILTER);
     for (File stack : stackFiles) {
       if (stack.isFile()) {
@@ -613,16 +686,22 @@ public class StackManager {
         if (stackFolder.isFile()) {
           continue;
         }
-        String stackName = stackFolder.getParentFile().getName();
-        String stackVersion = stackFolder.getName();
-
-        StackModule stackModule = new StackModule(new StackDirectory(stackFolder.getPath()), stackContext);
-        String stackKey = stackName + StackManager.PATH_DELIMITER + stackVersion;
-        stackModules.put(stackKey, stackModule);
-        stackMap.put(stackKey, stackModule.getModuleInfo());
+        stackFolders.add(stackFolder);
       }
     }
 
+    List<StackDirectory> stackDirectories = parseConcurrently(stackFolders, StackDirectory::new, parsePool);
+    for (int i = 0; i < stackFolders.size(); i++) {
+      File stackFolder = stackFolders.get(i);
+      String stackName = stackFolder.getParentFile().getName();
+      String stackVersion = stackFolder.getName();
+
+      StackModule stackModule = new StackModule(stackDirectories.get(i), stackContext);
+      String stackKey = stackName + StackManager.PATH_DELIMITER + stackVersion;
+      stackModules.put(stackKey, stackModule);
+      stackMap.put(stackKey, stackModule.getModuleInfo());
+    }
+
     if (stackMap.isEmpty()) {
       throw new AmbariException("Unable to find stack definitions under " +
           "stackRoot = " + stackRoot.getAbsolutePath());
@@ -642,15 +721,18 @@ public class StackManager {
    * Parse the specified extension root directory
    *
    * @param extensionRoot  the extension root directory to parse
+   * @param parsePool      the pool to parse the extension directories on
    * @return map of extension id which contains name and version to extension module.
    * @throws AmbariException if unable to parse all extensions
    */
-  private Map<String, ExtensionModule> parseExtensionDirectory(File extensionRoot) throws AmbariException {
+  private Map<String, ExtensionModule> parseExtensionDirectory(File extensionRoot, ExecutorService parsePool)
+      throws AmbariException {
     Map<String, ExtensionModule> extensionModules = new HashMap<>();
     if (extensionRoot == null || !extensionRoot.exists()) {
       return extensionModules;
     }
 
+    List<File> extensionVersionFolders = new ArrayList<>();
     File[] extensionFiles = extensionRoot.listFiles(StackDirectory.FILENAME_FILTER);
     for (File extensionNameFolder : extensionFiles) {
       if (extensionNameFolder.isFile()) {
@@ -660,16 +742,23 @@ public class StackManager {
         if (extensionVersionFolder.isFile()) {
           continue;
         }
-        String extensionName = extensionNameFolder.getName();
-        String extensionVersion = extensionVersionFolder.getName();
-
-        ExtensionModule extensionModule = new ExtensionModule(new ExtensionDirectory(extensionVersionFolder.getPath()), stackContext);
-        String extensionKey = extensionName + StackManager.PATH_DELIMITER + extensionVersion;
-        extensionModules.put(extensionKey, extensionModule);
-        extensionMap.put(extensionKey, extensionModule.getModuleInfo());
+        extensionVersionFolders.add(extensionVersionFolder);
       }
     }
 
+    List<ExtensionDirectory> extensionDirectories = parseConcurrently(extensionVersionFolders,
+        ExtensionDirectory::new, parsePool);
+    for (int i = 0; i < extensionVersionFolders.size(); i++) {
+      File extensionVersionFolder = extensionVersionFolders.get(i);
+      String extensionName = extensionVersionFolder.getParentFile().getName();
+      String extensionVersion = extensionVersionFolder.getName();
+
+      ExtensionModule extensionModule = new ExtensionModule(extensionDirectories.get(i), stackContext);
+      String extensionKey = extensionName + StackManager.PATH_DELIMITER + extensionVersion;
+      extensionModules.put(extensionKey, extensionModule);
+      extensionMap.put(extensionKey, extensionModule.getModuleInfo());
+    }
+
     if (stackMap.isEmpty()) {
       throw new AmbariException("Unable to find extension definitions under " +
           "extensionRoot = " + extensionRoot.getAbsolutePath());
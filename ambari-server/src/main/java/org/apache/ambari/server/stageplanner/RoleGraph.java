@@ -19,9 +19,11 @@ package org.apache.ambari.server.stageplanner;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.ambari.server.AmbariException;
@@ -47,7 +49,6 @@ public class RoleGraph {
   Map<String, RoleGraphNode> graph = null;
   private RoleCommandOrder roleDependencies;
   private Stage initialStage = null;
-  private boolean sameHostOptimization = true;
   private CommandExecutionType commandExecutionType = CommandExecutionType.STAGE;
 
   @Inject
@@ -170,35 +171,16 @@ public class RoleGraph {
   public List<Stage> getStages() throws AmbariException {
     long initialStageId = initialStage.getStageId();
     List<Stage> stageList = new ArrayList<>();
-    List<RoleGraphNode> firstStageNodes = new ArrayList<>();
     if(!graph.isEmpty()){
       LOG.info("Detecting cycle graphs");
       LOG.info(stringifyGraph());
       breakCycleGraph();
     }
-    while (!graph.isEmpty()) {
-      if (LOG.isDebugEnabled()) {
-        LOG.debug(stringifyGraph());
-      }
 
-      for (String role: graph.keySet()) {
-        RoleGraphNode rgn = graph.get(role);
-        if (rgn.getInDegree() == 0) {
-          firstStageNodes.add(rgn);
-        }
-      }
-      Stage aStage = getStageFromGraphNodes(initialStage, firstStageNodes);
+    for (List<RoleGraphNode> stageNodes : removeNodesInOrder()) {
+      Stage aStage = getStageFromGraphNodes(initialStage, stageNodes);
       aStage.setStageId(++initialStageId);
       stageList.add(aStage);
-      //Remove first stage nodes from the graph, we know that none of
-      //these nodes have an incoming edges.
-      for (RoleGraphNode rgn : firstStageNodes) {
-        if (sameHostOptimization) {
-          //Perform optimization
-        }
-        removeZeroInDegreeNode(rgn.getRole().toString());
-      }
-      firstStageNodes.clear();
     }
     return stageList;
   }
@@ -233,19 +215,18 @@ public class RoleGraph {
     // represents an ordered list of stages
     List<Map<String, List<HostRoleCommand>>> orderedCommands = new ArrayList<>();
 
-    List<RoleGraphNode> firstStageNodes = new ArrayList<>();
-    while (!graph.isEmpty()) {
-      for (String role : graph.keySet()) {
-        RoleGraphNode rgn = graph.get(role);
-        if (rgn.getInDegree() == 0) {
-          firstStageNodes.add(rgn);
-        }
-      }
+    List<List<RoleGraphNode>> orderedNodes;
+    try {
+      orderedNodes = removeNodesInOrder();
+    } catch (AmbariException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    }
 
+    for (List<RoleGraphNode> stageNodes : orderedNodes) {
       // represents a stage
       Map<String, List<HostRoleCommand>> commandsPerHost = new HashMap<>();
 
-      for (RoleGraphNode rgn : firstStageNodes) {
+      for (RoleGraphNode rgn : stageNodes) {
         // for every host for this stage, create the ordered commands
         for (String host : rgn.getHosts()) {
           List<HostRoleCommand> commands = commandsPerHost.get(host);
@@ -261,27 +242,67 @@ public class RoleGraph {
 
       // add the stage to the list of stages
       orderedCommands.add(commandsPerHost);
-
-      // Remove first stage nodes from the graph, we know that none of
-      // these nodes have an incoming edges.
-      for (RoleGraphNode rgn : firstStageNodes) {
-        removeZeroInDegreeNode(rgn.getRole().toString());
-      }
-
-      firstStageNodes.clear();
     }
 
     return orderedCommands;
   }
 
   /**
-   * Assumes there are no incoming edges.
+   * Removes all nodes from {@link #graph} in dependency order, grouped by the
+   * stage in which they run. The first group holds the nodes without incoming
+   * edges, and each following group holds the nodes whose incoming edges all
+   * came from the groups before it. The nodes of a group are sorted by role.
+   * <p/>
+   * The in-degree of a node only changes when a node it depends on is removed,
+   * so the nodes of the next group are found while removing the current one,
+   * and every node and edge is visited once rather than rescanning the graph
+   * for each stage.
+   *
+   * @return the nodes of each stage, in the order in which the stages run.
+   * @throws AmbariException
+   *           if the graph has a cycle, in which case its remaining nodes can
+   *           never run.
    */
-  private synchronized void removeZeroInDegreeNode(String role) {
-    RoleGraphNode nodeToRemove = graph.remove(role);
-    for (RoleGraphNode edgeNode : nodeToRemove.getEdges()) {
-      edgeNode.decrementInDegree();
+  private List<List<RoleGraphNode>> removeNodesInOrder() throws AmbariException {
+    List<List<RoleGraphNode>> orderedNodes = new ArrayList<>();
+
+    List<RoleGraphNode> stageNodes = new ArrayList<>();
+    for (RoleGraphNode rgn : graph.values()) {
+      if (rgn.getInDegree() == 0) {
+        stageNodes.add(rgn);
+      }
     }
+
+    while (!stageNodes.isEmpty()) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(stringifyGraph());
+      }
+
+      orderedNodes.add(stageNodes);
+
+      // we know that none of these nodes have incoming edges
+      Map<String, RoleGraphNode> nextStageNodes = new TreeMap<>();
+      for (RoleGraphNode rgn : stageNodes) {
+        graph.remove(rgn.getRole().toString());
+        for (RoleGraphNode edgeNode : rgn.getEdges()) {
+          edgeNode.decrementInDegree();
+          if (edgeNode.getInDegree() == 0) {
+            nextStageNodes.put(edgeNode.getRole().toString(), edgeNode);
+          }
+        }
+      }
+
+      stageNodes = new ArrayList<>(nextStageNodes.values());
+    }
+
+    if (!graph.isEmpty()) {
+      String msg = String.format("Circular dependencies detected between %s in the role command order.",
+          graph.values());
+      LOG.error(msg);
+      throw new AmbariException(msg);
+    }
+
+    return orderedNodes;
   }
 
   private Stage getStageFromGraphNodes(Stage origStage,
@@ -332,7 +353,7 @@ public class RoleGraph {
    * when Ambari supports mpacks, custom services and service level role command order.
    * */
   public void breakCycleGraph() throws AmbariException{
-    List<String> edges = new ArrayList<>();
+    Set<String> edges = new HashSet<>();
     for (String role : graph.keySet()){
       RoleGraphNode fromNode = graph.get(role);
       String fnRole = fromNode.getRole().name();
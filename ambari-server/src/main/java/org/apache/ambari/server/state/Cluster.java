@@ -36,6 +36,7 @@ import org.apache.ambari.server.metadata.RoleCommandOrder;
 import org.apache.ambari.server.orm.entities.ClusterEntity;
 import org.apache.ambari.server.orm.entities.PrivilegeEntity;
 import org.apache.ambari.server.orm.entities.RepositoryVersionEntity;
+import org.apache.ambari.server.orm.entities.ServiceConfigEntity;
 import org.apache.ambari.server.orm.entities.UpgradeEntity;
 import org.apache.ambari.server.state.configgroup.ConfigGroup;
 import org.apache.ambari.server.state.repository.VersionDefinitionXml;
@@ -380,6 +381,15 @@ public interface Cluster {
    */
   List<ServiceConfigVersionResponse> getServiceConfigVersions();
 
+  /**
+   * Get service config version responses for the given service config
+   * versions of this cluster, in the same order. The versions which are active
+   * in their config group are marked as current.
+   * @param serviceConfigEntities service config versions of this cluster
+   * @return
+   */
+  List<ServiceConfigVersionResponse> getServiceConfigVersions(List<ServiceConfigEntity> serviceConfigEntities);
+
   /**
    * Gets the desired (and selected) config by type.
    * @param configType  the type of configuration
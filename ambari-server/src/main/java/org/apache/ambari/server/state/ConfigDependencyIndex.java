@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.state;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link ConfigDependencyIndex} holds the config types which each
+ * component of a stack depends on, that is, the types whose changes make the
+ * configurations of the component stale. A component depends on a config type
+ * if either its service or the component itself declares a config dependency
+ * on it.
+ * <p/>
+ * Instances are immutable and built once per stack, so that staleness only
+ * needs to be evaluated for the components affected by a change.
+ */
+public class ConfigDependencyIndex {
+
+  /**
+   * [ Service Name -> [ Component Name -> Config Types ] ]
+   */
+  private final Map<String, Map<String, Set<String>>> typesByComponent;
+
+  /**
+   * Constructor.
+   *
+   * @param services
+   *          the services of the stack (not {@code null}).
+   */
+  public ConfigDependencyIndex(Collection<ServiceInfo> services) {
+    Map<String, Map<String, Set<String>>> typesByComponent = new HashMap<>();
+
+    for (ServiceInfo serviceInfo : services) {
+      Map<String, Set<String>> componentTypes = new HashMap<>();
+      for (ComponentInfo componentInfo : serviceInfo.getComponents()) {
+        Set<String> types = new HashSet<>();
+        if (null != serviceInfo.getConfigDependencies()) {
+          types.addAll(serviceInfo.getConfigDependencies());
+        }
+
+        if (null != componentInfo.getConfigDependencies()) {
+          types.addAll(componentInfo.getConfigDependencies());
+        }
+
+        componentTypes.put(componentInfo.getName(), Collections.unmodifiableSet(types));
+      }
+
+      typesByComponent.put(serviceInfo.getName(), componentTypes);
+    }
+
+    this.typesByComponent = typesByComponent;
+  }
+
+  /**
+   * Gets the config types which the component depends on.
+   *
+   * @param serviceName
+   *          the service name
+   * @param componentName
+   *          the component name
+   * @return the config types, or an empty set if the component is not part of
+   *         the stack
+   */
+  public Set<String> getConfigTypes(String serviceName, String componentName) {
+    Map<String, Set<String>> componentTypes = typesByComponent.get(serviceName);
+    if (null == componentTypes) {
+      return Collections.emptySet();
+    }
+
+    Set<String> types = componentTypes.get(componentName);
+    return null == types ? Collections.emptySet() : types;
+  }
+}
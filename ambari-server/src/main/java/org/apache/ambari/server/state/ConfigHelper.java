@@ -31,6 +31,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
@@ -99,10 +100,16 @@ public class ConfigHelper {
   /**
    * clusterId -> hostId -> serviceName -> serviceComponentName -> state map to reduce redundant updates sending.
    */
-  private final Map<Long, Map<Long, Map<String, Map<String, Boolean>>>> stateCache = new HashMap<>();
+  private final Map<Long, Map<Long, Map<String, Map<String, Boolean>>>> stateCache = new ConcurrentHashMap<>();
 
   private final Cache<Integer, String> refreshConfigCommandCache;
 
+  /**
+   * The config dependencies of the components of each stack, used to limit
+   * staleness checks to the config types which can affect a component.
+   */
+  private final Cache<StackId, ConfigDependencyIndex> configDependencyIndexCache;
+
   private static final Logger LOG =
       LoggerFactory.getLogger(ConfigHelper.class);
 
@@ -162,6 +169,9 @@ public class ConfigHelper {
 
     refreshConfigCommandCache = CacheBuilder.newBuilder().
             expireAfterWrite(STALE_CONFIGS_CACHE_EXPIRATION_TIME, TimeUnit.SECONDS).build();
+
+    configDependencyIndexCache = CacheBuilder.newBuilder().
+            expireAfterWrite(STALE_CONFIGS_CACHE_EXPIRATION_TIME, TimeUnit.SECONDS).build();
   }
 
   /**
@@ -1472,17 +1482,21 @@ public class ConfigHelper {
 
     Cluster cluster = clusters.getClusterById(sch.getClusterId());
 
-    Map<String, Map<String, String>> desired = getEffectiveDesiredTags(cluster, sch.getHostName(),
-            desiredConfigs);
+    StackId stackId = sch.getServiceComponent().getDesiredStackId();
+
+    // only the config types which the component depends on can make it stale,
+    // so changes to any other type do not invalidate the cached staleness
+    Set<String> dependentTypes = getConfigDependencyIndex(stackId).getConfigTypes(
+        sch.getServiceName(), sch.getServiceComponentName());
+
+    Map<String, HostConfig> dependentActual = Maps.filterKeys(actual, dependentTypes::contains);
+    Map<String, Map<String, String>> desired = Maps.filterKeys(
+        getEffectiveDesiredTags(cluster, sch.getHostName(), desiredConfigs), dependentTypes::contains);
 
     Boolean stale = null;
     int staleHash = 0;
     if (STALE_CONFIGS_CACHE_ENABLED){
-      staleHash = Objects.hashCode(actual.hashCode(),
-              desired.hashCode(),
-              sch.getHostName(),
-              sch.getServiceComponentName(),
-              sch.getServiceName());
+      staleHash = getStaleConfigsHash(sch, dependentActual, desired);
       stale = staleConfigsCache.getIfPresent(staleHash);
       if(stale != null) {
         return stale;
@@ -1491,14 +1505,8 @@ public class ConfigHelper {
 
     stale = false;
 
-    StackId stackId = sch.getServiceComponent().getDesiredStackId();
-
     StackInfo stackInfo = ambariMetaInfo.getStack(stackId);
 
-    ServiceInfo serviceInfo = ambariMetaInfo.getService(stackId.getStackName(),
-            stackId.getStackVersion(), sch.getServiceName());
-
-    ComponentInfo componentInfo = serviceInfo.getComponentByName(sch.getServiceComponentName());
     // Configs are considered stale when:
     // - desired type DOES NOT exist in actual
     // --- desired type DOES NOT exist in stack: not_stale
@@ -1507,6 +1515,8 @@ public class ConfigHelper {
     // --- desired tags DO match actual tags: not_stale
     // --- desired tags DO NOT match actual tags
     // ---- merge values, determine changed keys, check stack: stale
+    // desired types which the component does not depend on were filtered out
+    // above, since they are never stale
 
     Iterator<Entry<String, Map<String, String>>> it = desired.entrySet().iterator();
     List<String> changedProperties = new LinkedList<>();
@@ -1520,7 +1530,7 @@ public class ConfigHelper {
 
       if (!actual.containsKey(type)) {
         // desired is set, but actual is not
-        staleEntry = (serviceInfo.hasConfigDependency(type) || componentInfo.hasConfigType(type));
+        staleEntry = true;
       } else {
         // desired and actual both define the type
         HostConfig hc = actual.get(type);
@@ -1529,11 +1539,9 @@ public class ConfigHelper {
         if (!isTagChanged(tags, actualTags, hasGroupSpecificConfigsForType(cluster, sch.getHostName(), type))) {
           staleEntry = false;
         } else {
-          staleEntry = (serviceInfo.hasConfigDependency(type) || componentInfo.hasConfigType(type));
-          if (staleEntry) {
-            Collection<String> changedKeys = findChangedKeys(cluster, type, tags.values(), actualTags.values());
-            changedProperties.addAll(changedKeys);
-          }
+          staleEntry = true;
+          Collection<String> changedKeys = findChangedKeys(cluster, type, tags.values(), actualTags.values());
+          changedProperties.addAll(changedKeys);
         }
       }
       stale = stale | staleEntry;
@@ -1559,6 +1567,48 @@ public class ConfigHelper {
     return stale;
   }
 
+  /**
+   * Gets the key of the cached staleness and refresh command of a component.
+   *
+   * @param sch
+   *          the component
+   * @param actual
+   *          the actual configs of the component, limited to the types it
+   *          depends on
+   * @param desired
+   *          the effective desired tags of the host, limited to the types the
+   *          component depends on
+   * @return the key
+   */
+  private int getStaleConfigsHash(ServiceComponentHost sch, Map<String, HostConfig> actual,
+                                  Map<String, Map<String, String>> desired) {
+    return Objects.hashCode(actual.hashCode(),
+            desired.hashCode(),
+            sch.getHostName(),
+            sch.getServiceComponentName(),
+            sch.getServiceName());
+  }
+
+  /**
+   * Gets the index of the config types which the components of the stack
+   * depend on.
+   *
+   * @param stackId
+   *          the stack (not {@code null}).
+   * @return the index
+   * @throws AmbariException
+   *           if the stack does not exist
+   */
+  public ConfigDependencyIndex getConfigDependencyIndex(StackId stackId) throws AmbariException {
+    ConfigDependencyIndex index = configDependencyIndexCache.getIfPresent(stackId);
+    if (null == index) {
+      index = new ConfigDependencyIndex(ambariMetaInfo.getStack(stackId).getServices());
+      configDependencyIndexCache.put(stackId, index);
+    }
+
+    return index;
+  }
+
   /**
    * Checks populated services for staled configs and updates agent configs.
    * Method retrieves actual agent configs and compares them with just generated to identify stale configs.
@@ -1636,9 +1686,7 @@ public class ConfigHelper {
         }
         changedConfigs.put(host.getHostId(), changedConfigsHost);
       }
-      for (String serviceName : cluster.getServices().keySet()) {
-        checkStaleConfigsStatusOnConfigsUpdate(cluster.getClusterId(), serviceName, changedConfigs);
-      }
+      checkStaleConfigsStatusOnConfigsUpdate(cluster, changedConfigs);
 
       m_metadataHolder.get().updateData(m_ambariManagementController.get().getClusterMetadataOnConfigsUpdate(cluster));
       m_agentConfigsHolder.get().updateData(cluster.getClusterId(), null);
@@ -1646,40 +1694,63 @@ public class ConfigHelper {
   }
 
   /**
-   * Checks configs are stale after specified config changes for service's components.
-   * @param clusterId cluster with changed config
-   * @param serviceName service for changed config
-   * @param changedConfigs map of config types to collections of changed properties' names.
+   * Checks whether configs became stale after the specified config changes, in
+   * a single pass over the cluster. On each host, only the components which
+   * depend on one of the types changed for that host are checked; all other
+   * components keep their staleness. The changed staleness of all components is
+   * published as a single {@link HostComponentsUpdateEvent}.
+   * <p/>
+   * This does not publish a
+   * {@link org.apache.ambari.server.events.StaleConfigsUpdateEvent} for each
+   * component: its listener converts every such event into its own
+   * {@link HostComponentsUpdateEvent}, and it would find the state cache
+   * already updated here and publish nothing.
+   *
+   * @param cluster cluster with changed configs
+   * @param changedConfigs map of host ids to maps of changed config types to collections of changed properties' names.
    * @throws AmbariException
    */
-  public void checkStaleConfigsStatusOnConfigsUpdate(Long clusterId, String serviceName,
+  public void checkStaleConfigsStatusOnConfigsUpdate(Cluster cluster,
                                                      Map<Long, Map<String, Collection<String>>> changedConfigs) throws AmbariException {
     if (MapUtils.isEmpty(changedConfigs)) {
       return;
     }
 
-    if (!clusters.getCluster(clusterId).getServices().keySet().contains(serviceName)) {
-      return;
-    }
-    Service service = clusters.getCluster(clusterId).getService(serviceName);
-    for (ServiceComponent serviceComponent : service.getServiceComponents().values()) {
-      String serviceComponentHostName = serviceComponent.getName();
-      for (ServiceComponentHost serviceComponentHost : serviceComponent.getServiceComponentHosts().values()) {
-        if (changedConfigs.keySet().contains(serviceComponentHost.getHost().getHostId())) {
-          boolean staleConfigs = checkStaleConfigsStatusForHostComponent(serviceComponentHost,
-              changedConfigs.get(serviceComponentHost.getHost().getHostId()));
-
-          if (wasStaleConfigsStatusUpdated(clusterId, serviceComponentHost.getHost().getHostId(),
-              serviceName, serviceComponentHostName, staleConfigs)) {
-            serviceComponentHost.setRestartRequiredWithoutEventPublishing(staleConfigs);
-            STOMPUpdatePublisher.publish(new HostComponentsUpdateEvent(Collections.singletonList(
-                HostComponentUpdate.createHostComponentStaleConfigsStatusUpdate(clusterId,
-                    serviceName, serviceComponentHost.getHostName(),
-                    serviceComponentHostName, staleConfigs))));
-          }
+    Long clusterId = cluster.getClusterId();
+    List<HostComponentUpdate> hostComponentUpdates = new ArrayList<>();
+    for (Host host : cluster.getHosts()) {
+      Map<String, Collection<String>> hostChangedConfigs = changedConfigs.get(host.getHostId());
+      if (MapUtils.isEmpty(hostChangedConfigs)) {
+        continue;
+      }
+
+      for (ServiceComponentHost serviceComponentHost : cluster.getServiceComponentHosts(host.getHostName())) {
+        Set<String> dependentTypes = getConfigDependencyIndex(
+            serviceComponentHost.getServiceComponent().getDesiredStackId()).getConfigTypes(
+            serviceComponentHost.getServiceName(), serviceComponentHost.getServiceComponentName());
+
+        Map<String, Collection<String>> dependentChangedConfigs = Maps.filterKeys(hostChangedConfigs,
+            dependentTypes::contains);
+        if (dependentChangedConfigs.isEmpty()) {
+          continue;
+        }
+
+        boolean staleConfigs = checkStaleConfigsStatusForHostComponent(serviceComponentHost,
+            dependentChangedConfigs);
+
+        if (wasStaleConfigsStatusUpdated(clusterId, host.getHostId(), serviceComponentHost.getServiceName(),
+            serviceComponentHost.getServiceComponentName(), staleConfigs)) {
+          serviceComponentHost.setRestartRequiredWithoutEventPublishing(staleConfigs);
+          hostComponentUpdates.add(HostComponentUpdate.createHostComponentStaleConfigsStatusUpdate(clusterId,
+              serviceComponentHost.getServiceName(), serviceComponentHost.getHostName(),
+              serviceComponentHost.getServiceComponentName(), staleConfigs));
         }
       }
     }
+
+    if (!hostComponentUpdates.isEmpty()) {
+      STOMPUpdatePublisher.publish(new HostComponentsUpdateEvent(hostComponentUpdates));
+    }
   }
 
   /**
@@ -1692,24 +1763,13 @@ public class ConfigHelper {
    * @return true if value from cache is different from {@param staleConfigs}.
    */
   public boolean wasStaleConfigsStatusUpdated(Long clusterId, Long hostId, String serviceName, String hostComponentName, Boolean staleConfigs) {
-    if (!stateCache.containsKey(clusterId)) {
-      stateCache.put(clusterId, new HashMap<>());
-    }
-    Map<Long, Map<String, Map<String, Boolean>>> hosts = stateCache.get(clusterId);
-    if (!hosts.containsKey(hostId)) {
-      hosts.put(hostId, new HashMap<>());
-    }
-    Map<String, Map<String, Boolean>> services = hosts.get(hostId);
-    if (!services.containsKey(serviceName)) {
-      services.put(serviceName, new HashMap<>());
-    }
-    Map<String, Boolean> hostComponents = services.get(serviceName);
-    if (staleConfigs.equals(hostComponents.get(hostComponentName))) {
-      return false;
-    } else {
-      hostComponents.put(hostComponentName, staleConfigs);
-      return true;
-    }
+    Map<String, Boolean> hostComponents = stateCache
+        .computeIfAbsent(clusterId, id -> new ConcurrentHashMap<>())
+        .computeIfAbsent(hostId, id -> new ConcurrentHashMap<>())
+        .computeIfAbsent(serviceName, name -> new ConcurrentHashMap<>());
+
+    // the update is reported once even if the state is checked concurrently
+    return !staleConfigs.equals(hostComponents.put(hostComponentName, staleConfigs));
   }
 
   /**
@@ -1847,13 +1907,15 @@ public class ConfigHelper {
 
     Map<String, HostConfig> actual = sch.getActualConfigs();
     if (STALE_CONFIGS_CACHE_ENABLED) {
-      Map<String, Map<String, String>> desired = getEffectiveDesiredTags(cluster, sch.getHostName(),
-              cluster.getDesiredConfigs());
-      int staleHash = Objects.hashCode(actual.hashCode(),
-              desired.hashCode(),
-              sch.getHostName(),
-              sch.getServiceComponentName(),
-              sch.getServiceName());
+      Set<String> dependentTypes = getConfigDependencyIndex(
+          sch.getServiceComponent().getDesiredStackId()).getConfigTypes(sch.getServiceName(),
+          sch.getServiceComponentName());
+
+      Map<String, Map<String, String>> desired = Maps.filterKeys(
+          getEffectiveDesiredTags(cluster, sch.getHostName(), cluster.getDesiredConfigs()),
+          dependentTypes::contains);
+      int staleHash = getStaleConfigsHash(sch, Maps.filterKeys(actual, dependentTypes::contains),
+          desired);
       refreshCommand = refreshConfigCommandCache.getIfPresent(staleHash);
     }
     return refreshCommand;
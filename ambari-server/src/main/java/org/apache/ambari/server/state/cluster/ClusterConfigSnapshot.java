@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.state.cluster;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ambari.server.state.Config;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * An immutable view of all of the {@link Config}s of a cluster, keyed by type
+ * and version tag. {@link ClusterImpl} publishes a new snapshot after every
+ * change to its configurations so that readers never need to acquire the
+ * cluster lock; changes are made by copying only the affected type.
+ */
+final class ClusterConfigSnapshot {
+
+  /**
+   * A snapshot without any configurations.
+   */
+  static final ClusterConfigSnapshot EMPTY = new ClusterConfigSnapshot(
+      ImmutableMap.<String, Map<String, Config>>of());
+
+  /**
+   * [ Config Type -> [ Config Version Tag -> Config ] ]
+   */
+  private final ImmutableMap<String, Map<String, Config>> configsByType;
+
+  private ClusterConfigSnapshot(ImmutableMap<String, Map<String, Config>> configsByType) {
+    this.configsByType = configsByType;
+  }
+
+  /**
+   * Creates a snapshot of the given configurations.
+   *
+   * @param configs
+   *          the configurations (not {@code null}).
+   * @return the snapshot
+   */
+  static ClusterConfigSnapshot of(Collection<Config> configs) {
+    Map<String, Map<String, Config>> configsByTag = new HashMap<>();
+    for (Config config : configs) {
+      configsByTag.computeIfAbsent(config.getType(), type -> new HashMap<>()).put(
+          config.getTag(), config);
+    }
+
+    ImmutableMap.Builder<String, Map<String, Config>> builder = ImmutableMap.builder();
+    for (Map.Entry<String, Map<String, Config>> entry : configsByTag.entrySet()) {
+      builder.put(entry.getKey(), ImmutableMap.copyOf(entry.getValue()));
+    }
+
+    return new ClusterConfigSnapshot(builder.build());
+  }
+
+  /**
+   * Creates a snapshot which also contains the given configuration, replacing
+   * any configuration with the same type and tag.
+   *
+   * @param config
+   *          the configuration to add (not {@code null}).
+   * @return the new snapshot
+   */
+  ClusterConfigSnapshot with(Config config) {
+    Map<String, Config> configs = new HashMap<>(getConfigsByType(config.getType()));
+    configs.put(config.getTag(), config);
+
+    Map<String, Map<String, Config>> configsByType = new HashMap<>(this.configsByType);
+    configsByType.put(config.getType(), ImmutableMap.copyOf(configs));
+    return new ClusterConfigSnapshot(ImmutableMap.copyOf(configsByType));
+  }
+
+  /**
+   * @return whether there are configurations of the type
+   */
+  boolean containsType(String type) {
+    return configsByType.containsKey(type);
+  }
+
+  /**
+   * @return the configurations of the type by tag, or an empty map if there
+   *         are none
+   */
+  Map<String, Config> getConfigsByType(String type) {
+    Map<String, Config> configs = configsByType.get(type);
+    return null == configs ? Collections.emptyMap() : configs;
+  }
+
+  /**
+   * @return the configuration, or {@code null} if there is none
+   */
+  Config getConfig(String type, String tag) {
+    return getConfigsByType(type).get(tag);
+  }
+
+  /**
+   * @return all of the configurations
+   */
+  List<Config> getAllConfigs() {
+    List<Config> configs = new ArrayList<>();
+    for (Map<String, Config> configsByTag : configsByType.values()) {
+      configs.addAll(configsByTag.values());
+    }
+    return configs;
+  }
+}
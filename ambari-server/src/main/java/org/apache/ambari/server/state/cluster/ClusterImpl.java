@@ -185,14 +185,17 @@ public class ClusterImpl implements Cluster {
   @Inject
   private Clusters clusters;
 
-  private StackId desiredStackVersion;
+  private volatile StackId desiredStackVersion;
 
   private final ConcurrentSkipListMap<String, Service> services = new ConcurrentSkipListMap<>();
 
   /**
-   * [ Config Type -> [ Config Version Tag -> Config ] ]
+   * All configurations of the cluster. Writers replace the snapshot while
+   * holding the write lock of {@link #clusterGlobalLock}; readers use the
+   * latest published snapshot without locking, so that long configuration
+   * changes do not block heartbeats and API reads.
    */
-  private final ConcurrentMap<String, ConcurrentMap<String, Config>> allConfigs = new ConcurrentHashMap<>();
+  private volatile ClusterConfigSnapshot allConfigs = ClusterConfigSnapshot.EMPTY;
 
   /**
    * [ ServiceName -> [ ServiceComponentName -> [ HostName -> [ ... ] ] ] ]
@@ -1181,30 +1184,17 @@ public class ClusterImpl implements Cluster {
 
   @Override
   public Map<String, Config> getConfigsByType(String configType) {
-    clusterGlobalLock.readLock().lock();
-    try {
-      if (!allConfigs.containsKey(configType)) {
-        return null;
-      }
-
-      return Collections.unmodifiableMap(allConfigs.get(configType));
-    } finally {
-      clusterGlobalLock.readLock().unlock();
+    ClusterConfigSnapshot snapshot = allConfigs;
+    if (!snapshot.containsType(configType)) {
+      return null;
     }
+
+    return snapshot.getConfigsByType(configType);
   }
 
   @Override
   public Config getConfig(String configType, String versionTag) {
-    clusterGlobalLock.readLock().lock();
-    try {
-      if (!allConfigs.containsKey(configType)
-          || !allConfigs.get(configType).containsKey(versionTag)) {
-        return null;
-      }
-      return allConfigs.get(configType).get(versionTag);
-    } finally {
-      clusterGlobalLock.readLock().unlock();
-    }
+    return allConfigs.getConfig(configType, versionTag);
   }
 
   @Override
@@ -1225,22 +1215,13 @@ public class ClusterImpl implements Cluster {
 
   @Override
   public Config getConfigByVersion(String configType, Long configVersion) {
-    clusterGlobalLock.readLock().lock();
-    try {
-      if (!allConfigs.containsKey(configType)) {
-        return null;
+    for (Config config : allConfigs.getConfigsByType(configType).values()) {
+      if (config.getVersion().equals(configVersion)) {
+        return config;
       }
-
-      for (Map.Entry<String, Config> entry : allConfigs.get(configType).entrySet()) {
-        if (entry.getValue().getVersion().equals(configVersion)) {
-          return entry.getValue();
-        }
-      }
-
-      return null;
-    } finally {
-      clusterGlobalLock.readLock().unlock();
     }
+
+    return null;
   }
 
   @Override
@@ -1251,11 +1232,7 @@ public class ClusterImpl implements Cluster {
 
     clusterGlobalLock.writeLock().lock();
     try {
-      if (!allConfigs.containsKey(config.getType())) {
-        allConfigs.put(config.getType(), new ConcurrentHashMap<>());
-      }
-
-      allConfigs.get(config.getType()).put(config.getTag(), config);
+      allConfigs = allConfigs.with(config);
     } finally {
       clusterGlobalLock.writeLock().unlock();
     }
@@ -1263,16 +1240,7 @@ public class ClusterImpl implements Cluster {
 
   @Override
   public Collection<Config> getAllConfigs() {
-    clusterGlobalLock.readLock().lock();
-    try {
-      List<Config> list = new ArrayList<>();
-      for (Entry<String, ConcurrentMap<String, Config>> entry : allConfigs.entrySet()) {
-        list.addAll(entry.getValue().values());
-      }
-      return Collections.unmodifiableList(list);
-    } finally {
-      clusterGlobalLock.readLock().unlock();
-    }
+    return Collections.unmodifiableList(allConfigs.getAllConfigs());
   }
 
   @Override
@@ -1443,7 +1411,7 @@ public class ClusterImpl implements Cluster {
 
       refresh(); // update one-to-many clusterServiceEntities
       removeEntities();
-      allConfigs.clear();
+      allConfigs = ClusterConfigSnapshot.EMPTY;
     } finally {
       clusterGlobalLock.writeLock().unlock();
     }
@@ -1543,80 +1511,79 @@ public class ClusterImpl implements Cluster {
    * @return a map of type-to-configuration information.
    */
   private Map<String, Set<DesiredConfig>> getDesiredConfigs(boolean allVersions, boolean cachedConfigEntities) {
-    clusterGlobalLock.readLock().lock();
-    try {
-      Map<String, Set<DesiredConfig>> map = new HashMap<>();
-      Collection<String> types = new HashSet<>();
-      Collection<ClusterConfigEntity> entities;
-      if (cachedConfigEntities) {
-        entities = getClusterEntity().getClusterConfigEntities();
-      } else {
-        entities = clusterDAO.getEnabledConfigs(clusterId);
-      }
-      for (ClusterConfigEntity configEntity : entities) {
-        if (allVersions || configEntity.isSelected()) {
-          DesiredConfig desiredConfig = new DesiredConfig();
-          desiredConfig.setServiceName(null);
-          desiredConfig.setTag(configEntity.getTag());
-
-          if (!allConfigs.containsKey(configEntity.getType())) {
-            LOG.error("An inconsistency exists for configuration {}", configEntity.getType());
-            continue;
-          }
+    Map<String, Set<DesiredConfig>> map = new HashMap<>();
+    Collection<String> types = new HashSet<>();
+    Collection<ClusterConfigEntity> entities;
+    if (cachedConfigEntities) {
+      entities = getClusterEntity().getClusterConfigEntities();
+    } else {
+      entities = clusterDAO.getEnabledConfigs(clusterId);
+    }
 
-          Map<String, Config> configMap = allConfigs.get(configEntity.getType());
-          if(!configMap.containsKey(configEntity.getTag())) {
-            LOG.error("An inconsistency exists for the configuration {} with tag {}",
-                configEntity.getType(), configEntity.getTag());
+    // configurations are published before they can be selected, so the
+    // snapshot taken after reading the entities contains all of them
+    ClusterConfigSnapshot snapshot = allConfigs;
+    for (ClusterConfigEntity configEntity : entities) {
+      if (allVersions || configEntity.isSelected()) {
+        DesiredConfig desiredConfig = new DesiredConfig();
+        desiredConfig.setServiceName(null);
+        desiredConfig.setTag(configEntity.getTag());
 
-            continue;
-          }
+        if (!snapshot.containsType(configEntity.getType())) {
+          LOG.error("An inconsistency exists for configuration {}", configEntity.getType());
+          continue;
+        }
 
-          Config config = configMap.get(configEntity.getTag());
-          desiredConfig.setVersion(config.getVersion());
+        Map<String, Config> configMap = snapshot.getConfigsByType(configEntity.getType());
+        if(!configMap.containsKey(configEntity.getTag())) {
+          LOG.error("An inconsistency exists for the configuration {} with tag {}",
+              configEntity.getType(), configEntity.getTag());
 
-          Set<DesiredConfig> configs = map.get(configEntity.getType());
-          if (configs == null) {
-            configs = new HashSet<>();
-          }
+          continue;
+        }
 
-          configs.add(desiredConfig);
+        Config config = configMap.get(configEntity.getTag());
+        desiredConfig.setVersion(config.getVersion());
 
-          map.put(configEntity.getType(), configs);
-          types.add(configEntity.getType());
+        Set<DesiredConfig> configs = map.get(configEntity.getType());
+        if (configs == null) {
+          configs = new HashSet<>();
         }
-      }
 
-      // TODO AMBARI-10679, need efficient caching from hostId to hostName...
-      Map<Long, String> hostIdToName = new HashMap<>();
+        configs.add(desiredConfig);
 
-      if (!map.isEmpty()) {
-        Map<String, List<HostConfigMapping>> hostMappingsByType =
-          hostConfigMappingDAO.findSelectedHostsByTypes(clusterId, types);
+        map.put(configEntity.getType(), configs);
+        types.add(configEntity.getType());
+      }
+    }
 
-        for (Entry<String, Set<DesiredConfig>> entry : map.entrySet()) {
-          List<DesiredConfig.HostOverride> hostOverrides = new ArrayList<>();
-          for (HostConfigMapping mappingEntity : hostMappingsByType.get(entry.getKey())) {
+    // TODO AMBARI-10679, need efficient caching from hostId to hostName...
+    Map<Long, String> hostIdToName = new HashMap<>();
 
-            if (!hostIdToName.containsKey(mappingEntity.getHostId())) {
-              HostEntity hostEntity = hostDAO.findById(mappingEntity.getHostId());
-              hostIdToName.put(mappingEntity.getHostId(), hostEntity.getHostName());
-            }
+    if (!map.isEmpty()) {
+      Map<String, List<HostConfigMapping>> hostMappingsByType =
+        hostConfigMappingDAO.findSelectedHostsByTypes(clusterId, types);
 
-            hostOverrides.add(new DesiredConfig.HostOverride(
-                hostIdToName.get(mappingEntity.getHostId()), mappingEntity.getVersion()));
-          }
+      for (Entry<String, Set<DesiredConfig>> entry : map.entrySet()) {
+        List<DesiredConfig.HostOverride> hostOverrides = new ArrayList<>();
+        for (HostConfigMapping mappingEntity : hostMappingsByType.get(entry.getKey())) {
 
-          for (DesiredConfig c: entry.getValue()) {
-            c.setHostOverrides(hostOverrides);
+          if (!hostIdToName.containsKey(mappingEntity.getHostId())) {
+            HostEntity hostEntity = hostDAO.findById(mappingEntity.getHostId());
+            hostIdToName.put(mappingEntity.getHostId(), hostEntity.getHostName());
           }
+
+          hostOverrides.add(new DesiredConfig.HostOverride(
+              hostIdToName.get(mappingEntity.getHostId()), mappingEntity.getVersion()));
         }
-      }
 
-      return map;
-    } finally {
-      clusterGlobalLock.readLock().unlock();
+        for (DesiredConfig c: entry.getValue()) {
+          c.setHostOverrides(hostOverrides);
+        }
+      }
     }
+
+    return map;
   }
 
 
@@ -1750,80 +1717,90 @@ public class ClusterImpl implements Cluster {
 
   @Override
   public Map<String, Collection<ServiceConfigVersionResponse>> getActiveServiceConfigVersions() {
-    clusterGlobalLock.readLock().lock();
-    try {
-      Map<String, Collection<ServiceConfigVersionResponse>> map = new HashMap<>();
+    Map<String, Collection<ServiceConfigVersionResponse>> map = new HashMap<>();
 
-      Set<ServiceConfigVersionResponse> responses = getActiveServiceConfigVersionSet();
-      for (ServiceConfigVersionResponse response : responses) {
-        if (map.get(response.getServiceName()) == null) {
-          map.put(response.getServiceName(), new ArrayList<>());
-        }
-        map.get(response.getServiceName()).add(response);
+    Set<ServiceConfigVersionResponse> responses = getActiveServiceConfigVersionSet();
+    for (ServiceConfigVersionResponse response : responses) {
+      if (map.get(response.getServiceName()) == null) {
+        map.put(response.getServiceName(), new ArrayList<>());
       }
-      return map;
-    } finally {
-      clusterGlobalLock.readLock().unlock();
+      map.get(response.getServiceName()).add(response);
     }
+    return map;
   }
 
   @Override
   public List<ServiceConfigVersionResponse> getServiceConfigVersions() {
-    clusterGlobalLock.readLock().lock();
-    try {
-      List<ServiceConfigVersionResponse> serviceConfigVersionResponses = new ArrayList<>();
+    ClusterConfigSnapshot snapshot = allConfigs;
 
-      List<ServiceConfigEntity> serviceConfigs = serviceConfigDAO.getServiceConfigs(getClusterId());
+    List<ServiceConfigVersionResponse> serviceConfigVersionResponses = new ArrayList<>();
 
-      // Gather for each service in each config group the active service config response  as we
-      // iterate through all service config responses
-      Map<String, Map<String, ServiceConfigVersionResponse>> activeServiceConfigResponses = new HashMap<>();
+    List<ServiceConfigEntity> serviceConfigs = serviceConfigDAO.getServiceConfigs(getClusterId());
 
-      for (ServiceConfigEntity serviceConfigEntity : serviceConfigs) {
-        ServiceConfigVersionResponse serviceConfigVersionResponse = convertToServiceConfigVersionResponse(serviceConfigEntity);
+    // Gather for each service in each config group the active service config response  as we
+    // iterate through all service config responses
+    Map<String, Map<String, ServiceConfigVersionResponse>> activeServiceConfigResponses = new HashMap<>();
 
-        Map<String, ServiceConfigVersionResponse> activeServiceConfigResponseGroups = activeServiceConfigResponses.get(serviceConfigVersionResponse.getServiceName());
+    for (ServiceConfigEntity serviceConfigEntity : serviceConfigs) {
+      ServiceConfigVersionResponse serviceConfigVersionResponse = convertToServiceConfigVersionResponse(serviceConfigEntity);
 
-        if (activeServiceConfigResponseGroups == null) {
-          Map<String, ServiceConfigVersionResponse> serviceConfigGroups = new HashMap<>();
-          activeServiceConfigResponses.put(serviceConfigVersionResponse.getServiceName(), serviceConfigGroups);
+      Map<String, ServiceConfigVersionResponse> activeServiceConfigResponseGroups = activeServiceConfigResponses.get(serviceConfigVersionResponse.getServiceName());
 
-          activeServiceConfigResponseGroups = serviceConfigGroups;
-        }
+      if (activeServiceConfigResponseGroups == null) {
+        Map<String, ServiceConfigVersionResponse> serviceConfigGroups = new HashMap<>();
+        activeServiceConfigResponses.put(serviceConfigVersionResponse.getServiceName(), serviceConfigGroups);
 
-        // the active config within a group
-        ServiceConfigVersionResponse activeServiceConfigResponse = activeServiceConfigResponseGroups.get(serviceConfigVersionResponse.getGroupName());
+        activeServiceConfigResponseGroups = serviceConfigGroups;
+      }
+
+      // the active config within a group
+      ServiceConfigVersionResponse activeServiceConfigResponse = activeServiceConfigResponseGroups.get(serviceConfigVersionResponse.getGroupName());
 
-        if (activeServiceConfigResponse == null && !ServiceConfigVersionResponse.DELETED_CONFIG_GROUP_NAME.equals(serviceConfigVersionResponse.getGroupName())) {
-          // service config version with deleted group should always be marked is not current
+      if (activeServiceConfigResponse == null && !ServiceConfigVersionResponse.DELETED_CONFIG_GROUP_NAME.equals(serviceConfigVersionResponse.getGroupName())) {
+        // service config version with deleted group should always be marked is not current
+        activeServiceConfigResponseGroups.put(serviceConfigVersionResponse.getGroupName(), serviceConfigVersionResponse);
+        activeServiceConfigResponse = serviceConfigVersionResponse;
+      }
+      if (serviceConfigEntity.getGroupId() == null) {
+        if (serviceConfigVersionResponse.getCreateTime() > activeServiceConfigResponse.getCreateTime()) {
           activeServiceConfigResponseGroups.put(serviceConfigVersionResponse.getGroupName(), serviceConfigVersionResponse);
-          activeServiceConfigResponse = serviceConfigVersionResponse;
         }
-        if (serviceConfigEntity.getGroupId() == null) {
-          if (serviceConfigVersionResponse.getCreateTime() > activeServiceConfigResponse.getCreateTime()) {
-            activeServiceConfigResponseGroups.put(serviceConfigVersionResponse.getGroupName(), serviceConfigVersionResponse);
-          }
-        }
-        else if (clusterConfigGroups != null && clusterConfigGroups.containsKey(serviceConfigEntity.getGroupId())){
-          if (serviceConfigVersionResponse.getVersion() > activeServiceConfigResponse.getVersion()) {
-            activeServiceConfigResponseGroups.put(serviceConfigVersionResponse.getGroupName(), serviceConfigVersionResponse);
-          }
+      }
+      else if (clusterConfigGroups != null && clusterConfigGroups.containsKey(serviceConfigEntity.getGroupId())){
+        if (serviceConfigVersionResponse.getVersion() > activeServiceConfigResponse.getVersion()) {
+          activeServiceConfigResponseGroups.put(serviceConfigVersionResponse.getGroupName(), serviceConfigVersionResponse);
         }
-
-        serviceConfigVersionResponse.setIsCurrent(false);
-        serviceConfigVersionResponses.add(getServiceConfigVersionResponseWithConfig(serviceConfigVersionResponse, serviceConfigEntity));
       }
 
-      for (Map<String, ServiceConfigVersionResponse> serviceConfigVersionResponseGroup: activeServiceConfigResponses.values()) {
-        for (ServiceConfigVersionResponse serviceConfigVersionResponse : serviceConfigVersionResponseGroup.values()) {
-          serviceConfigVersionResponse.setIsCurrent(true);
-        }
+      serviceConfigVersionResponse.setIsCurrent(false);
+      serviceConfigVersionResponses.add(getServiceConfigVersionResponseWithConfig(snapshot, serviceConfigVersionResponse, serviceConfigEntity));
+    }
+
+    for (Map<String, ServiceConfigVersionResponse> serviceConfigVersionResponseGroup: activeServiceConfigResponses.values()) {
+      for (ServiceConfigVersionResponse serviceConfigVersionResponse : serviceConfigVersionResponseGroup.values()) {
+        serviceConfigVersionResponse.setIsCurrent(true);
       }
+    }
 
-      return serviceConfigVersionResponses;
-    } finally {
-      clusterGlobalLock.readLock().unlock();
+    return serviceConfigVersionResponses;
+  }
+
+  @Override
+  public List<ServiceConfigVersionResponse> getServiceConfigVersions(List<ServiceConfigEntity> serviceConfigEntities) {
+    ClusterConfigSnapshot snapshot = allConfigs;
+
+    Set<Long> activeServiceConfigIds = new HashSet<>();
+    for (ServiceConfigEntity activeServiceConfig : getActiveServiceConfigVersionEntities()) {
+      activeServiceConfigIds.add(activeServiceConfig.getServiceConfigId());
+    }
+
+    List<ServiceConfigVersionResponse> serviceConfigVersionResponses = new ArrayList<>(serviceConfigEntities.size());
+    for (ServiceConfigEntity serviceConfigEntity : serviceConfigEntities) {
+      ServiceConfigVersionResponse serviceConfigVersionResponse = convertToServiceConfigVersionResponse(serviceConfigEntity);
+      serviceConfigVersionResponse.setIsCurrent(activeServiceConfigIds.contains(serviceConfigEntity.getServiceConfigId()));
+      serviceConfigVersionResponses.add(getServiceConfigVersionResponseWithConfig(snapshot, serviceConfigVersionResponse, serviceConfigEntity));
     }
+    return serviceConfigVersionResponses;
   }
 
   private Set<ServiceConfigVersionResponse> getActiveServiceConfigVersionSet() {
@@ -1854,33 +1831,32 @@ public class ClusterImpl implements Cluster {
 
   @Override
   public List<ServiceConfigVersionResponse> getActiveServiceConfigVersionResponse(String serviceName) {
-    clusterGlobalLock.readLock().lock();
-    try {
-      List<ServiceConfigEntity> activeServiceConfigVersionEntities = new ArrayList<>();
-      List<ServiceConfigVersionResponse> activeServiceConfigVersionResponses = new ArrayList<>();
-      activeServiceConfigVersionEntities.addAll(serviceConfigDAO.getLastServiceConfigsForService(getClusterId(), serviceName));
-      for (ServiceConfigEntity serviceConfigEntity : activeServiceConfigVersionEntities) {
-        ServiceConfigVersionResponse serviceConfigVersionResponse = getServiceConfigVersionResponseWithConfig(convertToServiceConfigVersionResponse(serviceConfigEntity), serviceConfigEntity);
-        serviceConfigVersionResponse.setIsCurrent(true);
-        activeServiceConfigVersionResponses.add(serviceConfigVersionResponse);
-      }
-      return activeServiceConfigVersionResponses;
-    } finally {
-      clusterGlobalLock.readLock().unlock();
+    ClusterConfigSnapshot snapshot = allConfigs;
+
+    List<ServiceConfigEntity> activeServiceConfigVersionEntities = new ArrayList<>();
+    List<ServiceConfigVersionResponse> activeServiceConfigVersionResponses = new ArrayList<>();
+    activeServiceConfigVersionEntities.addAll(serviceConfigDAO.getLastServiceConfigsForService(getClusterId(), serviceName));
+    for (ServiceConfigEntity serviceConfigEntity : activeServiceConfigVersionEntities) {
+      ServiceConfigVersionResponse serviceConfigVersionResponse = getServiceConfigVersionResponseWithConfig(snapshot, convertToServiceConfigVersionResponse(serviceConfigEntity), serviceConfigEntity);
+      serviceConfigVersionResponse.setIsCurrent(true);
+      activeServiceConfigVersionResponses.add(serviceConfigVersionResponse);
     }
+    return activeServiceConfigVersionResponses;
   }
 
   /**
    * Adds Configuration data to the serviceConfigVersionResponse
+   * @param snapshot the configurations to read the configuration data from
    * @param serviceConfigVersionResponse
    * @param serviceConfigEntity
    * @return serviceConfigVersionResponse
    */
-  private ServiceConfigVersionResponse getServiceConfigVersionResponseWithConfig(ServiceConfigVersionResponse serviceConfigVersionResponse, ServiceConfigEntity serviceConfigEntity) {
+  private ServiceConfigVersionResponse getServiceConfigVersionResponseWithConfig(ClusterConfigSnapshot snapshot,
+      ServiceConfigVersionResponse serviceConfigVersionResponse, ServiceConfigEntity serviceConfigEntity) {
     serviceConfigVersionResponse.setConfigurations(new ArrayList<>());
     List<ClusterConfigEntity> clusterConfigEntities = serviceConfigEntity.getClusterConfigEntities();
     for (ClusterConfigEntity clusterConfigEntity : clusterConfigEntities) {
-      Config config = allConfigs.get(clusterConfigEntity.getType()).get(
+      Config config = snapshot.getConfig(clusterConfigEntity.getType(),
           clusterConfigEntity.getTag());
 
       serviceConfigVersionResponse.getConfigurations().add(
@@ -1968,7 +1944,7 @@ public class ClusterImpl implements Cluster {
         configGroupName = configGroup.getName();
         Map<String, Config> groupDesiredConfigs = new HashMap<>();
         for (ClusterConfigEntity entity : serviceConfigEntity.getClusterConfigEntities()) {
-          Config config = allConfigs.get(entity.getType()).get(entity.getTag());
+          Config config = allConfigs.getConfig(entity.getType(), entity.getTag());
           groupDesiredConfigs.put(config.getType(), config);
         }
         configGroup.setConfigurations(groupDesiredConfigs);
@@ -2682,20 +2658,14 @@ public class ClusterImpl implements Cluster {
     clusterGlobalLock.writeLock().lock();
     try {
       ClusterEntity clusterEntity = getClusterEntity();
-      allConfigs.clear();
 
-      if (!clusterEntity.getClusterConfigEntities().isEmpty()) {
-        for (ClusterConfigEntity entity : clusterEntity.getClusterConfigEntities()) {
-
-          if (!allConfigs.containsKey(entity.getType())) {
-            allConfigs.put(entity.getType(), new ConcurrentHashMap<>());
-          }
-
-          Config config = configFactory.createExisting(this, entity);
-
-          allConfigs.get(entity.getType()).put(entity.getTag(), config);
-        }
+      List<Config> configs = new ArrayList<>();
+      for (ClusterConfigEntity entity : clusterEntity.getClusterConfigEntities()) {
+        configs.add(configFactory.createExisting(this, entity));
       }
+
+      // readers see either all of the previous or all of the reloaded configurations
+      allConfigs = ClusterConfigSnapshot.of(configs);
     } finally {
       clusterGlobalLock.writeLock().unlock();
     }
@@ -28,12 +28,17 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -49,10 +54,11 @@ import org.apache.ambari.server.AmbariService;
 import org.apache.ambari.server.api.services.AmbariMetaInfo;
 import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.events.AlertEvent;
+import org.apache.ambari.server.events.AlertTargetDeleteEvent;
+import org.apache.ambari.server.events.publishers.AmbariEventPublisher;
 import org.apache.ambari.server.notifications.DispatchCallback;
 import org.apache.ambari.server.notifications.DispatchCredentials;
 import org.apache.ambari.server.notifications.DispatchFactory;
-import org.apache.ambari.server.notifications.DispatchRunnable;
 import org.apache.ambari.server.notifications.Notification;
 import org.apache.ambari.server.notifications.NotificationDispatcher;
 import org.apache.ambari.server.notifications.Recipient;
@@ -70,7 +76,9 @@ import org.apache.velocity.app.Velocity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.eventbus.Subscribe;
 import com.google.common.util.concurrent.AbstractScheduledService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
@@ -164,7 +172,7 @@ public class AlertNoticeDispatchService extends AbstractScheduledService {
 
   /**
    * The factory used to get an {@link NotificationDispatcher} instance to
-   * submit to the {@link #m_executor}.
+   * submit to the {@link #getExecutor() executor}.
    */
   @Inject
   private DispatchFactory m_dispatchFactory;
@@ -188,18 +196,27 @@ public class AlertNoticeDispatchService extends AbstractScheduledService {
   private Provider<AmbariMetaInfo> m_metaInfo;
 
   /**
-   * The executor responsible for dispatching.
+   * The executor responsible for dispatching, shared by all targets. Created
+   * on first use unless set by {@link #setExecutor(Executor)}.
    */
   private Executor m_executor;
 
+  /**
+   * Resumes dispatching to targets which reached their rate limit, so that no
+   * dispatch thread waits for a permit. Created on first use.
+   */
+  private ScheduledExecutorService m_scheduler;
+
+  /**
+   * The queue of notifications waiting to be sent to each target, by target
+   * ID.
+   */
+  private final ConcurrentMap<Long, AlertTargetDispatchQueue> m_targetQueues = new ConcurrentHashMap<>();
+
   /**
    * Constructor.
    */
   public AlertNoticeDispatchService() {
-    m_executor = new ThreadPoolExecutor(0, 2, 5L, TimeUnit.MINUTES,
-      new LinkedBlockingQueue<>(), new AlertDispatchThreadFactory(),
-        new ThreadPoolExecutor.CallerRunsPolicy());
-
     GsonBuilder gsonBuilder = new GsonBuilder();
     gsonBuilder.registerTypeAdapter(AlertTargetProperties.class,
         new AlertTargetPropertyDeserializer());
@@ -207,6 +224,33 @@ public class AlertNoticeDispatchService extends AbstractScheduledService {
     m_gson = gsonBuilder.create();
   }
 
+  /**
+   * Registers for the removal of alert targets. Executed by Guice after
+   * creating the object.
+   *
+   * @param publisher
+   *          the publisher of {@link AlertTargetDeleteEvent}s.
+   */
+  @Inject
+  private void register(AmbariEventPublisher publisher) {
+    publisher.register(this);
+  }
+
+  /**
+   * Removes the queue and metrics of a removed target. Notifications which
+   * are already queued are still dispatched.
+   *
+   * @param event
+   *          the event being handled.
+   */
+  @Subscribe
+  public void onAlertTargetDeleted(AlertTargetDeleteEvent event) {
+    AlertTargetDispatchQueue queue = m_targetQueues.remove(event.getTargetId());
+    if (null != queue) {
+      queue.removeMetrics();
+    }
+  }
+
   /**
    * {@inheritDoc}
    * <p/>
@@ -262,18 +306,71 @@ public class AlertNoticeDispatchService extends AbstractScheduledService {
    *          the executor to use (not {@code null).
 
    */
-  protected void setExecutor(Executor executor) {
+  protected synchronized void setExecutor(Executor executor) {
     m_executor = executor;
   }
 
+  /**
+   * Gets the {@link Executor} to use when dispatching {@link Notification}s,
+   * creating it if needed.
+   *
+   * @return the executor (never {@code null}).
+   */
+  private synchronized Executor getExecutor() {
+    if (null == m_executor) {
+      int threads = Math.max(1, m_configuration.getAlertDispatchThreadPoolSize());
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 5L, TimeUnit.MINUTES,
+          new LinkedBlockingQueue<>(), new AlertDispatchThreadFactory());
+
+      executor.allowCoreThreadTimeOut(true);
+      m_executor = executor;
+    }
+
+    return m_executor;
+  }
+
+  /**
+   * Gets the scheduler used to resume dispatching once the rate limit of a
+   * target allows it, creating it if needed.
+   *
+   * @return the scheduler (never {@code null}).
+   */
+  private synchronized ScheduledExecutorService getScheduler() {
+    if (null == m_scheduler) {
+      m_scheduler = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("alert-dispatch-scheduler-%d").setDaemon(true).build());
+    }
+
+    return m_scheduler;
+  }
+
+  /**
+   * Gets the queue of notifications waiting to be sent to the given target.
+   *
+   * @param target
+   *          the target (not {@code null}).
+   * @return the queue (never {@code null}).
+   */
+  private AlertTargetDispatchQueue getTargetQueue(AlertTargetEntity target) {
+    return m_targetQueues.computeIfAbsent(target.getTargetId(),
+        targetId -> new AlertTargetDispatchQueue(target,
+            m_configuration.getAlertDispatchTargetQueueSize(),
+            m_configuration.getAlertDispatchTargetConcurrency(),
+            m_configuration.getAlertDispatchTargetRate(), getScheduler()));
+  }
+
   /**
    * {@inheritDoc}
+   * <p/>
+   * Notices are only dispatched while the queue of their target has room;
+   * the others remain pending until the next iteration.
    */
   @Override
   protected void runOneIteration() throws Exception {
     Map<AlertTargetEntity, List<AlertNoticeEntity>> aggregateMap;
+    Map<AlertTargetEntity, NotificationDispatcher> dispatchers = new HashMap<>();
     try {
-      aggregateMap = getGroupedNotices();
+      aggregateMap = getGroupedNotices(dispatchers);
     } catch (Exception e) {
       LOG.error("Caught exception during alert notices preparing.", e);
       return;
@@ -287,14 +384,18 @@ public class AlertNoticeDispatchService extends AbstractScheduledService {
         continue;
       }
       try {
-        String targetType = target.getNotificationType();
-        NotificationDispatcher dispatcher = m_dispatchFactory.getDispatcher(targetType);
+        NotificationDispatcher dispatcher = dispatchers.get(target);
+        if (null == dispatcher) {
+          dispatcher = m_dispatchFactory.getDispatcher(target.getNotificationType());
+        }
+
+        AlertTargetDispatchQueue queue = getTargetQueue(target);
 
         // create a single digest notification if supported
         if (dispatcher.isDigestSupported()) {
-          createSingleNotice(dispatcher, target, notices);
+          createSingleNotice(dispatcher, queue, target, notices);
         } else {
-          createSeparateNotices(dispatcher, target, notices);
+          createSeparateNotices(dispatcher, queue, target, notices);
         }
       } catch (Exception e) {
         LOG.error("Caught exception during Alert Notice dispatching.", e);
@@ -303,22 +404,71 @@ public class AlertNoticeDispatchService extends AbstractScheduledService {
   }
 
   /**
-   * Retrieves all pending notices to dispatch and groups them by target.
+   * Retrieves the pending notices which fit into the queues of their targets
+   * and groups them by target.
+   *
+   * @param dispatchers
+   *          populated with the dispatcher of each target.
    * @return grouped notices.
    */
-  private Map<AlertTargetEntity, List<AlertNoticeEntity>> getGroupedNotices() {
+  private Map<AlertTargetEntity, List<AlertNoticeEntity>> getGroupedNotices(
+      Map<AlertTargetEntity, NotificationDispatcher> dispatchers) {
     List<AlertNoticeEntity> pending = m_dao.findPendingNotices();
     if (pending.size() == 0) {
-      return Collections.EMPTY_MAP;
+      return Collections.emptyMap();
     }
 
     LOG.info("There are {} pending alert notices about to be dispatched...",
         pending.size());
 
+    Map<AlertTargetEntity, List<AlertNoticeEntity>> pendingByTarget = new HashMap<>();
+    for (AlertNoticeEntity notice : pending) {
+      pendingByTarget.computeIfAbsent(notice.getAlertTarget(), target -> new ArrayList<>()).add(notice);
+    }
+
+    // determine how many notices of each target can be queued; a digest
+    // only takes a single place in the queue
+    Map<AlertNoticeEntity, Boolean> accepted = new IdentityHashMap<>();
+    for (Entry<AlertTargetEntity, List<AlertNoticeEntity>> entry : pendingByTarget.entrySet()) {
+      AlertTargetEntity target = entry.getKey();
+      List<AlertNoticeEntity> notices = entry.getValue();
+
+      int count = notices.size();
+      try {
+        NotificationDispatcher dispatcher = m_dispatchFactory.getDispatcher(
+            target.getNotificationType());
+
+        dispatchers.put(target, dispatcher);
+
+        int remainingCapacity = getTargetQueue(target).getRemainingCapacity();
+        if (dispatcher.isDigestSupported()) {
+          count = remainingCapacity > 0 ? count : 0;
+        } else {
+          count = Math.min(count, remainingCapacity);
+        }
+      } catch (Exception e) {
+        LOG.error("Unable to determine the dispatcher for alert target {}",
+            target.getTargetName(), e);
+      }
+
+      if (count < notices.size()) {
+        LOG.info("The queue of alert target {} is full, {} notices will be dispatched later",
+            target.getTargetName(), notices.size() - count);
+      }
+
+      for (AlertNoticeEntity notice : notices.subList(0, count)) {
+        accepted.put(notice, Boolean.TRUE);
+      }
+    }
+
     Map<AlertTargetEntity, List<AlertNoticeEntity>> aggregateMap = new HashMap<>(pending.size());
 
     // combine all histories by target
     for (AlertNoticeEntity notice : pending) {
+      if (!accepted.containsKey(notice)) {
+        continue;
+      }
+
       AlertTargetEntity target = notice.getAlertTarget();
 
       List<AlertNoticeEntity> notices = aggregateMap.get(target);
@@ -339,11 +489,12 @@ public class AlertNoticeDispatchService extends AbstractScheduledService {
   /**
    * Creates a single digest notification. Should be used when dispatcher supports digest.
    * @param dispatcher dispatches the created notifications.
+   * @param queue the queue of the target.
    * @param target where notifications will be sent.
    * @param notices notices should be dispatched.
    */
-  private void createSingleNotice(NotificationDispatcher dispatcher, AlertTargetEntity target,
-                                           List<AlertNoticeEntity> notices) {
+  private void createSingleNotice(NotificationDispatcher dispatcher, AlertTargetDispatchQueue queue,
+                                  AlertTargetEntity target, List<AlertNoticeEntity> notices) {
     AlertNotification notification = buildNotificationFromTarget(target);
     notification.CallbackIds = new ArrayList<>(notices.size());
     List<AlertHistoryEntity> histories = new ArrayList<>(
@@ -365,8 +516,7 @@ public class AlertNoticeDispatchService extends AbstractScheduledService {
       renderDigestNotificationContent(dispatcher, notification, histories, target);
 
       // dispatch
-      DispatchRunnable runnable = new DispatchRunnable(dispatcher, notification);
-      m_executor.execute(runnable);
+      queue.submit(dispatcher, notification, getExecutor());
     } catch (Exception exception) {
       LOG.error("Unable to create notification for alerts", exception);
 
@@ -380,11 +530,12 @@ public class AlertNoticeDispatchService extends AbstractScheduledService {
   /**
    * If the dispatcher does not support digest, each notice must have a 1:1 notification created for it.
    * @param dispatcher dispatches the created notifications.
+   * @param queue the queue of the target.
    * @param target where notifications will be sent.
    * @param notices notices should be dispatched.
    */
-  private void createSeparateNotices(NotificationDispatcher dispatcher, AlertTargetEntity target,
-                                      List<AlertNoticeEntity> notices) {
+  private void createSeparateNotices(NotificationDispatcher dispatcher, AlertTargetDispatchQueue queue,
+                                     AlertTargetEntity target, List<AlertNoticeEntity> notices) {
     for (AlertNoticeEntity notice : notices) {
       AlertNotification notification = buildNotificationFromTarget(target);
       AlertHistoryEntity history = notice.getAlertHistory();
@@ -396,8 +547,7 @@ public class AlertNoticeDispatchService extends AbstractScheduledService {
         renderNotificationContent(dispatcher, notification, history, target);
 
         // dispatch
-        DispatchRunnable runnable = new DispatchRunnable(dispatcher, notification);
-        m_executor.execute(runnable);
+        queue.submit(dispatcher, notification, getExecutor());
       } catch (Exception exception) {
         LOG.error("Unable to create notification for alert", exception);
 
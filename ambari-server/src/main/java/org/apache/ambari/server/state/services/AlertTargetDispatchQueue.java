@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.state.services;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ambari.server.metrics.system.impl.ServerComponentsMetricsSource;
+import org.apache.ambari.server.notifications.DispatchCallback;
+import org.apache.ambari.server.notifications.Notification;
+import org.apache.ambari.server.notifications.NotificationDispatcher;
+import org.apache.ambari.server.orm.entities.AlertTargetEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.RateLimiter;
+
+/**
+ * The {@link AlertTargetDispatchQueue} holds the {@link Notification}s waiting
+ * to be sent to a single {@link AlertTargetEntity}. Each target has its own
+ * bounded queue, number of concurrent dispatches and rate limit, so that a
+ * slow target only delays its own notifications.
+ * <p/>
+ * Notifications are dispatched on a shared {@link Executor}; at most
+ * {@code concurrency} of its threads work on the queue of a target at any
+ * time. A thread never waits for the rate limit: when no permit is available,
+ * it leaves the queue and dispatching resumes on the executor once the next
+ * permit is due.
+ */
+final class AlertTargetDispatchQueue {
+  /**
+   * Logger.
+   */
+  private static final Logger LOG = LoggerFactory.getLogger(AlertTargetDispatchQueue.class);
+
+  private final String m_targetName;
+
+  private final int m_capacity;
+
+  private final int m_concurrency;
+
+  /**
+   * Limits the rate of notifications sent to the target, or {@code null} for
+   * no limit.
+   */
+  private final RateLimiter m_rateLimiter;
+
+  /**
+   * The time, in milliseconds, between two permits of the rate limiter.
+   */
+  private final long m_permitInterval;
+
+  /**
+   * Resumes dispatching once the next permit of the rate limiter is due.
+   */
+  private final ScheduledExecutorService m_scheduler;
+
+  /**
+   * The prefix of the metrics of this queue.
+   */
+  private final String m_metricsPrefix;
+
+  /**
+   * The notifications waiting to be dispatched.
+   */
+  private final Queue<PendingNotification> m_queue = new ArrayDeque<>();
+
+  /**
+   * The number of threads working on this queue.
+   */
+  private int m_active = 0;
+
+  private final Timer m_latency;
+
+  private final Counter m_failures;
+
+  /**
+   * Constructor.
+   *
+   * @param target
+   *          the target of the notifications (not {@code null}).
+   * @param capacity
+   *          the maximum number of queued notifications.
+   * @param concurrency
+   *          the maximum number of notifications dispatched concurrently.
+   * @param ratePerMinute
+   *          the maximum number of notifications dispatched per minute, or
+   *          {@code 0} for no limit.
+   * @param scheduler
+   *          used to resume dispatching when the rate limit is reached (not
+   *          {@code null}).
+   */
+  AlertTargetDispatchQueue(AlertTargetEntity target, int capacity, int concurrency,
+      int ratePerMinute, ScheduledExecutorService scheduler) {
+    m_targetName = target.getTargetName();
+    m_capacity = Math.max(1, capacity);
+    m_concurrency = Math.max(1, concurrency);
+    m_rateLimiter = ratePerMinute > 0 ? RateLimiter.create(ratePerMinute / 60.0) : null;
+    m_permitInterval = ratePerMinute > 0 ? Math.max(1L, TimeUnit.MINUTES.toMillis(1) / ratePerMinute) : 0L;
+    m_scheduler = scheduler;
+
+    m_metricsPrefix = "alerts.dispatch.target." + target.getTargetId();
+    ServerComponentsMetricsSource.registerGauge(m_metricsPrefix + ".pending", (Gauge<Integer>) this::size);
+    m_latency = ServerComponentsMetricsSource.getRegistry().timer(m_metricsPrefix + ".latency");
+    m_failures = ServerComponentsMetricsSource.getRegistry().counter(m_metricsPrefix + ".failures");
+  }
+
+  /**
+   * Removes the metrics of this queue, once its target was removed.
+   */
+  void removeMetrics() {
+    ServerComponentsMetricsSource.getRegistry().removeMatching(
+        (name, metric) -> name.startsWith(m_metricsPrefix + "."));
+  }
+
+  /**
+   * @return the number of notifications which can still be queued
+   */
+  synchronized int getRemainingCapacity() {
+    return Math.max(0, m_capacity - m_queue.size());
+  }
+
+  /**
+   * @return the number of queued notifications
+   */
+  synchronized int size() {
+    return m_queue.size();
+  }
+
+  /**
+   * Queues a notification and starts dispatching it on the given executor if
+   * fewer than {@code concurrency} threads are working on this queue.
+   *
+   * @param dispatcher
+   *          the dispatcher for the target type (not {@code null}).
+   * @param notification
+   *          the notification to send (not {@code null}).
+   * @param executor
+   *          the executor to dispatch on (not {@code null}).
+   */
+  void submit(NotificationDispatcher dispatcher, Notification notification, Executor executor) {
+    synchronized (this) {
+      m_queue.add(new PendingNotification(dispatcher, notification));
+      if (m_active >= m_concurrency) {
+        return;
+      }
+      m_active++;
+    }
+
+    execute(executor);
+  }
+
+  /**
+   * Starts dispatching on the given executor for a thread already counted as
+   * working on this queue.
+   */
+  private void execute(Executor executor) {
+    try {
+      executor.execute(() -> drain(executor));
+    } catch (RejectedExecutionException exception) {
+      LOG.warn("Unable to dispatch notifications to alert target {}", m_targetName, exception);
+      synchronized (this) {
+        m_active--;
+      }
+    }
+  }
+
+  /**
+   * Dispatches queued notifications until the queue is empty or the rate
+   * limit is reached. In the latter case, dispatching resumes on the executor
+   * once the next permit is due.
+   */
+  private void drain(Executor executor) {
+    while (true) {
+      PendingNotification next;
+      synchronized (this) {
+        if (m_queue.isEmpty()) {
+          m_active--;
+          return;
+        }
+
+        if (null != m_rateLimiter && !m_rateLimiter.tryAcquire()) {
+          break;
+        }
+
+        next = m_queue.poll();
+      }
+
+      dispatch(next.m_dispatcher, next.m_notification);
+    }
+
+    try {
+      m_scheduler.schedule(() -> execute(executor), m_permitInterval, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException exception) {
+      LOG.warn("Unable to dispatch notifications to alert target {}", m_targetName, exception);
+      synchronized (this) {
+        m_active--;
+      }
+    }
+  }
+
+  private void dispatch(NotificationDispatcher dispatcher, Notification notification) {
+    // count failures reported by the dispatcher
+    DispatchCallback callback = notification.Callback;
+    if (null != callback) {
+      notification.Callback = new DispatchCallback() {
+        @Override
+        public void onSuccess(List<String> callbackIds) {
+          callback.onSuccess(callbackIds);
+        }
+
+        @Override
+        public void onFailure(List<String> callbackIds) {
+          m_failures.inc();
+          callback.onFailure(callbackIds);
+        }
+      };
+    }
+
+    Timer.Context timerContext = m_latency.time();
+    try {
+      dispatcher.dispatch(notification);
+    } catch (Exception exception) {
+      LOG.error("Unable to dispatch notification to alert target {}", m_targetName, exception);
+      if (null != notification.Callback) {
+        notification.Callback.onFailure(notification.CallbackIds);
+      }
+    } finally {
+      timerContext.stop();
+    }
+  }
+
+  private static final class PendingNotification {
+    private final NotificationDispatcher m_dispatcher;
+    private final Notification m_notification;
+
+    private PendingNotification(NotificationDispatcher dispatcher, Notification notification) {
+      m_dispatcher = dispatcher;
+      m_notification = notification;
+    }
+  }
+}
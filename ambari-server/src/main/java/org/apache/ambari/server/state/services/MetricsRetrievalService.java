@@ -23,12 +23,17 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -36,16 +41,16 @@ import java.util.concurrent.TimeUnit;
 import org.apache.ambari.server.AmbariService;
 import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.jmx.JMXMetricHolder;
+import org.apache.ambari.server.controller.jmx.JMXMetricHolderReader;
 import org.apache.ambari.server.controller.utilities.ScalingThreadPoolExecutor;
 import org.apache.ambari.server.controller.utilities.StreamProvider;
+import org.apache.ambari.server.metrics.system.impl.ServerComponentsMetricsSource;
 import org.apache.commons.io.IOUtils;
-import org.codehaus.jackson.JsonParser;
-import org.codehaus.jackson.map.DeserializationConfig;
-import org.codehaus.jackson.map.ObjectMapper;
-import org.codehaus.jackson.map.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Sets;
@@ -79,7 +84,12 @@ import com.google.inject.Inject;
  * <p/>
  * In order to control throttling requests to the same endpoint,
  * {@link Configuration#isMetricsServiceRequestTTLCacheEnabled()} can be enabled
- * to allow for a fixed interval of time to pass between requests.
+ * to allow for a fixed interval of time to pass between requests. Endpoints
+ * which take longer than this interval to respond are requested at most once
+ * per response time.
+ * <p/>
+ * Requests for an endpoint which is already queued or being read are
+ * coalesced into the pending request.
  */
 @AmbariService
 public class MetricsRetrievalService extends AbstractService {
@@ -104,6 +114,12 @@ public class MetricsRetrievalService extends AbstractService {
    */
   private static final Logger LOG = LoggerFactory.getLogger(MetricsRetrievalService.class);
 
+  /**
+   * The name of the timer of the age of the cached metric data returned to
+   * callers.
+   */
+  static final String CACHED_METRIC_AGE_METRIC = "metrics.retrieval.cache.age";
+
   /**
    * The timeout for exceptions which are caught and then cached to prevent log
    * spamming.
@@ -148,9 +164,20 @@ public class MetricsRetrievalService extends AbstractService {
   private ThreadPoolExecutor m_threadPoolExecutor;
 
   /**
-   * Used to parse remote JMX JSON into a {@link Map}.
+   * Used to parse remote JMX JSON into a {@link JMXMetricHolder}.
+   */
+  private final JMXMetricHolderReader m_jmxReader = new JMXMetricHolderReader();
+
+  /**
+   * The JMX attributes to keep for each URL; an empty set keeps all of them.
+   * The attributes of a URL are the union of those requested for it.
    */
-  private final ObjectReader m_jmxObjectReader;
+  private final ConcurrentMap<String, Set<String>> m_jmxAttributes = new ConcurrentHashMap<>();
+
+  /**
+   * The time, in milliseconds, at which the cached data of each URL was read.
+   */
+  private final ConcurrentMap<String, Long> m_retrievalTimes = new ConcurrentHashMap<>();
 
   /**
    * A thread-safe collection of all of the URL endpoints queued for processing.
@@ -159,33 +186,53 @@ public class MetricsRetrievalService extends AbstractService {
   private final Set<String> m_queuedUrls = Sets.newConcurrentHashSet();
 
   /**
-   * An evicting cache which ensures that multiple requests for the same
-   * endpoint are not executed back-to-back. When enabled, a fixed period of
-   * time must pass before this service will make requests to a previously
-   * retrieved endpoint.
+   * Ensures that multiple requests for the same endpoint are not executed
+   * back-to-back. When enabled, this holds the time, in milliseconds, before
+   * which a previously retrieved endpoint will not be requested again.
    * <p/>
-   * If this cache is not enabled, then it will be {@code null}.
-   * <p/>
-   * For simplicity, this is a cache of URL to URL.
+   * If the request TTL is not enabled, then it will be {@code null}.
    */
-  private Cache<String, String> m_ttlUrlCache;
+  private ConcurrentMap<String, Long> m_nextRequestTimes;
 
+  /**
+   * The minimum time between requests to the same endpoint.
+   */
+  private long m_requestTTLMillis;
 
   /**
-   * The size of the worker queue (used for logged warnings about size).
+   * The time taken to read and parse the response of an endpoint.
    */
-  private int m_queueMaximumSize;
+  private final Timer m_jmxLatency = ServerComponentsMetricsSource.getRegistry().timer(
+      "metrics.retrieval.jmx.latency");
+
+  private final Timer m_restLatency = ServerComponentsMetricsSource.getRegistry().timer(
+      "metrics.retrieval.rest.latency");
 
   /**
-   * Constructor.
-   *
+   * The age of the cached metric data returned to callers.
    */
-  public MetricsRetrievalService() {
-    ObjectMapper jmxObjectMapper = new ObjectMapper();
-    jmxObjectMapper.configure(DeserializationConfig.Feature.USE_ANNOTATIONS, false);
-    jmxObjectMapper.configure(JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS, true);
-    m_jmxObjectReader = jmxObjectMapper.reader(JMXMetricHolder.class);
-  }
+  private final Timer m_cachedMetricAge = ServerComponentsMetricsSource.getRegistry().timer(
+      CACHED_METRIC_AGE_METRIC);
+
+  /**
+   * The number of requests which were coalesced into a pending request for
+   * the same endpoint.
+   */
+  private final Counter m_coalescedRequests = ServerComponentsMetricsSource.getRegistry().counter(
+      "metrics.retrieval.coalesced");
+
+  /**
+   * The number of requests which were discarded because the worker queue was
+   * full.
+   */
+  private final Counter m_discardedRequests = ServerComponentsMetricsSource.getRegistry().counter(
+      "metrics.retrieval.discarded");
+
+
+  /**
+   * The size of the worker queue (used for logged warnings about size).
+   */
+  private int m_queueMaximumSize;
 
   /**
    * {@inheritDoc}
@@ -200,12 +247,12 @@ public class MetricsRetrievalService extends AbstractService {
     m_restCache = CacheBuilder.newBuilder().expireAfterWrite(jmxCacheExpirationMinutes,
         TimeUnit.MINUTES).build();
 
-    // enable the TTL cache if configured; otherwise leave it as null
+    // enable the request TTL if configured; otherwise leave it as null
     int ttlSeconds = m_configuration.getMetricsServiceRequestTTL();
     boolean ttlCacheEnabled = m_configuration.isMetricsServiceRequestTTLCacheEnabled();
     if (ttlCacheEnabled) {
-      m_ttlUrlCache = CacheBuilder.newBuilder().expireAfterWrite(ttlSeconds,
-          TimeUnit.SECONDS).build();
+      m_requestTTLMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+      m_nextRequestTimes = new ConcurrentHashMap<>();
     }
 
     // iniitalize the executor service
@@ -217,7 +264,7 @@ public class MetricsRetrievalService extends AbstractService {
         TimeUnit.SECONDS, m_queueMaximumSize);
 
     m_threadPoolExecutor.allowCoreThreadTimeOut(true);
-    m_threadPoolExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardOldestPolicy());
+    m_threadPoolExecutor.setRejectedExecutionHandler(new DiscardOldestMetricRunnablePolicy());
 
     ThreadFactory threadFactory = new ThreadFactoryBuilder().setDaemon(true).setNameFormat(
         "ambari-metrics-retrieval-service-thread-%d").setPriority(
@@ -254,10 +301,12 @@ public class MetricsRetrievalService extends AbstractService {
     m_jmxCache.invalidateAll();
     m_restCache.invalidateAll();
 
-    if (null != m_ttlUrlCache) {
-      m_ttlUrlCache.invalidateAll();
+    if (null != m_nextRequestTimes) {
+      m_nextRequestTimes.clear();
     }
 
+    m_jmxAttributes.clear();
+    m_retrievalTimes.clear();
     m_queuedUrls.clear();
     m_threadPoolExecutor.shutdownNow();
     notifyStopped();
@@ -291,13 +340,45 @@ public class MetricsRetrievalService extends AbstractService {
    * @see #getCachedJMXMetric(String)
    */
   public void submitRequest(MetricSourceType type, StreamProvider streamProvider, String url) {
-    // check to ensure that the request isn't already queued
-    if (m_queuedUrls.contains(url)) {
-      return;
-    }
+    submitRequest(type, streamProvider, url, Collections.emptySet());
+  }
+
+  /**
+   * Submit a request for the metric data of the supplied endpoint, like
+   * {@link #submitRequest(MetricSourceType, StreamProvider, String)}. For JMX
+   * endpoints, only the given bean attributes need to be cached; all other
+   * attributes are skipped while parsing the response, unless they are
+   * requested for the same URL by another caller.
+   *
+   * @param type
+   *          the type of service hosting the metric (not {@code null}).
+   * @param streamProvider
+   *          the {@link StreamProvider} to use to read from the remote
+   *          endpoint.
+   * @param url
+   *          the URL to read from
+   * @param jmxAttributes
+   *          the names of the JMX attributes needed by the caller, or an empty
+   *          set if all of them are needed. This set must not be modified
+   *          afterwards. It is ignored for REST endpoints.
+   */
+  public void submitRequest(MetricSourceType type, StreamProvider streamProvider, String url,
+      Set<String> jmxAttributes) {
+    // the cached data does not contain newly requested attributes, so it is
+    // refreshed regardless of when it was last requested
+    boolean attributesAdded = type == MetricSourceType.JMX && addJMXAttributes(url, jmxAttributes);
 
     // check to ensure that the request wasn't made too recently
-    if (null != m_ttlUrlCache && null != m_ttlUrlCache.getIfPresent(url)) {
+    if (!attributesAdded && null != m_nextRequestTimes) {
+      Long nextRequestTime = m_nextRequestTimes.get(url);
+      if (null != nextRequestTime && System.currentTimeMillis() < nextRequestTime) {
+        return;
+      }
+    }
+
+    // enqueue this URL, unless a request for it is already pending
+    if (!m_queuedUrls.add(url)) {
+      m_coalescedRequests.inc();
       return;
     }
 
@@ -309,18 +390,13 @@ public class MetricsRetrievalService extends AbstractService {
           ((float) queueSize / m_queueMaximumSize) * 100);
     }
 
-    // enqueue this URL
-    m_queuedUrls.add(url);
-
     Runnable runnable = null;
     switch (type) {
       case JMX:
-        runnable = new JMXRunnable(m_jmxCache, m_queuedUrls, m_ttlUrlCache, m_jmxObjectReader,
-            streamProvider, url);
+        runnable = new JMXRunnable(streamProvider, url);
         break;
       case REST:
-        runnable = new RESTRunnable(m_restCache, m_queuedUrls, m_ttlUrlCache, m_gson,
-            streamProvider, url);
+        runnable = new RESTRunnable(streamProvider, url);
         break;
       default:
         LOG.warn("Unable to retrieve metrics for the unknown type {}", type);
@@ -329,6 +405,8 @@ public class MetricsRetrievalService extends AbstractService {
 
     if (null != runnable) {
       m_threadPoolExecutor.execute(runnable);
+    } else {
+      m_queuedUrls.remove(url);
     }
   }
 
@@ -346,7 +424,12 @@ public class MetricsRetrievalService extends AbstractService {
    * @return the metric, or {@code null} if none.
    */
   public JMXMetricHolder getCachedJMXMetric(String jmxUrl) {
-    return m_jmxCache.getIfPresent(jmxUrl);
+    JMXMetricHolder jmxMetricHolder = m_jmxCache.getIfPresent(jmxUrl);
+    if (null != jmxMetricHolder) {
+      updateCachedMetricAge(jmxUrl);
+    }
+
+    return jmxMetricHolder;
   }
 
   /**
@@ -363,13 +446,72 @@ public class MetricsRetrievalService extends AbstractService {
    * @return the metric, or {@code null} if none.
    */
   public Map<String, String> getCachedRESTMetric(String restUrl) {
-    return m_restCache.getIfPresent(restUrl);
+    Map<String, String> restMetrics = m_restCache.getIfPresent(restUrl);
+    if (null != restMetrics) {
+      updateCachedMetricAge(restUrl);
+    }
+
+    return restMetrics;
+  }
+
+  /**
+   * Records the age of the cached data of a URL which is returned to a caller.
+   *
+   * @param url
+   *          the URL of the cached data.
+   */
+  private void updateCachedMetricAge(String url) {
+    Long retrievalTime = m_retrievalTimes.get(url);
+    if (null != retrievalTime) {
+      m_cachedMetricAge.update(System.currentTimeMillis() - retrievalTime, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Adds the attributes to those which are kept for the URL.
+   *
+   * @param url
+   *          the JMX URL.
+   * @param attributes
+   *          the attributes to add, or an empty set for all attributes.
+   * @return {@code true} if data for the URL was requested before without
+   *         some of the attributes.
+   */
+  private boolean addJMXAttributes(String url, Set<String> attributes) {
+    Set<String> previous = m_jmxAttributes.putIfAbsent(url, attributes);
+    if (null == previous) {
+      return false;
+    }
+
+    return m_jmxAttributes.merge(url, attributes, MetricsRetrievalService::union) != previous;
+  }
+
+  /**
+   * @return the union of the attribute sets, which is {@code current} if it
+   *         already contains all of the added attributes.
+   */
+  private static Set<String> union(Set<String> current, Set<String> added) {
+    if (current.isEmpty()) {
+      return current;
+    }
+
+    if (added.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    if (current.containsAll(added)) {
+      return current;
+    }
+
+    Set<String> union = new HashSet<>(current);
+    union.addAll(added);
+    return Collections.unmodifiableSet(union);
   }
 
   /**
    * Encapsulates the common logic for all metric {@link Runnable} instances.
    */
-  private static abstract class MetricRunnable implements Runnable {
+  private abstract class MetricRunnable implements Runnable {
 
     /**
      * An initialized stream provider to read the remote endpoint.
@@ -382,15 +524,9 @@ public class MetricsRetrievalService extends AbstractService {
     protected final String m_url;
 
     /**
-     * The URLs which have been requested but not yet read.
+     * The time taken to read and parse responses of this type.
      */
-    private final Set<String> m_queuedUrls;
-
-    /**
-     * An evicting cache used to control whether a request for a metric can be
-     * made or if it is too soon after the last request.
-     */
-    private final Cache<String, String> m_ttlUrlCache;
+    private final Timer m_latency;
 
     /**
      * Constructor.
@@ -398,22 +534,16 @@ public class MetricsRetrievalService extends AbstractService {
      * @param streamProvider
      *          the stream provider to read the URL with
      * @param url
-     *          the URL endpoint to read data from (JMX or REST)
-     * @param queuedUrls
-     *          the URLs which are currently waiting to be processed. This
-     *          method will remove the specified URL from this {@link Set} when
-     *          it completes (successful or not).
-     * @param ttlUrlCache
-     *          an evicting cache which is used to determine if a request for a
-     *          metric is too soon after the last request, or {@code null} if
-     *          requests can be made sequentially without any separation.
+     *          the URL endpoint to read data from (JMX or REST). This will be
+     *          removed from the queued URLs when the request completes
+     *          (successful or not).
+     * @param latency
+     *          the timer to record the time taken by the request with.
      */
-    private MetricRunnable(StreamProvider streamProvider, String url, Set<String> queuedUrls,
-        Cache<String, String> ttlUrlCache) {
+    private MetricRunnable(StreamProvider streamProvider, String url, Timer latency) {
       m_streamProvider = streamProvider;
       m_url = url;
-      m_queuedUrls = queuedUrls;
-      m_ttlUrlCache = ttlUrlCache;
+      m_latency = latency;
     }
 
     /**
@@ -423,39 +553,39 @@ public class MetricsRetrievalService extends AbstractService {
     public final void run() {
 
       // provide some profiling
-      long startTime = 0;
-      long endTime = 0;
-      boolean isDebugEnabled = LOG.isDebugEnabled();
-      if (isDebugEnabled) {
-        startTime = System.currentTimeMillis();
-      }
+      long startTime = System.nanoTime();
 
       InputStream inputStream = null;
 
       try {
-        if (isDebugEnabled) {
-          endTime = System.currentTimeMillis();
-          LOG.debug("Loading metric JSON from {} took {}ms", m_url, (endTime - startTime));
-        }
-
         // read the stream and process it
         inputStream = m_streamProvider.readFrom(m_url);
         processInputStreamAndCacheResult(inputStream);
 
-        // cache the URL, but only after successful parsing of the response
-        if (null != m_ttlUrlCache) {
-          m_ttlUrlCache.put(m_url, m_url);
+        long endTime = System.nanoTime();
+        m_retrievalTimes.put(m_url, System.currentTimeMillis());
+        LOG.debug("Loading metric JSON from {} took {}ms", m_url,
+            TimeUnit.NANOSECONDS.toMillis(endTime - startTime));
+
+        // schedule the next request, but only after successful parsing of the
+        // response; endpoints which respond slowly are requested less often
+        if (null != m_nextRequestTimes) {
+          long latency = TimeUnit.NANOSECONDS.toMillis(endTime - startTime);
+          m_nextRequestTimes.put(m_url,
+              System.currentTimeMillis() + Math.max(m_requestTTLMillis, latency));
         }
       } catch (IOException exception)
       {
         LOG.debug("Removing cached values for url {}", m_url);
         // need to ensure old values are removed because they could be not valid if the state have changed.
         removeCachedMetricsForCurrentURL();
+        m_retrievalTimes.remove(m_url);
         logException(exception, m_url);
       } catch (Exception exception) {
         logException(exception, m_url);
       } finally {
         IOUtils.closeQuietly(inputStream);
+        m_latency.update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
 
         // remove this URL from the list of queued URLs to ensure it will be
         // requested again
@@ -524,27 +654,16 @@ public class MetricsRetrievalService extends AbstractService {
    * {@link MetricsRetrievalService} doesn't care about when the value returns or
    * whether an exception is thrown.
    */
-  private static final class JMXRunnable extends MetricRunnable {
-
-    private final ObjectReader m_jmxObjectReader;
-    private final Cache<String, JMXMetricHolder> m_cache;
+  private final class JMXRunnable extends MetricRunnable {
 
     /**
      * Constructor.
      *
-     * @param cache
-     * @param queuedUrls
-     * @param ttlUrlCache
-     * @param jmxObjectReader
      * @param streamProvider
      * @param jmxUrl
      */
-    private JMXRunnable(Cache<String, JMXMetricHolder> cache, Set<String> queuedUrls,
-        Cache<String, String> ttlUrlCache, ObjectReader jmxObjectReader,
-        StreamProvider streamProvider, String jmxUrl) {
-      super(streamProvider, jmxUrl, queuedUrls, ttlUrlCache);
-      m_cache = cache;
-      m_jmxObjectReader = jmxObjectReader;
+    private JMXRunnable(StreamProvider streamProvider, String jmxUrl) {
+      super(streamProvider, jmxUrl, m_jmxLatency);
     }
 
     /**
@@ -552,7 +671,7 @@ public class MetricsRetrievalService extends AbstractService {
      */
     @Override
     protected void removeCachedMetricsForCurrentURL() {
-      m_cache.invalidate(m_url);
+      m_jmxCache.invalidate(m_url);
     }
 
     /**
@@ -560,8 +679,9 @@ public class MetricsRetrievalService extends AbstractService {
      */
     @Override
     protected void processInputStreamAndCacheResult(InputStream inputStream) throws Exception {
-      JMXMetricHolder jmxMetricHolder = m_jmxObjectReader.readValue(inputStream);
-      m_cache.put(m_url, jmxMetricHolder);
+      Set<String> attributes = m_jmxAttributes.getOrDefault(m_url, Collections.emptySet());
+      JMXMetricHolder jmxMetricHolder = m_jmxReader.read(inputStream, attributes);
+      m_jmxCache.put(m_url, jmxMetricHolder);
     }
   }
 
@@ -571,27 +691,16 @@ public class MetricsRetrievalService extends AbstractService {
    * {@link MetricsRetrievalService} doesn't care about when the value returns
    * or whether an exception is thrown.
    */
-  private static final class RESTRunnable extends MetricRunnable {
-
-    private final Gson m_gson;
-    private final Cache<String, Map<String, String>> m_cache;
+  private final class RESTRunnable extends MetricRunnable {
 
     /**
      * Constructor.
      *
-     * @param cache
-     * @param queuedUrls
-     * @param ttlUrlCache
-     * @param gson
      * @param streamProvider
      * @param restUrl
      */
-    private RESTRunnable(Cache<String, Map<String, String>> cache, Set<String> queuedUrls,
-        Cache<String, String> ttlUrlCache, Gson gson, StreamProvider streamProvider,
-        String restUrl) {
-      super(streamProvider, restUrl, queuedUrls, ttlUrlCache);
-      m_cache = cache;
-      m_gson = gson;
+    private RESTRunnable(StreamProvider streamProvider, String restUrl) {
+      super(streamProvider, restUrl, m_restLatency);
     }
 
     /**
@@ -599,7 +708,7 @@ public class MetricsRetrievalService extends AbstractService {
      */
     @Override
     protected void removeCachedMetricsForCurrentURL() {
-      m_cache.invalidate(m_url);
+      m_restCache.invalidate(m_url);
     }
 
     /**
@@ -613,7 +722,37 @@ public class MetricsRetrievalService extends AbstractService {
           new BufferedReader(new InputStreamReader(inputStream)));
 
       Map<String, String> jsonMap = m_gson.fromJson(jsonReader, type);
-      m_cache.put(m_url, jsonMap);
+      m_restCache.put(m_url, jsonMap);
+    }
+  }
+
+  /**
+   * Discards the oldest queued request when the worker queue is full, like
+   * {@link ThreadPoolExecutor.DiscardOldestPolicy}, but also removes the URL of
+   * the discarded request from the queued URLs so that it can be requested
+   * again.
+   */
+  private final class DiscardOldestMetricRunnablePolicy implements RejectedExecutionHandler {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+      if (executor.isShutdown()) {
+        discard(runnable);
+        return;
+      }
+
+      discard(executor.getQueue().poll());
+      executor.execute(runnable);
+    }
+
+    private void discard(Runnable runnable) {
+      if (runnable instanceof MetricRunnable) {
+        m_discardedRequests.inc();
+        m_queuedUrls.remove(((MetricRunnable) runnable).m_url);
+      }
     }
   }
 
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.actionmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.persistence.EntityManager;
+
+import org.apache.ambari.server.AmbariException;
+import org.apache.ambari.server.actionmanager.ActionScheduler.RoleStats;
+import org.apache.ambari.server.agent.AgentCommand;
+import org.apache.ambari.server.agent.ExecutionCommand;
+import org.apache.ambari.server.configuration.Configuration;
+import org.apache.ambari.server.controller.HostsMap;
+import org.apache.ambari.server.events.publishers.AgentCommandsPublisher;
+import org.apache.ambari.server.orm.dao.HostRoleCommandDAO;
+import org.apache.ambari.server.orm.entities.RequestEntity;
+import org.apache.ambari.server.state.Clusters;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Multimap;
+import com.google.inject.Provider;
+import com.google.inject.persist.UnitOfWork;
+
+/**
+ * Tests which requests an event driven {@link ActionScheduler} re-evaluates.
+ */
+public class ActionSchedulerEventDrivenTest {
+
+  private ActionDBAccessor db;
+
+  /**
+   * The ids of the requests whose stages were evaluated, in order.
+   */
+  private final List<Long> evaluatedRequestIds = new ArrayList<>();
+
+  @Before
+  public void setup() {
+    Stage stage1 = mock(Stage.class);
+    when(stage1.getRequestId()).thenReturn(1L);
+    Stage stage2 = mock(Stage.class);
+    when(stage2.getRequestId()).thenReturn(2L);
+
+    RequestEntity request = mock(RequestEntity.class);
+    when(request.isExclusive()).thenReturn(false);
+
+    db = mock(ActionDBAccessor.class);
+    when(db.getCommandsInProgressCount()).thenReturn(2);
+    when(db.getFirstStageInProgressPerRequest()).thenReturn(Arrays.asList(stage1, stage2));
+    when(db.getRequestEntity(anyLong())).thenReturn(request);
+  }
+
+  /**
+   * Tests that the stages of requests which were not reported as affected are
+   * not evaluated, and that {@link ActionScheduler#awake(long)} causes the
+   * request to be re-evaluated.
+   */
+  @Test
+  public void testOnlyAffectedRequestsAreEvaluated() throws Exception {
+    ActionScheduler scheduler = createScheduler(3600);
+    scheduler.initializeScheduling();
+
+    // the first iteration is a full sweep, which evaluates the new requests
+    scheduler.runIteration();
+    assertEquals(Arrays.asList(1L, 2L), evaluatedRequestIds);
+
+    // nothing has been reported
+    evaluatedRequestIds.clear();
+    scheduler.runIteration();
+    assertEquals(Collections.emptyList(), evaluatedRequestIds);
+
+    scheduler.awake(2L);
+    scheduler.runIteration();
+    assertEquals(Collections.singletonList(2L), evaluatedRequestIds);
+  }
+
+  /**
+   * Tests that {@link ActionScheduler#awake()} still evaluates all stages in
+   * progress.
+   */
+  @Test
+  public void testAwakeEvaluatesAllRequests() throws Exception {
+    ActionScheduler scheduler = createScheduler(3600);
+    scheduler.initializeScheduling();
+    scheduler.runIteration();
+
+    evaluatedRequestIds.clear();
+    scheduler.awake();
+    scheduler.runIteration();
+    assertEquals(Arrays.asList(1L, 2L), evaluatedRequestIds);
+  }
+
+  /**
+   * Tests that the periodic full sweep evaluates all stages in progress
+   * although nothing has been reported.
+   */
+  @Test
+  public void testPeriodicFullSweep() throws Exception {
+    ActionScheduler scheduler = createScheduler(0);
+    scheduler.initializeScheduling();
+    scheduler.runIteration();
+
+    evaluatedRequestIds.clear();
+    scheduler.runIteration();
+    assertEquals(Arrays.asList(1L, 2L), evaluatedRequestIds);
+  }
+
+  private ActionScheduler createScheduler(int fullSweepIntervalSeconds) {
+    Properties properties = new Properties();
+    properties.setProperty(Configuration.ACTION_SCHEDULER_EVENT_DRIVEN.getKey(), "true");
+    properties.setProperty(Configuration.ACTION_SCHEDULER_FULL_SWEEP_INTERVAL.getKey(),
+        String.valueOf(fullSweepIntervalSeconds));
+
+    @SuppressWarnings("unchecked")
+    Provider<EntityManager> entityManagerProvider = mock(Provider.class);
+
+    return new ActionScheduler(10, 600000, db, mock(Clusters.class), 3, new HostsMap((String) null),
+        mock(UnitOfWork.class), null, new Configuration(properties), entityManagerProvider,
+        mock(HostRoleCommandDAO.class), null, null, mock(AgentCommandsPublisher.class)) {
+      @Override
+      protected Map<String, RoleStats> processInProgressStage(Stage s, List<ExecutionCommand> commandsToSchedule,
+          Multimap<Long, AgentCommand> commandsToEnqueue) throws AmbariException {
+        evaluatedRequestIds.add(s.getRequestId());
+        return new HashMap<>();
+      }
+    };
+  }
+}
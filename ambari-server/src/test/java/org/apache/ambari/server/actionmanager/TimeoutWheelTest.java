@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.actionmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link TimeoutWheel}.
+ */
+public class TimeoutWheelTest {
+
+  @Test
+  public void testAdvance() {
+    TimeoutWheel wheel = new TimeoutWheel(100, 8, 1000);
+    wheel.schedule(1L, 1250);
+    wheel.schedule(2L, 1500);
+
+    assertTrue(wheel.advance(1200).isEmpty());
+    assertEquals(Collections.singleton(1L), wheel.advance(1250));
+    assertTrue(wheel.advance(1499).isEmpty());
+    assertEquals(Collections.singleton(2L), wheel.advance(1600));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void testEarliestDeadlineWins() {
+    TimeoutWheel wheel = new TimeoutWheel(100, 8, 1000);
+    wheel.schedule(1L, 1700);
+    wheel.schedule(1L, 1300);
+    wheel.schedule(1L, 1500);
+
+    assertEquals(1, wheel.size());
+    assertEquals(Collections.singleton(1L), wheel.advance(1300));
+    assertTrue(wheel.advance(1800).isEmpty());
+  }
+
+  @Test
+  public void testDeadlinesBeyondOneRotation() {
+    TimeoutWheel wheel = new TimeoutWheel(100, 4, 1000);
+    wheel.schedule(1L, 2150);
+
+    // the bucket is passed several times before the deadline
+    assertTrue(wheel.advance(1300).isEmpty());
+    assertTrue(wheel.advance(1900).isEmpty());
+    assertEquals(Collections.singleton(1L), wheel.advance(2200));
+  }
+
+  @Test
+  public void testPastDeadline() {
+    TimeoutWheel wheel = new TimeoutWheel(100, 4, 1000);
+    wheel.advance(2000);
+    wheel.schedule(1L, 1000);
+
+    assertEquals(Collections.singleton(1L), wheel.advance(2000));
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ambari.server.agent.stomp.dto.HostStatusReport;
+import org.junit.Test;
+
+/**
+ * {@link AgentReportsProcessor} tests.
+ */
+public class AgentReportsProcessorTest {
+
+  @Test
+  public void testConsecutiveStatusReportsAreCoalesced() {
+    List<AgentReport> batch = new ArrayList<>();
+    batch.add(componentStatusReport("host1", "DATANODE", "INSTALLED"));
+    batch.add(componentStatusReport("host2", "DATANODE", "INSTALLED"));
+    batch.add(componentStatusReport("host1", "NAMENODE", "STARTED"));
+    batch.add(componentStatusReport("host1", "DATANODE", "STARTED"));
+
+    List<AgentReport> reports = AgentReportsProcessor.coalesce(batch);
+
+    assertEquals(2, reports.size());
+    assertEquals("host1", reports.get(0).getHostName());
+    List<ComponentStatus> statuses = ((ComponentStatusAgentReport) reports.get(0)).getReport();
+    assertEquals(2, statuses.size());
+    assertEquals("DATANODE", statuses.get(0).getComponentName());
+    assertEquals("STARTED", statuses.get(0).getStatus());
+    assertEquals("NAMENODE", statuses.get(1).getComponentName());
+    assertSame(batch.get(1), reports.get(1));
+  }
+
+  @Test
+  public void testReportsOfOtherTypeAreNotReordered() {
+    AgentReport commandReport = new CommandStatusAgentReport(null, "host1", Collections.emptyList());
+    List<AgentReport> batch = new ArrayList<>();
+    batch.add(componentStatusReport("host1", "DATANODE", "INSTALLED"));
+    batch.add(commandReport);
+    batch.add(componentStatusReport("host1", "DATANODE", "STARTED"));
+
+    List<AgentReport> reports = AgentReportsProcessor.coalesce(batch);
+
+    assertEquals(batch, reports);
+  }
+
+  @Test
+  public void testLaterHostStatusSupersedes() {
+    HostStatusAgentReport first = new HostStatusAgentReport(null, "host1", new HostStatusReport());
+    HostStatusAgentReport second = new HostStatusAgentReport(null, "host1", new HostStatusReport());
+
+    List<AgentReport> reports = AgentReportsProcessor.coalesce(Arrays.<AgentReport>asList(first, second));
+
+    assertEquals(1, reports.size());
+    assertSame(second, reports.get(0));
+    assertTrue(AgentReportsProcessor.coalesce(Collections.emptyList()).isEmpty());
+  }
+
+  private ComponentStatusAgentReport componentStatusReport(String hostName, String componentName, String status) {
+    ComponentStatus componentStatus = new ComponentStatus();
+    componentStatus.setClusterId(1L);
+    componentStatus.setServiceName("HDFS");
+    componentStatus.setComponentName(componentName);
+    componentStatus.setStatus(status);
+    return new ComponentStatusAgentReport(null, hostName, Collections.singletonList(componentStatus));
+  }
+}
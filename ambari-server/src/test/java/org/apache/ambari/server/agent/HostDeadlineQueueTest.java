@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link HostDeadlineQueue}.
+ */
+public class HostDeadlineQueueTest {
+
+  @Test
+  public void testPollExpired() {
+    HostDeadlineQueue queue = new HostDeadlineQueue();
+    queue.schedule(3L, 300);
+    queue.schedule(1L, 100);
+    queue.schedule(2L, 100);
+
+    assertTrue(queue.pollExpired(100).isEmpty());
+    assertEquals(Arrays.asList(1L, 2L), queue.pollExpired(101));
+    assertEquals(1, queue.size());
+    assertEquals(Collections.singletonList(3L), queue.pollExpired(1000));
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testRescheduleReplacesDeadline() {
+    HostDeadlineQueue queue = new HostDeadlineQueue();
+    queue.schedule(1L, 100);
+    queue.schedule(1L, 500);
+
+    assertEquals(1, queue.size());
+    assertTrue(queue.pollExpired(200).isEmpty());
+    assertEquals(Collections.singletonList(1L), queue.pollExpired(600));
+  }
+
+  @Test
+  public void testRemove() {
+    HostDeadlineQueue queue = new HostDeadlineQueue();
+    queue.schedule(1L, 100);
+    queue.remove(1L);
+    queue.remove(2L);
+
+    assertEquals(0, queue.size());
+    assertTrue(queue.pollExpired(1000).isEmpty());
+  }
+}
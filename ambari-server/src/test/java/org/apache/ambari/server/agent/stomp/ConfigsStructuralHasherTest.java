@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.agent.stomp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.ambari.server.agent.stomp.dto.ClusterConfigs;
+import org.apache.ambari.server.events.AgentConfigsUpdateEvent;
+import org.junit.Test;
+
+public class ConfigsStructuralHasherTest {
+
+  @Test
+  public void testHashIgnoresHashAndTimestamp() {
+    ConfigsStructuralHasher hasher = new ConfigsStructuralHasher(100);
+
+    AgentConfigsUpdateEvent event1 = createEvent(1L, "value");
+    event1.setHash("01");
+    event1.setTimestamp(1L);
+
+    AgentConfigsUpdateEvent event2 = createEvent(1L, "value");
+    event2.setHash("02");
+    event2.setTimestamp(2L);
+
+    assertEquals(hasher.getHash(event1, ""), hasher.getHash(event2, ""));
+    assertFalse(hasher.getHash(event1, "").equals(hasher.getHash(event1, "salt")));
+  }
+
+  @Test
+  public void testHashChangesWithContent() {
+    ConfigsStructuralHasher hasher = new ConfigsStructuralHasher(100);
+
+    String hash1 = hasher.getHash(createEvent(1L, "value"), "");
+    String hash2 = hasher.getHash(createEvent(1L, "other"), "");
+    String hash3 = hasher.getHash(createEvent(2L, "value"), "");
+    String hash4 = hasher.getHash(new AgentConfigsUpdateEvent(1L, null), "");
+    String hash5 = hasher.getHash(new AgentConfigsUpdateEvent(1L, new TreeMap<>()), "");
+
+    assertFalse(hash1.equals(hash2));
+    assertFalse(hash1.equals(hash3));
+    assertFalse(hash1.equals(hash4));
+    assertFalse(hash4.equals(hash5));
+  }
+
+  @Test
+  public void testSectionDigestsAreReused() {
+    ConfigsStructuralHasher hasher = new ConfigsStructuralHasher(100);
+
+    // 2 config types and 1 attributes section
+    hasher.getHash(createEvent(1L, "value"), "");
+    assertEquals(3, hasher.getSectionDigestMissCount());
+    assertEquals(0, hasher.getSectionDigestHitCount());
+
+    // same configs on another host
+    hasher.getHash(createEvent(2L, "value"), "");
+    assertEquals(3, hasher.getSectionDigestMissCount());
+    assertEquals(3, hasher.getSectionDigestHitCount());
+
+    // only changed config type is re-hashed
+    hasher.getHash(createEvent(3L, "other"), "");
+    assertEquals(4, hasher.getSectionDigestMissCount());
+    assertEquals(5, hasher.getSectionDigestHitCount());
+  }
+
+  @Test
+  public void testCachedDigestIsNotAffectedBySectionChanges() {
+    ConfigsStructuralHasher hasher = new ConfigsStructuralHasher(100);
+
+    AgentConfigsUpdateEvent event = createEvent(1L, "value");
+    String hash = hasher.getHash(event, "");
+
+    // emulates encryption of sensitive data after hashing
+    event.getClustersConfigs().get("1").getConfigurations().get("core-site").put("prop", "encrypted");
+
+    assertEquals(hash, hasher.getHash(createEvent(1L, "value"), ""));
+  }
+
+  private AgentConfigsUpdateEvent createEvent(Long hostId, String coreSiteValue) {
+    SortedMap<String, SortedMap<String, String>> configurations = new TreeMap<>();
+    SortedMap<String, String> coreSite = new TreeMap<>();
+    coreSite.put("prop", coreSiteValue);
+    configurations.put("core-site", coreSite);
+    SortedMap<String, String> hdfsSite = new TreeMap<>();
+    hdfsSite.put("dfs.prop", "hdfs");
+    configurations.put("hdfs-site", hdfsSite);
+
+    SortedMap<String, SortedMap<String, SortedMap<String, String>>> attributes = new TreeMap<>();
+    SortedMap<String, SortedMap<String, String>> hdfsSiteAttributes = new TreeMap<>();
+    SortedMap<String, String> finalAttributes = new TreeMap<>();
+    finalAttributes.put("dfs.prop", "true");
+    hdfsSiteAttributes.put("final", finalAttributes);
+    attributes.put("hdfs-site", hdfsSiteAttributes);
+
+    SortedMap<String, ClusterConfigs> clustersConfigs = new TreeMap<>();
+    clustersConfigs.put("1", new ClusterConfigs(configurations, attributes));
+    return new AgentConfigsUpdateEvent(hostId, clustersConfigs);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.api.predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.apache.ambari.server.controller.internal.ResourceImpl;
+import org.apache.ambari.server.controller.predicate.AndPredicate;
+import org.apache.ambari.server.controller.predicate.EqualsPredicate;
+import org.apache.ambari.server.controller.predicate.FilterPredicate;
+import org.apache.ambari.server.controller.predicate.GreaterPredicate;
+import org.apache.ambari.server.controller.predicate.OrPredicate;
+import org.apache.ambari.server.controller.spi.Predicate;
+import org.apache.ambari.server.controller.spi.Resource;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * PredicateCompiler unit tests.
+ */
+public class PredicateCompilerTest {
+
+  @Before
+  public void setup() {
+    PredicateCompiler.clearCache();
+  }
+
+  @Test
+  public void testCompileIsCached() throws Exception {
+    String query = "Hosts/host_name=h1|Hosts/host_name=h2";
+
+    Predicate predicate = new PredicateCompiler().compile(query);
+    assertEquals(new OrPredicate(new EqualsPredicate<>("Hosts/host_name", "h1"),
+        new EqualsPredicate<>("Hosts/host_name", "h2")), predicate);
+
+    assertSame(predicate, new PredicateCompiler().compile(query));
+    assertNotSame(predicate, new PredicateCompiler().compile(query, Collections.singleton("fields")));
+    assertNull(new PredicateCompiler().compile(""));
+  }
+
+  @Test
+  public void testOptimizeOrdersAndPredicates() throws Exception {
+    Predicate predicate = new PredicateCompiler().compile(
+        "Hosts/host_name.matches(h.*)&Hosts/cpu_count>2&Hosts/rack_info=r1");
+
+    assertTrue(predicate instanceof AndPredicate);
+    Predicate[] predicates = ((AndPredicate) predicate).getPredicates();
+    assertTrue(predicates[0] instanceof EqualsPredicate);
+    assertTrue(predicates[1] instanceof GreaterPredicate);
+    assertTrue(predicates[2] instanceof FilterPredicate);
+
+    Resource resource = new ResourceImpl(Resource.Type.Host);
+    resource.setProperty("Hosts/host_name", "h1");
+    resource.setProperty("Hosts/cpu_count", 4);
+    resource.setProperty("Hosts/rack_info", "r1");
+    assertTrue(predicate.evaluate(resource));
+
+    resource.setProperty("Hosts/cpu_count", 1);
+    assertTrue(!predicate.evaluate(resource));
+  }
+
+  @Test
+  public void testOptimizeKeepsOrPredicateOrder() throws Exception {
+    Predicate predicate = PredicateCompiler.optimize(new OrPredicate(
+        new FilterPredicate("a", "x.*"), new EqualsPredicate<>("b", "y")));
+
+    Predicate[] predicates = ((OrPredicate) predicate).getPredicates();
+    assertTrue(predicates[0] instanceof FilterPredicate);
+    assertTrue(predicates[1] instanceof EqualsPredicate);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.api.query;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.ambari.server.controller.internal.PageRequestImpl;
+import org.apache.ambari.server.controller.internal.SortRequestImpl;
+import org.apache.ambari.server.controller.spi.PageRequest;
+import org.apache.ambari.server.controller.spi.Predicate;
+import org.apache.ambari.server.controller.spi.Request;
+import org.apache.ambari.server.controller.spi.SortRequest;
+import org.apache.ambari.server.controller.spi.SortRequestProperty;
+import org.apache.ambari.server.controller.utilities.PredicateBuilder;
+import org.apache.ambari.server.controller.utilities.PropertyHelper;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests the {@link JpaPushdownVisitor}.
+ */
+public class JpaPushdownVisitorTest {
+
+  private static final Set<String> SUPPORTED = ImmutableSet.of("service_name", "version");
+  private static final Set<String> SCOPE = Collections.singleton("cluster_name");
+
+  @Test
+  public void testComparisonsOfSupportedProperties() {
+    Predicate predicate = new PredicateBuilder().property("cluster_name").equals("c1").and().begin()
+        .property("service_name").equals("HDFS").or().property("version").greaterThan(5).end().toPredicate();
+
+    assertTrue(JpaPushdownVisitor.canPushDown(createRequest(PageRequest.StartingPoint.OffsetStart, null),
+        predicate, SUPPORTED, SCOPE));
+  }
+
+  @Test
+  public void testUnsupportedPredicates() {
+    Predicate unknownProperty = new PredicateBuilder().property("cluster_name").equals("c1").and()
+        .property("is_current").equals("true").toPredicate();
+    Predicate not = new PredicateBuilder().property("cluster_name").equals("c1").and()
+        .not().property("service_name").equals("HDFS").toPredicate();
+    Predicate scopeInOr = new PredicateBuilder().property("cluster_name").equals("c1").or()
+        .property("service_name").equals("HDFS").toPredicate();
+
+    Request request = createRequest(PageRequest.StartingPoint.Beginning, null);
+    assertFalse(JpaPushdownVisitor.canPushDown(request, unknownProperty, SUPPORTED, SCOPE));
+    assertFalse(JpaPushdownVisitor.canPushDown(request, not, SUPPORTED, SCOPE));
+    assertFalse(JpaPushdownVisitor.canPushDown(request, scopeInOr, SUPPORTED, SCOPE));
+  }
+
+  @Test
+  public void testSortAndPageRequests() {
+    Predicate predicate = new PredicateBuilder().property("cluster_name").equals("c1").toPredicate();
+
+    SortRequest supportedSort = new SortRequestImpl(Collections.singletonList(
+        new SortRequestProperty("version", SortRequest.Order.DESC)));
+    SortRequest unsupportedSort = new SortRequestImpl(Collections.singletonList(
+        new SortRequestProperty("is_current", SortRequest.Order.DESC)));
+
+    assertTrue(JpaPushdownVisitor.canPushDown(createRequest(PageRequest.StartingPoint.OffsetStart, supportedSort),
+        predicate, SUPPORTED, SCOPE));
+    assertFalse(JpaPushdownVisitor.canPushDown(createRequest(PageRequest.StartingPoint.OffsetStart, unsupportedSort),
+        predicate, SUPPORTED, SCOPE));
+    assertFalse(JpaPushdownVisitor.canPushDown(createRequest(PageRequest.StartingPoint.End, null),
+        predicate, SUPPORTED, SCOPE));
+  }
+
+  private Request createRequest(PageRequest.StartingPoint startingPoint, SortRequest sortRequest) {
+    PageRequest pageRequest = new PageRequestImpl(startingPoint, 10, 0, null, null);
+    return PropertyHelper.getReadRequest(Collections.emptySet(), null, null, pageRequest, sortRequest);
+  }
+}
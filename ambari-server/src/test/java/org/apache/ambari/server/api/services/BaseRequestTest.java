@@ -43,6 +43,7 @@ import org.apache.ambari.server.api.handlers.RequestHandler;
 import org.apache.ambari.server.api.predicate.InvalidQueryException;
 import org.apache.ambari.server.api.predicate.PredicateCompiler;
 import org.apache.ambari.server.api.predicate.QueryLexer;
+import org.apache.ambari.server.api.query.Query;
 import org.apache.ambari.server.api.query.render.DefaultRenderer;
 import org.apache.ambari.server.api.query.render.MinimalRenderer;
 import org.apache.ambari.server.api.query.render.Renderer;
@@ -119,6 +120,7 @@ public abstract class BaseRequestTest {
     expect(uriInfo.getQueryParameters()).andReturn(queryParams).anyTimes();
     expect(queryParams.getFirst(QueryLexer.QUERY_MINIMAL)).andReturn(null);
     expect(queryParams.getFirst(QueryLexer.QUERY_FORMAT)).andReturn(null);
+    expect(queryParams.getFirst(QueryLexer.QUERY_COMPACT)).andReturn(null).anyTimes();
     expect(resource.getResourceDefinition()).andReturn(resourceDefinition);
     expect(resourceDefinition.getRenderer(null)).andReturn(renderer);
     expect(uriInfo.getRequestUri()).andReturn(uri).anyTimes();
@@ -218,6 +220,7 @@ public abstract class BaseRequestTest {
     expect(uriInfo.getQueryParameters()).andReturn(queryParams).anyTimes();
     expect(queryParams.getFirst(QueryLexer.QUERY_MINIMAL)).andReturn(null);
     expect(queryParams.getFirst(QueryLexer.QUERY_FORMAT)).andReturn(null);
+    expect(queryParams.getFirst(QueryLexer.QUERY_COMPACT)).andReturn(null).anyTimes();
     expect(resource.getResourceDefinition()).andReturn(resourceDefinition);
     expect(resourceDefinition.getRenderer(null)).andReturn(renderer);
     expect(uriInfo.getRequestUri()).andReturn(uri).anyTimes();
@@ -265,6 +268,7 @@ public abstract class BaseRequestTest {
     expect(uriInfo.getQueryParameters()).andReturn(queryParams).anyTimes();
     expect(queryParams.getFirst(QueryLexer.QUERY_MINIMAL)).andReturn(null);
     expect(queryParams.getFirst(QueryLexer.QUERY_FORMAT)).andReturn(null);
+    expect(queryParams.getFirst(QueryLexer.QUERY_COMPACT)).andReturn(null).anyTimes();
     expect(resource.getResourceDefinition()).andReturn(resourceDefinition).anyTimes();
     expect(resourceDefinition.getRenderer(null)).andReturn(renderer);
     expect(uriInfo.getRequestUri()).andReturn(uri).anyTimes();
@@ -312,6 +316,7 @@ public abstract class BaseRequestTest {
     expect(uriInfo.getQueryParameters()).andReturn(queryParams).anyTimes();
     expect(queryParams.getFirst(QueryLexer.QUERY_MINIMAL)).andReturn(null);
     expect(queryParams.getFirst(QueryLexer.QUERY_FORMAT)).andReturn(null);
+    expect(queryParams.getFirst(QueryLexer.QUERY_COMPACT)).andReturn(null).anyTimes();
     expect(resource.getResourceDefinition()).andReturn(resourceDefinition).anyTimes();
     expect(resourceDefinition.getRenderer(null)).andReturn(renderer);
     expect(uriInfo.getRequestUri()).andReturn(uri).anyTimes();
@@ -359,6 +364,7 @@ public abstract class BaseRequestTest {
     expect(uriInfo.getQueryParameters()).andReturn(queryParams).anyTimes();
     expect(queryParams.getFirst(QueryLexer.QUERY_MINIMAL)).andReturn(null);
     expect(queryParams.getFirst(QueryLexer.QUERY_FORMAT)).andReturn(null);
+    expect(queryParams.getFirst(QueryLexer.QUERY_COMPACT)).andReturn(null).anyTimes();
     expect(resource.getResourceDefinition()).andReturn(resourceDefinition).anyTimes();
     expect(resourceDefinition.getRenderer(null)).andReturn(renderer);
     expect(uriInfo.getRequestUri()).andReturn(uri).anyTimes();
@@ -401,6 +407,7 @@ public abstract class BaseRequestTest {
     expect(uriInfo.getQueryParameters()).andReturn(queryParams).anyTimes();
     expect(queryParams.getFirst(QueryLexer.QUERY_MINIMAL)).andReturn(null);
     expect(queryParams.getFirst(QueryLexer.QUERY_FORMAT)).andReturn(null);
+    expect(queryParams.getFirst(QueryLexer.QUERY_COMPACT)).andReturn(null).anyTimes();
     expect(resource.getResourceDefinition()).andReturn(resourceDefinition).anyTimes();
     expect(resourceDefinition.getRenderer(null)).andReturn(renderer);
     expect(uriInfo.getRequestUri()).andReturn(uri).anyTimes();
@@ -443,6 +450,7 @@ public abstract class BaseRequestTest {
     expect(uriInfo.getQueryParameters()).andReturn(queryParams).anyTimes();
     expect(queryParams.getFirst(QueryLexer.QUERY_MINIMAL)).andReturn(null);
     expect(queryParams.getFirst(QueryLexer.QUERY_FORMAT)).andReturn(null);
+    expect(queryParams.getFirst(QueryLexer.QUERY_COMPACT)).andReturn(null).anyTimes();
     expect(resource.getResourceDefinition()).andReturn(resourceDefinition).anyTimes();
     expect(resourceDefinition.getRenderer(null)).andReturn(renderer);
     expect(uriInfo.getRequestUri()).andReturn(uri).anyTimes();
@@ -534,6 +542,7 @@ public abstract class BaseRequestTest {
     //expectations
     expect(uriInfo.getQueryParameters()).andReturn(queryParams).anyTimes();
     expect(queryParams.getFirst(QueryLexer.QUERY_MINIMAL)).andReturn("true");
+    expect(queryParams.getFirst(QueryLexer.QUERY_COMPACT)).andReturn(null).anyTimes();
     expect(resource.getResourceDefinition()).andReturn(resourceDefinition).anyTimes();
     expect(resourceDefinition.getRenderer("minimal")).andReturn(renderer);
     expect(uriInfo.getRequestUri()).andReturn(uri).anyTimes();
@@ -576,6 +585,7 @@ public abstract class BaseRequestTest {
     expect(uriInfo.getQueryParameters()).andReturn(queryParams).anyTimes();
     expect(queryParams.getFirst(QueryLexer.QUERY_MINIMAL)).andReturn(null);
     expect(queryParams.getFirst(QueryLexer.QUERY_FORMAT)).andReturn("default");
+    expect(queryParams.getFirst(QueryLexer.QUERY_COMPACT)).andReturn(null).anyTimes();
     expect(resource.getResourceDefinition()).andReturn(resourceDefinition).anyTimes();
     expect(resourceDefinition.getRenderer("default")).andReturn(renderer);
     expect(uriInfo.getRequestUri()).andReturn(uri).anyTimes();
@@ -593,6 +603,49 @@ public abstract class BaseRequestTest {
     assertSame(renderer, request.getRenderer());
   }
 
+  @Test
+  public void testProcess_compactResources() throws Exception {
+
+    String uriString = "http://localhost.com:8080/api/v1/clusters/c1/hosts";
+    URI uri = new URI(URLEncoder.encode(uriString, "UTF-8"));
+    PredicateCompiler compiler = createStrictMock(PredicateCompiler.class);
+    UriInfo uriInfo = createMock(UriInfo.class);
+    @SuppressWarnings("unchecked")
+    MultivaluedMap<String, String> queryParams = createMock(MultivaluedMap.class);
+
+    RequestHandler handler = createStrictMock(RequestHandler.class);
+    Result result = createMock(Result.class);
+    ResultStatus resultStatus = createMock(ResultStatus.class);
+    ResultPostProcessor processor = createStrictMock(ResultPostProcessor.class);
+    RequestBody body = createNiceMock(RequestBody.class);
+    ResourceInstance resource = createNiceMock(ResourceInstance.class);
+    ResourceDefinition resourceDefinition = createNiceMock(ResourceDefinition.class);
+    Query query = createStrictMock(Query.class);
+
+    Request request = getTestRequest(null, body, uriInfo, compiler, handler, processor, resource);
+
+    //expectations
+    expect(uriInfo.getQueryParameters()).andReturn(queryParams).anyTimes();
+    expect(queryParams.getFirst(QueryLexer.QUERY_MINIMAL)).andReturn(null);
+    expect(queryParams.getFirst(QueryLexer.QUERY_FORMAT)).andReturn(null);
+    expect(queryParams.getFirst(QueryLexer.QUERY_COMPACT)).andReturn("true");
+    expect(resource.getResourceDefinition()).andReturn(resourceDefinition).anyTimes();
+    expect(resourceDefinition.getRenderer(null)).andReturn(new DefaultRenderer());
+    expect(resource.getQuery()).andReturn(query).anyTimes();
+    query.setRequestInfoProps(Collections.singletonMap(BaseRequest.COMPACT_RESOURCES_PROPERTY_KEY, "true"));
+    expect(uriInfo.getRequestUri()).andReturn(uri).anyTimes();
+    expect(handler.handleRequest(request)).andReturn(result);
+    expect(result.getStatus()).andReturn(resultStatus).anyTimes();
+    expect(resultStatus.isErrorState()).andReturn(false).anyTimes();
+    processor.process(result);
+
+    replay(compiler, uriInfo, handler, queryParams, resource, resourceDefinition, result, resultStatus, processor, body, query);
+
+    request.process();
+
+    verify(compiler, uriInfo, handler, queryParams, resource, resourceDefinition, result, resultStatus, processor, body, query);
+  }
+
    protected abstract Request getTestRequest(HttpHeaders headers, RequestBody body, UriInfo uriInfo, PredicateCompiler compiler,
                                              RequestHandler handler, ResultPostProcessor processor, ResourceInstance resource);
 
@@ -23,7 +23,12 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -34,6 +39,7 @@ import org.apache.ambari.server.api.services.Result;
 import org.apache.ambari.server.api.services.ResultImpl;
 import org.apache.ambari.server.api.services.ResultStatus;
 import org.apache.ambari.server.api.util.TreeNode;
+import org.apache.ambari.server.controller.internal.ResourceImpl;
 import org.apache.ambari.server.controller.spi.Resource;
 import org.apache.ambari.server.security.authorization.AuthorizationException;
 import org.junit.Test;
@@ -244,4 +250,83 @@ public class JsonSerializerTest {
     assertEquals(expected, json);
   }
   
+
+  @Test
+  public void testSerializeToStream() throws Exception {
+    Result result = new ResultImpl(true);
+    result.setResultStatus(new ResultStatus(ResultStatus.STATUS.OK));
+    TreeNode<Resource> resourcesNode = result.getResultTree().addChild(null, "items");
+
+    for (int i = 0; i < 100; i++) {
+      Resource resource = new ResourceImpl(Resource.Type.Host);
+      resource.setProperty("Hosts/host_name", "host" + i);
+      resource.setProperty("Hosts/rack_info", "/default-rack");
+      resource.setProperty("metrics/cpu/cpu_user", i * 0.5);
+      TreeNode<Resource> node = resourcesNode.addChild(resource, "host" + i);
+      node.setProperty("href", "http://localhost:8080/api/v1/hosts/host" + i);
+    }
+
+    final boolean[] closed = { false };
+    ByteArrayOutputStream out = new ByteArrayOutputStream() {
+      @Override
+      public void close() {
+        closed[0] = true;
+      }
+    };
+
+    new JsonSerializer().serializeToStream(result).write(out);
+
+    // the container owns the stream, it is flushed but not closed
+    assertFalse(closed[0]);
+    assertEquals(new JsonSerializer().serialize(result), out.toString("UTF-8"));
+  }
+
+  @Test
+  public void testSerializeToStreamFailsBeforeWriting() throws Exception {
+    Result result = createUnserializableResult(1);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try {
+      new JsonSerializer().serializeToStream(result).write(out);
+      fail("Expected the serialization to fail");
+    } catch (IOException | RuntimeException e) {
+      // expected, nothing has been written so an error response can still be sent
+    }
+    assertEquals(0, out.size());
+  }
+
+  @Test
+  public void testSerializeToStreamWritesWhileSerializing() throws Exception {
+    // large enough to exceed the buffer before the unserializable resource is reached
+    Result result = createUnserializableResult(2000);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try {
+      new JsonSerializer().serializeToStream(result).write(out);
+      fail("Expected the serialization to fail");
+    } catch (IOException | RuntimeException e) {
+      // expected, the response is truncated
+    }
+    assertTrue(out.size() >= JsonSerializer.STREAMING_BUFFER_SIZE);
+  }
+
+  private Result createUnserializableResult(int hostCount) {
+    Result result = new ResultImpl(true);
+    result.setResultStatus(new ResultStatus(ResultStatus.STATUS.OK));
+    TreeNode<Resource> resourcesNode = result.getResultTree().addChild(null, "items");
+
+    for (int i = 0; i < hostCount; i++) {
+      Resource resource = new ResourceImpl(Resource.Type.Host);
+      resource.setProperty("Hosts/host_name", "host" + i);
+      resource.setProperty("Hosts/rack_info", "/default-rack");
+      resourcesNode.addChild(resource, "host" + i);
+    }
+
+    Resource resource = new ResourceImpl(Resource.Type.Host);
+    resource.setProperty("Hosts/host_name", "unserializable");
+    // jackson can not serialize a bean without properties
+    resource.setProperty("Hosts/unserializable", new Object());
+    resourcesNode.addChild(resource, "unserializable");
+    return result;
+  }
 }
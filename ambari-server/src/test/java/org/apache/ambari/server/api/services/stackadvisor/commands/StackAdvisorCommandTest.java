@@ -50,6 +50,10 @@ import javax.ws.rs.core.UriInfo;
 import org.apache.ambari.server.api.resources.ResourceInstance;
 import org.apache.ambari.server.api.services.AmbariMetaInfo;
 import org.apache.ambari.server.api.services.Request;
+import org.apache.ambari.server.api.services.Result;
+import org.apache.ambari.server.api.services.ResultImpl;
+import org.apache.ambari.server.api.services.ResultStatus;
+import org.apache.ambari.server.api.services.serializers.JsonSerializer;
 import org.apache.ambari.server.api.services.stackadvisor.StackAdvisorException;
 import org.apache.ambari.server.api.services.stackadvisor.StackAdvisorRequest;
 import org.apache.ambari.server.api.services.stackadvisor.StackAdvisorRequest.StackAdvisorRequestBuilder;
@@ -57,7 +61,10 @@ import org.apache.ambari.server.api.services.stackadvisor.StackAdvisorRequestExc
 import org.apache.ambari.server.api.services.stackadvisor.StackAdvisorResponse;
 import org.apache.ambari.server.api.services.stackadvisor.StackAdvisorRunner;
 import org.apache.ambari.server.api.services.stackadvisor.commands.StackAdvisorCommand.StackAdvisorData;
+import org.apache.ambari.server.audit.request.RequestAuditLogger;
 import org.apache.ambari.server.controller.internal.AmbariServerConfigurationHandler;
+import org.apache.ambari.server.controller.internal.ResourceImpl;
+import org.apache.ambari.server.controller.spi.Resource;
 import org.apache.ambari.server.state.ServiceInfo;
 import org.apache.commons.io.FileUtils;
 import org.codehaus.jackson.JsonNode;
@@ -389,6 +396,27 @@ public class StackAdvisorCommandTest {
     assertEquals(String.format(TWO_HOST_RESPONSE, "hostName1", "hostName2"), secondResponse);
   }
 
+  /**
+   * The hosts and services information is read from the entities of internal
+   * requests, which must stay strings when API responses are streamed.
+   */
+  @Test
+  public void testResponsesAreNotStreamed() throws Exception {
+    TestStackAdvisorCommand command = new TestStackAdvisorCommand(mock(File.class), "1w",
+        ServiceInfo.ServiceAdvisorType.PYTHON, 1, mock(StackAdvisorRunner.class), mock(AmbariMetaInfo.class),
+        new HashMap<>());
+
+    Result result = new ResultImpl(true);
+    result.setResultStatus(new ResultStatus(ResultStatus.STATUS.OK));
+    Resource resource = new ResourceImpl(Resource.Type.Host);
+    resource.setProperty("Hosts/host_name", "hostName1");
+    result.getResultTree().addChild(null, "items").addChild(resource, "hostName1");
+
+    Object entity = command.createResponseEntity(result, true);
+    assertTrue(entity instanceof String);
+    assertEquals(new JsonSerializer().serialize(result), entity);
+  }
+
   private static String jsonString(Object obj) throws IOException {
     return new ObjectMapper().writeValueAsString(obj);
   }
@@ -441,6 +469,19 @@ public class StackAdvisorCommandTest {
       return response;
     }
 
+    /**
+     * Serializes the result as the response of an internal request would be.
+     */
+    public Object createResponseEntity(Result result, boolean streamingEnabled) {
+      RequestAuditLogger auditLogger = requestAuditLogger;
+      init(auditLogger, streamingEnabled);
+      try {
+        return createResponseEntity(new JsonSerializer(), result, null);
+      } finally {
+        init(auditLogger, false);
+      }
+    }
+
     // Overridden to ensure visiblity in tests
     @Override
     public javax.ws.rs.core.Response handleRequest(HttpHeaders headers, String body,
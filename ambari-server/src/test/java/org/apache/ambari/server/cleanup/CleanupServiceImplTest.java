@@ -26,6 +26,7 @@ import static org.easymock.EasyMock.reset;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.apache.ambari.server.metrics.system.impl.ServerComponentsMetricsSource;
 import org.apache.ambari.server.orm.dao.Cleanable;
 import org.easymock.Capture;
 import org.easymock.EasyMockRule;
@@ -34,6 +35,8 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import com.codahale.metrics.MetricRegistry;
+
 import junit.framework.Assert;
 
 
@@ -88,6 +91,9 @@ public class CleanupServiceImplTest {
 
     replay(cleanableDao);
     cleanupServiceImpl = new CleanupServiceImpl(cleanables);
+    MetricRegistry registry = ServerComponentsMetricsSource.getRegistry();
+    long rowsBefore = registry.counter(CleanupServiceImpl.ROWS_METRIC).getCount();
+    long runsBefore = registry.timer(CleanupServiceImpl.DURATION_METRIC).getCount();
 
     // WHEN
     CleanupService.CleanupResult res = cleanupServiceImpl.cleanup(cleanupPolicy);
@@ -95,6 +101,13 @@ public class CleanupServiceImplTest {
     // THEN
     Assert.assertEquals("The affected rows count is wrong", 2L, res.getAffectedRows());
     Assert.assertEquals("The error count is wrong", 0L, res.getErrorCount());
+    Assert.assertTrue("The duration is wrong", res.getDurationMillis() >= 0);
+    Assert.assertEquals("The rows metric is wrong", rowsBefore + 2L,
+        registry.counter(CleanupServiceImpl.ROWS_METRIC).getCount());
+    Assert.assertEquals("The duration metric is wrong", runsBefore + 1L,
+        registry.timer(CleanupServiceImpl.DURATION_METRIC).getCount());
+    Assert.assertTrue("The throughput metric is missing",
+        registry.getGauges().containsKey(CleanupServiceImpl.THROUGHPUT_METRIC));
   }
 
   @Test
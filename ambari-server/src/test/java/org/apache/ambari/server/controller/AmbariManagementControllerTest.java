@@ -4532,7 +4532,7 @@ public class AmbariManagementControllerTest {
 
     Gson gson = new Gson();
     ExecutionCommand executionCommand = gson.fromJson(new StringReader(
-        new String(commandEntity.getCommand())), ExecutionCommand.class);
+        commandEntity.getCommandJson()), ExecutionCommand.class);
 
     assertTrue(executionCommand.getConfigurations() == null || executionCommand.getConfigurations().isEmpty());
 
@@ -601,8 +601,8 @@ public class CalculatedStatusTest {
     expect(summary1.isStageSkippable()).andReturn(true).anyTimes();
     expect(summary2.isStageSkippable()).andReturn(true).anyTimes();
 
-    expect(summary1.getTaskStatuses()).andReturn(taskStatuses1).anyTimes();
-    expect(summary2.getTaskStatuses()).andReturn(taskStatuses2).anyTimes();
+    expect(summary1.getCounts()).andReturn(getCounts(taskStatuses1)).anyTimes();
+    expect(summary2.getCounts()).andReturn(getCounts(taskStatuses2)).anyTimes();
 
     replay(summary1, summary2);
 
@@ -654,8 +654,8 @@ public class CalculatedStatusTest {
     expect(summary1.isStageSkippable()).andReturn(true).anyTimes();
     expect(summary2.isStageSkippable()).andReturn(true).anyTimes();
 
-    expect(summary1.getTaskStatuses()).andReturn(taskStatuses1).anyTimes();
-    expect(summary2.getTaskStatuses()).andReturn(taskStatuses2).anyTimes();
+    expect(summary1.getCounts()).andReturn(getCounts(taskStatuses1)).anyTimes();
+    expect(summary2.getCounts()).andReturn(getCounts(taskStatuses2)).anyTimes();
 
     replay(summary1, summary2);
 
@@ -696,6 +696,14 @@ public class CalculatedStatusTest {
     assertEquals(HostRoleStatus.COMPLETED, hostRoleDisplayStatus);
   }
 
+  private Map<HostRoleStatus, Integer> getCounts(Collection<HostRoleStatus> statuses) {
+    Map<HostRoleStatus, Integer> counts = new HashMap<>();
+    for (HostRoleStatus status : statuses) {
+      counts.merge(status, 1, Integer::sum);
+    }
+    return counts;
+  }
+
   private Collection<HostRoleCommandEntity> getTaskEntities(HostRoleStatus... statuses) {
     Collection<HostRoleCommandEntity> entities = new LinkedList<>();
 
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.ambari.server.configuration.Configuration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link ClientConfigArchiveCache}.
+ */
+public class ClientConfigArchiveCacheTest {
+
+  private static final String ARCHIVE_NAME = "PIG-configs" + Configuration.DEF_ARCHIVE_EXTENSION;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testKey() throws Exception {
+    String packageFolder = temporaryFolder.newFolder("package").getAbsolutePath();
+    String key = ClientConfigArchiveCache.getKey("/scripts/pig_client.py", packageFolder, "{\"a\":\"1\"}");
+
+    assertEquals(key, ClientConfigArchiveCache.getKey("/scripts/pig_client.py", packageFolder, "{\"a\":\"1\"}"));
+    assertNotEquals(key, ClientConfigArchiveCache.getKey("/scripts/pig_client.py", packageFolder, "{\"a\":\"2\"}"));
+    assertNotEquals(key, ClientConfigArchiveCache.getKey("/scripts/hive_client.py", packageFolder, "{\"a\":\"1\"}"));
+  }
+
+  @Test
+  public void testKeyChangesWithPackageFolder() throws Exception {
+    File packageFolder = temporaryFolder.newFolder("package");
+    File templates = new File(packageFolder, "templates");
+    assertTrue(templates.mkdir());
+    File template = new File(templates, "pig-env.sh.j2");
+    Files.write(template.toPath(), "export PIG_HOME={{pig_home}}".getBytes(StandardCharsets.UTF_8));
+    template.setLastModified(1000L);
+
+    String key = ClientConfigArchiveCache.getKey("/scripts/pig_client.py", packageFolder.getAbsolutePath(), "{}");
+    assertEquals(key, ClientConfigArchiveCache.getKey("/scripts/pig_client.py", packageFolder.getAbsolutePath(), "{}"));
+
+    // a replaced template
+    Files.write(template.toPath(), "export PIG_HOME={{pig_home}}/".getBytes(StandardCharsets.UTF_8));
+    template.setLastModified(2000L);
+    String changedKey = ClientConfigArchiveCache.getKey("/scripts/pig_client.py", packageFolder.getAbsolutePath(), "{}");
+    assertNotEquals(key, changedKey);
+
+    // a new script
+    Files.write(new File(packageFolder, "params.py").toPath(), "pig_home = '/usr'".getBytes(StandardCharsets.UTF_8));
+    assertNotEquals(changedKey, ClientConfigArchiveCache.getKey("/scripts/pig_client.py", packageFolder.getAbsolutePath(), "{}"));
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    File tmpDir = temporaryFolder.getRoot();
+    Files.write(new File(tmpDir, ARCHIVE_NAME).toPath(), "generated".getBytes(StandardCharsets.UTF_8));
+
+    ClientConfigArchiveCache cache = new ClientConfigArchiveCache(tmpDir.getAbsolutePath(), 10);
+    cache.store("key", ARCHIVE_NAME);
+
+    ClientConfigArchiveCache.clear(tmpDir.getAbsolutePath());
+
+    assertFalse(cache.restore("key", ARCHIVE_NAME));
+    assertFalse(new File(tmpDir, ClientConfigArchiveCache.CACHE_DIRECTORY_NAME).exists());
+  }
+
+  @Test
+  public void testStoreAndRestore() throws Exception {
+    File tmpDir = temporaryFolder.getRoot();
+    File archive = new File(tmpDir, ARCHIVE_NAME);
+    Files.write(archive.toPath(), "generated".getBytes(StandardCharsets.UTF_8));
+
+    ClientConfigArchiveCache cache = new ClientConfigArchiveCache(tmpDir.getAbsolutePath(), 10);
+    assertFalse(cache.restore("key", ARCHIVE_NAME));
+
+    cache.store("key", ARCHIVE_NAME);
+    assertTrue(archive.delete());
+
+    assertTrue(cache.restore("key", ARCHIVE_NAME));
+    assertEquals("generated", new String(Files.readAllBytes(archive.toPath()), StandardCharsets.UTF_8));
+    assertFalse(cache.restore("other-key", ARCHIVE_NAME));
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    File tmpDir = temporaryFolder.getRoot();
+    File archive = new File(tmpDir, ARCHIVE_NAME);
+    Files.write(archive.toPath(), "generated".getBytes(StandardCharsets.UTF_8));
+
+    ClientConfigArchiveCache cache = new ClientConfigArchiveCache(tmpDir.getAbsolutePath(), 2);
+    cache.store("key1", ARCHIVE_NAME);
+    cache.store("key2", ARCHIVE_NAME);
+
+    // make key1 the least recently used
+    File cacheDir = new File(tmpDir, ClientConfigArchiveCache.CACHE_DIRECTORY_NAME);
+    new File(cacheDir, "key1" + Configuration.DEF_ARCHIVE_EXTENSION).setLastModified(0L);
+
+    cache.store("key3", ARCHIVE_NAME);
+
+    assertFalse(cache.restore("key1", ARCHIVE_NAME));
+    assertTrue(cache.restore("key2", ARCHIVE_NAME));
+    assertTrue(cache.restore("key3", ARCHIVE_NAME));
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    File tmpDir = temporaryFolder.getRoot();
+    Files.write(new File(tmpDir, ARCHIVE_NAME).toPath(), "generated".getBytes(StandardCharsets.UTF_8));
+
+    ClientConfigArchiveCache cache = new ClientConfigArchiveCache(tmpDir.getAbsolutePath(), 0);
+    cache.store("key", ARCHIVE_NAME);
+
+    assertFalse(cache.isEnabled());
+    assertFalse(cache.restore("key", ARCHIVE_NAME));
+    assertFalse(new File(tmpDir, ClientConfigArchiveCache.CACHE_DIRECTORY_NAME).exists());
+  }
+}
@@ -353,6 +353,7 @@ public class ClientConfigResourceProviderTest {
     expect(configHelper.getEffectiveConfigProperties(cluster, configTags)).andReturn(properties);
     expect(configHelper.getEffectiveConfigAttributes(cluster, configTags)).andReturn(attributes);
     expect(configuration.getConfigsMap()).andReturn(returnConfigMap);
+    expect(configuration.getClientConfigsCacheSize()).andReturn(0);
     expect(configuration.getResourceDirPath()).andReturn(stackRoot);
     expect(configuration.getExternalScriptThreadPoolSize()).andReturn(Configuration.THREAD_POOL_SIZE_FOR_EXTERNAL_SCRIPT.getDefaultValue());
     expect(configuration.getExternalScriptTimeout()).andReturn(Configuration.EXTERNAL_SCRIPT_TIMEOUT.getDefaultValue());
@@ -578,6 +579,7 @@ public class ClientConfigResourceProviderTest {
     expect(configHelper.getEffectiveConfigProperties(cluster, configTags)).andReturn(properties);
     expect(configHelper.getEffectiveConfigAttributes(cluster, configTags)).andReturn(attributes);
     expect(configuration.getConfigsMap()).andReturn(returnConfigMap);
+    expect(configuration.getClientConfigsCacheSize()).andReturn(0);
     expect(configuration.getResourceDirPath()).andReturn("/var/lib/ambari-server/src/main/resources");
     expect(configuration.getExternalScriptThreadPoolSize()).andReturn(Configuration.THREAD_POOL_SIZE_FOR_EXTERNAL_SCRIPT.getDefaultValue());
     expect(configuration.getExternalScriptTimeout()).andReturn(Configuration.EXTERNAL_SCRIPT_TIMEOUT.getDefaultValue());
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.ambari.server.api.services.BaseRequest;
+import org.apache.ambari.server.controller.predicate.EqualsPredicate;
+import org.apache.ambari.server.controller.predicate.GreaterPredicate;
+import org.apache.ambari.server.controller.spi.Request;
+import org.apache.ambari.server.controller.spi.Resource;
+import org.apache.ambari.server.controller.utilities.PropertyHelper;
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+/**
+ * Tests the {@link CompactResourceImpl}.
+ */
+public class CompactResourceImplTest {
+
+  @Test
+  public void testSetGetProperty() {
+    Resource resource = new CompactResourceImpl(Resource.Type.HostComponent);
+
+    String propertyId = PropertyHelper.getPropertyId("HostRoles", "state");
+    resource.setProperty(propertyId, "STARTED");
+    Assert.assertEquals("STARTED", resource.getPropertyValue(propertyId));
+
+    resource.setProperty(propertyId, "INSTALLED");
+    Assert.assertEquals("INSTALLED", resource.getPropertyValue(propertyId));
+
+    resource.setProperty(propertyId, null);
+    Assert.assertNull(resource.getPropertyValue(propertyId));
+    Assert.assertTrue(resource.getPropertiesMap().get("HostRoles").containsKey("state"));
+
+    Assert.assertNull(resource.getPropertyValue("HostRoles/unknown"));
+    Assert.assertNull(resource.getPropertyValue("unknown/state"));
+  }
+
+  @Test
+  public void testPropertiesMapMatchesResourceImpl() {
+    Resource compact = new CompactResourceImpl(Resource.Type.HostComponent);
+    Resource resource = new ResourceImpl(Resource.Type.HostComponent);
+
+    for (Resource r : new Resource[]{compact, resource}) {
+      r.setProperty("metrics/cpu/cpu_user", 1.5);
+      r.setProperty("HostRoles/state", "STARTED");
+      r.setProperty("HostRoles/host_name", "h1");
+      r.setProperty("metrics/jvm/memHeapUsedM", 512);
+      r.setProperty("name", "value");
+      r.addCategory("empty");
+      r.addCategory("HostRoles");
+    }
+
+    Assert.assertEquals(resource.getPropertiesMap(), compact.getPropertiesMap());
+    Assert.assertEquals(resource.getPropertiesMap().toString(), compact.getPropertiesMap().toString());
+    Assert.assertEquals(resource.getPropertiesMap().hashCode(), compact.getPropertiesMap().hashCode());
+    Assert.assertEquals(1.5, compact.getPropertyValue("metrics/cpu/cpu_user"));
+    Assert.assertEquals("value", compact.getPropertyValue("name"));
+  }
+
+  @Test
+  public void testModifyPropertiesMap() {
+    Resource resource = new CompactResourceImpl(Resource.Type.Host);
+    resource.setProperty("Hosts/host_name", "h1");
+    resource.setProperty("Hosts/cpu_count", 4);
+    resource.setProperty("metrics/load/load_one", 0.5);
+
+    Map<String, Map<String, Object>> properties = resource.getPropertiesMap();
+
+    // remove properties the way the minimal renderer does
+    Iterator<String> names = properties.get("Hosts").keySet().iterator();
+    while (names.hasNext()) {
+      if (!names.next().equals("host_name")) {
+        names.remove();
+      }
+    }
+    Iterator<Map.Entry<String, Map<String, Object>>> categories = properties.entrySet().iterator();
+    while (categories.hasNext()) {
+      if (categories.next().getKey().equals("metrics")) {
+        categories.remove();
+      }
+    }
+
+    Assert.assertEquals("h1", resource.getPropertyValue("Hosts/host_name"));
+    Assert.assertNull(resource.getPropertyValue("Hosts/cpu_count"));
+    Assert.assertNull(resource.getPropertyValue("metrics/load/load_one"));
+    Assert.assertEquals(1, resource.getPropertiesMap().size());
+
+    properties.get("Hosts").put("rack_info", "/default-rack");
+    Assert.assertEquals("/default-rack", resource.getPropertyValue("Hosts/rack_info"));
+  }
+
+  @Test
+  public void testManyHosts() {
+    // a synthetic cluster with the same properties on every host
+    for (int i = 0; i < 5000; i++) {
+      Resource compact = new CompactResourceImpl(Resource.Type.Host);
+      Resource resource = new ResourceImpl(Resource.Type.Host);
+      for (Resource r : new Resource[]{compact, resource}) {
+        r.setProperty("Hosts/host_name", "host" + i);
+        r.setProperty("Hosts/cpu_count", i % 16);
+        r.setProperty("metrics/disk/disk_free", i * 1.5);
+        r.setProperty("metrics/cpu/cpu_idle", (double) i);
+      }
+      Assert.assertEquals(resource.getPropertiesMap(), compact.getPropertiesMap());
+      Assert.assertEquals("host" + i, compact.getPropertyValue("Hosts/host_name"));
+    }
+  }
+
+  @Test
+  public void testViewsReflectChanges() {
+    Resource resource = new CompactResourceImpl(Resource.Type.Host);
+    resource.setProperty("Hosts/host_name", "h1");
+    Map<String, Map<String, Object>> properties = resource.getPropertiesMap();
+    Map<String, Object> hosts = properties.get("Hosts");
+    Assert.assertEquals("[Hosts]", properties.keySet().toString());
+    Assert.assertEquals("[host_name]", hosts.keySet().toString());
+
+    resource.setProperty("Hosts/cpu_count", 4);
+    resource.setProperty("metrics/cpu/cpu_idle", 1.0);
+    Assert.assertEquals("[Hosts, metrics/cpu]", properties.keySet().toString());
+    Assert.assertEquals("[cpu_count, host_name]", hosts.keySet().toString());
+
+    hosts.remove("cpu_count");
+    properties.get("metrics/cpu").remove("cpu_idle");
+    Assert.assertEquals("[Hosts, metrics/cpu]", properties.keySet().toString());
+    Assert.assertEquals("[host_name]", hosts.keySet().toString());
+    Assert.assertTrue(properties.get("metrics/cpu").isEmpty());
+  }
+
+  @Test
+  public void testCreateReadResource() {
+    Map<String, String> requestInfoProperties = new HashMap<>();
+    Request request = PropertyHelper.getReadRequest(Collections.<String>emptySet(), requestInfoProperties, null, null, null);
+
+    CompactResourceImpl.setEnabled(false);
+    try {
+      Assert.assertTrue(CompactResourceImpl.createReadResource(Resource.Type.Host, null) instanceof ResourceImpl);
+      Assert.assertTrue(CompactResourceImpl.createReadResource(Resource.Type.Host, request) instanceof ResourceImpl);
+
+      requestInfoProperties.put(BaseRequest.COMPACT_RESOURCES_PROPERTY_KEY, "true");
+      request = PropertyHelper.getReadRequest(Collections.<String>emptySet(), requestInfoProperties, null, null, null);
+      Assert.assertTrue(CompactResourceImpl.createReadResource(Resource.Type.Host, request) instanceof CompactResourceImpl);
+
+      CompactResourceImpl.setEnabled(true);
+      Assert.assertTrue(CompactResourceImpl.createReadResource(Resource.Type.Host, null) instanceof CompactResourceImpl);
+
+      requestInfoProperties.put(BaseRequest.COMPACT_RESOURCES_PROPERTY_KEY, "false");
+      request = PropertyHelper.getReadRequest(Collections.<String>emptySet(), requestInfoProperties, null, null, null);
+      Assert.assertTrue(CompactResourceImpl.createReadResource(Resource.Type.Host, request) instanceof ResourceImpl);
+    } finally {
+      CompactResourceImpl.setEnabled(false);
+    }
+  }
+
+  @Test
+  public void testPropertyPredicate() {
+    Resource resource = new CompactResourceImpl(Resource.Type.Host);
+    resource.setProperty("Hosts/host_name", "h1");
+    resource.setProperty("metrics/cpu/cpu_idle", 10.0);
+
+    Assert.assertEquals("h1", resource.getPropertyValue("Hosts", "host_name"));
+    Assert.assertNull(resource.getPropertyValue("Hosts", "rack_info"));
+    Assert.assertTrue(new EqualsPredicate<>("Hosts/host_name", "h1").evaluate(resource));
+    Assert.assertFalse(new EqualsPredicate<>("Hosts/host_name", "h2").evaluate(resource));
+    Assert.assertTrue(new GreaterPredicate<>("metrics/cpu/cpu_idle", 5.0).evaluate(resource));
+  }
+
+  @Test
+  public void testEquals() {
+    Resource resource1 = new CompactResourceImpl(Resource.Type.Host);
+    Resource resource2 = new CompactResourceImpl(Resource.Type.Host);
+    resource1.setProperty("Hosts/host_name", "h1");
+    resource2.setProperty("Hosts/host_name", "h1");
+
+    Assert.assertEquals(resource1, resource2);
+    Assert.assertEquals(resource1.hashCode(), resource2.hashCode());
+
+    resource2.setProperty("Hosts/host_name", "h2");
+    Assert.assertFalse(resource1.equals(resource2));
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.internal;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.newCapture;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.same;
+import static org.easymock.EasyMock.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ambari.server.controller.AmbariManagementController;
+import org.apache.ambari.server.controller.ServiceConfigVersionResponse;
+import org.apache.ambari.server.controller.spi.PageRequest;
+import org.apache.ambari.server.controller.spi.Predicate;
+import org.apache.ambari.server.controller.spi.QueryResponse;
+import org.apache.ambari.server.controller.spi.Request;
+import org.apache.ambari.server.controller.spi.Resource;
+import org.apache.ambari.server.controller.spi.SortRequest;
+import org.apache.ambari.server.controller.spi.SortRequestProperty;
+import org.apache.ambari.server.controller.utilities.PredicateBuilder;
+import org.apache.ambari.server.controller.utilities.PropertyHelper;
+import org.apache.ambari.server.orm.dao.ServiceConfigDAO;
+import org.apache.ambari.server.orm.entities.ServiceConfigEntity;
+import org.apache.ambari.server.security.TestAuthenticationFactory;
+import org.apache.ambari.server.state.Cluster;
+import org.apache.ambari.server.state.Clusters;
+import org.easymock.Capture;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.google.inject.Guice;
+
+/**
+ * Tests {@link ServiceConfigVersionResourceProvider}.
+ */
+public class ServiceConfigVersionResourceProviderTest {
+
+  private ServiceConfigDAO serviceConfigDAO;
+
+  @Before
+  public void setup() {
+    serviceConfigDAO = createNiceMock(ServiceConfigDAO.class);
+    Guice.createInjector(binder -> {
+      binder.bind(ServiceConfigDAO.class).toInstance(serviceConfigDAO);
+      binder.requestStaticInjection(ServiceConfigVersionResourceProvider.class);
+    });
+
+    SecurityContextHolder.getContext().setAuthentication(TestAuthenticationFactory.createAdministrator());
+  }
+
+  @After
+  public void tearDown() {
+    SecurityContextHolder.getContext().setAuthentication(null);
+  }
+
+  /**
+   * Tests that a paged request filtering by stored properties is paged and
+   * counted by the database, and that only the returned page is converted.
+   */
+  @Test
+  public void testQueryForResourcesPushedDown() throws Exception {
+    List<ServiceConfigEntity> entities = Arrays.asList(new ServiceConfigEntity(), new ServiceConfigEntity());
+
+    Cluster cluster = createNiceMock(Cluster.class);
+    expect(cluster.getClusterId()).andReturn(1L).anyTimes();
+    expect(cluster.getServiceConfigVersions(entities)).andReturn(
+        Arrays.asList(createResponse("HDFS", 2L), createResponse("HDFS", 1L))).once();
+
+    Clusters clusters = createNiceMock(Clusters.class);
+    expect(clusters.getCluster("c1")).andReturn(cluster).anyTimes();
+
+    AmbariManagementController managementController = createNiceMock(AmbariManagementController.class);
+    expect(managementController.getClusters()).andReturn(clusters).anyTimes();
+
+    PageRequest pageRequest = new PageRequestImpl(PageRequest.StartingPoint.OffsetStart, 2, 2, null, null);
+    SortRequest sortRequest = new SortRequestImpl(Collections.singletonList(
+        new SortRequestProperty(ServiceConfigVersionResourceProvider.SERVICE_CONFIG_VERSION_PROPERTY_ID,
+            SortRequest.Order.DESC)));
+    Request request = PropertyHelper.getReadRequest(Collections.emptySet(), null, null, pageRequest, sortRequest);
+    Predicate predicate = new PredicateBuilder()
+        .property(ServiceConfigVersionResourceProvider.CLUSTER_NAME_PROPERTY_ID).equals("c1").and()
+        .property(ServiceConfigVersionResourceProvider.SERVICE_NAME_PROPERTY_ID).equals("HDFS").toPredicate();
+
+    Capture<SortRequest> sortCapture = newCapture();
+    expect(serviceConfigDAO.findAll(eq(1L), capture(sortCapture), same(pageRequest), anyObject(Predicate.class)))
+        .andReturn(entities).once();
+    expect(serviceConfigDAO.getCount(eq(1L), anyObject(Predicate.class))).andReturn(5).once();
+
+    replay(serviceConfigDAO, cluster, clusters, managementController);
+
+    ServiceConfigVersionResourceProvider provider = new ServiceConfigVersionResourceProvider(managementController);
+    QueryResponse response = provider.queryForResources(request, predicate);
+
+    Assert.assertTrue(response.isPagedResponse());
+    Assert.assertTrue(response.isSortedResponse());
+    Assert.assertEquals(5, response.getTotalResourceCount());
+
+    List<Object> versions = new ArrayList<>();
+    for (Resource resource : response.getResources()) {
+      versions.add(resource.getPropertyValue(ServiceConfigVersionResourceProvider.SERVICE_CONFIG_VERSION_PROPERTY_ID));
+    }
+    Assert.assertEquals(Arrays.asList(2L, 1L), versions);
+
+    // the requested sort comes first, followed by the key properties the cluster controller sorts by
+    List<SortRequestProperty> sortProperties = sortCapture.getValue().getProperties();
+    Assert.assertEquals(ServiceConfigVersionResourceProvider.SERVICE_CONFIG_VERSION_PROPERTY_ID,
+        sortProperties.get(0).getPropertyId());
+    Assert.assertEquals(SortRequest.Order.DESC, sortProperties.get(0).getOrder());
+
+    List<String> keyPropertyIds = new ArrayList<>();
+    for (String keyPropertyId : provider.getKeyPropertyIds().values()) {
+      if (!ServiceConfigVersionResourceProvider.SERVICE_CONFIG_VERSION_PROPERTY_ID.equals(keyPropertyId)) {
+        keyPropertyIds.add(keyPropertyId);
+      }
+    }
+    Assert.assertEquals(keyPropertyIds.size() + 1, sortProperties.size());
+    for (int i = 0; i < keyPropertyIds.size(); i++) {
+      Assert.assertEquals(keyPropertyIds.get(i), sortProperties.get(i + 1).getPropertyId());
+      Assert.assertEquals(SortRequest.Order.ASC, sortProperties.get(i + 1).getOrder());
+    }
+
+    verify(serviceConfigDAO, cluster);
+  }
+
+  /**
+   * Tests that requests which are not paged are not sent to the database.
+   */
+  @Test
+  public void testQueryForResourcesNotPaged() throws Exception {
+    AmbariManagementController managementController = createNiceMock(AmbariManagementController.class);
+    expect(managementController.getServiceConfigVersions(anyObject())).andReturn(Collections.emptySet()).once();
+    replay(serviceConfigDAO, managementController);
+
+    Predicate predicate = new PredicateBuilder()
+        .property(ServiceConfigVersionResourceProvider.CLUSTER_NAME_PROPERTY_ID).equals("c1").toPredicate();
+
+    ServiceConfigVersionResourceProvider provider = new ServiceConfigVersionResourceProvider(managementController);
+    QueryResponse response = provider.queryForResources(PropertyHelper.getReadRequest(), predicate);
+
+    Assert.assertFalse(response.isPagedResponse());
+    verify(serviceConfigDAO, managementController);
+  }
+
+  private ServiceConfigVersionResponse createResponse(String serviceName, Long version) {
+    ServiceConfigVersionResponse response = createNiceMock(ServiceConfigVersionResponse.class);
+    expect(response.getClusterName()).andReturn("c1").anyTimes();
+    expect(response.getServiceName()).andReturn(serviceName).anyTimes();
+    expect(response.getVersion()).andReturn(version).anyTimes();
+    expect(response.getConfigurations()).andReturn(Collections.emptyList()).anyTimes();
+    replay(response);
+    return response;
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.metrics.timeline.cache;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+
+import java.util.Collections;
+import java.util.TreeMap;
+
+import org.apache.ambari.server.controller.internal.TemporalInfoImpl;
+import org.apache.hadoop.metrics2.sink.timeline.TimelineMetric;
+import org.apache.hadoop.metrics2.sink.timeline.TimelineMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link OffHeapTimelineMetricCache} and the encoding of its values
+ * by {@link OffHeapTimelineMetricSeries}.
+ */
+public class OffHeapTimelineMetricCacheTest {
+
+  @Test
+  public void testSeriesMergeAndRetain() {
+    long now = System.currentTimeMillis();
+    TreeMap<Long, Double> values = new TreeMap<>();
+    values.put(now, 1.0);
+    values.put(now + 100, 2.0);
+    values.put(now + 200, 3.0);
+
+    OffHeapTimelineMetricSeries series = new OffHeapTimelineMetricSeries(createMetric("cpu_user", values));
+    Assert.assertEquals(values, series.toTimelineMetric().getMetricValues());
+
+    // newer values are appended
+    TreeMap<Long, Double> newValues = new TreeMap<>();
+    newValues.put(now + 300, 4.0);
+    newValues.put(now + 100000, 5.0);
+    series.merge(newValues);
+    values.putAll(newValues);
+    Assert.assertEquals(values, series.toTimelineMetric().getMetricValues());
+
+    // overlapping values replace the stored ones
+    newValues = new TreeMap<>();
+    newValues.put(now + 150, 6.0);
+    newValues.put(now + 200, 7.0);
+    series.merge(newValues);
+    values.putAll(newValues);
+    Assert.assertEquals(values, series.toTimelineMetric().getMetricValues());
+    Assert.assertEquals(6, series.size());
+
+    series.retain(now + 100, now + 300);
+    Assert.assertEquals(values.subMap(now + 100, true, now + 300, true),
+      series.toTimelineMetric().getMetricValues());
+    Assert.assertEquals(4, series.size());
+
+    // appending after the window was moved still decodes correctly
+    newValues = new TreeMap<>();
+    newValues.put(now + 400, 8.0);
+    series.merge(newValues);
+    Assert.assertEquals(Double.valueOf(8.0), series.toTimelineMetric().getMetricValues().get(now + 400));
+    Assert.assertEquals(Double.valueOf(2.0), series.toTimelineMetric().getMetricValues().firstEntry().getValue());
+
+    series.clear();
+    Assert.assertEquals(0, series.size());
+    Assert.assertTrue(series.toTimelineMetric().getMetricValues().isEmpty());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEviction() throws Exception {
+    long now = System.currentTimeMillis();
+    TimelineAppMetricCacheKey key1 = createKey("app1", now);
+    TimelineAppMetricCacheKey key2 = createKey("app2", now);
+
+    TimelineMetricCacheEntryFactory cacheEntryFactory = createMock(TimelineMetricCacheEntryFactory.class);
+    expect(cacheEntryFactory.createEntry(key1)).andReturn(createValue("app1", now)).times(2);
+    expect(cacheEntryFactory.createEntry(key2)).andReturn(createValue("app2", now)).once();
+    replay(cacheEntryFactory);
+
+    // room for a single entry
+    OffHeapTimelineMetricCache cache = new OffHeapTimelineMetricCache(cacheEntryFactory, 100, 3600, 1800);
+
+    TimelineMetrics metrics = cache.getAppTimelineMetricsFromCache(key1);
+    Assert.assertEquals(1, metrics.getMetrics().size());
+    Assert.assertEquals(1, cache.size());
+    long sizeInBytes = cache.getSizeInBytes();
+    Assert.assertTrue(sizeInBytes > 0);
+
+    cache.getAppTimelineMetricsFromCache(key2);
+    Assert.assertEquals(1, cache.size());
+    Assert.assertEquals(sizeInBytes, cache.getSizeInBytes());
+
+    // the first entry was evicted and is fetched again
+    cache.getAppTimelineMetricsFromCache(key1);
+    Assert.assertEquals(1, cache.size());
+
+    verify(cacheEntryFactory);
+  }
+
+  private static TimelineAppMetricCacheKey createKey(String appId, long now) {
+    return new TimelineAppMetricCacheKey(Collections.singleton("cpu_user"), appId,
+      new TemporalInfoImpl(now, now + 1000, 1));
+  }
+
+  private static TimelineMetricsCacheValue createValue(String appId, long now) {
+    TreeMap<Long, Double> values = new TreeMap<>();
+    values.put(now + 100, 1.0);
+    values.put(now + 200, 2.0);
+
+    TimelineMetric metric = createMetric("cpu_user", values);
+    metric.setAppId(appId);
+
+    TimelineMetrics metrics = new TimelineMetrics();
+    metrics.getMetrics().add(metric);
+    return new TimelineMetricsCacheValue(now, now + 1000, metrics, null);
+  }
+
+  private static TimelineMetric createMetric(String name, TreeMap<Long, Double> values) {
+    TimelineMetric metric = new TimelineMetric();
+    metric.setMetricName(name);
+    metric.setAppId("app1");
+    metric.setMetricValues(new TreeMap<>(values));
+    return metric;
+  }
+}
@@ -165,5 +165,12 @@ public class MockEventListener {
     }
 
     events.add(event);
+
+    // also capture the events of a batch individually
+    if (event instanceof AlertStateChangeBatchEvent) {
+      for (AlertEvent batchedEvent : ((AlertStateChangeBatchEvent) event).getEvents()) {
+        onAlertEvent(batchedEvent);
+      }
+    }
   }
 }
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.events.publishers;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ambari.server.configuration.Configuration;
+import org.apache.ambari.server.events.HostComponentUpdate;
+import org.apache.ambari.server.events.HostComponentsUpdateEvent;
+import org.apache.ambari.server.state.MaintenanceState;
+import org.junit.Test;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * {@link BufferedUpdateEventPublisher} tests.
+ */
+public class BufferedUpdateEventPublisherTest {
+
+  @Test
+  public void testIdlePublisherPostsImmediately() throws Exception {
+    HostComponentUpdateEventPublisher publisher = createPublisher(100, 60000L);
+    EventBus eventBus = new EventBus();
+    Listener listener = new Listener();
+    eventBus.register(listener);
+
+    publisher.publish(createEvent("host1", MaintenanceState.ON), eventBus);
+
+    HostComponentsUpdateEvent posted = listener.events.poll(5, TimeUnit.SECONDS);
+    assertEquals(1, posted.getHostComponentUpdates().size());
+  }
+
+  @Test
+  public void testBatchSizeTriggersFlush() throws Exception {
+    HostComponentUpdateEventPublisher publisher = createPublisher(3, 60000L);
+    EventBus eventBus = new EventBus();
+    Listener listener = new Listener();
+    eventBus.register(listener);
+
+    // the first update is posted immediately, the following ones wait for the batch
+    publisher.publish(createEvent("host0", MaintenanceState.ON), eventBus);
+    assertEquals(1, listener.events.poll(5, TimeUnit.SECONDS).getHostComponentUpdates().size());
+
+    publisher.publish(createEvent("host1", MaintenanceState.ON), eventBus);
+    publisher.publish(createEvent("host2", MaintenanceState.ON), eventBus);
+    assertTrue(listener.events.poll(200, TimeUnit.MILLISECONDS) == null);
+
+    publisher.publish(createEvent("host3", MaintenanceState.ON), eventBus);
+    List<HostComponentUpdate> updates = new ArrayList<>();
+    HostComponentsUpdateEvent posted;
+    while (updates.size() < 3 && (posted = listener.events.poll(5, TimeUnit.SECONDS)) != null) {
+      updates.addAll(posted.getHostComponentUpdates());
+    }
+    assertEquals(3, updates.size());
+  }
+
+  @Test
+  public void testLargeBufferIsNotFlushedByPublishingThread() throws Exception {
+    HostComponentUpdateEventPublisher publisher = createPublisher(1, 60000L);
+    EventBus eventBus = new EventBus();
+    Listener listener = new Listener();
+    eventBus.register(listener);
+
+    // far more updates than the batch size, which used to make the publishing thread flush
+    for (int i = 0; i < 50; i++) {
+      publisher.publish(createEvent("host" + i, MaintenanceState.ON), eventBus);
+    }
+
+    int updates = 0;
+    HostComponentsUpdateEvent posted;
+    while (updates < 50 && (posted = listener.events.poll(5, TimeUnit.SECONDS)) != null) {
+      updates += posted.getHostComponentUpdates().size();
+    }
+    assertEquals(50, updates);
+    assertFalse(listener.threads.contains(Thread.currentThread().getName()));
+  }
+
+  @Test
+  public void testUpdatesOfSameComponentAreCoalesced() {
+    HostComponentUpdateEventPublisher publisher = createPublisher(100, 60000L);
+    EventBus eventBus = new EventBus();
+    Listener listener = new Listener();
+    eventBus.register(listener);
+
+    List<HostComponentsUpdateEvent> events = new ArrayList<>();
+    events.add(createEvent("host1", MaintenanceState.ON));
+    events.add(createEvent("host2", MaintenanceState.ON));
+    events.add(new HostComponentsUpdateEvent(Collections.singletonList(
+        HostComponentUpdate.createHostComponentStaleConfigsStatusUpdate(1L, "HDFS", "host1", "DATANODE", true))));
+    events.add(createEvent("host1", MaintenanceState.OFF));
+
+    publisher.mergeBufferAndPost(events, eventBus);
+
+    HostComponentsUpdateEvent posted = listener.events.poll();
+    assertEquals(2, posted.getHostComponentUpdates().size());
+    HostComponentUpdate host1 = posted.getHostComponentUpdates().get(0);
+    assertEquals("host1", host1.getHostName());
+    assertEquals(MaintenanceState.OFF, host1.getMaintenanceState());
+    assertEquals(Boolean.TRUE, host1.getStaleConfigs());
+    assertEquals("host2", posted.getHostComponentUpdates().get(1).getHostName());
+  }
+
+  private HostComponentUpdateEventPublisher createPublisher(int batchSize, long maxDelay) {
+    STOMPUpdatePublisher stompUpdatePublisher = createNiceMock(STOMPUpdatePublisher.class);
+    Configuration configuration = createNiceMock(Configuration.class);
+    expect(configuration.getBufferedUpdatePublisherBatchSize()).andReturn(batchSize).anyTimes();
+    expect(configuration.getBufferedUpdatePublisherMaxDelay()).andReturn(maxDelay).anyTimes();
+    replay(stompUpdatePublisher, configuration);
+    return new HostComponentUpdateEventPublisher(stompUpdatePublisher, configuration);
+  }
+
+  private HostComponentsUpdateEvent createEvent(String hostName, MaintenanceState maintenanceState) {
+    return new HostComponentsUpdateEvent(Collections.singletonList(
+        HostComponentUpdate.createHostComponentMaintenanceStatusUpdate(1L, "HDFS", hostName, "DATANODE",
+            maintenanceState)));
+  }
+
+  public static class Listener {
+    private final BlockingQueue<HostComponentsUpdateEvent> events = new LinkedBlockingQueue<>();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    @Subscribe
+    public void onEvent(HostComponentsUpdateEvent event) {
+      threads.add(Thread.currentThread().getName());
+      events.add(event);
+    }
+  }
+}
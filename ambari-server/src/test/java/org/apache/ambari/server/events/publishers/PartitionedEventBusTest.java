@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.events.publishers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ambari.server.actionmanager.HostRoleStatus;
+import org.apache.ambari.server.events.AgentConfigsUpdateEvent;
+import org.apache.ambari.server.events.HostComponentUpdate;
+import org.apache.ambari.server.events.HostComponentsUpdateEvent;
+import org.apache.ambari.server.events.NamedTaskUpdateEvent;
+import org.apache.ambari.server.events.RequestUpdateEvent;
+import org.apache.ambari.server.events.STOMPEvent;
+import org.junit.Test;
+
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * {@link PartitionedEventBus} tests.
+ */
+public class PartitionedEventBusTest {
+
+  private static final int HOSTS = 20;
+  private static final int EVENTS_PER_HOST = 100;
+
+  @Test
+  public void testEventsWithSameKeyAreOrdered() throws Exception {
+    PartitionedEventBus eventBus = new PartitionedEventBus("test-bus", 4);
+    Listener listener = new Listener(HOSTS * EVENTS_PER_HOST);
+    eventBus.register(listener);
+
+    for (int i = 0; i < EVENTS_PER_HOST; i++) {
+      for (long hostId = 0; hostId < HOSTS; hostId++) {
+        AgentConfigsUpdateEvent event = new AgentConfigsUpdateEvent(hostId, null);
+        event.setTimestamp((long) i);
+        eventBus.post(event);
+      }
+    }
+
+    assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+    assertEquals(HOSTS, listener.received.size());
+    for (List<Long> hostEvents : listener.received.values()) {
+      assertEquals(EVENTS_PER_HOST, hostEvents.size());
+      for (int i = 0; i < EVENTS_PER_HOST; i++) {
+        assertEquals(Long.valueOf(i), hostEvents.get(i));
+      }
+    }
+
+    PartitionedEventBus.DispatchStatistics statistics = eventBus.getAndResetDispatchStatistics();
+    assertEquals(HOSTS * EVENTS_PER_HOST, statistics.getDispatchedCount());
+    assertEquals(0, eventBus.getAndResetDispatchStatistics().getDispatchedCount());
+  }
+
+  @Test
+  public void testEventsWithoutKeyAreOrderedWithAllEvents() throws Exception {
+    PartitionedEventBus eventBus = new PartitionedEventBus("test-bus", 4);
+    OrderListener listener = new OrderListener(HOSTS * 2 + 1);
+    eventBus.register(listener);
+
+    for (long hostId = 0; hostId < HOSTS; hostId++) {
+      eventBus.post(new AgentConfigsUpdateEvent(hostId, null));
+    }
+    eventBus.post(new GlobalEvent());
+    for (long hostId = 0; hostId < HOSTS; hostId++) {
+      eventBus.post(new AgentConfigsUpdateEvent(hostId, null));
+    }
+
+    assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+
+    // every host event posted before the global event was delivered before it,
+    // and none of the host events posted after it
+    assertEquals(HOSTS, listener.hostEventsBeforeGlobal);
+    assertEquals(HOSTS, listener.hostEventsAfterGlobal.get());
+  }
+
+  @Test
+  public void testPartitionIsStable() {
+    PartitionedEventBus eventBus = new PartitionedEventBus("test-bus", 3);
+    assertEquals(3, eventBus.getPartitionCount());
+    assertEquals(0, eventBus.getPartition(null));
+    for (long hostId = 0; hostId < HOSTS; hostId++) {
+      int partition = eventBus.getPartition(hostId);
+      assertTrue(partition >= 0 && partition < 3);
+      assertEquals(partition, eventBus.getPartition(Long.valueOf(hostId)));
+    }
+  }
+
+  @Test
+  public void testApiEventPartitionKeys() {
+    HostComponentUpdate cluster1 = HostComponentUpdate.createHostComponentStaleConfigsStatusUpdate(1L, "HDFS",
+        "host1", "DATANODE", true);
+    HostComponentUpdate cluster1Other = HostComponentUpdate.createHostComponentStaleConfigsStatusUpdate(1L, "HDFS",
+        "host2", "DATANODE", true);
+    HostComponentUpdate cluster2 = HostComponentUpdate.createHostComponentStaleConfigsStatusUpdate(2L, "HDFS",
+        "host1", "DATANODE", true);
+
+    assertEquals(1L, new HostComponentsUpdateEvent(Arrays.asList(cluster1, cluster1Other)).getPartitionKey());
+    assertNull(new HostComponentsUpdateEvent(Arrays.asList(cluster1, cluster2)).getPartitionKey());
+
+    assertEquals(5L, new NamedTaskUpdateEvent(10L, 5L, "host1", null, HostRoleStatus.COMPLETED, null, null,
+        null, null, null).getPartitionKey());
+    assertEquals(5L, new RequestUpdateEvent(5L, HostRoleStatus.COMPLETED, Collections.emptySet()).getPartitionKey());
+  }
+
+  /**
+   * An event without a partition key.
+   */
+  private static class GlobalEvent extends STOMPEvent {
+    private GlobalEvent() {
+      super(Type.METADATA);
+    }
+  }
+
+  public static class OrderListener {
+    private final AtomicInteger hostEvents = new AtomicInteger();
+    private final AtomicInteger hostEventsAfterGlobal = new AtomicInteger();
+    private final CountDownLatch latch;
+    private volatile boolean globalDelivered;
+    private volatile int hostEventsBeforeGlobal = -1;
+
+    private OrderListener(int expected) {
+      latch = new CountDownLatch(expected);
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    public void onHostEvent(AgentConfigsUpdateEvent event) {
+      if (globalDelivered) {
+        hostEventsAfterGlobal.incrementAndGet();
+      }
+      hostEvents.incrementAndGet();
+      latch.countDown();
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    public void onGlobalEvent(GlobalEvent event) throws InterruptedException {
+      // give the host events posted afterwards a chance to overtake this event
+      Thread.sleep(100);
+      hostEventsBeforeGlobal = hostEvents.get();
+      globalDelivered = true;
+      latch.countDown();
+    }
+  }
+
+  public static class Listener {
+    private final Map<Long, List<Long>> received = new ConcurrentHashMap<>();
+    private final CountDownLatch latch;
+
+    private Listener(int expected) {
+      latch = new CountDownLatch(expected);
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    public void onEvent(AgentConfigsUpdateEvent event) {
+      // a single thread delivers the events of a host, so the per host list is not shared
+      received.computeIfAbsent(event.getHostId(), id -> new ArrayList<>()).add(event.getTimestamp());
+      latch.countDown();
+    }
+  }
+}
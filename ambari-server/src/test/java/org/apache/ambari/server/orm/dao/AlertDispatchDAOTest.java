@@ -46,6 +46,8 @@ import org.apache.ambari.server.controller.spi.SortRequest;
 import org.apache.ambari.server.controller.spi.SortRequest.Order;
 import org.apache.ambari.server.controller.spi.SortRequestProperty;
 import org.apache.ambari.server.controller.utilities.PredicateBuilder;
+import org.apache.ambari.server.events.AlertTargetDeleteEvent;
+import org.apache.ambari.server.events.publishers.AmbariEventPublisher;
 import org.apache.ambari.server.orm.AlertDaoHelper;
 import org.apache.ambari.server.orm.GuiceJpaInitializer;
 import org.apache.ambari.server.orm.InMemoryDefaultTestModule;
@@ -69,8 +71,11 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.eventbus.Subscribe;
 import com.google.inject.Guice;
+import com.google.inject.Inject;
 import com.google.inject.Injector;
+import com.google.inject.persist.Transactional;
 import com.google.inject.persist.UnitOfWork;
 
 /**
@@ -330,6 +335,34 @@ public class AlertDispatchDAOTest {
 
   }
 
+  /**
+   * Tests that the removal of a target is published once it is committed, and
+   * not at all if it is rolled back.
+   */
+  @Test
+  public void testRemoveTargetPublishesAfterCommit() throws Exception {
+    List<Long> removedTargetIds = new ArrayList<>();
+    m_injector.getInstance(AmbariEventPublisher.class).register(new Object() {
+      @Subscribe
+      public void onAlertTargetDelete(AlertTargetDeleteEvent event) {
+        removedTargetIds.add(event.getTargetId());
+      }
+    });
+
+    AlertTargetEntity target = m_helper.createAlertTarget();
+    try {
+      m_injector.getInstance(TargetRemover.class).removeAndRollback(target);
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    assertNotNull(m_dao.findTargetById(target.getTargetId()));
+    assertTrue(removedTargetIds.isEmpty());
+
+    m_dao.remove(m_dao.findTargetById(target.getTargetId()));
+    assertEquals(Collections.singletonList(target.getTargetId()), removedTargetIds);
+  }
+
   /**
    *
    */
@@ -944,4 +977,18 @@ public class AlertDispatchDAOTest {
       thread.join();
     }
   }
+
+  /**
+   * Removes a target in a transaction which is rolled back.
+   */
+  public static class TargetRemover {
+    @Inject
+    private AlertDispatchDAO m_dao;
+
+    @Transactional
+    public void removeAndRollback(AlertTargetEntity target) {
+      m_dao.remove(target);
+      throw new IllegalStateException("rollback");
+    }
+  }
 }
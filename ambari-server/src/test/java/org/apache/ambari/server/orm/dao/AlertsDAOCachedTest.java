@@ -190,6 +190,35 @@ public class AlertsDAOCachedTest {
     EasyMock.verify(definition, history, entityManager, daoUtils);
   }
 
+  /**
+   * Tests that flushing the cache only writes the alerts which were merged
+   * into the cache since the last flush.
+   */
+  @Test
+  public void testFlushOnlyWritesModifiedAlerts() throws Exception {
+    EntityManager entityManager = m_injector.getInstance(EntityManager.class);
+
+    AlertHistoryEntity history = EasyMock.createNiceMock(AlertHistoryEntity.class);
+    AlertDefinitionEntity definition = EasyMock.createNiceMock(AlertDefinitionEntity.class);
+    mock(definition, history);
+
+    AlertCurrentEntity memoryCurrent = new AlertCurrentEntity();
+    memoryCurrent.setAlertHistory(history);
+    memoryCurrent.setOriginalTimestamp(1L);
+    memoryCurrent.setLatestTimestamp(3L);
+
+    // the alert should only be written by the first flush
+    EasyMock.expect(entityManager.merge(memoryCurrent)).andReturn(memoryCurrent).once();
+    EasyMock.replay(entityManager);
+
+    AlertsDAO alertsDAO = m_injector.getInstance(AlertsDAO.class);
+    alertsDAO.merge(memoryCurrent, true);
+    alertsDAO.flushCachedEntitiesToJPA();
+    alertsDAO.flushCachedEntitiesToJPA();
+
+    EasyMock.verify(definition, history, entityManager);
+  }
+
   @SuppressWarnings("unchecked")
   private void testFindUsesCache(CachedAlertTestArea testArea) throws Exception {
     EntityManager entityManager = m_injector.getInstance(EntityManager.class);
@@ -36,6 +36,7 @@ import java.util.UUID;
 import javax.persistence.EntityManager;
 
 import org.apache.ambari.server.H2DatabaseCleaner;
+import org.apache.ambari.server.cleanup.TimeBasedCleanupPolicy;
 import org.apache.ambari.server.controller.AlertCurrentRequest;
 import org.apache.ambari.server.controller.AlertHistoryRequest;
 import org.apache.ambari.server.controller.internal.AlertHistoryResourceProvider;
@@ -226,6 +227,26 @@ public class AlertsDAOTest {
     assertEquals(50, alerts.size());
   }
 
+  /**
+   * Tests that the history older than the policy date is purged along with the
+   * current alerts which reference it.
+   */
+  @Test
+  public void testCleanup() {
+    // the 6th historical alert of the 3rd definition, so that the current
+    // alerts of the first 2 definitions are purged
+    calendar.clear();
+    calendar.set(2014, Calendar.JANUARY, 1);
+    calendar.add(Calendar.DATE, 25);
+
+    long affectedRows = m_dao.cleanup(
+        new TimeBasedCleanupPolicy(m_cluster.getClusterName(), calendar.getTimeInMillis()));
+
+    assertEquals(28, affectedRows);
+    assertEquals(24, m_dao.findAll(m_cluster.getClusterId()).size());
+    assertEquals(3, m_dao.findCurrent().size());
+  }
+
   /**
    *
    */
@@ -19,7 +19,9 @@ package org.apache.ambari.server.orm.dao;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.persistence.EntityManager;
@@ -43,7 +45,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.google.inject.Guice;
+import com.google.inject.Inject;
 import com.google.inject.Injector;
+import com.google.inject.persist.Transactional;
 
 import junit.framework.Assert;
 
@@ -111,6 +115,125 @@ public class HostRoleCommandDAOTest {
     Assert.assertEquals(0, tasks.size());
   }
 
+  /**
+   * Tests that the cached status summaries of a request are updated as its
+   * tasks are merged and match the summaries loaded from the database.
+   */
+  @Test
+  public void testAggregateCountsUpdatedOnMerge() {
+    OrmTestHelper helper = m_injector.getInstance(OrmTestHelper.class);
+    helper.createDefaultData();
+
+    Long requestId = Long.valueOf(100L);
+    ClusterEntity clusterEntity = m_clusterDAO.findByName("test_cluster1");
+
+    RequestEntity requestEntity = new RequestEntity();
+    requestEntity.setRequestId(requestId);
+    requestEntity.setClusterId(clusterEntity.getClusterId());
+    requestEntity.setStages(new ArrayList<>());
+    m_requestDAO.create(requestEntity);
+
+    HostEntity host = m_hostDAO.findByName("test_host1");
+    host.setHostRoleCommandEntities(new ArrayList<>());
+
+    createStage(1L, 3, host, requestEntity, HostRoleStatus.PENDING, true, false, false);
+    createStage(2L, 2, host, requestEntity, HostRoleStatus.PENDING);
+
+    Map<Long, HostRoleCommandStatusSummaryDTO> summaries = m_hostRoleCommandDAO.findAggregateCounts(requestId);
+    Assert.assertEquals(2, summaries.size());
+    Assert.assertEquals(3, summaries.get(1L).getTaskTotal());
+    Assert.assertEquals(Integer.valueOf(3), summaries.get(1L).getCounts().get(HostRoleStatus.PENDING));
+    Assert.assertTrue(summaries.get(1L).isStageSkippable());
+    Assert.assertFalse(summaries.get(2L).isStageSkippable());
+
+    List<HostRoleCommandEntity> tasks = m_hostRoleCommandDAO.findByStatusBetweenStages(requestId,
+        HostRoleStatus.PENDING, 1, 1);
+
+    HostRoleCommandEntity task = tasks.get(0);
+    task.setStatus(HostRoleStatus.COMPLETED);
+    task.setStartTime(1000L);
+    task.setEndTime(2000L);
+    m_hostRoleCommandDAO.merge(task);
+
+    task = tasks.get(1);
+    task.setStatus(HostRoleStatus.IN_PROGRESS);
+    task.setStartTime(1500L);
+    m_hostRoleCommandDAO.mergeAll(Collections.singletonList(task));
+
+    Map<Long, HostRoleCommandStatusSummaryDTO> updated = m_hostRoleCommandDAO.findAggregateCounts(requestId);
+    HostRoleCommandStatusSummaryDTO summary = updated.get(1L);
+    Assert.assertEquals(3, summary.getTaskTotal());
+    Assert.assertEquals(Integer.valueOf(1), summary.getCounts().get(HostRoleStatus.COMPLETED));
+    Assert.assertEquals(Integer.valueOf(1), summary.getCounts().get(HostRoleStatus.IN_PROGRESS));
+    Assert.assertEquals(Integer.valueOf(1), summary.getCounts().get(HostRoleStatus.PENDING));
+    Assert.assertEquals(Long.valueOf(2000L), summary.getEndTime());
+
+    // the updated summaries must match the ones loaded from the database
+    m_hostRoleCommandDAO.invalidateHostRoleCommandStatusSummaryCache(requestId);
+    Map<Long, HostRoleCommandStatusSummaryDTO> loaded = m_hostRoleCommandDAO.findAggregateCounts(requestId);
+    Assert.assertEquals(loaded.keySet(), updated.keySet());
+    for (Long stageId : loaded.keySet()) {
+      Assert.assertEquals(loaded.get(stageId).getCounts(), updated.get(stageId).getCounts());
+      Assert.assertEquals(loaded.get(stageId).getStartTime(), updated.get(stageId).getStartTime());
+      Assert.assertEquals(loaded.get(stageId).getEndTime(), updated.get(stageId).getEndTime());
+      Assert.assertEquals(loaded.get(stageId).isStageSkippable(), updated.get(stageId).isStageSkippable());
+    }
+  }
+
+  /**
+   * Tests that the cached status summaries are not updated by a merge which is
+   * rolled back.
+   */
+  @Test
+  public void testAggregateCountsNotUpdatedOnRollback() {
+    OrmTestHelper helper = m_injector.getInstance(OrmTestHelper.class);
+    helper.createDefaultData();
+
+    Long requestId = Long.valueOf(100L);
+    ClusterEntity clusterEntity = m_clusterDAO.findByName("test_cluster1");
+
+    RequestEntity requestEntity = new RequestEntity();
+    requestEntity.setRequestId(requestId);
+    requestEntity.setClusterId(clusterEntity.getClusterId());
+    requestEntity.setStages(new ArrayList<>());
+    m_requestDAO.create(requestEntity);
+
+    HostEntity host = m_hostDAO.findByName("test_host1");
+    host.setHostRoleCommandEntities(new ArrayList<>());
+
+    createStage(1L, 2, host, requestEntity, HostRoleStatus.PENDING);
+    Assert.assertEquals(Integer.valueOf(2),
+        m_hostRoleCommandDAO.findAggregateCounts(requestId).get(1L).getCounts().get(HostRoleStatus.PENDING));
+
+    HostRoleCommandEntity task = m_hostRoleCommandDAO.findByStatusBetweenStages(requestId,
+        HostRoleStatus.PENDING, 1, 1).get(0);
+    task.setStatus(HostRoleStatus.COMPLETED);
+
+    try {
+      m_injector.getInstance(FailingMerge.class).merge(task);
+      Assert.fail("Expected the transaction to be rolled back");
+    } catch (IllegalStateException expected) {
+    }
+
+    HostRoleCommandStatusSummaryDTO summary = m_hostRoleCommandDAO.findAggregateCounts(requestId).get(1L);
+    Assert.assertEquals(Integer.valueOf(2), summary.getCounts().get(HostRoleStatus.PENDING));
+    Assert.assertNull(summary.getCounts().get(HostRoleStatus.COMPLETED));
+  }
+
+  /**
+   * Merges a task in a transaction which is then rolled back.
+   */
+  public static class FailingMerge {
+    @Inject
+    private HostRoleCommandDAO m_hostRoleCommandDAO;
+
+    @Transactional
+    public void merge(HostRoleCommandEntity task) {
+      m_hostRoleCommandDAO.merge(task);
+      throw new IllegalStateException("Rolling back the merge");
+    }
+  }
+
   /**
    * Tests that setting the auto-skip feature of a {@link HostRoleCommandEntity}
    * is somewhat dependenant on the {@link StageEntity}'s support for it.
@@ -29,6 +29,14 @@ import java.util.List;
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.H2DatabaseCleaner;
 import org.apache.ambari.server.api.services.AmbariMetaInfo;
+import org.apache.ambari.server.controller.internal.PageRequestImpl;
+import org.apache.ambari.server.controller.internal.ServiceConfigVersionResourceProvider;
+import org.apache.ambari.server.controller.internal.SortRequestImpl;
+import org.apache.ambari.server.controller.spi.PageRequest;
+import org.apache.ambari.server.controller.spi.Predicate;
+import org.apache.ambari.server.controller.spi.SortRequest;
+import org.apache.ambari.server.controller.spi.SortRequestProperty;
+import org.apache.ambari.server.controller.utilities.PredicateBuilder;
 import org.apache.ambari.server.orm.GuiceJpaInitializer;
 import org.apache.ambari.server.orm.InMemoryDefaultTestModule;
 import org.apache.ambari.server.orm.entities.ClusterConfigEntity;
@@ -172,6 +180,67 @@ public class ServiceConfigDAOTest {
     Assert.assertNotNull(serviceConfigEntity.getServiceConfigId());
   }
 
+  @Test
+  public void testFindAllPagedAndSorted() throws Exception {
+    createServiceConfig("HDFS", "admin", 1L, 1L, 1111L, null);
+    createServiceConfig("HDFS", "user", 2L, 2L, 2222L, null);
+    createServiceConfig("HDFS", "admin", 3L, 3L, 3333L, null);
+    createServiceConfig("YARN", "admin", 1L, 4L, 4444L, null);
+    createServiceConfig("YARN", "admin", 2L, 5L, 5555L, null);
+
+    long clusterId = clusterDAO.findByName("c1").getClusterId();
+
+    SortRequest sortRequest = new SortRequestImpl(asList(
+        new SortRequestProperty(ServiceConfigVersionResourceProvider.SERVICE_NAME_PROPERTY_ID, SortRequest.Order.ASC),
+        new SortRequestProperty(ServiceConfigVersionResourceProvider.SERVICE_CONFIG_VERSION_PROPERTY_ID,
+            SortRequest.Order.DESC)));
+    PageRequest pageRequest = new PageRequestImpl(PageRequest.StartingPoint.OffsetStart, 3, 1, null, null);
+
+    List<ServiceConfigEntity> page = serviceConfigDAO.findAll(clusterId, sortRequest, pageRequest, null);
+    Assert.assertEquals(3, page.size());
+    Assert.assertEquals("HDFS", page.get(0).getServiceName());
+    Assert.assertEquals(Long.valueOf(2), page.get(0).getVersion());
+    Assert.assertEquals("HDFS", page.get(1).getServiceName());
+    Assert.assertEquals(Long.valueOf(1), page.get(1).getVersion());
+    Assert.assertEquals("YARN", page.get(2).getServiceName());
+    Assert.assertEquals(Long.valueOf(2), page.get(2).getVersion());
+
+    // filter by stored properties
+    Predicate predicate = new PredicateBuilder()
+        .property(ServiceConfigVersionResourceProvider.USER_PROPERTY_ID).equals("admin").and()
+        .property(ServiceConfigVersionResourceProvider.CREATE_TIME_PROPERTY_ID).greaterThan(2000L).toPredicate();
+
+    page = serviceConfigDAO.findAll(clusterId, sortRequest, null, predicate);
+    Assert.assertEquals(3, page.size());
+    Assert.assertEquals(Long.valueOf(3), page.get(0).getVersion());
+    Assert.assertEquals("YARN", page.get(1).getServiceName());
+    Assert.assertEquals(Long.valueOf(2), page.get(1).getVersion());
+    Assert.assertEquals(Long.valueOf(1), page.get(2).getVersion());
+
+    // rows which are equal for the sort request are ordered by their ID
+    page = serviceConfigDAO.findAll(clusterId, null, null, null);
+    Assert.assertEquals(5, page.size());
+    for (int i = 1; i < page.size(); i++) {
+      Assert.assertTrue(page.get(i - 1).getServiceConfigId() < page.get(i).getServiceConfigId());
+    }
+  }
+
+  @Test
+  public void testGetCount() throws Exception {
+    createServiceConfig("HDFS", "admin", 1L, 1L, 1111L, null);
+    createServiceConfig("HDFS", "user", 2L, 2L, 2222L, null);
+    createServiceConfig("YARN", "admin", 1L, 3L, 3333L, null);
+
+    long clusterId = clusterDAO.findByName("c1").getClusterId();
+
+    Assert.assertEquals(3, serviceConfigDAO.getCount(clusterId, null));
+    Assert.assertEquals(2, serviceConfigDAO.getCount(clusterId, new PredicateBuilder()
+        .property(ServiceConfigVersionResourceProvider.SERVICE_NAME_PROPERTY_ID).equals("HDFS").toPredicate()));
+    Assert.assertEquals(1, serviceConfigDAO.getCount(clusterId, new PredicateBuilder()
+        .property(ServiceConfigVersionResourceProvider.USER_PROPERTY_ID).equals("user").toPredicate()));
+    Assert.assertEquals(0, serviceConfigDAO.getCount(clusterId + 1, null));
+  }
+
   @Test
   public void testFindServiceConfigEntity() throws Exception {
     ServiceConfigEntity sce =
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.orm.entities;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests methods on {@link ExecutionCommandEntity}.
+ */
+public class ExecutionCommandEntityTest {
+
+  private static final String JSON = "{\"clusterHostInfo\":{\"all_hosts\":[\"c6401.ambari.apache.org\","
+      + "\"c6402.ambari.apache.org\",\"c6403.ambari.apache.org\",\"c6404.ambari.apache.org\"]},"
+      + "\"roleParams\":{\"comment\":\"r\u00e9sum\u00e9 \u4e2d\u6587\"}}";
+
+  /**
+   * Tests that commands stored as JSON are read back as-is.
+   */
+  @Test
+  public void testUncompressedCommand() {
+    ExecutionCommandEntity entity = new ExecutionCommandEntity();
+    entity.setCommandJson(JSON, false);
+
+    Assert.assertArrayEquals(JSON.getBytes(StandardCharsets.UTF_8), entity.getCommand());
+    Assert.assertEquals(JSON, entity.getCommandJson());
+  }
+
+  /**
+   * Tests that compressed commands are read back as the original JSON.
+   */
+  @Test
+  public void testCompressedCommand() {
+    ExecutionCommandEntity entity = new ExecutionCommandEntity();
+    entity.setCommandJson(JSON, true);
+
+    Assert.assertTrue(entity.getCommand().length < JSON.length());
+    Assert.assertEquals(JSON, entity.getCommandJson());
+  }
+
+  /**
+   * Tests that commands stored before compression was enabled, by setting the
+   * bytes directly, can still be read.
+   */
+  @Test
+  public void testLegacyCommand() {
+    ExecutionCommandEntity entity = new ExecutionCommandEntity();
+    Assert.assertNull(entity.getCommandJson());
+
+    entity.setCommand(JSON.getBytes(StandardCharsets.UTF_8));
+    Assert.assertEquals(JSON, entity.getCommandJson());
+  }
+}
@@ -438,6 +438,45 @@ public class AuthorizationHelperTest  extends EasyMockSupport {
     verify(servletRequestAttributes);
   }
 
+  @Test
+  public void testIsAuthorizedResolvesPrivilegeOnce() {
+    RoleAuthorizationEntity roleAuthorizationEntity = new RoleAuthorizationEntity();
+    roleAuthorizationEntity.setAuthorizationId(RoleAuthorization.CLUSTER_VIEW_METRICS.getId());
+
+    RoleAuthorizationEntity invalidRoleAuthorizationEntity = new RoleAuthorizationEntity();
+    invalidRoleAuthorizationEntity.setAuthorizationId("INVALID.AUTHORIZATION");
+
+    PermissionEntity permissionEntity = new PermissionEntity();
+    permissionEntity.addAuthorization(roleAuthorizationEntity);
+    permissionEntity.addAuthorization(invalidRoleAuthorizationEntity);
+
+    ResourceTypeEntity clusterResourceTypeEntity = new ResourceTypeEntity();
+    clusterResourceTypeEntity.setId(1);
+    clusterResourceTypeEntity.setName(ResourceType.CLUSTER.name());
+
+    ResourceEntity clusterResourceEntity = new ResourceEntity();
+    clusterResourceEntity.setResourceType(clusterResourceTypeEntity);
+    clusterResourceEntity.setId(1L);
+
+    // the privilege entity must only be walked once, regardless of the number of checks
+    PrivilegeEntity privilegeEntity = createMock(PrivilegeEntity.class);
+    expect(privilegeEntity.getResource()).andReturn(clusterResourceEntity).once();
+    expect(privilegeEntity.getPermission()).andReturn(permissionEntity).once();
+
+    replayAll();
+
+    AmbariGrantedAuthority authority = new AmbariGrantedAuthority(privilegeEntity);
+    Authentication user = new TestAuthentication(Collections.singleton(authority));
+
+    assertTrue(AuthorizationHelper.isAuthorized(user, ResourceType.CLUSTER, 1L, RoleAuthorization.CLUSTER_VIEW_METRICS));
+    assertFalse(AuthorizationHelper.isAuthorized(user, ResourceType.CLUSTER, 2L, RoleAuthorization.CLUSTER_VIEW_METRICS));
+    assertFalse(AuthorizationHelper.isAuthorized(user, ResourceType.CLUSTER, 1L, RoleAuthorization.CLUSTER_TOGGLE_KERBEROS));
+    assertTrue(AuthorizationHelper.isAuthorized(user, null, null, RoleAuthorization.CLUSTER_VIEW_METRICS));
+    assertEquals(EnumSet.of(RoleAuthorization.CLUSTER_VIEW_METRICS), authority.getAuthorizations());
+
+    verifyAll();
+  }
+
   @Test
   public void testResolveLoginAliasToUserName() throws Exception {
     // Given
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.serveraction;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.ambari.server.Role;
+import org.apache.ambari.server.actionmanager.ActionDBAccessor;
+import org.apache.ambari.server.actionmanager.HostRoleCommand;
+import org.apache.ambari.server.actionmanager.HostRoleStatus;
+import org.junit.Test;
+
+/**
+ * Tests the dispatching of queued tasks to the worker pool of the
+ * {@link ServerActionExecutor}.
+ */
+public class ServerActionExecutorDispatchTest {
+
+  private static final long TIMEOUT_SECONDS = 10;
+
+  /**
+   * Tests that the tasks of a request run one at a time, in the order in
+   * which they were queued.
+   */
+  @Test
+  public void testTasksOfRequestRunInOrder() throws Exception {
+    ActionDBAccessor db = createNiceMock(ActionDBAccessor.class);
+    expect(db.getTasksByRoleAndStatus(Role.AMBARI_SERVER_ACTION.name(), HostRoleStatus.QUEUED))
+        .andReturn(Arrays.asList(createTask(1L, 1L), createTask(1L, 2L), createTask(1L, 3L))).once();
+    replay(db);
+
+    List<Long> taskIds = new CopyOnWriteArrayList<>();
+    ServerActionExecutor executor = new ServerActionExecutor(db, 10000) {
+      @Override
+      int getWorkerThreads() {
+        return 3;
+      }
+
+      @Override
+      boolean runTask(HostRoleCommand task, long queuedTime) {
+        taskIds.add(task.getTaskId());
+        return true;
+      }
+    };
+
+    executor.doWork();
+
+    assertEquals(Arrays.asList(1L, 2L, 3L), taskIds);
+    executor.stop();
+  }
+
+  /**
+   * Tests that the tasks of different requests run concurrently when there
+   * is more than one worker.
+   */
+  @Test
+  public void testRequestsRunConcurrently() throws Exception {
+    ActionDBAccessor db = createNiceMock(ActionDBAccessor.class);
+    expect(db.getTasksByRoleAndStatus(Role.AMBARI_SERVER_ACTION.name(), HostRoleStatus.QUEUED))
+        .andReturn(Arrays.asList(createTask(1L, 1L), createTask(2L, 2L))).once();
+    replay(db);
+
+    CountDownLatch running = new CountDownLatch(2);
+    List<Boolean> concurrent = new CopyOnWriteArrayList<>();
+    ServerActionExecutor executor = new ServerActionExecutor(db, 10000) {
+      @Override
+      int getWorkerThreads() {
+        return 2;
+      }
+
+      @Override
+      boolean runTask(HostRoleCommand task, long queuedTime) {
+        running.countDown();
+        try {
+          // only completes if the task of the other request runs at the same time
+          concurrent.add(running.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+          return false;
+        }
+        return true;
+      }
+    };
+
+    executor.doWork();
+
+    assertEquals(Arrays.asList(true, true), concurrent);
+    executor.stop();
+  }
+
+  /**
+   * Tests that tasks which are read as queued while the job of their request
+   * completes are not dispatched a second time.
+   */
+  @Test
+  public void testNoDoubleDispatch() throws Exception {
+    HostRoleCommand task1 = createTask(1L, 1L);
+    HostRoleCommand task2 = createTask(1L, 2L);
+
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicReference<Future<?>> job = new AtomicReference<>();
+
+    ActionDBAccessor db = createNiceMock(ActionDBAccessor.class);
+    expect(db.getTasksByRoleAndStatus(Role.AMBARI_SERVER_ACTION.name(), HostRoleStatus.QUEUED))
+        .andReturn(Arrays.asList(task1, task2)).once();
+
+    // the job completes while the queued tasks are read, which still returns its last task
+    expect(db.getTasksByRoleAndStatus(Role.AMBARI_SERVER_ACTION.name(), HostRoleStatus.QUEUED))
+        .andAnswer(() -> {
+          release.countDown();
+          job.get().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+          return Collections.singletonList(task2);
+        }).once();
+    replay(db);
+
+    List<Long> taskIds = new CopyOnWriteArrayList<>();
+    ServerActionExecutor executor = new ServerActionExecutor(db, 10000) {
+      @Override
+      boolean runTask(HostRoleCommand task, long queuedTime) {
+        try {
+          release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          return false;
+        }
+        taskIds.add(task.getTaskId());
+        return true;
+      }
+    };
+
+    List<Future<?>> futures = executor.dispatchWork();
+    assertEquals(1, futures.size());
+    job.set(futures.get(0));
+
+    assertTrue(executor.dispatchWork().isEmpty());
+    assertEquals(Arrays.asList(1L, 2L), taskIds);
+    executor.stop();
+  }
+
+  /**
+   * Tests that stopping the executor shuts the worker pool down, interrupting
+   * the running tasks.
+   */
+  @Test
+  public void testStopShutsDownWorkerPool() throws Exception {
+    ActionDBAccessor db = createNiceMock(ActionDBAccessor.class);
+    expect(db.getTasksByRoleAndStatus(Role.AMBARI_SERVER_ACTION.name(), HostRoleStatus.QUEUED))
+        .andReturn(Collections.singletonList(createTask(1L, 1L))).once();
+    replay(db);
+
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    ServerActionExecutor executor = new ServerActionExecutor(db, 10000) {
+      @Override
+      boolean runTask(HostRoleCommand task, long queuedTime) {
+        running.countDown();
+        try {
+          new CountDownLatch(1).await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+          return false;
+        }
+        return true;
+      }
+    };
+
+    List<Future<?>> futures = executor.dispatchWork();
+    assertTrue(running.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+    executor.stop();
+
+    assertTrue(interrupted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    futures.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  private HostRoleCommand createTask(long requestId, long taskId) {
+    HostRoleCommand task = createNiceMock(HostRoleCommand.class);
+    expect(task.getRequestId()).andReturn(requestId).anyTimes();
+    expect(task.getTaskId()).andReturn(taskId).anyTimes();
+    expect(task.getStatus()).andReturn(HostRoleStatus.QUEUED).anyTimes();
+    replay(task);
+    return task;
+  }
+}
@@ -29,6 +29,7 @@ import org.apache.ambari.server.H2DatabaseCleaner;
 import org.apache.ambari.server.Role;
 import org.apache.ambari.server.RoleCommand;
 import org.apache.ambari.server.actionmanager.CommandExecutionType;
+import org.apache.ambari.server.actionmanager.HostRoleCommand;
 import org.apache.ambari.server.actionmanager.Stage;
 import org.apache.ambari.server.actionmanager.StageFactory;
 import org.apache.ambari.server.metadata.RoleCommandOrder;
@@ -295,6 +296,61 @@ public class TestStagePlanner {
     assertEquals(3, outStages.size());
   }
 
+  @Test
+  public void testManyHostsStagePlan() throws Throwable {
+    ClusterImpl cluster = mock(ClusterImpl.class);
+    when(cluster.getCurrentStackVersion()).thenReturn(new StackId("HDP-2.0.6"));
+
+    Service hbaseService = mock(Service.class);
+    when(hbaseService.getDesiredStackId()).thenReturn(new StackId("HDP-2.0.6"));
+    Service zkService = mock(Service.class);
+    when(zkService.getDesiredStackId()).thenReturn(new StackId("HDP-2.0.6"));
+
+    when(cluster.getServices()).thenReturn(ImmutableMap.<String, Service>builder()
+        .put("HBASE", hbaseService)
+        .put("ZOOKEEPER", zkService)
+        .build());
+
+    RoleCommandOrder rco = roleCommandOrderProvider.getRoleCommandOrder(cluster);
+    RoleGraph rg = roleGraphFactory.createNew(rco);
+    long now = System.currentTimeMillis();
+    Stage stage = StageUtils.getATestStage(1, 1, "host1", "", "");
+    stage.addHostRoleExecutionCommand("host2", Role.HBASE_MASTER,
+        RoleCommand.START, new ServiceComponentHostStartEvent("HBASE_MASTER",
+            "host2", now), "cluster1", "HBASE", false, false);
+
+    int hostCount = 1000;
+    for (int i = 0; i < hostCount; i++) {
+      String hostname = "worker" + i;
+      stage.addHostRoleExecutionCommand(hostname, Role.ZOOKEEPER_SERVER,
+          RoleCommand.START, new ServiceComponentHostStartEvent("ZOOKEEPER_SERVER",
+              hostname, now), "cluster1", "ZOOKEEPER", false, false);
+      stage.addHostRoleExecutionCommand(hostname, Role.HBASE_REGIONSERVER,
+          RoleCommand.START, new ServiceComponentHostStartEvent("HBASE_REGIONSERVER",
+              hostname, now), "cluster1", "HBASE", false, false);
+    }
+
+    rg.build(stage);
+    List<Stage> outStages = rg.getStages();
+    assertEquals(4, outStages.size());
+
+    int commandCount = 0;
+    for (Stage s : outStages) {
+      for (HostRoleCommand command : s.getOrderedHostRoleCommands()) {
+        // the planned stages share the commands of the original stage
+        Assert.assertSame(stage.getHostRoleCommand(command.getHostName(), command.getRole().name()),
+            command);
+        commandCount++;
+      }
+    }
+    assertEquals(stage.getOrderedHostRoleCommands().size(), commandCount);
+
+    assertEquals(hostCount, outStages.get(1).getOrderedHostRoleCommands().size());
+    assertEquals(Role.ZOOKEEPER_SERVER, outStages.get(1).getOrderedHostRoleCommands().get(0).getRole());
+    assertEquals(hostCount, outStages.get(3).getOrderedHostRoleCommands().size());
+    assertEquals(Role.HBASE_REGIONSERVER, outStages.get(3).getOrderedHostRoleCommands().get(0).getRole());
+  }
+
   @Test
   public void testRestartStagePlan() throws Throwable {
     ClusterImpl cluster = mock(ClusterImpl.class);
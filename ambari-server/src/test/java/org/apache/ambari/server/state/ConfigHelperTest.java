@@ -17,9 +17,12 @@
  */
 package org.apache.ambari.server.state;
 
+import static org.easymock.EasyMock.capture;
 import static org.easymock.EasyMock.createNiceMock;
 import static org.easymock.EasyMock.createStrictMock;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.newCapture;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
@@ -49,6 +52,9 @@ import org.apache.ambari.server.controller.AmbariManagementController;
 import org.apache.ambari.server.controller.ClusterRequest;
 import org.apache.ambari.server.controller.ConfigurationRequest;
 import org.apache.ambari.server.controller.spi.ClusterController;
+import org.apache.ambari.server.events.HostComponentUpdate;
+import org.apache.ambari.server.events.HostComponentsUpdateEvent;
+import org.apache.ambari.server.events.STOMPEvent;
 import org.apache.ambari.server.events.publishers.STOMPUpdatePublisher;
 import org.apache.ambari.server.mpack.MpackManagerFactory;
 import org.apache.ambari.server.orm.DBAccessor;
@@ -65,6 +71,7 @@ import org.apache.ambari.server.state.configgroup.ConfigGroup;
 import org.apache.ambari.server.state.configgroup.ConfigGroupFactory;
 import org.apache.ambari.server.state.stack.OsFamily;
 import org.apache.ambari.server.testutils.PartialNiceMockBinder;
+import org.easymock.Capture;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -1071,6 +1078,28 @@ public class ConfigHelperTest {
     verify(sch);
   }
 
+  @Test
+  public void testConfigDependencyIndex() throws Exception {
+    ConfigDependencyIndex index = configHelper.getConfigDependencyIndex(cluster.getDesiredStackVersion());
+
+    Set<String> flumeTypes = index.getConfigTypes("FLUME", "FLUME_HANDLER");
+    Assert.assertTrue(flumeTypes.contains("flume-conf"));
+    Assert.assertTrue(flumeTypes.contains("flume-env"));
+    Assert.assertFalse(flumeTypes.contains("hdfs-site"));
+    Assert.assertFalse(flumeTypes.contains("oozie-site"));
+
+    Set<String> namenodeTypes = index.getConfigTypes("HDFS", "NAMENODE");
+    Assert.assertTrue(namenodeTypes.contains("hdfs-site"));
+    Assert.assertTrue(namenodeTypes.contains("core-site"));
+    Assert.assertFalse(namenodeTypes.contains("flume-conf"));
+
+    Assert.assertTrue(index.getConfigTypes("FLUME", "UNKNOWN").isEmpty());
+    Assert.assertTrue(index.getConfigTypes("UNKNOWN", "FLUME_HANDLER").isEmpty());
+
+    // the index is built once per stack
+    Assert.assertSame(index, configHelper.getConfigDependencyIndex(cluster.getDesiredStackVersion()));
+  }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testFindChangedKeys() throws AmbariException, AuthorizationException, NoSuchMethodException,
@@ -1285,6 +1314,91 @@ public class ConfigHelperTest {
 
       verify(mockAmbariMetaInfo, mockStackVersion, mockServiceInfo, mockPropertyInfo1, mockPropertyInfo2);
     }
+
+    @Test
+    public void testCheckStaleConfigsStatusOnConfigsUpdate() throws Exception {
+      StackId stackId = new StackId("HDP-2.2");
+      ServiceInfo flume = createServiceInfo("FLUME", "FLUME_HANDLER", "flume-conf");
+      ServiceInfo hdfs = createServiceInfo("HDFS", "DATANODE", "hdfs-site");
+
+      AmbariMetaInfo metaInfo = injector.getInstance(AmbariMetaInfo.class);
+      StackInfo stackInfo = createNiceMock(StackInfo.class);
+      expect(metaInfo.getStack(stackId)).andReturn(stackInfo).anyTimes();
+      expect(metaInfo.getService("HDP", "2.2", "FLUME")).andReturn(flume).anyTimes();
+      expect(metaInfo.getService("HDP", "2.2", "HDFS")).andReturn(hdfs).anyTimes();
+      expect(stackInfo.getServices()).andReturn(Arrays.asList(flume, hdfs)).anyTimes();
+      expect(stackInfo.getRefreshCommandConfiguration()).andReturn(new RefreshCommandConfiguration()).anyTimes();
+
+      Cluster cluster = createNiceMock(Cluster.class);
+      Clusters clusters = injector.getInstance(Clusters.class);
+      expect(cluster.getClusterId()).andReturn(1L).anyTimes();
+      expect(clusters.getClusterById(1L)).andReturn(cluster).anyTimes();
+
+      Host host1 = createNiceMock(Host.class);
+      Host host2 = createNiceMock(Host.class);
+      expect(host1.getHostId()).andReturn(1L).anyTimes();
+      expect(host1.getHostName()).andReturn("h1").anyTimes();
+      expect(host2.getHostId()).andReturn(2L).anyTimes();
+      expect(host2.getHostName()).andReturn("h2").anyTimes();
+      expect(cluster.getHosts()).andReturn(Arrays.asList(host1, host2)).anyTimes();
+
+      ServiceComponent serviceComponent = createNiceMock(ServiceComponent.class);
+      expect(serviceComponent.getDesiredStackId()).andReturn(stackId).anyTimes();
+      ServiceComponentHost flumeHandler = createServiceComponentHost(serviceComponent, "FLUME", "FLUME_HANDLER", "h1");
+      ServiceComponentHost dataNode1 = createServiceComponentHost(serviceComponent, "HDFS", "DATANODE", "h1");
+      ServiceComponentHost dataNode2 = createServiceComponentHost(serviceComponent, "HDFS", "DATANODE", "h2");
+      expect(cluster.getServiceComponentHosts("h1")).andReturn(Arrays.asList(flumeHandler, dataNode1)).anyTimes();
+      expect(cluster.getServiceComponentHosts("h2")).andReturn(Collections.singletonList(dataNode2)).anyTimes();
+
+      STOMPUpdatePublisher publisher = injector.getInstance(STOMPUpdatePublisher.class);
+      Capture<STOMPEvent> event = newCapture();
+      publisher.publish(capture(event));
+      expectLastCall().once();
+
+      replay(metaInfo, stackInfo, cluster, clusters, host1, host2, serviceComponent, flumeHandler, dataNode1,
+          dataNode2, publisher);
+
+      Map<Long, Map<String, Collection<String>>> changedConfigs = new HashMap<>();
+      changedConfigs.put(1L, Collections.singletonMap("flume-conf", Collections.singletonList("agent.channels")));
+      changedConfigs.put(2L, Collections.singletonMap("hdfs-site", Collections.singletonList("dfs.replication")));
+      injector.getInstance(ConfigHelper.class).checkStaleConfigsStatusOnConfigsUpdate(cluster, changedConfigs);
+
+      verify(publisher);
+
+      // all changes are published at once; the DataNode on h1 does not depend
+      // on flume-conf, so it is not checked
+      List<HostComponentUpdate> updates = ((HostComponentsUpdateEvent) event.getValue()).getHostComponentUpdates();
+      assertEquals(2, updates.size());
+      assertEquals("h1", updates.get(0).getHostName());
+      assertEquals("FLUME_HANDLER", updates.get(0).getComponentName());
+      assertEquals(Boolean.TRUE, updates.get(0).getStaleConfigs());
+      assertEquals("h2", updates.get(1).getHostName());
+      assertEquals("DATANODE", updates.get(1).getComponentName());
+      assertEquals(Boolean.TRUE, updates.get(1).getStaleConfigs());
+    }
+
+    private ServiceInfo createServiceInfo(String serviceName, String componentName, String configType) {
+      ComponentInfo componentInfo = new ComponentInfo();
+      componentInfo.setName(componentName);
+
+      ServiceInfo serviceInfo = new ServiceInfo();
+      serviceInfo.setName(serviceName);
+      serviceInfo.setConfigDependencies(Collections.singletonList(configType));
+      serviceInfo.getComponents().add(componentInfo);
+      return serviceInfo;
+    }
+
+    private ServiceComponentHost createServiceComponentHost(ServiceComponent serviceComponent, String serviceName,
+                                                            String componentName, String hostName) {
+      ServiceComponentHost sch = createNiceMock(ServiceComponentHost.class);
+      expect(sch.getServiceComponent()).andReturn(serviceComponent).anyTimes();
+      expect(sch.getClusterId()).andReturn(1L).anyTimes();
+      expect(sch.getServiceName()).andReturn(serviceName).anyTimes();
+      expect(sch.getServiceComponentName()).andReturn(componentName).anyTimes();
+      expect(sch.getHostName()).andReturn(hostName).anyTimes();
+      expect(sch.setRestartRequiredWithoutEventPublishing(true)).andReturn(true).anyTimes();
+      return sch;
+    }
   }
 
   public static class RunWithoutModules {
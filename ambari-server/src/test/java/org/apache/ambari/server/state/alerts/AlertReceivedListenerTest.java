@@ -30,10 +30,13 @@ import javax.persistence.EntityManager;
 
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.H2DatabaseCleaner;
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.RootComponent;
 import org.apache.ambari.server.controller.RootService;
+import org.apache.ambari.server.events.AlertDefinitionDeleteEvent;
 import org.apache.ambari.server.events.AlertReceivedEvent;
 import org.apache.ambari.server.events.AlertStateChangeEvent;
+import org.apache.ambari.server.events.HostsRemovedEvent;
 import org.apache.ambari.server.events.listeners.alerts.AlertReceivedListener;
 import org.apache.ambari.server.orm.GuiceJpaInitializer;
 import org.apache.ambari.server.orm.InMemoryDefaultTestModule;
@@ -54,6 +57,8 @@ import org.apache.ambari.server.state.MaintenanceState;
 import org.apache.ambari.server.state.ServiceComponentFactory;
 import org.apache.ambari.server.state.ServiceComponentHostFactory;
 import org.apache.ambari.server.state.ServiceFactory;
+import org.apache.ambari.server.state.alert.AlertDefinition;
+import org.apache.ambari.server.state.alert.AlertDefinitionFactory;
 import org.apache.ambari.server.state.alert.Scope;
 import org.apache.ambari.server.state.alert.SourceType;
 import org.apache.ambari.server.utils.EventBusSynchronizer;
@@ -950,4 +955,89 @@ public class AlertReceivedListenerTest {
 
     assertEquals(1, m_dao.findCurrent().size());
   }
+
+  /**
+   * Tests that repeated OK alerts are discarded during the dedup interval and
+   * that a state change is always processed.
+   */
+  @Test
+  public void testRepeatedOkAlertsAreDiscarded() throws AmbariException {
+    m_injector.getInstance(Configuration.class).setProperty(
+        Configuration.ALERTS_OK_DEDUP_INTERVAL.getKey(), "60");
+
+    String definitionName = ALERT_DEFINITION + "1";
+    Alert alert = new Alert(definitionName, null, "HDFS", "DATANODE", HOST1, AlertState.OK);
+    alert.setClusterId(m_cluster.getClusterId());
+    alert.setLabel(ALERT_LABEL);
+    alert.setText("HDFS DATANODE is OK");
+    alert.setTimestamp(1L);
+
+    AlertReceivedListener listener = m_injector.getInstance(AlertReceivedListener.class);
+    AlertReceivedEvent event = new AlertReceivedEvent(m_cluster.getClusterId(), alert);
+    listener.onAlertEvent(event);
+
+    // the repeated OK alert is not written
+    alert.setTimestamp(2L);
+    listener.onAlertEvent(event);
+    AlertCurrentEntity current = m_dao.findCurrent().get(0);
+    assertEquals(1L, (long) current.getOccurrences());
+    assertEquals(1L, (long) current.getLatestTimestamp());
+
+    // a state change is processed and resets the index
+    alert.setState(AlertState.CRITICAL);
+    alert.setTimestamp(3L);
+    listener.onAlertEvent(event);
+    alert.setState(AlertState.OK);
+    alert.setTimestamp(4L);
+    listener.onAlertEvent(event);
+    current = m_dao.findCurrent().get(0);
+    assertEquals(AlertState.OK, current.getAlertHistory().getAlertState());
+    assertEquals(4L, (long) current.getLatestTimestamp());
+
+    // once the interval passed, the OK alert is written again
+    alert.setTimestamp(60004L);
+    listener.onAlertEvent(event);
+    current = m_dao.findCurrent().get(0);
+    assertEquals(2L, (long) current.getOccurrences());
+    assertEquals(60004L, (long) current.getLatestTimestamp());
+  }
+
+  /**
+   * Tests that the OK alerts of removed hosts and alert definitions are
+   * removed from the dedup index.
+   */
+  @Test
+  public void testOkAlertIndexIsPruned() throws AmbariException {
+    m_injector.getInstance(Configuration.class).setProperty(
+        Configuration.ALERTS_OK_DEDUP_INTERVAL.getKey(), "60");
+
+    String definitionName = ALERT_DEFINITION + "1";
+    Alert alert = new Alert(definitionName, null, "HDFS", "DATANODE", HOST1, AlertState.OK);
+    alert.setClusterId(m_cluster.getClusterId());
+    alert.setLabel(ALERT_LABEL);
+    alert.setText("HDFS DATANODE is OK");
+    alert.setTimestamp(1L);
+
+    AlertReceivedListener listener = m_injector.getInstance(AlertReceivedListener.class);
+    AlertReceivedEvent event = new AlertReceivedEvent(m_cluster.getClusterId(), alert);
+    listener.onAlertEvent(event);
+
+    // once the host is removed, the next OK alert is written
+    listener.onAmbariEvent(new HostsRemovedEvent(Collections.singleton(HOST1), null));
+    alert.setTimestamp(2L);
+    listener.onAlertEvent(event);
+    AlertCurrentEntity current = m_dao.findCurrent().get(0);
+    assertEquals(2L, (long) current.getOccurrences());
+    assertEquals(2L, (long) current.getLatestTimestamp());
+
+    // the same for the removal of the alert definition
+    AlertDefinitionEntity definitionEntity = m_definitionDao.findByName(m_cluster.getClusterId(), definitionName);
+    AlertDefinition definition = m_injector.getInstance(AlertDefinitionFactory.class).coerce(definitionEntity);
+    listener.onAmbariEvent(new AlertDefinitionDeleteEvent(m_cluster.getClusterId(), definition));
+    alert.setTimestamp(3L);
+    listener.onAlertEvent(event);
+    current = m_dao.findCurrent().get(0);
+    assertEquals(3L, (long) current.getOccurrences());
+    assertEquals(3L, (long) current.getLatestTimestamp());
+  }
 }
@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.state.cluster;
+
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ambari.server.AmbariException;
+import org.apache.ambari.server.H2DatabaseCleaner;
+import org.apache.ambari.server.events.listeners.upgrade.HostVersionOutOfSyncListener;
+import org.apache.ambari.server.orm.GuiceJpaInitializer;
+import org.apache.ambari.server.orm.InMemoryDefaultTestModule;
+import org.apache.ambari.server.orm.OrmTestHelper;
+import org.apache.ambari.server.state.Cluster;
+import org.apache.ambari.server.state.Clusters;
+import org.apache.ambari.server.state.Config;
+import org.apache.ambari.server.state.ConfigFactory;
+import org.apache.ambari.server.state.DesiredConfig;
+import org.apache.ambari.server.state.StackId;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Binder;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+/**
+ * Tests that configuration reads of a {@link ClusterImpl} are not blocked by
+ * configuration changes, and measures the read throughput while the desired
+ * configurations are being changed.
+ */
+public class ClusterConfigContentionTest {
+  private static final Logger LOG = LoggerFactory.getLogger(ClusterConfigContentionTest.class);
+
+  private static final String CONFIG_TYPE = "test-type1";
+  private static final int NUMBER_OF_CONFIG_UPDATES = 20;
+  private static final int NUMBER_OF_READER_THREADS = 4;
+
+  @Inject
+  private Injector injector;
+
+  @Inject
+  private Clusters clusters;
+
+  @Inject
+  private ConfigFactory configFactory;
+
+  @Inject
+  private OrmTestHelper helper;
+
+  private StackId stackId = new StackId("HDP-0.1");
+
+  /**
+   * The cluster.
+   */
+  private Cluster cluster;
+
+  @Before
+  public void setup() throws Exception {
+    injector = Guice.createInjector(Modules.override(
+        new InMemoryDefaultTestModule()).with(new MockModule()));
+
+    injector.getInstance(GuiceJpaInitializer.class);
+    injector.injectMembers(this);
+
+    helper.createStack(stackId);
+
+    clusters.addCluster("c1", stackId);
+    cluster = clusters.getCluster("c1");
+
+    Config config = configFactory.createNew(cluster, CONFIG_TYPE, "version0", new HashMap<>(),
+        new HashMap<>());
+
+    cluster.addDesiredConfig("test user", Collections.singleton(config));
+  }
+
+  @After
+  public void teardown() throws AmbariException, SQLException {
+    H2DatabaseCleaner.clearDatabaseAndStopPersistenceService(injector);
+  }
+
+  /**
+   * Tests that configurations can be read while another thread holds the
+   * cluster write lock.
+   *
+   * @throws Exception
+   */
+  @Test(timeout = 60000)
+  public void testReadsDoNotWaitForWriteLock() throws Exception {
+    Field field = ClusterImpl.class.getDeclaredField("clusterGlobalLock");
+    field.setAccessible(true);
+    ReadWriteLock clusterGlobalLock = (ReadWriteLock) field.get(cluster);
+
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      executor.submit(() -> {
+        clusterGlobalLock.writeLock().lock();
+        try {
+          locked.countDown();
+          release.await();
+        } finally {
+          clusterGlobalLock.writeLock().unlock();
+        }
+        return null;
+      });
+
+      locked.await();
+
+      Future<Map<String, DesiredConfig>> future = executor.submit(() -> {
+        Assert.assertNotNull(cluster.getConfig(CONFIG_TYPE, "version0"));
+        Assert.assertEquals(1, cluster.getConfigsByType(CONFIG_TYPE).size());
+        Assert.assertEquals(1, cluster.getAllConfigs().size());
+        return cluster.getDesiredConfigs();
+      });
+
+      Map<String, DesiredConfig> desiredConfigs = future.get(10, TimeUnit.SECONDS);
+      Assert.assertEquals("version0", desiredConfigs.get(CONFIG_TYPE).getTag());
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Reads the desired configurations from several threads while another
+   * thread keeps creating and selecting new configurations. Every read must
+   * resolve the selected tag to a configuration.
+   *
+   * @throws Exception
+   */
+  @Test(timeout = 120000)
+  public void testReadThroughputDuringConfigUpdates() throws Exception {
+    AtomicBoolean done = new AtomicBoolean(false);
+    AtomicLong reads = new AtomicLong();
+
+    List<ConfigReaderThread> readers = new ArrayList<>();
+    for (int i = 0; i < NUMBER_OF_READER_THREADS; i++) {
+      ConfigReaderThread reader = new ConfigReaderThread(cluster, done, reads);
+      readers.add(reader);
+      reader.start();
+    }
+
+    long start = System.nanoTime();
+    try {
+      for (int i = 1; i <= NUMBER_OF_CONFIG_UPDATES; i++) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("key", "value" + i);
+
+        Config config = configFactory.createNew(cluster, CONFIG_TYPE, "version" + i, properties,
+            new HashMap<>());
+
+        cluster.addDesiredConfig("test user", Collections.singleton(config));
+      }
+    } finally {
+      done.set(true);
+    }
+
+    long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+    for (ConfigReaderThread reader : readers) {
+      reader.join();
+      Assert.assertNull(reader.failure);
+    }
+
+    LOG.info("{} desired configuration reads by {} threads during {} configuration updates in {}ms ({} reads/s)",
+        reads.get(), NUMBER_OF_READER_THREADS, NUMBER_OF_CONFIG_UPDATES, elapsedMillis,
+        reads.get() * 1000 / elapsedMillis);
+
+    Assert.assertTrue(reads.get() > 0);
+    Assert.assertEquals("version" + NUMBER_OF_CONFIG_UPDATES,
+        cluster.getDesiredConfigs().get(CONFIG_TYPE).getTag());
+  }
+
+  private static final class ConfigReaderThread extends Thread {
+    private final Cluster cluster;
+    private final AtomicBoolean done;
+    private final AtomicLong reads;
+    private volatile Throwable failure;
+
+    private ConfigReaderThread(Cluster cluster, AtomicBoolean done, AtomicLong reads) {
+      this.cluster = cluster;
+      this.done = done;
+      this.reads = reads;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      try {
+        while (!done.get()) {
+          DesiredConfig desiredConfig = cluster.getDesiredConfigs().get(CONFIG_TYPE);
+          if (null == desiredConfig) {
+            throw new AssertionError("No desired configuration for " + CONFIG_TYPE);
+          }
+
+          if (null == cluster.getConfig(CONFIG_TYPE, desiredConfig.getTag())) {
+            throw new AssertionError("No configuration for tag " + desiredConfig.getTag());
+          }
+
+          reads.incrementAndGet();
+        }
+      } catch (Throwable throwable) {
+        failure = throwable;
+      }
+    }
+  }
+
+  /**
+  *
+  */
+  private class MockModule implements Module {
+    /**
+    *
+    */
+    @Override
+    public void configure(Binder binder) {
+      // this listener gets in the way of actually testing the concurrency
+      // between the threads; it slows them down too much, so mock it out
+      binder.bind(HostVersionOutOfSyncListener.class).toInstance(
+          EasyMock.createNiceMock(HostVersionOutOfSyncListener.class));
+    }
+  }
+}
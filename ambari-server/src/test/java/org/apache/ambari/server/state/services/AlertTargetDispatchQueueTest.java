@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.state.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ambari.server.metrics.system.impl.ServerComponentsMetricsSource;
+import org.apache.ambari.server.notifications.DispatchCallback;
+import org.apache.ambari.server.notifications.MockDispatcher;
+import org.apache.ambari.server.notifications.Notification;
+import org.apache.ambari.server.orm.entities.AlertTargetEntity;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Tests the {@link AlertTargetDispatchQueue}.
+ */
+public class AlertTargetDispatchQueueTest {
+
+  @Test
+  public void testConcurrencyLimit() {
+    AlertTargetDispatchQueue queue = new AlertTargetDispatchQueue(createTarget(), 10, 1, 0, null);
+    RecordingDispatcher dispatcher = new RecordingDispatcher();
+    List<Runnable> tasks = new ArrayList<>();
+
+    queue.submit(dispatcher, createNotification("1"), tasks::add);
+    queue.submit(dispatcher, createNotification("2"), tasks::add);
+    queue.submit(dispatcher, createNotification("3"), tasks::add);
+
+    // only one thread works on the queue at a time
+    Assert.assertEquals(1, tasks.size());
+    Assert.assertEquals(3, queue.size());
+    Assert.assertEquals(7, queue.getRemainingCapacity());
+
+    tasks.get(0).run();
+    Assert.assertEquals(0, queue.size());
+    Assert.assertEquals(3, dispatcher.m_dispatched.size());
+    Assert.assertEquals("1", dispatcher.m_dispatched.get(0).CallbackIds.get(0));
+
+    // the queue is idle again, so the next notification starts a new task
+    queue.submit(dispatcher, createNotification("4"), tasks::add);
+    Assert.assertEquals(2, tasks.size());
+  }
+
+  @Test
+  public void testFailedDispatch() {
+    AlertTargetDispatchQueue queue = new AlertTargetDispatchQueue(createTarget(), 10, 1, 0, null);
+    RecordingCallback callback = new RecordingCallback();
+    Notification notification = createNotification("1");
+    notification.Callback = callback;
+
+    queue.submit(new MockDispatcher() {
+      @Override
+      public void dispatch(Notification notification) {
+        throw new IllegalStateException("unreachable");
+      }
+    }, notification, Runnable::run);
+
+    Assert.assertEquals(Collections.singletonList("1"), callback.m_failed);
+    Assert.assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testRateLimitDoesNotBlock() {
+    ScheduledExecutorService scheduler = EasyMock.createMock(ScheduledExecutorService.class);
+    Capture<Runnable> resume = EasyMock.newCapture();
+    EasyMock.expect(scheduler.schedule(EasyMock.capture(resume), EasyMock.eq(60000L),
+        EasyMock.eq(TimeUnit.MILLISECONDS))).andReturn(null);
+    EasyMock.replay(scheduler);
+
+    AlertTargetDispatchQueue queue = new AlertTargetDispatchQueue(createTarget(), 10, 1, 1, scheduler);
+    RecordingDispatcher dispatcher = new RecordingDispatcher();
+    List<Runnable> tasks = new ArrayList<>();
+
+    queue.submit(dispatcher, createNotification("1"), tasks::add);
+    queue.submit(dispatcher, createNotification("2"), tasks::add);
+    tasks.get(0).run();
+
+    // the second notification waits for the next permit without a thread
+    EasyMock.verify(scheduler);
+    Assert.assertEquals(1, dispatcher.m_dispatched.size());
+    Assert.assertEquals(1, queue.size());
+
+    // the queue is still active, so a new notification does not start a task
+    queue.submit(dispatcher, createNotification("3"), tasks::add);
+    Assert.assertEquals(1, tasks.size());
+
+    // once the permit is due, dispatching resumes on the executor
+    resume.getValue().run();
+    Assert.assertEquals(2, tasks.size());
+  }
+
+  @Test
+  public void testRemoveMetrics() {
+    AlertTargetDispatchQueue queue = new AlertTargetDispatchQueue(createTarget(), 10, 1, 0, null);
+    MetricRegistry registry = ServerComponentsMetricsSource.getRegistry();
+    Assert.assertTrue(registry.getGauges().containsKey("alerts.dispatch.target.1.pending"));
+
+    queue.removeMetrics();
+    for (String name : registry.getNames()) {
+      Assert.assertFalse(name, name.startsWith("alerts.dispatch.target.1."));
+    }
+  }
+
+  private static AlertTargetEntity createTarget() {
+    AlertTargetEntity target = new AlertTargetEntity();
+    target.setTargetId(1L);
+    target.setTargetName("Alert Target");
+    return target;
+  }
+
+  private static Notification createNotification(String callbackId) {
+    Notification notification = new Notification();
+    notification.CallbackIds = Collections.singletonList(callbackId);
+    return notification;
+  }
+
+  private static final class RecordingDispatcher extends MockDispatcher {
+    private final List<Notification> m_dispatched = new ArrayList<>();
+
+    @Override
+    public void dispatch(Notification notification) {
+      m_dispatched.add(notification);
+    }
+  }
+
+  private static final class RecordingCallback implements DispatchCallback {
+    private final List<String> m_failed = new ArrayList<>();
+
+    @Override
+    public void onSuccess(List<String> callbackIds) {
+    }
+
+    @Override
+    public void onFailure(List<String> callbackIds) {
+      m_failed.addAll(callbackIds);
+    }
+  }
+}
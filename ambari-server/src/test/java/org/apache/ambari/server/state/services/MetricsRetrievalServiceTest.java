@@ -19,6 +19,7 @@ package org.apache.ambari.server.state.services;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -28,6 +29,8 @@ import javax.persistence.EntityManager;
 import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.jmx.JMXMetricHolder;
 import org.apache.ambari.server.controller.utilities.StreamProvider;
+import org.apache.ambari.server.metrics.system.SingleMetric;
+import org.apache.ambari.server.metrics.system.impl.ServerComponentsMetricsSource;
 import org.apache.ambari.server.orm.DBAccessor;
 import org.apache.ambari.server.state.Cluster;
 import org.apache.ambari.server.state.Clusters;
@@ -132,6 +135,44 @@ public class MetricsRetrievalServiceTest extends EasyMockSupport {
     verifyAll();
   }
 
+  /**
+   * Tests that the age of the cached metrics returned to callers is published
+   * with the server components metrics.
+   */
+  @Test
+  public void testCachedMetricAgeIsPublished() throws Exception {
+    InputStream restInputStream = IOUtils.toInputStream("{}");
+
+    StreamProvider streamProvider = createNiceMock(StreamProvider.class);
+    EasyMock.expect(streamProvider.readFrom(REST_URL)).andReturn(restInputStream).once();
+
+    replayAll();
+
+    m_service.startAsync();
+    m_service.awaitRunning(METRICS_SERVICE_TIMEOUT, TimeUnit.SECONDS);
+
+    // make the service synchronous
+    m_service.setThreadPoolExecutor(new SynchronousThreadPoolExecutor());
+
+    long count = ServerComponentsMetricsSource.getRegistry().timer(
+        MetricsRetrievalService.CACHED_METRIC_AGE_METRIC).getCount();
+
+    m_service.submitRequest(MetricSourceType.REST, streamProvider, REST_URL);
+    Assert.assertNotNull(m_service.getCachedRESTMetric(REST_URL));
+
+    Double published = null;
+    for (SingleMetric metric : new ServerComponentsMetricsSource().getMetrics()) {
+      if (metric.getMetricName().equals(MetricsRetrievalService.CACHED_METRIC_AGE_METRIC + ".count")) {
+        published = metric.getValue();
+      }
+    }
+
+    Assert.assertNotNull(published);
+    Assert.assertEquals(count + 1, published.longValue());
+
+    verifyAll();
+  }
+
   /**
    * Test removing cached values if request failed with IOException.
    */
@@ -231,6 +272,62 @@ public class MetricsRetrievalServiceTest extends EasyMockSupport {
     Assert.assertNotNull(jmxMetricHolder);
   }
 
+  /**
+   * Tests that only the requested JMX attributes are cached and that
+   * requesting additional attributes refreshes the endpoint within the TTL.
+   */
+  @Test
+  public void testJMXAttributeFiltering() throws Exception {
+    String json = "{ \"beans\": [ " +
+        " {\n" +
+        "    \"name\" : \"Hadoop:service=NameNode,name=FSNamesystem\",\n" +
+        "    \"tag.port\" : \"8020\",\n" +
+        "    \"CapacityUsed\" : 10,\n" +
+        "    \"LiveNodes\" : { \"host1\" : { \"usedSpace\" : 1 } }\n" +
+        " }, {\n" +
+        "    \"name\" : \"java.lang:type=Runtime\",\n" +
+        "    \"StartTime\" : 100\n" +
+        " }] " +
+        "}";
+
+    StreamProvider streamProvider = createStrictMock(StreamProvider.class);
+    EasyMock.expect(streamProvider.readFrom(JMX_URL)).andReturn(IOUtils.toInputStream(json)).once();
+    EasyMock.expect(streamProvider.readFrom(JMX_URL)).andReturn(IOUtils.toInputStream(json)).once();
+
+    replayAll();
+
+    m_service.startAsync();
+    m_service.awaitRunning(METRICS_SERVICE_TIMEOUT, TimeUnit.SECONDS);
+
+    // make the service synchronous
+    m_service.setThreadPoolExecutor(new SynchronousThreadPoolExecutor());
+
+    m_service.submitRequest(MetricSourceType.JMX, streamProvider, JMX_URL,
+        Collections.singleton("CapacityUsed"));
+
+    JMXMetricHolder jmxMetricHolder = m_service.getCachedJMXMetric(JMX_URL);
+    Assert.assertEquals(1, jmxMetricHolder.getBeans().size());
+
+    Map<String, Object> bean = jmxMetricHolder.getBeans().get(0);
+    Assert.assertEquals(3, bean.size());
+    Assert.assertEquals(10, bean.get("CapacityUsed"));
+    Assert.assertEquals("8020", bean.get("tag.port"));
+    Assert.assertFalse(bean.containsKey("LiveNodes"));
+
+    // already cached attributes do not cause another request
+    m_service.submitRequest(MetricSourceType.JMX, streamProvider, JMX_URL,
+        Collections.singleton("CapacityUsed"));
+
+    m_service.submitRequest(MetricSourceType.JMX, streamProvider, JMX_URL,
+        Collections.singleton("StartTime"));
+
+    jmxMetricHolder = m_service.getCachedJMXMetric(JMX_URL);
+    Assert.assertEquals(2, jmxMetricHolder.getBeans().size());
+    Assert.assertEquals(100, jmxMetricHolder.getBeans().get(1).get("StartTime"));
+
+    verifyAll();
+  }
+
   /**
    * Tests that many requests to the same URL do not invoke the stream provider
    * more than once.